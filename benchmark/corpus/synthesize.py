@@ -0,0 +1,91 @@
+"""Synthesizes the speech files of the golden corpus from their reference transcripts.
+
+Usage (from the repository root, needs espeak-ng on PATH):
+    python benchmark/corpus/synthesize.py [--force]
+
+Every "<id>.txt" listed in SPEECH is read aloud by espeak-ng with a fixed voice and speed, then resampled
+to 16 kHz mono 16-bit PCM, the format of the rest of the corpus. The output only depends on the text and on
+the espeak-ng version, which is printed; regenerate all files together when it changes, since comparisons
+with reports made from other audio are not meaningful.
+"""
+import math
+import os
+import subprocess
+import sys
+import tempfile
+import wave
+
+CORPUS_DIR = os.path.dirname(os.path.abspath(__file__))
+TARGET_RATE = 16000
+WORDS_PER_MINUTE = 150
+
+# id -> espeak-ng voice
+SPEECH = {
+    "en-short": "en-us",
+    "en-medium": "en-us",
+    "en-long": "en-us",
+    "ro-short": "ro",
+    "ro-medium": "ro",
+}
+
+def espeak_version():
+    result = subprocess.run(["espeak-ng", "--version"], capture_output=True, text=True, check=True)
+    return result.stdout.strip()
+
+def speak(text, voice, path):
+    subprocess.run(["espeak-ng", "-v", voice, "-s", str(WORDS_PER_MINUTE), "-w", path, text], check=True)
+
+def read_mono16(path):
+    with wave.open(path, "rb") as source:
+        if source.getnchannels() != 1 or source.getsampwidth() != 2:
+            raise ValueError(f"{path}: expected mono 16-bit PCM from espeak-ng")
+        frames = source.readframes(source.getnframes())
+        return source.getframerate(), [int.from_bytes(frames[i:i + 2], "little", signed=True)
+                                       for i in range(0, len(frames), 2)]
+
+def resample(samples, rate, target_rate, taps=32):
+    """Windowed-sinc resampling; the cutoff sits just below the lower Nyquist frequency to avoid aliasing."""
+    if rate == target_rate:
+        return samples
+    ratio = rate / target_rate
+    cutoff = 0.95 * min(1.0, target_rate / rate)
+    out = []
+    for n in range(int(len(samples) / ratio)):
+        center = n * ratio
+        first = int(math.floor(center)) - taps + 1
+        acc = 0.0
+        for k in range(first, first + 2 * taps):
+            if 0 <= k < len(samples):
+                x = k - center
+                window = 0.5 + 0.5 * math.cos(math.pi * x / taps) if abs(x) < taps else 0.0
+                acc += samples[k] * cutoff * (math.sin(math.pi * cutoff * x) / (math.pi * cutoff * x) if x else 1.0) * window
+        out.append(max(-32768, min(32767, int(round(acc)))))
+    return out
+
+def write_mono16(path, samples, rate):
+    with wave.open(path, "wb") as target:
+        target.setnchannels(1)
+        target.setsampwidth(2)
+        target.setframerate(rate)
+        target.writeframes(b"".join(s.to_bytes(2, "little", signed=True) for s in samples))
+
+def main():
+    force = "--force" in sys.argv[1:]
+    print(f"Synthesizing with {espeak_version()}", file=sys.stderr)
+    for entry_id, voice in SPEECH.items():
+        target = os.path.join(CORPUS_DIR, entry_id + ".wav")
+        if os.path.exists(target) and not force:
+            print(f"{entry_id}: {target} exists, skipped (use --force to regenerate)", file=sys.stderr)
+            continue
+        with open(os.path.join(CORPUS_DIR, entry_id + ".txt"), encoding="utf-8") as reference:
+            text = reference.read().strip()
+        with tempfile.TemporaryDirectory() as tmp:
+            raw = os.path.join(tmp, "raw.wav")
+            speak(text, voice, raw)
+            rate, samples = read_mono16(raw)
+        samples = resample(samples, rate, TARGET_RATE)
+        write_mono16(target, samples, TARGET_RATE)
+        print(f"{entry_id}: {len(samples) / TARGET_RATE:.1f} s written to {target}", file=sys.stderr)
+
+if __name__ == "__main__":
+    main()
@@ -68,10 +68,76 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// Transcription benchmark over the golden corpus in benchmark/corpus; its speech files are generated once with
+// "python benchmark/corpus/synthesize.py" (needs espeak-ng).
+// Extra options can be passed with -PbenchmarkArgs="--repeats=5 --engine=whisper:base:int8".
+tasks.register<JavaExec>("benchmarkTranscription") {
+    group = "verification"
+    description = "Runs the transcription engines over the golden audio corpus and writes a JSON report."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainModule.set("org.stefanapetri.licenta")
+    mainClass.set("org.stefanapetri.licenta.benchmark.TranscriptionBenchmark")
+    workingDir = projectDir
+    args("--corpus=benchmark/corpus")
+    (project.findProperty("benchmarkArgs") as String?)?.let { extra ->
+        args(extra.trim().split(Regex("\\s+")))
+    }
+}
+
+// Startup benchmark: launches the jlink image repeatedly (headless under xvfb-run on Linux) and reports time to
+// first frame and to an active system monitor, with and without the AppCDS archive.
+// Extra options can be passed with -PstartupBenchmarkArgs="--runs=20 --variant=appcds".
+tasks.register<JavaExec>("benchmarkStartup") {
+    group = "verification"
+    description = "Measures cold start of the jlink image with and without class-data sharing and writes a JSON report."
+    dependsOn("cdsArchive")
+    classpath = sourceSets["main"].runtimeClasspath
+    mainModule.set("org.stefanapetri.licenta")
+    mainClass.set("org.stefanapetri.licenta.benchmark.StartupBenchmark")
+    workingDir = projectDir
+    args("--image=" + layout.buildDirectory.dir("image").get().asFile)
+    (project.findProperty("startupBenchmarkArgs") as String?)?.let { extra ->
+        args(extra.trim().split(Regex("\\s+")))
+    }
+}
+
 jlink {
     imageZip.set(layout.buildDirectory.file("/distributions/app-${javafx.platform.classifier}.zip"))
-    options.set(listOf("--strip-debug", "--compress", "2", "--no-header-files", "--no-man-pages"))
+    // --generate-cds-archive gives the image its own base archive, which the dynamic app archive builds on.
+    options.set(listOf("--strip-debug", "--compress", "2", "--no-header-files", "--no-man-pages", "--generate-cds-archive"))
     launcher {
         name = "app"
+        // -Xshare:auto falls back to normal class loading if lib/app.jsa is missing or was made by another JVM.
+        jvmArgs = listOf("--enable-native-access=ALL-UNNAMED", "-XX:SharedArchiveFile={{BIN_DIR}}/../lib/app.jsa", "-Xshare:auto")
     }
 }
+
+// AppCDS: a training run of the image (start, bind data, first monitor scan, then exit) records the loaded
+// JavaFX, commonmark, JNA and pgjdbc classes into lib/app.jsa, which the launcher maps at the next start.
+tasks.register<Exec>("cdsArchive") {
+    group = "build"
+    description = "Creates the AppCDS archive of the jlink image from a scripted training run."
+    dependsOn("jlink")
+    // The run exits by itself once startup is done; a hang (e.g. a dialog waiting for input) must not stall packaging.
+    timeout.set(java.time.Duration.ofMinutes(3))
+    val image = layout.buildDirectory.dir("image").get().asFile
+    val archive = image.resolve("lib/app.jsa")
+    val os = System.getProperty("os.name").lowercase()
+    val java = image.resolve(if (os.contains("win")) "bin/java.exe" else "bin/java")
+    val headless = os.contains("linux") && System.getenv("DISPLAY").isNullOrBlank()
+    outputs.file(archive)
+    doFirst { archive.delete() }
+    commandLine(
+        (if (headless) listOf("xvfb-run", "--auto-servernum") else emptyList()) + listOf(
+            java.path,
+            "-XX:ArchiveClassesAtExit=${archive.path}",
+            "--enable-native-access=ALL-UNNAMED",
+            "-Dtracker.startup.exitAfter=true",
+            "-m", "org.stefanapetri.licenta/org.stefanapetri.licenta.MainApplication"
+        )
+    )
+}
+
+tasks.named("jlinkZip") {
+    dependsOn("cdsArchive")
+}
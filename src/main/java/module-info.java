@@ -11,6 +11,8 @@ module org.stefanapetri.licenta {
     requires java.sql;
     requires java.prefs;
     requires java.desktop;
+    requires java.net.http; // LLM post-processing (Gemini REST API)
+    requires jdk.jfr; // custom Flight Recorder events and tray-controlled recordings
     requires org.commonmark; // <--- NEW: For the Markdown parser
 
     opens org.stefanapetri.licenta to javafx.fxml;
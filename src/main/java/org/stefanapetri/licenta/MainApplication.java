@@ -7,25 +7,59 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 import org.stefanapetri.licenta.controller.MainController;
 import org.stefanapetri.licenta.model.DatabaseManager;
+import org.stefanapetri.licenta.service.FlightRecording;
+import org.stefanapetri.licenta.service.LlmPostProcessor;
+import org.stefanapetri.licenta.service.Log;
+import org.stefanapetri.licenta.service.Logger;
 import org.stefanapetri.licenta.service.PythonBridge;
+import org.stefanapetri.licenta.service.RollingFileAppender;
+import org.stefanapetri.licenta.service.StartupTimings;
 import org.stefanapetri.licenta.service.SystemMonitor;
+import org.stefanapetri.licenta.service.TranscriptionCache;
+import org.stefanapetri.licenta.view.DialogHelper;
+import org.stefanapetri.licenta.view.MarkdownConverter;
 
 import java.awt.*;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.net.URL;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javafx.scene.image.Image;
 
 public class MainApplication extends Application {
 
+    private static final Logger log = Log.get(MainApplication.class);
+
     private SystemMonitor systemMonitor;
     private Stage primaryStage;
     private TrayIcon trayIcon;
 
     public static Image applicationIcon;
+    private static StartupTimings startupTimings;
+
+    // Set by the startup benchmark and the CDS training run: print the timings and exit once startup is done.
+    private static final boolean EXIT_AFTER_STARTUP = Boolean.getBoolean("tracker.startup.exitAfter");
+    // Captured before ConsoleManager redirects System.out into the log; the benchmark reads the report from here.
+    private static final PrintStream STARTUP_REPORT_OUT = System.out;
+    private static final String FLIGHT_RECORDING_START = "Start Flight Recording";
+    private static final String FLIGHT_RECORDING_STOP = "Stop Flight Recording";
 
     @Override
     public void start(Stage stage) throws IOException {
         primaryStage = stage;
+        startupTimings = new StartupTimings();
+
+        // The log file is attached first so that everything from here on survives a restart.
+        startupTimings.measure("log file", () -> {
+            RollingFileAppender fileLog = RollingFileAppender.openDefault();
+            if (fileLog != null) {
+                Log.addSubscriber(fileLog);
+            }
+        });
 
         Platform.setImplicitExit(false);
 
@@ -38,12 +72,87 @@ public class MainApplication extends Application {
             applicationIcon = null;
         }
 
+        // --- Services: constructing them is cheap; their slow setup runs in the background below ---
         DatabaseManager dbManager = new DatabaseManager();
+        // Memos are rendered to HTML once when saved, so showing them needs no Markdown parsing.
+        dbManager.setHtmlRenderer(MarkdownConverter.memoRenderer());
         systemMonitor = new SystemMonitor();
-        PythonBridge pythonBridge = new PythonBridge();
+        // One cache instance is shared by both pipeline stages (Whisper text and LLM answers).
+        TranscriptionCache transcriptionCache = TranscriptionCache.openDefault();
+        PythonBridge pythonBridge = new PythonBridge(transcriptionCache);
+        LlmPostProcessor llmPostProcessor = new LlmPostProcessor(transcriptionCache);
+
+        // --- Background phases, started before the window is built so they overlap with it ---
+        ExecutorService startupExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "Startup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<Void> database = startupTimings.runAsync("database", () -> {
+            try {
+                dbManager.initializeDatabase();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, startupExecutor);
+        CompletableFuture<Void> cacheIndex = startupTimings.runAsync("transcription cache", () -> {
+            if (transcriptionCache != null) transcriptionCache.loadIndex();
+        }, startupExecutor);
+        long monitorStart = System.nanoTime();
+        CompletableFuture<Void> monitor = systemMonitor.start()
+                .whenComplete((ignored, ex) -> startupTimings.recordSince("system monitor (first scan)", monitorStart, ex != null));
+
+        // --- Window: shown as soon as it is built, with a loading state until the data is bound ---
+        MainController mainController = new MainController(dbManager, systemMonitor, pythonBridge, llmPostProcessor);
+        long windowStart = System.nanoTime();
+        Scene scene = loadMainWindow(mainController);
+        startupTimings.recordSince("main window", windowStart, false);
+
+        primaryStage.setTitle("Application Activity Tracker");
+        primaryStage.setScene(scene);
+
+        primaryStage.setOnCloseRequest(event -> {
+            event.consume();
+            hideStage();
+        });
+
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                startupTimings.mark("first frame");
+                scene.removePostLayoutPulseListener(this);
+            }
+        });
+        primaryStage.show();
+
+        // The tray is AWT; it is created on the AWT event thread instead of delaying the first frame.
+        CompletableFuture<Void> tray = startupTimings.runAsync("tray icon", this::createTrayIcon, EventQueue::invokeLater);
+
+        CompletableFuture<Void> dataBound = database.handleAsync((ignored, ex) -> {
+            if (ex == null) {
+                startupTimings.measure("bind data", mainController::onDatabaseReady);
+            } else {
+                mainController.onDatabaseUnavailable(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            }
+            return null;
+        }, Platform::runLater);
 
-        MainController mainController = new MainController(dbManager, systemMonitor, pythonBridge);
+        // Reminder, recording and result dialogs are built while the app idles, so they open without delay.
+        DialogHelper.prewarmDialogs();
 
+        CompletableFuture.allOf(dataBound, cacheIndex, tray, monitor.exceptionally(ex -> null))
+                .whenComplete((ignored, ex) -> {
+                    startupExecutor.shutdown();
+                    startupTimings.logReport();
+                    if (EXIT_AFTER_STARTUP) {
+                        STARTUP_REPORT_OUT.print(startupTimings.machineReport());
+                        STARTUP_REPORT_OUT.flush();
+                        Platform.runLater(this::exitApplication);
+                    }
+                });
+    }
+
+    private Scene loadMainWindow(MainController mainController) throws IOException {
         FXMLLoader fxmlLoader = new FXMLLoader(MainApplication.class.getResource("MainWindow.fxml"));
         fxmlLoader.setControllerFactory(param -> mainController);
 
@@ -53,18 +162,17 @@ public class MainApplication extends Application {
         // Apply the stylesheet to the scene
         String css = this.getClass().getResource("style.css").toExternalForm();
         scene.getStylesheets().add(css);
+        return scene;
+    }
 
-        primaryStage.setTitle("Application Activity Tracker");
-        primaryStage.setScene(scene);
-
-        primaryStage.setOnCloseRequest(event -> {
-            event.consume();
-            hideStage();
-        });
+    /** Per-phase timings of this run's startup. */
+    public static StartupTimings getStartupTimings() {
+        return startupTimings;
+    }
 
-        createTrayIcon();
-        primaryStage.show();
-        systemMonitor.start();
+    /** True in the startup benchmark and the CDS training run, which must never wait for user input. */
+    public static boolean exitsAfterStartup() {
+        return EXIT_AFTER_STARTUP;
     }
 
     private void createTrayIcon() {
@@ -92,19 +200,13 @@ public class MainApplication extends Application {
         PopupMenu popup = new PopupMenu();
         MenuItem showItem = new MenuItem("Show Window");
         showItem.addActionListener(e -> Platform.runLater(this::showStage));
+        MenuItem flightRecordingItem = new MenuItem(FLIGHT_RECORDING_START);
+        flightRecordingItem.addActionListener(e -> toggleFlightRecording(flightRecordingItem));
         MenuItem exitItem = new MenuItem("Exit");
-        exitItem.addActionListener(e -> {
-            if (systemMonitor != null) {
-                systemMonitor.stop();
-            }
-            if (trayIcon != null) {
-                tray.remove(trayIcon);
-            }
-            Platform.exit();
-            System.exit(0);
-        });
+        exitItem.addActionListener(e -> exitApplication());
 
         popup.add(showItem);
+        popup.add(flightRecordingItem);
         popup.addSeparator();
         popup.add(exitItem);
 
@@ -119,6 +221,36 @@ public class MainApplication extends Application {
         }
     }
 
+    /** Starts or stops a JFR recording for diagnosing field issues; runs on the AWT event thread. */
+    private void toggleFlightRecording(MenuItem item) {
+        if (FlightRecording.isRecording()) {
+            FlightRecording.stop().ifPresent(file -> trayIcon.displayMessage("Flight recording saved",
+                    file.toString(), TrayIcon.MessageType.INFO));
+            item.setLabel(FLIGHT_RECORDING_START);
+            return;
+        }
+        try {
+            FlightRecording.start();
+            item.setLabel(FLIGHT_RECORDING_STOP);
+            trayIcon.displayMessage("Flight recording started",
+                    "Reproduce the problem, then choose \"" + FLIGHT_RECORDING_STOP + "\".", TrayIcon.MessageType.INFO);
+        } catch (IOException | RuntimeException e) {
+            log.error("Flight recording could not be started: " + e.getMessage(), e);
+            trayIcon.displayMessage("Flight recording failed", e.getMessage(), TrayIcon.MessageType.ERROR);
+        }
+    }
+
+    private void exitApplication() {
+        if (systemMonitor != null) {
+            systemMonitor.stop();
+        }
+        if (trayIcon != null) {
+            SystemTray.getSystemTray().remove(trayIcon);
+        }
+        Platform.exit();
+        System.exit(0);
+    }
+
     private void showStage() {
         if (primaryStage != null) {
             primaryStage.show();
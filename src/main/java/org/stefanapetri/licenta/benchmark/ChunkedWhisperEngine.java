@@ -0,0 +1,39 @@
+package org.stefanapetri.licenta.benchmark;
+
+import org.stefanapetri.licenta.service.PythonBridge;
+
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * The production chunk-parallel pipeline: the file is split at pauses and every chunk gets its own Whisper process.
+ * Each chunk loads the model again, so only a comparison with {@link #singlePass()} on the same file shows the gain.
+ */
+public class ChunkedWhisperEngine implements TranscriptionEngine {
+
+    private final PythonBridge bridge = new PythonBridge();
+    private final String model;
+    private final String computeType;
+    private final double targetChunkSeconds;
+
+    public ChunkedWhisperEngine(String model, String computeType, double targetChunkSeconds) {
+        this.model = model;
+        this.computeType = computeType;
+        this.targetChunkSeconds = targetChunkSeconds;
+    }
+
+    @Override
+    public String name() {
+        return String.format(Locale.ROOT, "whisper-%s-%s-chunked-%.0fs", model, computeType, targetChunkSeconds);
+    }
+
+    /** The single-pass engine with the same settings, which the speedup is measured against. */
+    public PythonWhisperEngine singlePass() {
+        return new PythonWhisperEngine(model, computeType);
+    }
+
+    @Override
+    public String transcribe(String audioFilePath, Consumer<Process> onStart) throws Exception {
+        return bridge.transcribeChunkedUncached(audioFilePath, model, computeType, targetChunkSeconds, onStart);
+    }
+}
@@ -0,0 +1,55 @@
+package org.stefanapetri.licenta.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * An alternative engine driven by an arbitrary command line (e.g. a whisper.cpp build).
+ * The template is split on spaces and every "{audio}" token is replaced by the file path;
+ * the command must print the transcription on stdout.
+ */
+public class CommandLineEngine implements TranscriptionEngine {
+
+    private final String name;
+    private final String commandTemplate;
+
+    public CommandLineEngine(String name, String commandTemplate) {
+        this.name = name;
+        this.commandTemplate = commandTemplate;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public String transcribe(String audioFilePath, Consumer<Process> onStart) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        for (String token : commandTemplate.trim().split("\\s+")) {
+            command.add(token.replace("{audio}", audioFilePath));
+        }
+        Process process = new ProcessBuilder(command).start();
+        onStart.accept(process);
+
+        // Drain stderr on the side so a chatty engine cannot block on a full pipe.
+        CompletableFuture<byte[]> stderr = CompletableFuture.supplyAsync(() -> readAll(process.getErrorStream()));
+        String output = new String(readAll(process.getInputStream()), StandardCharsets.UTF_8).strip();
+        int exitCode = process.waitFor();
+        stderr.join();
+        return exitCode == 0 ? output : null;
+    }
+
+    private static byte[] readAll(InputStream in) {
+        try (in) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+}
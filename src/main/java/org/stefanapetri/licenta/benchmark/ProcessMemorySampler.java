@@ -0,0 +1,76 @@
+package org.stefanapetri.licenta.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the peak resident set size of child processes and their descendants. Processes running at the same
+ * time (the chunks of a chunked run) are summed, since they compete for the same memory.
+ * On Linux it polls VmHWM / VmRSS from /proc; on other platforms the peak is reported as unknown (-1).
+ */
+class ProcessMemorySampler implements AutoCloseable {
+
+    private static final long POLL_MILLIS = 50;
+    private static final boolean PROC_AVAILABLE = Files.isDirectory(Path.of("/proc/self"));
+
+    private final AtomicLong peakKb = new AtomicLong(-1);
+    private final Set<Process> processes = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+    private Thread thread;
+
+    /** Starts sampling a process; may be called from several threads. */
+    synchronized void watch(Process process) {
+        if (!PROC_AVAILABLE) return;
+        processes.add(process);
+        if (thread != null) return;
+        thread = new Thread(() -> {
+            while (running) {
+                processes.removeIf(p -> !p.isAlive());
+                long total = 0;
+                for (Process p : processes) {
+                    total += readKb(p.pid(), "VmHWM:");
+                    total += p.descendants().mapToLong(child -> readKb(child.pid(), "VmRSS:")).sum();
+                }
+                if (!processes.isEmpty()) peakKb.accumulateAndGet(total, Math::max);
+                try {
+                    Thread.sleep(POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "BenchmarkRssSampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** @return The highest observed RSS in kilobytes, or -1 if it could not be measured. */
+    long peakKb() {
+        return peakKb.get();
+    }
+
+    @Override
+    public synchronized void close() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(1000);
+        }
+    }
+
+    private static long readKb(long pid, String field) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith(field)) {
+                    return Long.parseLong(line.substring(field.length()).trim().split("\\s+")[0]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The process exited between the liveness check and the read.
+        }
+        return 0;
+    }
+}
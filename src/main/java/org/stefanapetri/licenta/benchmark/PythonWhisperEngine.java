@@ -0,0 +1,30 @@
+package org.stefanapetri.licenta.benchmark;
+
+import org.stefanapetri.licenta.service.PythonBridge;
+
+import java.util.function.Consumer;
+
+/**
+ * The production engine: faster-whisper through {@link PythonBridge}, with a given model size and compute type.
+ */
+public class PythonWhisperEngine implements TranscriptionEngine {
+
+    private final PythonBridge bridge = new PythonBridge();
+    private final String model;
+    private final String computeType;
+
+    public PythonWhisperEngine(String model, String computeType) {
+        this.model = model;
+        this.computeType = computeType;
+    }
+
+    @Override
+    public String name() {
+        return "whisper-" + model + "-" + computeType;
+    }
+
+    @Override
+    public String transcribe(String audioFilePath, Consumer<Process> onStart) throws Exception {
+        return bridge.transcribeRawUncached(audioFilePath, model, computeType, onStart);
+    }
+}
@@ -0,0 +1,283 @@
+package org.stefanapetri.licenta.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToLongFunction;
+
+/**
+ * Launches the application from the jlink image several times and measures cold start: time to the first
+ * frame and time until the system monitor is active, each from process start. The app is started with
+ * {@code -Dtracker.startup.exitAfter=true}, prints its startup phases and exits; nothing is left running.
+ * Each variant uses a different class-data sharing setup, so the gain of the AppCDS archive stays visible.
+ * On Linux without a display the app is run under {@code xvfb-run}.
+ * <p>
+ * "Monitor active" is the end of the monitor's first tick. Off Windows the native libraries cannot load and
+ * that tick ends with the monitor disabled; it is still timed (thread start plus the failed JNA load), and
+ * the run is reported with {@code "monitorNative": false} instead of counting as failed.
+ * <p>
+ * Usage (see the {@code benchmarkStartup} Gradle task):
+ * <pre>
+ *   --image=build/image                 jlink image to launch
+ *   --output=build/benchmarks/x.json    report path (default: timestamped file in build/benchmarks)
+ *   --runs=10                           measured launches per variant
+ *   --warmup=1                          launches per variant that are not measured (fills the OS file cache)
+ *   --variant=appcds                    repeatable; appcds (image archive), default (JDK archive only), off
+ *   --timeout=60                        seconds before a launch counts as failed
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final int SCHEMA_VERSION = 1;
+    private static final String MAIN = "org.stefanapetri.licenta/org.stefanapetri.licenta.MainApplication";
+    private static final String FIRST_FRAME = "first frame";
+    private static final String MONITOR = "system monitor (first scan)";
+
+    private record Run(double wallMillis, long launchMillis, long firstFrameMillis, long monitorMillis,
+                       boolean monitorNative, Map<String, Long> phaseEnds, boolean failed) {}
+
+    public static void main(String[] args) throws Exception {
+        Path image = Path.of("build", "image");
+        Path output = null;
+        int runs = 10;
+        int warmup = 1;
+        long timeoutSeconds = 60;
+        List<String> variants = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--image=")) {
+                image = Path.of(arg.substring("--image=".length()));
+            } else if (arg.startsWith("--output=")) {
+                output = Path.of(arg.substring("--output=".length()));
+            } else if (arg.startsWith("--runs=")) {
+                runs = Math.max(1, Integer.parseInt(arg.substring("--runs=".length())));
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Math.max(0, Integer.parseInt(arg.substring("--warmup=".length())));
+            } else if (arg.startsWith("--variant=")) {
+                variants.add(arg.substring("--variant=".length()));
+            } else if (arg.startsWith("--timeout=")) {
+                timeoutSeconds = Long.parseLong(arg.substring("--timeout=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (variants.isEmpty()) {
+            variants.addAll(List.of("appcds", "default", "off"));
+        }
+        if (output == null) {
+            String stamp = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(Instant.now());
+            output = Path.of("build", "benchmarks", "startup-" + stamp + ".json");
+        }
+
+        Path java = image.resolve("bin").resolve(isWindows() ? "java.exe" : "java");
+        if (!Files.isExecutable(java)) {
+            throw new IOException("No Java launcher in " + image.toAbsolutePath() + "; run the jlink task first");
+        }
+        boolean xvfb = needsVirtualDisplay();
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"schemaVersion\": ").append(SCHEMA_VERSION).append(",\n");
+        json.append("  \"timestamp\": ").append(quote(Instant.now().toString())).append(",\n");
+        json.append("  \"host\": {\"os\": ").append(quote(System.getProperty("os.name")))
+                .append(", \"arch\": ").append(quote(System.getProperty("os.arch")))
+                .append(", \"cpus\": ").append(Runtime.getRuntime().availableProcessors())
+                .append(", \"xvfb\": ").append(xvfb).append("},\n");
+        json.append("  \"image\": ").append(quote(image.toAbsolutePath().toString())).append(",\n");
+        json.append("  \"runs\": ").append(runs).append(",\n");
+        json.append("  \"warmup\": ").append(warmup).append(",\n");
+        json.append("  \"variants\": [\n");
+
+        for (int v = 0; v < variants.size(); v++) {
+            String variant = variants.get(v);
+            List<String> command = command(java, image, variant, xvfb);
+            for (int i = 0; i < warmup; i++) {
+                launch(command, timeoutSeconds);
+            }
+            List<Run> results = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                Run run = launch(command, timeoutSeconds);
+                results.add(run);
+                System.out.println(String.format(Locale.ROOT, "[%s] run %d: wall %.0f ms, first frame %d ms, monitor active %d ms%s%s",
+                        variant, i + 1, run.wallMillis(), run.firstFrameMillis(), run.monitorMillis(),
+                        run.monitorNative() ? "" : " (native libraries unavailable)",
+                        run.failed() ? " (FAILED)" : ""));
+            }
+            appendVariant(json, variant, command, results);
+            json.append(v < variants.size() - 1 ? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Files.writeString(output, json, StandardCharsets.UTF_8);
+        System.out.println("Benchmark report written to " + output.toAbsolutePath());
+    }
+
+    private static List<String> command(Path java, Path image, String variant, boolean xvfb) {
+        List<String> command = new ArrayList<>();
+        if (xvfb) {
+            command.addAll(List.of("xvfb-run", "--auto-servernum"));
+        }
+        command.add(java.toAbsolutePath().toString());
+        switch (variant) {
+            case "appcds" -> {
+                Path archive = image.resolve("lib").resolve("app.jsa").toAbsolutePath();
+                if (!Files.isRegularFile(archive)) {
+                    System.err.println("Benchmark: " + archive + " not found; run the cdsArchive task first");
+                }
+                command.add("-XX:SharedArchiveFile=" + archive);
+                command.add("-Xshare:auto");
+            }
+            case "default" -> command.add("-Xshare:auto");
+            case "off" -> command.add("-Xshare:off");
+            default -> throw new IllegalArgumentException("Variant must be appcds, default or off, got " + variant);
+        }
+        command.add("--enable-native-access=ALL-UNNAMED");
+        command.add("-Dtracker.startup.exitAfter=true");
+        command.add("-m");
+        command.add(MAIN);
+        return command;
+    }
+
+    private static Run launch(List<String> command, long timeoutSeconds) throws IOException, InterruptedException {
+        Map<String, Long> phaseEnds = new LinkedHashMap<>();
+        Set<String> failedPhases = new HashSet<>();
+        long launchMillis = -1;
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        // Reading the output blocks until the app exits, so a hung launch is killed from another thread.
+        AtomicBoolean timedOut = new AtomicBoolean();
+        Thread watchdog = new Thread(() -> {
+            try {
+                if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                    timedOut.set(true);
+                    process.descendants().forEach(ProcessHandle::destroyForcibly);
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException ignored) {
+                // The launch finished first.
+            }
+        }, "StartupBenchmarkWatchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t");
+                if (columns.length == 2 && columns[0].equals("startup-launch")) {
+                    launchMillis = Long.parseLong(columns[1]);
+                } else if (columns.length == 5 && columns[0].equals("startup-phase")) {
+                    phaseEnds.put(columns[1], Long.parseLong(columns[3]));
+                    if (Boolean.parseBoolean(columns[4])) failedPhases.add(columns[1]);
+                }
+            }
+        }
+        process.waitFor();
+        double wallMillis = (System.nanoTime() - start) / 1e6;
+        watchdog.interrupt();
+        boolean exited = !timedOut.get() && process.exitValue() == 0;
+
+        // Phase offsets are relative to Application.start; adding the launch time makes them relative to process start.
+        long firstFrame = offsetFromProcessStart(launchMillis, phaseEnds.get(FIRST_FRAME));
+        long monitor = offsetFromProcessStart(launchMillis, phaseEnds.get(MONITOR));
+        boolean failed = !exited || firstFrame < 0 || failedPhases.contains(FIRST_FRAME) || monitor < 0;
+        return new Run(wallMillis, launchMillis, firstFrame, monitor, !failedPhases.contains(MONITOR), phaseEnds, failed);
+    }
+
+    private static long offsetFromProcessStart(long launchMillis, Long phaseEnd) {
+        return launchMillis < 0 || phaseEnd == null ? -1 : launchMillis + phaseEnd;
+    }
+
+    private static void appendVariant(StringBuilder json, String variant, List<String> command, List<Run> results) {
+        List<Run> ok = results.stream().filter(run -> !run.failed()).toList();
+        json.append("    {\n");
+        json.append("      \"name\": ").append(quote(variant)).append(",\n");
+        json.append("      \"command\": ").append(quote(String.join(" ", command))).append(",\n");
+        json.append("      \"runs\": [\n");
+        for (int i = 0; i < results.size(); i++) {
+            Run r = results.get(i);
+            json.append("        {\"wallMs\": ").append(number(r.wallMillis()))
+                    .append(", \"launchMs\": ").append(r.launchMillis())
+                    .append(", \"firstFrameMs\": ").append(r.firstFrameMillis())
+                    .append(", \"monitorActiveMs\": ").append(r.monitorMillis())
+                    .append(", \"monitorNative\": ").append(r.monitorNative())
+                    .append(", \"failed\": ").append(r.failed())
+                    .append(", \"phaseEndsMs\": {");
+            int p = 0;
+            for (Map.Entry<String, Long> phase : r.phaseEnds().entrySet()) {
+                json.append(p++ > 0 ? ", " : "").append(quote(phase.getKey())).append(": ").append(phase.getValue());
+            }
+            json.append(i < results.size() - 1 ? "}},\n" : "}}\n");
+        }
+        json.append("      ],\n");
+        json.append("      \"summary\": {\"medianFirstFrameMs\": ").append(number(median(ok, Run::firstFrameMillis)))
+                .append(", \"medianMonitorActiveMs\": ").append(number(median(ok, Run::monitorMillis)))
+                .append(", \"medianLaunchMs\": ").append(number(median(ok, Run::launchMillis)))
+                .append(", \"medianWallMs\": ").append(number(median(ok, run -> (long) run.wallMillis())))
+                .append(", \"failures\": ").append(results.size() - ok.size())
+                .append("}\n");
+        json.append("    }");
+        System.out.println(String.format(Locale.ROOT, "[%s] median first frame %.0f ms, monitor active %.0f ms, %d failures",
+                variant, median(ok, Run::firstFrameMillis), median(ok, Run::monitorMillis), results.size() - ok.size()));
+    }
+
+    private static double median(List<Run> runs, ToLongFunction<Run> metric) {
+        if (runs.isEmpty()) return Double.NaN;
+        long[] sorted = runs.stream().mapToLong(metric).toArray();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2.0;
+    }
+
+    private static boolean isWindows() {
+        return System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("win");
+    }
+
+    /** Linux CI machines have no X server; JavaFX needs one even though the window is only shown briefly. */
+    private static boolean needsVirtualDisplay() {
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        String display = System.getenv("DISPLAY");
+        return os.contains("linux") && (display == null || display.isBlank());
+    }
+
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.1f", value) : "null";
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "null";
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
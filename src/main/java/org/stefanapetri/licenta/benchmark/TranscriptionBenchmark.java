@@ -0,0 +1,321 @@
+package org.stefanapetri.licenta.benchmark;
+
+import org.stefanapetri.licenta.service.Log;
+import org.stefanapetri.licenta.service.Logger;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioSystem;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs one or more transcription engines over the golden audio corpus and writes a JSON report with
+ * real-time factor, cold vs. warm latency, peak child-process RSS and word error rate per file.
+ * A chunked engine is always measured together with the single-pass engine of the same settings, and the report
+ * gives its warm wall-time speedup over that single pass on every file.
+ * <p>
+ * Usage (see the {@code benchmarkTranscription} Gradle task):
+ * <pre>
+ *   --corpus=benchmark/corpus           folder containing corpus.tsv
+ *   --output=build/benchmarks/x.json    report path (default: timestamped file in build/benchmarks)
+ *   --repeats=3                         runs per file; the first is "cold", the median of the rest is "warm"
+ *   --engine=whisper:small:int8         repeatable; whisper:&lt;model&gt;:&lt;compute_type&gt;
+ *   --engine=whisper-chunked:small:int8:10   chunk-parallel pipeline; the last field is the target chunk length
+ *                                       in seconds (default 60, the production value)
+ *   --engine=cmd:&lt;name&gt;:&lt;command with {audio}&gt;   any other engine that prints text on stdout
+ * </pre>
+ */
+public class TranscriptionBenchmark {
+
+    private static final Logger log = Log.get(TranscriptionBenchmark.class);
+    private static final int SCHEMA_VERSION = 2;
+    private static final double DEFAULT_CHUNK_SECONDS = 60.0;
+
+    private record CorpusEntry(String id, Path audio, String language, String reference) {}
+
+    private record FileResult(CorpusEntry entry, double audioSeconds, double coldSeconds, double warmSeconds,
+                              long peakRssKb, String hypothesis, boolean failed) {
+        double realTimeFactor() {
+            return warmSeconds / audioSeconds;
+        }
+
+        double wordErrorRate() {
+            return WordErrorRate.compute(entry.reference(), hypothesis);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Nothing else subscribes to the log in the harness; without this the progress lines would go nowhere.
+        Log.addSubscriber(entries -> entries.forEach(entry -> System.out.println(entry.format())));
+
+        Path corpusDir = Path.of("benchmark", "corpus");
+        Path output = null;
+        int repeats = 3;
+        List<TranscriptionEngine> engines = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--corpus=")) {
+                corpusDir = Path.of(arg.substring("--corpus=".length()));
+            } else if (arg.startsWith("--output=")) {
+                output = Path.of(arg.substring("--output=".length()));
+            } else if (arg.startsWith("--repeats=")) {
+                repeats = Math.max(1, Integer.parseInt(arg.substring("--repeats=".length())));
+            } else if (arg.startsWith("--engine=")) {
+                engines.add(parseEngine(arg.substring("--engine=".length())));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (engines.isEmpty()) {
+            engines.add(new PythonWhisperEngine("small", "int8"));
+        }
+        addSinglePassBaselines(engines);
+        if (output == null) {
+            String stamp = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(Instant.now());
+            output = Path.of("build", "benchmarks", "transcription-" + stamp + ".json");
+        }
+
+        List<String> skipped = new ArrayList<>();
+        List<CorpusEntry> corpus = loadCorpus(corpusDir, skipped);
+        log.info("Benchmark corpus: " + corpus.size() + " files, " + skipped.size() + " skipped, "
+                + engines.size() + " engine(s), " + repeats + " run(s) per file.");
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"schemaVersion\": ").append(SCHEMA_VERSION).append(",\n");
+        json.append("  \"timestamp\": ").append(quote(Instant.now().toString())).append(",\n");
+        json.append("  \"host\": {\"os\": ").append(quote(System.getProperty("os.name")))
+                .append(", \"arch\": ").append(quote(System.getProperty("os.arch")))
+                .append(", \"cpus\": ").append(Runtime.getRuntime().availableProcessors())
+                .append(", \"java\": ").append(quote(System.getProperty("java.version"))).append("},\n");
+        json.append("  \"corpus\": ").append(quote(corpusDir.toAbsolutePath().toString())).append(",\n");
+        json.append("  \"repeats\": ").append(repeats).append(",\n");
+        json.append("  \"skipped\": [").append(String.join(", ", skipped.stream().map(TranscriptionBenchmark::quote).toList())).append("],\n");
+        json.append("  \"engines\": [\n");
+
+        List<List<FileResult>> resultsPerEngine = new ArrayList<>();
+        Map<String, List<FileResult>> resultsByName = new HashMap<>();
+        for (TranscriptionEngine engine : engines) {
+            List<FileResult> results = new ArrayList<>();
+            for (CorpusEntry entry : corpus) {
+                FileResult result = runEntry(engine, entry, repeats);
+                results.add(result);
+                log.info(String.format(Locale.ROOT, "[%s] %s: cold %.2f s, warm %.2f s, RTF %.3f, WER %.3f, peak RSS %d KB%s",
+                        engine.name(), entry.id(), result.coldSeconds(), result.warmSeconds(), result.realTimeFactor(),
+                        result.wordErrorRate(), result.peakRssKb(), result.failed() ? " (FAILED)" : ""));
+            }
+            resultsPerEngine.add(results);
+            resultsByName.putIfAbsent(engine.name(), results);
+        }
+
+        for (int e = 0; e < engines.size(); e++) {
+            TranscriptionEngine engine = engines.get(e);
+            List<FileResult> results = resultsPerEngine.get(e);
+            List<FileResult> baseline = engine instanceof ChunkedWhisperEngine chunked
+                    ? resultsByName.get(chunked.singlePass().name()) : null;
+            if (baseline != null) {
+                logSpeedups(engine, results, baseline);
+            }
+            appendEngine(json, engine, results, baseline);
+            json.append(e < engines.size() - 1 ? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Files.writeString(output, json, StandardCharsets.UTF_8);
+        log.info("Benchmark report written to " + output.toAbsolutePath());
+    }
+
+    private static TranscriptionEngine parseEngine(String spec) {
+        String[] parts = spec.split(":", 3);
+        if (parts.length == 3 && parts[0].equals("whisper")) {
+            return new PythonWhisperEngine(parts[1], parts[2]);
+        }
+        if (parts[0].equals("whisper-chunked")) {
+            String[] settings = spec.split(":");
+            if (settings.length == 3 || settings.length == 4) {
+                double chunkSeconds = settings.length == 4 ? Double.parseDouble(settings[3]) : DEFAULT_CHUNK_SECONDS;
+                return new ChunkedWhisperEngine(settings[1], settings[2], chunkSeconds);
+            }
+        }
+        if (parts.length == 3 && parts[0].equals("cmd")) {
+            return new CommandLineEngine(parts[1], parts[2]);
+        }
+        throw new IllegalArgumentException("Engine must be whisper:<model>:<compute_type>, "
+                + "whisper-chunked:<model>:<compute_type>[:<chunk seconds>] or cmd:<name>:<command>, got " + spec);
+    }
+
+    /** Puts the single-pass engine with the same settings in front of every chunked engine, unless it is already listed. */
+    private static void addSinglePassBaselines(List<TranscriptionEngine> engines) {
+        for (int i = 0; i < engines.size(); i++) {
+            if (!(engines.get(i) instanceof ChunkedWhisperEngine chunked)) continue;
+            PythonWhisperEngine singlePass = chunked.singlePass();
+            if (engines.stream().noneMatch(engine -> engine.name().equals(singlePass.name()))) {
+                engines.add(i, singlePass);
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Reads corpus.tsv: one line per file with id, WAV file, language code and reference transcript file,
+     * separated by tabs. Lines starting with '#' are comments. Entries whose audio is missing are skipped.
+     */
+    private static List<CorpusEntry> loadCorpus(Path corpusDir, List<String> skipped) throws IOException {
+        List<CorpusEntry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(corpusDir.resolve("corpus.tsv"), StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) continue;
+            String[] columns = line.split("\t");
+            if (columns.length < 4) {
+                throw new IOException("Malformed corpus line (expected 4 tab-separated columns): " + line);
+            }
+            Path audio = corpusDir.resolve(columns[1]);
+            if (!Files.isRegularFile(audio)) {
+                skipped.add(columns[0]);
+                log.warn("Skipping " + columns[0] + ", audio file not found: " + audio);
+                continue;
+            }
+            String reference = Files.readString(corpusDir.resolve(columns[3]), StandardCharsets.UTF_8).strip();
+            entries.add(new CorpusEntry(columns[0], audio, columns[2], reference));
+        }
+        return entries;
+    }
+
+    private static FileResult runEntry(TranscriptionEngine engine, CorpusEntry entry, int repeats) throws Exception {
+        double audioSeconds = durationSeconds(entry.audio());
+        double[] latencies = new double[repeats];
+        long peakRssKb = -1;
+        String hypothesis = null;
+        boolean failed = false;
+
+        for (int run = 0; run < repeats; run++) {
+            try (ProcessMemorySampler sampler = new ProcessMemorySampler()) {
+                long start = System.nanoTime();
+                String text = engine.transcribe(entry.audio().toString(), sampler::watch);
+                latencies[run] = (System.nanoTime() - start) / 1e9;
+                peakRssKb = Math.max(peakRssKb, sampler.peakKb());
+                if (text == null) {
+                    failed = true;
+                } else {
+                    hypothesis = text;
+                }
+            }
+        }
+
+        double cold = latencies[0];
+        double warm = repeats > 1 ? median(Arrays.copyOfRange(latencies, 1, repeats)) : cold;
+        return new FileResult(entry, audioSeconds, cold, warm, peakRssKb, hypothesis == null ? "" : hypothesis, failed);
+    }
+
+    /**
+     * @param baseline The single-pass results for the same files if the engine is chunked, else null;
+     *                 adds the warm wall-time speedup over them.
+     */
+    private static void appendEngine(StringBuilder json, TranscriptionEngine engine, List<FileResult> results,
+                                     List<FileResult> baseline) {
+        json.append("    {\n");
+        json.append("      \"name\": ").append(quote(engine.name())).append(",\n");
+        json.append("      \"files\": [\n");
+        for (int i = 0; i < results.size(); i++) {
+            FileResult r = results.get(i);
+            json.append("        {\"id\": ").append(quote(r.entry().id()))
+                    .append(", \"language\": ").append(quote(r.entry().language()))
+                    .append(", \"audioSeconds\": ").append(number(r.audioSeconds()))
+                    .append(", \"coldLatencySeconds\": ").append(number(r.coldSeconds()))
+                    .append(", \"warmLatencySeconds\": ").append(number(r.warmSeconds()))
+                    .append(", \"realTimeFactor\": ").append(number(r.realTimeFactor()))
+                    .append(", \"peakRssKb\": ").append(r.peakRssKb() < 0 ? "null" : Long.toString(r.peakRssKb()))
+                    .append(", \"wordErrorRate\": ").append(number(r.wordErrorRate()))
+                    .append(", \"failed\": ").append(r.failed())
+                    .append(", \"hypothesis\": ").append(quote(r.hypothesis()));
+            if (baseline != null) {
+                json.append(", \"speedupVsSinglePass\": ").append(number(speedup(baseline.get(i), r)));
+            }
+            json.append(i < results.size() - 1 ? "},\n" : "}\n");
+        }
+        json.append("      ],\n");
+
+        double meanRtf = results.stream().mapToDouble(FileResult::realTimeFactor).average().orElse(0);
+        double meanWer = results.stream().mapToDouble(FileResult::wordErrorRate).average().orElse(0);
+        double meanCold = results.stream().mapToDouble(FileResult::coldSeconds).average().orElse(0);
+        double meanWarm = results.stream().mapToDouble(FileResult::warmSeconds).average().orElse(0);
+        long maxRss = results.stream().mapToLong(FileResult::peakRssKb).max().orElse(-1);
+        json.append("      \"summary\": {\"meanRealTimeFactor\": ").append(number(meanRtf))
+                .append(", \"meanWordErrorRate\": ").append(number(meanWer))
+                .append(", \"meanColdLatencySeconds\": ").append(number(meanCold))
+                .append(", \"meanWarmLatencySeconds\": ").append(number(meanWarm))
+                .append(", \"maxPeakRssKb\": ").append(maxRss < 0 ? "null" : Long.toString(maxRss))
+                .append(", \"failures\": ").append(results.stream().filter(FileResult::failed).count());
+        if (baseline != null) {
+            // Total single-pass time over total chunked time, so long files weigh in by how long they take.
+            double singlePassSeconds = baseline.stream().mapToDouble(FileResult::warmSeconds).sum();
+            double chunkedSeconds = results.stream().mapToDouble(FileResult::warmSeconds).sum();
+            json.append(", \"speedupVsSinglePass\": ").append(number(singlePassSeconds / chunkedSeconds));
+        }
+        json.append("}\n");
+        json.append("    }");
+    }
+
+    private static void logSpeedups(TranscriptionEngine engine, List<FileResult> results, List<FileResult> baseline) {
+        for (int i = 0; i < results.size(); i++) {
+            FileResult chunked = results.get(i);
+            log.info(String.format(Locale.ROOT, "[%s] %s: %.2fx wall-time speedup over a single pass (warm: chunked %.2f s, single pass %.2f s)",
+                    engine.name(), chunked.entry().id(), speedup(baseline.get(i), chunked),
+                    chunked.warmSeconds(), baseline.get(i).warmSeconds()));
+        }
+    }
+
+    /** Single-pass warm latency over chunked warm latency; NaN (null in the report) if either run failed. */
+    private static double speedup(FileResult singlePass, FileResult chunked) {
+        if (singlePass.failed() || chunked.failed()) return Double.NaN;
+        return singlePass.warmSeconds() / chunked.warmSeconds();
+    }
+
+    private static double durationSeconds(Path audio) throws Exception {
+        AudioFileFormat format = AudioSystem.getAudioFileFormat(audio.toFile());
+        return format.getFrameLength() / (double) format.getFormat().getFrameRate();
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.4f", value) : "null";
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "null";
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
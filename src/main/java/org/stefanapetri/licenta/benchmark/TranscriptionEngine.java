@@ -0,0 +1,19 @@
+package org.stefanapetri.licenta.benchmark;
+
+import java.util.function.Consumer;
+
+/**
+ * A speech-to-text backend the benchmark can drive. Every run is expected to spawn a child process,
+ * which is handed to {@code onStart} so the harness can sample its memory.
+ */
+public interface TranscriptionEngine {
+
+    /** A short, stable identifier used in the JSON report, e.g. "whisper-small-int8". */
+    String name();
+
+    /**
+     * Transcribes one audio file.
+     * @return The plain transcription text, or null if the engine failed.
+     */
+    String transcribe(String audioFilePath, Consumer<Process> onStart) throws Exception;
+}
@@ -0,0 +1,49 @@
+package org.stefanapetri.licenta.benchmark;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Word error rate: word-level edit distance (substitutions + insertions + deletions) divided by the
+ * number of reference words. Text is lower-cased and stripped of punctuation and diacritics first,
+ * so "Bună ziua!" and "buna ziua" count as equal.
+ */
+final class WordErrorRate {
+
+    private WordErrorRate() {}
+
+    static double compute(String reference, String hypothesis) {
+        String[] ref = tokenize(reference);
+        String[] hyp = tokenize(hypothesis);
+        if (ref.length == 0) {
+            return hyp.length == 0 ? 0.0 : 1.0;
+        }
+
+        int[] previous = new int[hyp.length + 1];
+        int[] current = new int[hyp.length + 1];
+        for (int j = 0; j <= hyp.length; j++) previous[j] = j;
+
+        for (int i = 1; i <= ref.length; i++) {
+            current[0] = i;
+            for (int j = 1; j <= hyp.length; j++) {
+                int substitution = previous[j - 1] + (ref[i - 1].equals(hyp[j - 1]) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j] + 1, current[j - 1] + 1));
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[hyp.length] / (double) ref.length;
+    }
+
+    private static String[] tokenize(String text) {
+        if (text == null) return new String[0];
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}\\s]", " ")
+                .trim();
+        return normalized.isEmpty() ? new String[0] : Arrays.stream(normalized.split("\\s+")).toArray(String[]::new);
+    }
+}
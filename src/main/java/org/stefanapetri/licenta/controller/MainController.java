@@ -1,39 +1,60 @@
 package org.stefanapetri.licenta.controller;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
 import javafx.scene.web.WebView;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.stefanapetri.licenta.MainApplication;
 import org.stefanapetri.licenta.model.DatabaseManager;
+import org.stefanapetri.licenta.model.MemoCache;
+import org.stefanapetri.licenta.model.MemoPreview;
 import org.stefanapetri.licenta.model.MemoViewItem;
+import org.stefanapetri.licenta.model.ReminderPolicy;
 import org.stefanapetri.licenta.model.TrackedApplication;
 import org.stefanapetri.licenta.service.*;
 import org.stefanapetri.licenta.view.DialogHelper;
 import org.stefanapetri.licenta.view.MarkdownConverter;
+import org.stefanapetri.licenta.view.MarkdownLivePreview;
+import org.stefanapetri.licenta.view.MarkdownPane;
 import org.stefanapetri.licenta.view.StageAndController;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.time.Duration;
+import java.time.Clock;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.time.format.FormatStyle;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class MainController implements Initializable, SystemMonitorListener {
 
+    private static final Logger log = Log.get(MainController.class);
+
     // --- FXML Fields for Settings Tab ---
     @FXML private CheckBox startupCheckBox;
     @FXML private CheckBox disableRemindersCheckBox;
@@ -42,6 +63,12 @@ public class MainController implements Initializable, SystemMonitorListener {
     @FXML private CheckBox enableGeminiProcessingCheckBox;
     @FXML private PasswordField geminiApiKeyPasswordField; // MODIFIED: Changed to PasswordField
     @FXML private Button saveGeminiApiKeyButton; // NEW
+    @FXML private TextField geminiEndpointTextField;
+    @FXML private CheckBox trimSilenceCheckBox;
+    @FXML private CheckBox compressRecordingsCheckBox;
+    @FXML private Button convertRecordingsButton;
+    @FXML private ChoiceBox<ChunkingThreshold> chunkingThresholdChoiceBox;
+    @FXML private CheckBox webViewRendererCheckBox;
     // --- END NEW ---
 
     // --- FXML Fields for Main Tab ---
@@ -50,65 +77,120 @@ public class MainController implements Initializable, SystemMonitorListener {
     @FXML private TableColumn<TrackedApplication, String> appPathColumn;
     @FXML private Button launchAppButton;
     @FXML private Button updateAppButton;
+    @FXML private Button reminderPolicyButton;
     @FXML private Button removeAppButton;
     @FXML private TextArea reminderTextArea;
-    @FXML private WebView reminderWebView;
+    @FXML private StackPane reminderContentPane;
+    @FXML private SplitPane reminderEditorSplitPane;
+    @FXML private WebView reminderPreviewWebView;
     @FXML private Button editOrSaveButton;
     @FXML private Button cancelEditButton;
-    @FXML private TextArea consoleTextArea;
+    @FXML private ListView<String> consoleListView;
 
     // FXML fields for historical reminders
-    @FXML private TableView<MemoViewItem> historicalMemosTableView;
-    @FXML private TableColumn<MemoViewItem, String> historyDateColumn;
-    @FXML private TableColumn<MemoViewItem, String> historyPreviewColumn;
+    @FXML private TableView<MemoPreview> historicalMemosTableView;
+    @FXML private TableColumn<MemoPreview, String> historyDateColumn;
+    @FXML private TableColumn<MemoPreview, String> historyPreviewColumn;
     @FXML private Button viewHistoricalMemoButton;
     @FXML private Button deleteHistoricalMemoButton;
 
     // --- FXML fields for Search Tab ---
     @FXML private TextField searchQueryTextField;
     @FXML private Button searchButton;
-    @FXML private TableView<MemoViewItem> searchResultsTableView;
-    @FXML private TableColumn<MemoViewItem, String> searchAppColumn;
-    @FXML private TableColumn<MemoViewItem, String> searchDateColumn;
-    @FXML private TableColumn<MemoViewItem, String> searchPreviewColumn;
+    @FXML private Label searchStatusLabel;
+    @FXML private TableView<MemoPreview> searchResultsTableView;
+    @FXML private TableColumn<MemoPreview, String> searchAppColumn;
+    @FXML private TableColumn<MemoPreview, String> searchDateColumn;
+    @FXML private TableColumn<MemoPreview, String> searchPreviewColumn;
     @FXML private Button viewSearchMemoButton;
     @FXML private Button deleteSearchMemoButton;
 
+    // --- FXML fields for Diagnostics Tab ---
+    @FXML private Tab diagnosticsTab;
+    @FXML private Label diagnosticsStatusLabel;
+    @FXML private TableView<Metrics.Sample> metricsTableView;
+    @FXML private TableColumn<Metrics.Sample, String> metricNameColumn;
+    @FXML private TableColumn<Metrics.Sample, String> metricCountColumn;
+    @FXML private TableColumn<Metrics.Sample, String> metricP50Column;
+    @FXML private TableColumn<Metrics.Sample, String> metricP90Column;
+    @FXML private TableColumn<Metrics.Sample, String> metricP99Column;
+    @FXML private TableColumn<Metrics.Sample, String> metricMaxColumn;
+    @FXML private TableColumn<Metrics.Sample, String> metricMeanColumn;
+    @FXML private TextArea startupReportTextArea;
 
     // --- Dependencies ---
     private final DatabaseManager dbManager;
     private final SystemMonitor systemMonitor;
     private final PythonBridge pythonBridge;
+    private final LlmPostProcessor llmPostProcessor;
     private final AudioRecorder audioRecorder;
     private final SettingsManager settingsManager;
     private final StartupManager startupManager;
+    private final VoiceActivityDetector voiceActivityDetector;
+    private final AudioCompressionConverter audioCompressionConverter;
+    private final MemoSearch memoSearch;
+    private final MemoCache memoCache;
+    private final ReminderScheduler reminderScheduler;
 
     // --- State ---
     private boolean isInEditMode = false;
     private final ObservableList<TrackedApplication> trackedAppsList = FXCollections.observableArrayList();
-    private final ObservableList<MemoViewItem> historicalMemosList = FXCollections.observableArrayList();
-    private final ObservableList<MemoViewItem> searchResultsList = FXCollections.observableArrayList();
+    private final ObservableList<MemoPreview> historicalMemosList = FXCollections.observableArrayList();
+    private final ObservableList<MemoPreview> searchResultsList = FXCollections.observableArrayList();
     private boolean isRecording = false;
     private MemoViewItem currentMemo = null;
+    private MarkdownLivePreview markdownPreview;
+    private MarkdownPane reminderPane;
+    private final PauseTransition searchDebounce = new PauseTransition(javafx.util.Duration.millis(250));
+    private final ObservableList<Metrics.Sample> metricsList = FXCollections.observableArrayList();
+    // Refreshes the diagnostics table while its tab is selected; stopped otherwise, so it costs nothing.
+    private final Timeline metricsRefresh = new Timeline(new KeyFrame(javafx.util.Duration.seconds(1), e -> refreshMetrics()));
 
     // --- Constant for placeholder message ---
+    private static final int HISTORY_PREVIEW_LENGTH = 50;
     private static final String NO_APP_SELECTED_MESSAGE = "### No Application Selected\n\nSelect an application from the list to view its reminders.";
 
+    // --- Pipeline metrics; the stages inside each service are measured there ---
+    private static final LatencyHistogram prepareLatency = Metrics.latency("pipeline.prepare");
+    private static final LatencyHistogram transcriptionLatency = Metrics.latency("pipeline.transcription");
+    private static final LatencyHistogram saveToVisibleLatency = Metrics.latency("pipeline.save_to_visible");
+    // From the end of the recording until the result dialog is on screen.
+    private static final LatencyHistogram endToEndLatency = Metrics.latency("pipeline.end_to_end");
+    private static final LatencyHistogram summaryLatency = Metrics.latency("pipeline.summary");
+    private static final Metrics.Counter failureCount = Metrics.counter("pipeline.failures");
+
 
-    public MainController(DatabaseManager dbManager, SystemMonitor systemMonitor, PythonBridge pythonBridge) {
+    public MainController(DatabaseManager dbManager, SystemMonitor systemMonitor, PythonBridge pythonBridge,
+                          LlmPostProcessor llmPostProcessor) {
         this.dbManager = dbManager;
         this.systemMonitor = systemMonitor;
         this.pythonBridge = pythonBridge;
+        this.llmPostProcessor = llmPostProcessor;
         this.audioRecorder = new AudioRecorder();
         this.settingsManager = new SettingsManager();
         this.startupManager = new StartupManager();
+        this.voiceActivityDetector = new VoiceActivityDetector();
+        this.audioCompressionConverter = new AudioCompressionConverter(dbManager);
+        this.memoSearch = new MemoSearch(dbManager, Platform::runLater);
+        this.memoCache = new MemoCache(dbManager);
+        this.reminderScheduler = new ReminderScheduler(dbManager, Clock.systemDefaultZone());
+        Settings settings = settingsManager.current();
+        reminderScheduler.setDefaults(!settings.remindersDisabled(), settings.reminderIntervalHours());
+        reminderScheduler.setListener(this::onReminderDue);
     }
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        ConsoleManager.redirectSystemStreams(consoleTextArea);
-
-        reminderWebView.getEngine().loadContent(MarkdownConverter.toHtml(NO_APP_SELECTED_MESSAGE));
+        ConsoleManager.redirectSystemStreams(consoleListView);
+
+        MarkdownPane.setUseWebView(settingsManager.isWebViewRendererEnabled());
+        reminderPane = MarkdownPane.create();
+        reminderContentPane.getChildren().setAll(reminderPane.getNode());
+        reminderPane.showMarkdown(NO_APP_SELECTED_MESSAGE);
+        markdownPreview = new MarkdownLivePreview(reminderPreviewWebView);
+        reminderTextArea.textProperty().addListener((obs, oldText, newText) -> {
+            if (isInEditMode) markdownPreview.update(newText);
+        });
 
         systemMonitor.setListener(this);
         appNameColumn.setCellValueFactory(new PropertyValueFactory<>("appName"));
@@ -120,11 +202,8 @@ public class MainController implements Initializable, SystemMonitorListener {
             DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT);
             return new ReadOnlyStringWrapper(timestamp.toLocalDateTime().format(formatter));
         });
-        historyPreviewColumn.setCellValueFactory(cellData -> {
-            String fullText = cellData.getValue().transcriptionText();
-            String preview = fullText.length() > 50 ? fullText.substring(0, 50) + "..." : fullText;
-            return new ReadOnlyStringWrapper(preview.replaceAll("\n", " "));
-        });
+        // Previews come cut and flattened from the database; full memos are loaded when a row is opened.
+        historyPreviewColumn.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().preview()));
         historicalMemosTableView.setItems(historicalMemosList);
 
         appTableView.getSelectionModel().selectedItemProperty().addListener(
@@ -138,7 +217,7 @@ public class MainController implements Initializable, SystemMonitorListener {
                         updateButtonStates(false);
                         currentMemo = null;
                         reminderTextArea.clear();
-                        reminderWebView.getEngine().loadContent(MarkdownConverter.toHtml(NO_APP_SELECTED_MESSAGE));
+                        reminderPane.showMarkdown(NO_APP_SELECTED_MESSAGE);
                         historicalMemosList.clear();
                     }
                 }
@@ -150,12 +229,10 @@ public class MainController implements Initializable, SystemMonitorListener {
             DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT);
             return new ReadOnlyStringWrapper(timestamp.toLocalDateTime().format(formatter));
         });
-        searchPreviewColumn.setCellValueFactory(cellData -> {
-            String fullText = cellData.getValue().transcriptionText();
-            String preview = fullText.length() > 100 ? fullText.substring(0, 100) + "..." : fullText;
-            return new ReadOnlyStringWrapper(preview.replaceAll("\n", " "));
-        });
+        searchPreviewColumn.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().preview()));
         searchResultsTableView.setItems(searchResultsList);
+        searchDebounce.setOnFinished(e -> runSearch());
+        searchQueryTextField.textProperty().addListener((obs, oldText, newText) -> searchDebounce.playFromStart());
 
         searchResultsTableView.getSelectionModel().selectedItemProperty().addListener(
                 (obs, oldSelection, newSelection) -> {
@@ -164,9 +241,67 @@ public class MainController implements Initializable, SystemMonitorListener {
         );
         updateSearchButtonStates(false);
 
-        loadApplicationsFromDB();
+        // The database is initialized in the background; the window shows right away and the data follows.
+        appTableView.setPlaceholder(new Label("Connecting to the database..."));
         updateButtonStates(false);
         setupSettingsTab();
+        setupDiagnosticsTab();
+    }
+
+    /** Called on the FX thread once the database and tables are ready. */
+    public void onDatabaseReady() {
+        appTableView.setPlaceholder(new Label("No applications tracked yet."));
+        // Started before the monitor gets its app list, so pending reminders are loaded before the first open event.
+        reminderScheduler.start();
+        loadApplicationsFromDB();
+        recoverInterruptedRecordings();
+    }
+
+    /** Called on the FX thread if the database could not be reached or set up. */
+    public void onDatabaseUnavailable(Throwable cause) {
+        appTableView.setPlaceholder(new Label("Database unavailable."));
+        log.error("Database unavailable: " + cause.getMessage());
+        // A modal here would keep an unattended run (CDS training, startup benchmark) from ever exiting.
+        if (MainApplication.exitsAfterStartup()) return;
+        DialogHelper.createTopMostAlert(
+                Alert.AlertType.ERROR, "Database Unavailable",
+                "Could not connect to the database.",
+                "Check database.properties and that PostgreSQL is running. Details: " + cause.getMessage()
+        );
+    }
+
+    // --- NEW: Recordings cut off by a crash are stitched back together and offered for transcription ---
+    private void recoverInterruptedRecordings() {
+        CompletableFuture.supplyAsync(() -> new RecordingRecovery().recoverAll())
+                .thenAccept(recovered -> Platform.runLater(() -> recovered.forEach(this::offerRecoveredRecording)));
+    }
+
+    private void offerRecoveredRecording(RecordingRecovery.RecoveredRecording recording) {
+        Optional<TrackedApplication> app = trackedAppsList.stream()
+                .filter(a -> a.getAppId() == recording.appId())
+                .findFirst();
+        String startedAt = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT)
+                .format(LocalDateTime.ofInstant(Instant.ofEpochMilli(recording.startedAtMillis()), ZoneId.systemDefault()));
+        String details = String.format("A recording started %s (%.0f seconds) was interrupted before it was saved.",
+                startedAt, recording.seconds());
+
+        if (app.isEmpty()) {
+            DialogHelper.createTopMostAlert(
+                    Alert.AlertType.INFORMATION, "Recording Recovered",
+                    details, "The application it belonged to is no longer tracked. The audio was saved to:\n" + recording.audioFilePath()
+            );
+            return;
+        }
+        Optional<ButtonType> response = DialogHelper.createTopMostAlert(
+                Alert.AlertType.CONFIRMATION, "Recording Recovered",
+                details, "Would you like to transcribe it and save it as a memo for " + app.get().getAppName() + "?"
+        );
+        if (response.isPresent() && response.get() == ButtonType.OK) {
+            // Measured from the confirmation: the recording itself ended in an earlier session.
+            transcribeAndSave(app.get(), recording.audioFilePath(), System.nanoTime());
+        } else {
+            log.info("Recovered recording kept at " + recording.audioFilePath());
+        }
     }
 
     private void setupSettingsTab() {
@@ -176,10 +311,7 @@ public class MainController implements Initializable, SystemMonitorListener {
         int savedIntervalHours = settingsManager.getReminderIntervalHours();
         ReminderInterval.fromHours(savedIntervalHours).ifPresent(reminderIntervalChoiceBox::setValue);
 
-        startupCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> {
-            settingsManager.setLaunchOnStartup(newVal);
-            if (newVal) startupManager.enableLaunchOnStartup(); else startupManager.disableLaunchOnStartup();
-        });
+        startupCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> settingsManager.setLaunchOnStartup(newVal));
 
         disableRemindersCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> settingsManager.setDisableReminders(newVal));
 
@@ -187,6 +319,23 @@ public class MainController implements Initializable, SystemMonitorListener {
             if (newVal != null) settingsManager.setReminderIntervalHours(newVal.getHours());
         });
 
+        trimSilenceCheckBox.setSelected(settingsManager.isTrimSilenceEnabled());
+        trimSilenceCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> settingsManager.setTrimSilence(newVal));
+
+        compressRecordingsCheckBox.setSelected(settingsManager.isCompressRecordingsEnabled());
+        compressRecordingsCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> settingsManager.setCompressRecordings(newVal));
+
+        webViewRendererCheckBox.setSelected(settingsManager.isWebViewRendererEnabled());
+        webViewRendererCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> settingsManager.setUseWebViewRenderer(newVal));
+
+        chunkingThresholdChoiceBox.setItems(FXCollections.observableArrayList(ChunkingThreshold.values()));
+        int savedThreshold = settingsManager.getChunkingThresholdSeconds();
+        ChunkingThreshold.fromSeconds(savedThreshold).ifPresent(chunkingThresholdChoiceBox::setValue);
+        pythonBridge.setChunkingThresholdSeconds(savedThreshold);
+        chunkingThresholdChoiceBox.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) settingsManager.setChunkingThresholdSeconds(newVal.getSeconds());
+        });
+
         // --- Initialize and bind Gemini API settings controls ---
         enableGeminiProcessingCheckBox.setSelected(settingsManager.isGeminiProcessingEnabled());
         // Load the key only when the checkbox is enabled, or to show previous state if any
@@ -210,10 +359,90 @@ public class MainController implements Initializable, SystemMonitorListener {
                 geminiApiKeyPasswordField.setText(settingsManager.getGeminiApiKey());
             }
         });
+        geminiEndpointTextField.setText(settingsManager.getGeminiEndpoint());
+        llmPostProcessor.setEndpoint(settingsManager.getGeminiEndpoint());
+        geminiEndpointTextField.disableProperty().bind(enableGeminiProcessingCheckBox.selectedProperty().not());
+        // Applied when the field loses focus or Enter is pressed, not on every keystroke.
+        geminiEndpointTextField.setOnAction(e -> applyGeminiEndpoint());
+        geminiEndpointTextField.focusedProperty().addListener((obs, wasFocused, isFocused) -> {
+            if (!isFocused) applyGeminiEndpoint();
+        });
         // The API key is now explicitly saved via the button, not on every text change.
         // The textProperty listener is removed to avoid frequent preference writes.
         // It's still used by the save button's disableProperty, which is fine.
         // --- END MODIFIED ---
+
+        // Side effects of a setting live here, so they apply the same way to a checkbox click and to an imported profile.
+        settingsManager.addListener((previous, current) -> Platform.runLater(() -> onSettingsChanged(previous, current)));
+    }
+
+    private void onSettingsChanged(Settings previous, Settings current) {
+        if (previous.launchOnStartup() != current.launchOnStartup()) {
+            if (current.launchOnStartup()) startupManager.enableLaunchOnStartup(); else startupManager.disableLaunchOnStartup();
+        }
+        if (previous.webViewRenderer() != current.webViewRenderer()) {
+            MarkdownPane.setUseWebView(current.webViewRenderer());
+            recreateReminderPane();
+        }
+        if (previous.chunkingThresholdSeconds() != current.chunkingThresholdSeconds()) {
+            pythonBridge.setChunkingThresholdSeconds(current.chunkingThresholdSeconds());
+        }
+        if (!previous.geminiEndpoint().equals(current.geminiEndpoint())) {
+            llmPostProcessor.setEndpoint(current.geminiEndpoint());
+        }
+        if (previous.remindersDisabled() != current.remindersDisabled()
+                || previous.reminderIntervalHours() != current.reminderIntervalHours()) {
+            reminderScheduler.setDefaults(!current.remindersDisabled(), current.reminderIntervalHours());
+        }
+
+        // Keep the controls in line with the latest snapshot (it may be newer than this change).
+        Settings latest = settingsManager.current();
+        startupCheckBox.setSelected(latest.launchOnStartup());
+        disableRemindersCheckBox.setSelected(latest.remindersDisabled());
+        ReminderInterval.fromHours(latest.reminderIntervalHours()).ifPresent(reminderIntervalChoiceBox::setValue);
+        trimSilenceCheckBox.setSelected(latest.trimSilence());
+        compressRecordingsCheckBox.setSelected(latest.compressRecordings());
+        webViewRendererCheckBox.setSelected(latest.webViewRenderer());
+        ChunkingThreshold.fromSeconds(latest.chunkingThresholdSeconds()).ifPresent(chunkingThresholdChoiceBox::setValue);
+        enableGeminiProcessingCheckBox.setSelected(latest.geminiProcessingEnabled());
+        if (!geminiEndpointTextField.isFocused()) {
+            geminiEndpointTextField.setText(latest.geminiEndpoint());
+        }
+    }
+
+    @FXML
+    private void handleExportSettings() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Settings");
+        fileChooser.setInitialFileName("tracker-settings.properties");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Settings Profile", "*.properties"));
+        File file = fileChooser.showSaveDialog(appTableView.getScene().getWindow());
+        if (file == null) return;
+        try {
+            settingsManager.exportProfile(file.toPath());
+            DialogHelper.createTopMostAlert(Alert.AlertType.INFORMATION, "Settings Exported",
+                    "Settings were saved to " + file.getName() + ".", "The Gemini API key is not included.");
+        } catch (IOException e) {
+            DialogHelper.createTopMostAlert(Alert.AlertType.ERROR, "Export Failed",
+                    "The settings could not be exported.", e.getMessage());
+        }
+    }
+
+    @FXML
+    private void handleImportSettings() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Settings");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Settings Profile", "*.properties"));
+        File file = fileChooser.showOpenDialog(appTableView.getScene().getWindow());
+        if (file == null) return;
+        try {
+            settingsManager.importProfile(file.toPath());
+            DialogHelper.createTopMostAlert(Alert.AlertType.INFORMATION, "Settings Imported",
+                    "Settings were loaded from " + file.getName() + ".", null);
+        } catch (IOException e) {
+            DialogHelper.createTopMostAlert(Alert.AlertType.ERROR, "Import Failed",
+                    "The settings could not be imported. Nothing was changed.", e.getMessage());
+        }
     }
 
     // --- NEW: Handle Save Gemini API Key Button Action ---
@@ -235,6 +464,33 @@ public class MainController implements Initializable, SystemMonitorListener {
     }
     // --- END NEW ---
 
+    @FXML
+    private void handleConvertRecordings() {
+        convertRecordingsButton.setDisable(true);
+        audioCompressionConverter.convertAllAsync().whenComplete((result, ex) -> Platform.runLater(() -> {
+            convertRecordingsButton.setDisable(false);
+            // Converted memos point at new .lac files and the WAVs are gone, so nothing cached may be played from.
+            // Even a failed run may have converted some recordings before stopping.
+            memoCache.clear();
+            TrackedApplication selectedApp = appTableView.getSelectionModel().getSelectedItem();
+            if (selectedApp != null && !isInEditMode) {
+                loadMemoForApp(selectedApp); // saving or cancelling an edit reloads currentMemo anyway
+            }
+            if (ex != null) {
+                DialogHelper.createTopMostAlert(Alert.AlertType.ERROR, "Compression Failed",
+                        "Existing recordings could not be compressed.", ex.getMessage());
+            } else {
+                DialogHelper.createTopMostAlert(Alert.AlertType.INFORMATION, "Recordings Compressed",
+                        "Existing recordings were converted to the lossless format.", result.toString());
+            }
+        }));
+    }
+
+    private void applyGeminiEndpoint() {
+        String endpoint = geminiEndpointTextField.getText() == null ? "" : geminiEndpointTextField.getText().trim();
+        settingsManager.setGeminiEndpoint(endpoint);
+    }
+
     private void loadApplicationsFromDB() {
         trackedAppsList.setAll(dbManager.getAllTrackedApplications());
         systemMonitor.setTrackedApplications(trackedAppsList);
@@ -247,11 +503,29 @@ public class MainController implements Initializable, SystemMonitorListener {
         String markdownText = latestMemo.map(MemoViewItem::transcriptionText).orElse("### No Reminder Found\n\nNo reminder has been recorded for this application yet.");
 
         reminderTextArea.setText(markdownText);
-        reminderWebView.getEngine().loadContent(MarkdownConverter.toHtml(markdownText));
+        if (currentMemo != null) {
+            reminderPane.showMemo(currentMemo);
+        } else {
+            reminderPane.showMarkdown(markdownText);
+        }
+    }
+
+    // Dialogs pick up the renderer when they open; the main tab's pane is swapped immediately.
+    private void recreateReminderPane() {
+        reminderPane = MarkdownPane.create();
+        reminderContentPane.getChildren().setAll(reminderPane.getNode());
+        TrackedApplication selectedApp = appTableView.getSelectionModel().getSelectedItem();
+        if (currentMemo != null) {
+            reminderPane.showMemo(currentMemo); // not reloaded, so an edit in progress is kept
+        } else if (selectedApp != null) {
+            loadMemoForApp(selectedApp);
+        } else {
+            reminderPane.showMarkdown(NO_APP_SELECTED_MESSAGE);
+        }
     }
 
     private void loadHistoricalMemosForApp(TrackedApplication app) {
-        historicalMemosList.setAll(dbManager.getAllMemosForApp(app.getAppId()));
+        historicalMemosList.setAll(dbManager.getMemoPreviewsForApp(app.getAppId(), HISTORY_PREVIEW_LENGTH));
         updateHistoricalButtonStates(false);
         historicalMemosTableView.getSelectionModel().selectedItemProperty().addListener(
                 (obs, oldSelection, newSelection) -> {
@@ -263,6 +537,7 @@ public class MainController implements Initializable, SystemMonitorListener {
     private void updateButtonStates(boolean itemSelected) {
         launchAppButton.setDisable(!itemSelected);
         updateAppButton.setDisable(!itemSelected);
+        reminderPolicyButton.setDisable(!itemSelected);
         removeAppButton.setDisable(!itemSelected);
         editOrSaveButton.setDisable(!itemSelected || currentMemo == null);
 
@@ -281,8 +556,13 @@ public class MainController implements Initializable, SystemMonitorListener {
 
     private void toggleEditMode(boolean isEditing) {
         isInEditMode = isEditing;
-        reminderTextArea.setVisible(isEditing);
-        reminderWebView.setVisible(!isEditing);
+        reminderEditorSplitPane.setVisible(isEditing);
+        reminderContentPane.setVisible(!isEditing);
+        if (isEditing) {
+            markdownPreview.reset(reminderTextArea.getText());
+        } else {
+            markdownPreview.stop();
+        }
         cancelEditButton.setVisible(isEditing);
 
         editOrSaveButton.getStyleClass().removeAll("warning-button", "success-button");
@@ -298,51 +578,110 @@ public class MainController implements Initializable, SystemMonitorListener {
 
     private void startRecordingProcess(TrackedApplication app) {
         isRecording = true;
-        String userTempDir = System.getProperty("java.io.tmpdir");
-        String audioFilePath = new File(userTempDir, "temp_memo.wav").getAbsolutePath();
+        String audioFilePath = newRecordingPath(app);
 
         StageAndController<RecordingController> sac = DialogHelper.showRecordingDialog(app, audioRecorder, audioFilePath);
 
         if (sac != null) {
             sac.stage.setOnHidden(e -> {
-                audioRecorder.stopRecording();
-                isRecording = false;
-                transcribeAndSave(app, audioFilePath);
+                long recordingEnded = System.nanoTime();
+                // Stopping drains the line and joins the capture and writer threads; keep that off the FX thread.
+                CompletableFuture.runAsync(audioRecorder::stopRecording)
+                        .whenComplete((ignored, ex) -> Platform.runLater(() -> {
+                            isRecording = false;
+                            if (ex != null) {
+                                log.error("Stopping the recording failed", ex);
+                                DialogHelper.createTopMostAlert(Alert.AlertType.ERROR, "Recording Failed",
+                                        "The recording could not be finished.", ex.getMessage());
+                                return;
+                            }
+                            transcribeAndSave(app, audioFilePath, recordingEnded);
+                        }));
             });
         } else {
             isRecording = false;
         }
     }
 
-    private void transcribeAndSave(TrackedApplication app, String audioFilePath) {
-        Stage transcribingDialog = DialogHelper.showTranscribingDialog();
-
-        boolean enableGemini = settingsManager.isGeminiProcessingEnabled();
-        String geminiApiKey = settingsManager.getGeminiApiKey(); // Retrieve saved key
+    /** Each memo keeps its own recording in the app's audio folder, compressed if enabled in the settings. */
+    private String newRecordingPath(TrackedApplication app) {
+        String extension = settingsManager.isCompressRecordingsEnabled() ? LosslessAudioEncoder.FILE_EXTENSION : ".wav";
+        String fileName = "memo-" + app.getAppId() + "-"
+                + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now()) + extension;
+        try {
+            return AppDirectories.resolve("audio").resolve(fileName).toString();
+        } catch (IOException e) {
+            log.warn("Audio folder unavailable, recording to the temp folder: " + e.getMessage(), e);
+            return new File(System.getProperty("java.io.tmpdir"), fileName).getAbsolutePath();
+        }
+    }
 
-        pythonBridge.transcribeAudio(audioFilePath, enableGemini, geminiApiKey).thenAccept(transcription -> {
+    /** @param recordingEnded {@link System#nanoTime()} when the user stopped the recording, for the end-to-end latency */
+    private void transcribeAndSave(TrackedApplication app, String audioFilePath, long recordingEnded) {
+        StageAndController<TranscribingController> transcribingSac = DialogHelper.showTranscribingDialog();
+        Stage transcribingDialog = transcribingSac != null ? transcribingSac.stage : null;
+        TranscriptionListener progressListener = transcribingSac != null ? transcribingSac.controller : null;
+
+        Settings settings = settingsManager.current();
+        boolean enableGemini = settings.geminiProcessingEnabled();
+        String geminiApiKey = settings.geminiApiKey(); // Retrieve saved key
+        boolean trimSilence = settings.trimSilence();
+
+        // The VAD stage runs off the FX thread; the original recording is still what gets saved and played back.
+        // Its offset map has no consumer yet (the transcript carries no timestamps), but the Result is kept until
+        // transcription is done so the trimmed copy can be deleted then.
+        CompletableFuture.supplyAsync(() -> {
+            long prepareStart = System.nanoTime();
+            try {
+                // Whisper and the VAD read WAV; compressed recordings are decoded to a temporary copy first.
+                String wavPath;
+                try {
+                    wavPath = LosslessAudioDecoder.toWavPath(audioFilePath);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+                if (!trimSilence) return VoiceActivityDetector.Result.untrimmed(wavPath);
+                if (progressListener != null) progressListener.onStageChanged("trimming_silence");
+                return voiceActivityDetector.process(wavPath);
+            } finally {
+                prepareLatency.recordSince(prepareStart);
+            }
+        }).thenCompose(vad -> {
+            long transcriptionStart = System.nanoTime();
+            return pythonBridge.transcribeAudio(vad.audioFilePath(), progressListener)
+                    .whenComplete((text, ex) -> {
+                        transcriptionLatency.recordSince(transcriptionStart);
+                        vad.deleteTrimmedFile();
+                    });
+        }).thenAccept(transcription -> {
             Platform.runLater(() -> {
                 if (transcribingDialog != null) transcribingDialog.close();
             });
 
             if (transcription != null && !transcription.startsWith("Error:")) {
-                dbManager.saveMemo(app.getAppId(), transcription, audioFilePath);
+                // The raw transcript is saved and shown right away; the LLM summary replaces it when (if) it arrives.
+                long saveStart = System.nanoTime();
+                Optional<Integer> memoId = dbManager.saveMemo(app.getAppId(), transcription, audioFilePath);
                 Platform.runLater(() -> {
-                    if (app.equals(appTableView.getSelectionModel().getSelectedItem())) {
-                        loadMemoForApp(app);
-                        loadHistoricalMemosForApp(app);
+                    refreshMemosIfSelected(app);
+                    StageAndController<TranscriptionResultController> resultSac =
+                            DialogHelper.showTranscriptionResultDialog(transcription, audioFilePath, true);
+                    saveToVisibleLatency.recordSince(saveStart);
+                    endToEndLatency.recordSince(recordingEnded);
+                    if (enableGemini && memoId.isPresent()) {
+                        postProcessAndReplace(app, memoId.get(), transcription, geminiApiKey, resultSac);
                     }
-                    DialogHelper.showTranscriptionResultDialog(transcription, audioFilePath, true);
                 });
             } else {
+                failureCount.increment();
                 Platform.runLater(() -> DialogHelper.createTopMostAlert(
                         Alert.AlertType.ERROR, "Transcription Failed",
                         "The transcription process failed.", transcription
                 ));
             }
         }).exceptionally(ex -> {
-            System.err.println("Exception in transcription future: " + ex.getMessage());
-            ex.printStackTrace();
+            failureCount.increment();
+            log.error("Exception in transcription future: " + ex.getMessage(), ex);
             Platform.runLater(() -> {
                 if (transcribingDialog != null) transcribingDialog.close();
                 DialogHelper.createTopMostAlert(
@@ -354,6 +693,50 @@ public class MainController implements Initializable, SystemMonitorListener {
         });
     }
 
+    /**
+     * Runs LLM post-processing on a saved memo in the background and replaces its text with the summary.
+     * On failure the raw transcript simply stays in place. The result dialog is only updated while it is still
+     * open: it is pooled, so once closed it may already be showing another memo.
+     */
+    private void postProcessAndReplace(TrackedApplication app, int memoId, String rawText, String apiKey,
+                                       StageAndController<TranscriptionResultController> resultDialog) {
+        if (resultDialog != null) resultDialog.controller.showPostProcessing();
+        long summaryStart = System.nanoTime();
+        llmPostProcessor.process(rawText, apiKey).whenComplete((summary, ex) -> {
+            summaryLatency.recordSince(summaryStart);
+            if (ex != null) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                log.warn("LLM post-processing failed for memo " + memoId + ", keeping the raw transcript: " + cause.getMessage(), cause);
+                Platform.runLater(() -> {
+                    if (resultDialog != null && resultDialog.isActive()) resultDialog.controller.showPostProcessingFailed(cause.getMessage());
+                });
+                return;
+            }
+            // Retries and the rate limit can delay the summary by minutes; an edit saved meanwhile wins.
+            if (!dbManager.replaceMemoText(memoId, rawText, summary)) {
+                log.info("Memo " + memoId + " was edited or deleted before its summary arrived; summary discarded.");
+                Platform.runLater(() -> {
+                    if (resultDialog != null && resultDialog.isActive()) resultDialog.controller.showPostProcessingDiscarded();
+                });
+                return;
+            }
+            MarkdownConverter.invalidate(memoId);
+            memoCache.invalidate(memoId);
+            Platform.runLater(() -> {
+                refreshMemosIfSelected(app);
+                if (resultDialog != null && resultDialog.isActive()) resultDialog.controller.showPostProcessed(summary);
+            });
+        });
+    }
+
+    private void refreshMemosIfSelected(TrackedApplication app) {
+        if (app.equals(appTableView.getSelectionModel().getSelectedItem())) {
+            // Reloading would reset the editor; saving or cancelling the edit reloads the memo anyway.
+            if (!isInEditMode) loadMemoForApp(app);
+            loadHistoricalMemosForApp(app);
+        }
+    }
+
     @FXML
     private void handleAddApp() {
         FileChooser fileChooser = new FileChooser();
@@ -392,6 +775,7 @@ public class MainController implements Initializable, SystemMonitorListener {
             );
             if (result.isPresent() && result.get() == ButtonType.OK) {
                 dbManager.removeTrackedApplication(selectedApp.getAppId());
+                reminderScheduler.forget(selectedApp.getAppId());
                 loadApplicationsFromDB();
             }
         }
@@ -402,10 +786,10 @@ public class MainController implements Initializable, SystemMonitorListener {
         TrackedApplication selectedApp = appTableView.getSelectionModel().getSelectedItem();
         if (selectedApp != null) {
             try {
-                System.out.println("Launching application: " + selectedApp.getExecutablePath());
+                log.info("Launching application: " + selectedApp.getExecutablePath());
                 new ProcessBuilder(selectedApp.getExecutablePath()).start();
             } catch (Exception e) {
-                System.err.println("Failed to launch application: " + e.getMessage());
+                log.error("Failed to launch application: " + e.getMessage(), e);
                 DialogHelper.createTopMostAlert(
                         Alert.AlertType.ERROR, "Launch Error",
                         "Failed to launch application.", e.getMessage()
@@ -454,6 +838,8 @@ public class MainController implements Initializable, SystemMonitorListener {
             int memoId = currentMemo.memoId();
 
             dbManager.updateMemoText(memoId, updatedText);
+            MarkdownConverter.invalidate(memoId);
+            memoCache.invalidate(memoId);
 
             loadMemoForApp(selectedApp);
             loadHistoricalMemosForApp(selectedApp);
@@ -478,9 +864,9 @@ public class MainController implements Initializable, SystemMonitorListener {
 
     @FXML
     private void handleViewHistoricalMemo() {
-        MemoViewItem selectedMemo = historicalMemosTableView.getSelectionModel().getSelectedItem();
+        MemoPreview selectedMemo = historicalMemosTableView.getSelectionModel().getSelectedItem();
         if (selectedMemo != null) {
-            DialogHelper.showTranscriptionResultDialog(selectedMemo.transcriptionText(), selectedMemo.audioFilePath(), false);
+            openMemo(selectedMemo);
         } else {
             DialogHelper.createTopMostAlert(
                     Alert.AlertType.WARNING, "No Memo Selected",
@@ -489,9 +875,22 @@ public class MainController implements Initializable, SystemMonitorListener {
         }
     }
 
+    /** Loads the full memo behind a preview row and shows it. */
+    private void openMemo(MemoPreview preview) {
+        Optional<MemoViewItem> memo = memoCache.get(preview.memoId());
+        if (memo.isPresent()) {
+            DialogHelper.showTranscriptionResultDialog(memo.get(), false);
+        } else {
+            DialogHelper.createTopMostAlert(
+                    Alert.AlertType.WARNING, "Memo Not Found",
+                    "This memo no longer exists.", null
+            );
+        }
+    }
+
     @FXML
     private void handleDeleteHistoricalMemo() {
-        MemoViewItem selectedMemo = historicalMemosTableView.getSelectionModel().getSelectedItem();
+        MemoPreview selectedMemo = historicalMemosTableView.getSelectionModel().getSelectedItem();
         if (selectedMemo != null) {
             Optional<ButtonType> result = DialogHelper.createTopMostAlert(
                     Alert.AlertType.CONFIRMATION, "Confirm Deletion",
@@ -500,6 +899,8 @@ public class MainController implements Initializable, SystemMonitorListener {
             );
             if (result.isPresent() && result.get() == ButtonType.OK) {
                 dbManager.deleteMemo(selectedMemo.memoId());
+                MarkdownConverter.invalidate(selectedMemo.memoId());
+                memoCache.invalidate(selectedMemo.memoId());
                 TrackedApplication currentApp = appTableView.getSelectionModel().getSelectedItem();
                 if (currentApp != null) {
                     loadMemoForApp(currentApp);
@@ -520,32 +921,56 @@ public class MainController implements Initializable, SystemMonitorListener {
 
     @FXML
     private void handleSearch() {
-        String query = searchQueryTextField.getText();
-        if (query == null || query.trim().isEmpty()) {
+        searchDebounce.stop();
+        runSearch();
+    }
+
+    // --- Search as you type: queries run in the background and results arrive page by page ---
+    private void runSearch() {
+        String query = searchQueryTextField.getText() == null ? "" : searchQueryTextField.getText().trim();
+        if (query.isEmpty()) {
+            memoSearch.cancel();
             searchResultsList.clear();
-            DialogHelper.createTopMostAlert(
-                    Alert.AlertType.INFORMATION, "Empty Search",
-                    "Please enter a search query.", null
-            );
+            updateSearchButtonStates(false);
+            searchStatusLabel.setText("");
             return;
         }
-        List<MemoViewItem> results = dbManager.searchMemos(query.trim());
-        searchResultsList.setAll(results);
-        updateSearchButtonStates(false);
+        searchStatusLabel.setText("Searching...");
+        // Earlier results stay visible until the first page of the new query replaces them.
+        memoSearch.search(query, new MemoSearch.Listener() {
+            @Override
+            public void onPage(List<MemoPreview> page, boolean firstPage) {
+                if (firstPage) {
+                    searchResultsList.setAll(page);
+                    updateSearchButtonStates(false);
+                } else {
+                    searchResultsList.addAll(page);
+                }
+                searchStatusLabel.setText("Searching... " + searchResultsList.size() + " found so far");
+            }
 
-        if (results.isEmpty()) {
-            DialogHelper.createTopMostAlert(
-                    Alert.AlertType.INFORMATION, "No Results",
-                    "No memos found matching your search query.", null
-            );
-        }
+            @Override
+            public void onFinished(int totalResults) {
+                searchStatusLabel.setText(totalResults == 0
+                        ? "No memos found matching \"" + query + "\"."
+                        : totalResults + (totalResults == 1 ? " memo found." : " memos found."));
+            }
+
+            @Override
+            public void onFailed(SQLException error) {
+                searchStatusLabel.setText(searchResultsList.isEmpty()
+                        ? "Search failed, the database could not be reached: " + error.getMessage()
+                        : "Search stopped after " + searchResultsList.size() + " memos, the database could not be reached: "
+                                + error.getMessage());
+            }
+        });
     }
 
     @FXML
     private void handleViewSearchMemo() {
-        MemoViewItem selectedMemo = searchResultsTableView.getSelectionModel().getSelectedItem();
+        MemoPreview selectedMemo = searchResultsTableView.getSelectionModel().getSelectedItem();
         if (selectedMemo != null) {
-            DialogHelper.showTranscriptionResultDialog(selectedMemo.transcriptionText(), selectedMemo.audioFilePath(), false);
+            openMemo(selectedMemo);
         } else {
             DialogHelper.createTopMostAlert(
                     Alert.AlertType.WARNING, "No Memo Selected",
@@ -556,7 +981,7 @@ public class MainController implements Initializable, SystemMonitorListener {
 
     @FXML
     private void handleDeleteSearchMemo() {
-        MemoViewItem selectedMemo = searchResultsTableView.getSelectionModel().getSelectedItem();
+        MemoPreview selectedMemo = searchResultsTableView.getSelectionModel().getSelectedItem();
         if (selectedMemo != null) {
             Optional<ButtonType> result = DialogHelper.createTopMostAlert(
                     Alert.AlertType.CONFIRMATION, "Confirm Deletion",
@@ -565,6 +990,8 @@ public class MainController implements Initializable, SystemMonitorListener {
             );
             if (result.isPresent() && result.get() == ButtonType.OK) {
                 dbManager.deleteMemo(selectedMemo.memoId());
+                MarkdownConverter.invalidate(selectedMemo.memoId());
+                memoCache.invalidate(selectedMemo.memoId());
                 handleSearch();
 
                 TrackedApplication currentApp = appTableView.getSelectionModel().getSelectedItem();
@@ -585,10 +1012,84 @@ public class MainController implements Initializable, SystemMonitorListener {
         }
     }
 
+    // --- Diagnostics: pipeline latencies and counters from the metrics registry ---
+    private void setupDiagnosticsTab() {
+        Metrics.gauge("log.dropped", Log::getDroppedCount);
+        Metrics.gauge("markdown.cache.hits", () -> MarkdownConverter.getCacheStats().hits());
+        Metrics.gauge("markdown.cache.misses", () -> MarkdownConverter.getCacheStats().misses());
+        Metrics.gauge("markdown.cache.size", () -> MarkdownConverter.getCacheStats().size());
+
+        metricNameColumn.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().name()));
+        metricCountColumn.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(String.valueOf(cellData.getValue().value())));
+        metricP50Column.setCellValueFactory(cellData -> latencyCell(cellData.getValue(), cellData.getValue().p50Millis()));
+        metricP90Column.setCellValueFactory(cellData -> latencyCell(cellData.getValue(), cellData.getValue().p90Millis()));
+        metricP99Column.setCellValueFactory(cellData -> latencyCell(cellData.getValue(), cellData.getValue().p99Millis()));
+        metricMaxColumn.setCellValueFactory(cellData -> latencyCell(cellData.getValue(), cellData.getValue().maxMillis()));
+        metricMeanColumn.setCellValueFactory(cellData -> latencyCell(cellData.getValue(), cellData.getValue().meanMillis()));
+        metricsTableView.setItems(metricsList);
+        metricsTableView.setPlaceholder(new Label("Nothing measured yet."));
+
+        metricsRefresh.setCycleCount(Timeline.INDEFINITE);
+        diagnosticsTab.selectedProperty().addListener((obs, wasSelected, isSelected) -> {
+            if (isSelected) {
+                refreshMetrics();
+                metricsRefresh.play();
+            } else {
+                metricsRefresh.stop();
+            }
+        });
+    }
+
+    private static ReadOnlyStringWrapper latencyCell(Metrics.Sample sample, double millis) {
+        boolean measured = sample.type() == Metrics.Type.LATENCY && sample.count() > 0;
+        return new ReadOnlyStringWrapper(measured ? String.format("%.2f", millis) : "");
+    }
+
+    private void refreshMetrics() {
+        // Keep the selected row selected across refreshes; the samples are new objects every time.
+        Metrics.Sample selected = metricsTableView.getSelectionModel().getSelectedItem();
+        metricsList.setAll(Metrics.snapshot());
+        if (selected != null) {
+            metricsList.stream().filter(sample -> sample.name().equals(selected.name())).findFirst()
+                    .ifPresent(sample -> metricsTableView.getSelectionModel().select(sample));
+        }
+        startupReportTextArea.setText(MainApplication.getStartupTimings().report());
+        diagnosticsStatusLabel.setText("Updated " + LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")));
+    }
+
+    @FXML
+    private void handleRefreshMetrics() {
+        refreshMetrics();
+    }
+
+    @FXML
+    private void handleResetMetrics() {
+        Metrics.reset();
+        refreshMetrics();
+    }
+
+    @FXML
+    private void handleExportMetrics() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Metrics");
+        fileChooser.setInitialFileName("tracker-metrics-"
+                + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now()) + ".json");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON", "*.json"));
+        File file = fileChooser.showSaveDialog(appTableView.getScene().getWindow());
+        if (file == null) return;
+        try {
+            Metrics.exportTo(file.toPath(), MainApplication.getStartupTimings());
+            diagnosticsStatusLabel.setText("Exported to " + file.getName());
+        } catch (IOException e) {
+            DialogHelper.createTopMostAlert(Alert.AlertType.ERROR, "Export Failed",
+                    "The metrics could not be exported.", e.getMessage());
+        }
+    }
 
     @Override
     public void onMonitoredAppClosed(TrackedApplication app) {
         dbManager.updateLastClosedTimestamp(app.getAppId());
+        reminderScheduler.onAppClosed(app.getAppId());
         if (isRecording) return;
         Platform.runLater(() -> {
             Optional<ButtonType> response = DialogHelper.createTopMostAlert(
@@ -604,29 +1105,122 @@ public class MainController implements Initializable, SystemMonitorListener {
 
     @Override
     public void onMonitoredAppOpened(TrackedApplication app) {
-        if (settingsManager.areRemindersDisabled()) return;
-        Platform.runLater(() -> {
-            Optional<MemoViewItem> memoOpt = dbManager.getLatestMemoForApp(app.getAppId());
-            Optional<Timestamp> lastClosedOpt = dbManager.getLastClosedTimestamp(app.getAppId());
-
-            memoOpt.ifPresent(memo -> {
-                int intervalHours = settingsManager.getReminderIntervalHours();
-                boolean shouldShowPopup = (intervalHours == -1) || lastClosedOpt.map(ts ->
-                        Duration.between(ts.toInstant(), Instant.now()).toHours() >= intervalHours
-                ).orElse(true);
-
-                if (shouldShowPopup) {
-                    Optional<ButtonType> response = DialogHelper.createTopMostAlert(
-                            Alert.AlertType.CONFIRMATION, "View Reminder",
-                            "You have a reminder for " + app.getAppName(),
-                            "Would you like to view it?"
-                    );
-                    if (response.isPresent() && response.get() == ButtonType.OK) {
-                        DialogHelper.showReminderDialog(memo);
-                    }
-                }
-            });
+        // The scheduler decides from its in-memory state (policy, interval, quiet hours, snooze)...
+        reminderScheduler.onAppOpened(app.getAppId()).thenAccept(remind -> {
+            if (remind) fetchAndOfferReminder(app);
+        });
+    }
+
+    /** A snoozed reminder, or one held back by quiet hours, became due while its app is open. */
+    private void onReminderDue(int appId) {
+        Platform.runLater(() -> trackedAppsList.stream()
+                .filter(a -> a.getAppId() == appId)
+                .findFirst()
+                .ifPresent(this::fetchAndOfferReminder));
+    }
+
+    private void fetchAndOfferReminder(TrackedApplication app) {
+        // ...the memo is fetched off the FX thread...
+        CompletableFuture.supplyAsync(() -> dbManager.getLatestMemoForApp(app.getAppId()))
+                .thenAccept(memoOpt -> memoOpt.ifPresent(memo -> Platform.runLater(() -> offerReminder(app, memo))));
+    }
+
+    private void offerReminder(TrackedApplication app, MemoViewItem memo) {
+        // ...and rendered into a pooled dialog while the user is still deciding, so "OK" shows it instantly.
+        StageAndController<ReminderViewController> reminder = DialogHelper.prepareReminderDialog(memo);
+        if (reminder == null) return;
+        ButtonType snooze = new ButtonType("Snooze", ButtonBar.ButtonData.OTHER);
+        Optional<ButtonType> response = DialogHelper.createTopMostAlert(
+                Alert.AlertType.CONFIRMATION, "View Reminder",
+                "You have a reminder for " + app.getAppName(),
+                "Would you like to view it?",
+                ButtonType.OK, snooze, ButtonType.CANCEL
+        );
+        if (response.isPresent() && response.get() == ButtonType.OK) {
+            DialogHelper.showPreparedReminderDialog(reminder);
+        } else {
+            DialogHelper.discardPreparedReminderDialog(reminder);
+            if (response.isPresent() && response.get() == snooze) {
+                reminderScheduler.snooze(app.getAppId());
+            }
+        }
+    }
+
+    @FXML
+    private void handleReminderPolicy() {
+        TrackedApplication selectedApp = appTableView.getSelectionModel().getSelectedItem();
+        if (selectedApp == null) return;
+        reminderScheduler.getPolicy(selectedApp.getAppId())
+                .thenAccept(policy -> Platform.runLater(() -> editReminderPolicy(selectedApp, policy)));
+    }
+
+    private void editReminderPolicy(TrackedApplication app, Optional<ReminderPolicy> current) {
+        ReminderPolicy initial = current.orElse(ReminderPolicy.global(settingsManager.getReminderIntervalHours()));
+
+        CheckBox useGlobal = new CheckBox("Use the global reminder settings");
+        useGlobal.setSelected(current.isEmpty());
+        ChoiceBox<ReminderInterval> interval = new ChoiceBox<>(FXCollections.observableArrayList(ReminderInterval.values()));
+        interval.setValue(ReminderInterval.fromHours(initial.intervalHours()).orElse(ReminderInterval.ALWAYS));
+        TextField quietStart = new TextField(initial.quietStart() == null ? "" : initial.quietStart().toString());
+        TextField quietEnd = new TextField(initial.quietEnd() == null ? "" : initial.quietEnd().toString());
+        quietStart.setPromptText("22:00");
+        quietEnd.setPromptText("07:00");
+        ChoiceBox<Integer> snooze = new ChoiceBox<>(FXCollections.observableArrayList(10, 30, 60, 120, 240));
+        snooze.setValue(initial.snoozeMinutes());
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.add(useGlobal, 0, 0, 2, 1);
+        grid.addRow(1, new Label("Remind at next open:"), interval);
+        grid.addRow(2, new Label("Quiet hours from (HH:mm):"), quietStart);
+        grid.addRow(3, new Label("Quiet hours until (HH:mm):"), quietEnd);
+        grid.addRow(4, new Label("Snooze (minutes):"), snooze);
+        for (Node field : List.of(interval, quietStart, quietEnd, snooze)) {
+            field.disableProperty().bind(useGlobal.selectedProperty());
+        }
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        // --- Apply dark theme to the dialog ---
+        DialogPane dialogPane = dialog.getDialogPane();
+        dialogPane.getStylesheets().add(MainApplication.class.getResource("style.css").toExternalForm());
+        dialogPane.getStyleClass().add("root");
+        // --- END ---
+        dialog.setTitle("Reminder Policy");
+        dialog.setHeaderText("When should reminders for " + app.getAppName() + " be shown?");
+        dialogPane.setContent(grid);
+        dialogPane.getButtonTypes().setAll(ButtonType.OK, ButtonType.CANCEL);
+
+        // Invalid times keep the dialog open instead of closing it with a half-applied policy.
+        dialogPane.lookupButton(ButtonType.OK).addEventFilter(ActionEvent.ACTION, event -> {
+            if (!useGlobal.isSelected() && parseQuietHours(quietStart.getText(), quietEnd.getText()) == null) {
+                DialogHelper.createTopMostAlert(Alert.AlertType.WARNING, "Invalid Quiet Hours",
+                        "Enter both times as HH:mm, or leave both empty.", null);
+                event.consume();
+            }
         });
+
+        Optional<ButtonType> response = dialog.showAndWait();
+        if (response.isEmpty() || response.get() != ButtonType.OK) return;
+        if (useGlobal.isSelected()) {
+            reminderScheduler.setPolicy(app.getAppId(), null);
+        } else {
+            LocalTime[] quiet = parseQuietHours(quietStart.getText(), quietEnd.getText());
+            reminderScheduler.setPolicy(app.getAppId(),
+                    new ReminderPolicy(interval.getValue().getHours(), quiet[0], quiet[1], snooze.getValue()));
+        }
+    }
+
+    /** @return {start, end}, both null for no quiet hours; or null if the input is invalid. */
+    private static LocalTime[] parseQuietHours(String start, String end) {
+        String from = start == null ? "" : start.trim();
+        String until = end == null ? "" : end.trim();
+        if (from.isEmpty() && until.isEmpty()) return new LocalTime[]{null, null};
+        try {
+            return new LocalTime[]{LocalTime.parse(from), LocalTime.parse(until)};
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 }
 
@@ -662,4 +1256,37 @@ enum ReminderInterval {
         }
         return Optional.empty();
     }
-}
\ No newline at end of file
+}
+
+enum ChunkingThreshold {
+    NEVER("Never", 0),
+    ONE_MINUTE("Memos over 1 Minute", 60),
+    TWO_MINUTES("Memos over 2 Minutes", 120),
+    FIVE_MINUTES("Memos over 5 Minutes", 300);
+
+    private final String displayName;
+    private final int seconds;
+
+    ChunkingThreshold(String displayName, int seconds) {
+        this.displayName = displayName;
+        this.seconds = seconds;
+    }
+
+    public int getSeconds() {
+        return seconds;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    public static Optional<ChunkingThreshold> fromSeconds(int seconds) {
+        for (ChunkingThreshold threshold : values()) {
+            if (threshold.seconds == seconds) {
+                return Optional.of(threshold);
+            }
+        }
+        return Optional.empty();
+    }
+}
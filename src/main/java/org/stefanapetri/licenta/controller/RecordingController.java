@@ -1,6 +1,6 @@
 package org.stefanapetri.licenta.controller;
 
-import javafx.application.Platform;
+import javafx.animation.AnimationTimer;
 import javafx.fxml.FXML;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -9,59 +9,120 @@ import javafx.scene.control.Label;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import org.stefanapetri.licenta.service.AudioRecorder;
+import org.stefanapetri.licenta.service.LevelMeter;
+import org.stefanapetri.licenta.view.ReusableDialogController;
 
-import java.util.function.Consumer; // NEW IMPORT
+public class RecordingController implements ReusableDialogController {
 
-public class RecordingController {
+    // Envelope entries buffered between frames; 1024 entries is ~20 s at 50 entries per second.
+    private static final int METER_CAPACITY = 1024;
+    private static final Color PEAK_COLOR = Color.web("#007BFF", 0.45);
+    private static final Color RMS_COLOR = Color.web("#007BFF");
 
     @FXML private Label titleLabel;
     @FXML private Button stopButton;
     @FXML private Canvas waveformCanvas;
 
     private GraphicsContext gc;
+    private LevelMeter levelMeter;
+    private LevelMeter.Reader meterReader;
+    private AnimationTimer meterTimer;
+
+    // Scrolling history: one envelope entry per canvas column, stored circularly; newest is drawn at the right edge.
+    private float[] historyMin;
+    private float[] historyMax;
+    private float[] historyRms;
+    private int historyHead = 0;
+    private int historySize = 0;
+    // Scratch arrays the reader copies new entries into; allocated once.
+    private final float[] newMin = new float[METER_CAPACITY];
+    private final float[] newMax = new float[METER_CAPACITY];
+    private final float[] newRms = new float[METER_CAPACITY];
 
     @FXML
     public void initialize() {
         gc = waveformCanvas.getGraphicsContext2D();
         // Initial clear to ensure a blank canvas
         gc.clearRect(0, 0, waveformCanvas.getWidth(), waveformCanvas.getHeight());
+
+        int columns = Math.max(1, (int) waveformCanvas.getWidth());
+        historyMin = new float[columns];
+        historyMax = new float[columns];
+        historyRms = new float[columns];
+
+        // Pulls whatever the capture thread produced since the last frame; redraws only when something arrived.
+        meterTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (pullLevels()) {
+                    drawWaveform();
+                }
+            }
+        };
     }
 
     public void setAppName(String name) {
         titleLabel.setText("Recording Memo for " + name);
     }
 
-    // --- NEW METHOD: Provides the Consumer for audio data ---
-    public Consumer<byte[]> getAudioDataConsumer() {
-        return this::drawWaveform;
+    /** The meter the recorder feeds on its capture thread. */
+    public LevelMeter getLevelMeter() {
+        return levelMeter;
+    }
+
+    /** Starts a fresh meter for a new recording; the dialog is pooled, so this runs once per use. */
+    public void startMeter() {
+        levelMeter = new LevelMeter(AudioRecorder.getFormat(), METER_CAPACITY);
+        meterReader = levelMeter.newReader();
+        historyHead = 0;
+        historySize = 0;
+        gc.clearRect(0, 0, waveformCanvas.getWidth(), waveformCanvas.getHeight());
+        meterTimer.start();
+    }
+
+    public void stopMeter() {
+        meterTimer.stop();
     }
 
-    private void drawWaveform(byte[] data) {
-        Platform.runLater(() -> {
-            double canvasWidth = waveformCanvas.getWidth();
-            double canvasHeight = waveformCanvas.getHeight();
-            double centerY = canvasHeight / 2;
+    @Override
+    public void resetForReuse() {
+        stopMeter();
+        levelMeter = null;
+        meterReader = null;
+    }
 
-            gc.clearRect(0, 0, canvasWidth, canvasHeight);
-            gc.setStroke(Color.web("#007BFF"));
-            gc.setLineWidth(1.5);
-            gc.beginPath();
-            gc.moveTo(0, centerY);
+    private boolean pullLevels() {
+        int count = meterReader.read(newMin, newMax, newRms);
+        int columns = historyMin.length;
+        for (int i = 0; i < count; i++) {
+            historyMin[historyHead] = newMin[i];
+            historyMax[historyHead] = newMax[i];
+            historyRms[historyHead] = newRms[i];
+            historyHead = (historyHead + 1) % columns;
+            if (historySize < columns) historySize++;
+        }
+        return count > 0;
+    }
 
-            // Assuming 16-bit mono PCM data
-            for (int i = 0; i < data.length - 1; i += 2) { // Ensure we don't go out of bounds
-                int low = data[i] & 0xFF; // Unsigned byte
-                int high = data[i + 1] << 8;
-                int sample = high | low; // 16-bit signed short range: -32768 to 32767
+    private void drawWaveform() {
+        double canvasWidth = waveformCanvas.getWidth();
+        double canvasHeight = waveformCanvas.getHeight();
+        double centerY = canvasHeight / 2;
+        int columns = historyMin.length;
 
-                double x = (double) i / data.length * canvasWidth;
-                double y = centerY + ((double) sample / 32768.0) * centerY;
+        gc.clearRect(0, 0, canvasWidth, canvasHeight);
+        gc.setLineWidth(1.0);
+        for (int i = 0; i < historySize; i++) {
+            int index = (historyHead - historySize + i + columns) % columns;
+            double x = canvasWidth - historySize + i + 0.5;
 
-                gc.lineTo(x, y);
-            }
+            gc.setStroke(PEAK_COLOR);
+            gc.strokeLine(x, centerY - historyMax[index] * centerY, x, centerY - historyMin[index] * centerY);
 
-            gc.stroke();
-        });
+            double rms = historyRms[index] * centerY;
+            gc.setStroke(RMS_COLOR);
+            gc.strokeLine(x, centerY - rms, x, centerY + rms);
+        }
     }
 
     @FXML
@@ -69,4 +130,4 @@ public class RecordingController {
         Stage stage = (Stage) stopButton.getScene().getWindow();
         stage.close();
     }
-}
\ No newline at end of file
+}
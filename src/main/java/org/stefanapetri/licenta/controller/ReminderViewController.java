@@ -2,27 +2,40 @@ package org.stefanapetri.licenta.controller;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.layout.StackPane;
 import javafx.scene.text.Text;
-import javafx.scene.web.WebView;
 import javafx.stage.Stage;
 import org.stefanapetri.licenta.model.MemoViewItem; // MODIFIED: Import MemoViewItem
-import org.stefanapetri.licenta.view.MarkdownConverter;
+import org.stefanapetri.licenta.view.MarkdownPane;
+import org.stefanapetri.licenta.view.ReusableDialogController;
 
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 
-public class ReminderViewController {
+public class ReminderViewController implements ReusableDialogController {
 
     @FXML private Text dateText;
-    @FXML private WebView reminderWebView;
+    @FXML private StackPane reminderContentPane;
     @FXML private Button okButton;
 
+    private MarkdownPane contentPane;
+
     // MODIFIED: Accepts MemoViewItem
     public void setMemo(MemoViewItem memo) {
         DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM);
         dateText.setText(memo.createdAt().toLocalDateTime().format(formatter));
         // Uses transcriptionText from MemoViewItem
-        reminderWebView.getEngine().loadContent(MarkdownConverter.toHtml(memo.transcriptionText()));
+        // The dialog is pooled; a new pane is only needed when the renderer setting changed since the last use.
+        if (contentPane == null || contentPane.isWebView() != MarkdownPane.isUseWebView()) {
+            contentPane = MarkdownPane.create();
+            reminderContentPane.getChildren().setAll(contentPane.getNode());
+        }
+        contentPane.showMemo(memo);
+    }
+
+    @Override
+    public void resetForReuse() {
+        dateText.setText("");
     }
 
     @FXML
@@ -1,7 +1,50 @@
 package org.stefanapetri.licenta.controller;
 
-// This controller currently doesn't need any specific FXML fields or methods,
-// as the UI is static. It's here for consistency and future expansion.
-public class TranscribingController {
-    // No FXML fields or methods needed for this simple, static dialog
-}
\ No newline at end of file
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextArea;
+import org.stefanapetri.licenta.service.TranscriptionListener;
+
+// Shows live progress of the transcription pipeline. Events arrive on PythonBridge's drainer threads,
+// so every update is marshalled onto the FX thread.
+public class TranscribingController implements TranscriptionListener {
+
+    @FXML private Label stageLabel;
+    @FXML private ProgressBar progressBar;
+    @FXML private TextArea partialTextArea;
+
+    @FXML
+    public void initialize() {
+        progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+    }
+
+    @Override
+    public void onStageChanged(String stage) {
+        String text = switch (stage) {
+            case "trimming_silence" -> "Trimming silence...";
+            case "loading_model" -> "Loading speech model...";
+            case "transcribing" -> "Transcribing audio...";
+            case "transcribing_chunks" -> "Transcribing audio in parallel...";
+            case "cached" -> "Using cached transcription...";
+            default -> stage;
+        };
+        Platform.runLater(() -> {
+            stageLabel.setText(text);
+            if (!stage.equals("transcribing") && !stage.equals("transcribing_chunks")) {
+                progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+            }
+        });
+    }
+
+    @Override
+    public void onProgress(double percent) {
+        Platform.runLater(() -> progressBar.setProgress(percent / 100.0));
+    }
+
+    @Override
+    public void onSegment(double startSeconds, double endSeconds, String text) {
+        Platform.runLater(() -> partialTextArea.appendText(text));
+    }
+}
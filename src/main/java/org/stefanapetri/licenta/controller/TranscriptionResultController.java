@@ -1,34 +1,84 @@
 package org.stefanapetri.licenta.controller;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.Label;
 import javafx.scene.media.Media;
+import javafx.scene.layout.StackPane;
 import javafx.scene.media.MediaPlayer;
-import javafx.scene.web.WebView;
 import javafx.stage.Stage;
-import org.stefanapetri.licenta.view.MarkdownConverter;
+import org.stefanapetri.licenta.model.MemoViewItem;
+import org.stefanapetri.licenta.service.LosslessAudioDecoder;
+import org.stefanapetri.licenta.view.MarkdownPane;
+import org.stefanapetri.licenta.view.ReusableDialogController;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-public class TranscriptionResultController {
+public class TranscriptionResultController implements ReusableDialogController {
 
-    @FXML private WebView transcriptionWebView;
+    @FXML private StackPane transcriptionContentPane;
     @FXML private Button playRecordingButton;
     @FXML private Button okButton;
+    @FXML private Label statusLabel;
 
     private String audioFilePath;
     private MediaPlayer mediaPlayer;
+    private MarkdownPane contentPane;
 
     // MODIFIED: Added enablePlayback parameter
     public void setContent(String transcription, String audioFilePath, boolean enablePlayback) {
-        transcriptionWebView.getEngine().loadContent(MarkdownConverter.toHtml(transcription));
+        ensureContentPane().showMarkdown(transcription);
+        setAudio(audioFilePath, enablePlayback);
+    }
+
+    /** Shows a stored memo; the WebView fallback uses its pre-rendered HTML. */
+    public void setContent(MemoViewItem memo, boolean enablePlayback) {
+        ensureContentPane().showMemo(memo);
+        setAudio(memo.audioFilePath(), enablePlayback);
+    }
+
+    // The dialog is pooled; a new pane is only needed when the renderer setting changed since the last use.
+    private MarkdownPane ensureContentPane() {
+        if (contentPane == null || contentPane.isWebView() != MarkdownPane.isUseWebView()) {
+            contentPane = MarkdownPane.create();
+            transcriptionContentPane.getChildren().setAll(contentPane.getNode());
+        }
+        return contentPane;
+    }
+
+    private void setAudio(String audioFilePath, boolean enablePlayback) {
         this.audioFilePath = audioFilePath;
 
         // The play button is now enabled based on the 'enablePlayback' flag AND file existence
         playRecordingButton.setDisable(!enablePlayback || audioFilePath == null || !new File(audioFilePath).exists());
     }
 
+    // --- Post-processing status: the raw transcript is shown first and replaced once the summary arrives ---
+    public void showPostProcessing() {
+        statusLabel.setText("Summarizing with Gemini... The raw transcript is already saved.");
+        statusLabel.setVisible(true);
+        statusLabel.setManaged(true);
+    }
+
+    public void showPostProcessed(String summary) {
+        contentPane.showMarkdown(summary);
+        statusLabel.setVisible(false);
+        statusLabel.setManaged(false);
+    }
+
+    public void showPostProcessingFailed(String reason) {
+        statusLabel.setText("Summary unavailable, keeping the raw transcript. " + reason);
+    }
+
+    public void showPostProcessingDiscarded() {
+        statusLabel.setText("Summary not applied: the memo was edited in the meantime.");
+    }
+
     @FXML
     private void handlePlayRecording() {
         if (audioFilePath == null || !new File(audioFilePath).exists()) {
@@ -36,12 +86,36 @@ public class TranscriptionResultController {
             return;
         }
 
-        try {
-            if (mediaPlayer != null) {
-                mediaPlayer.stop();
+        if (mediaPlayer != null) {
+            mediaPlayer.stop();
+        }
+
+        // JavaFX Media only plays standard formats; compressed recordings are decoded to a temporary WAV first,
+        // off the FX thread since that reads and writes the whole recording.
+        String requestedPath = audioFilePath;
+        playRecordingButton.setDisable(true);
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return LosslessAudioDecoder.toWavPath(requestedPath);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }).whenComplete((playablePath, ex) -> Platform.runLater(() -> {
+            // The dialog is pooled: by now it may have been closed, or reused for another memo.
+            if (!requestedPath.equals(audioFilePath)) return;
+            playRecordingButton.setDisable(false);
+            if (ex != null) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                System.err.println("Error during audio playback: " + cause.getMessage());
+                return;
             }
+            play(playablePath);
+        }));
+    }
 
-            Media media = new Media(new File(audioFilePath).toURI().toURL().toString());
+    private void play(String playablePath) {
+        try {
+            Media media = new Media(new File(playablePath).toURI().toURL().toString());
             mediaPlayer = new MediaPlayer(media);
 
             mediaPlayer.setOnEndOfMedia(() -> {
@@ -62,12 +136,20 @@ public class TranscriptionResultController {
 
     @FXML
     private void handleOk() {
+        Stage stage = (Stage) okButton.getScene().getWindow();
+        stage.close();
+    }
+
+    /** Also runs when the window is closed with the title bar button, so playback never outlives the dialog. */
+    @Override
+    public void resetForReuse() {
         if (mediaPlayer != null) {
             mediaPlayer.stop();
             mediaPlayer.dispose();
             mediaPlayer = null;
         }
-        Stage stage = (Stage) okButton.getScene().getWindow();
-        stage.close();
+        audioFilePath = null;
+        statusLabel.setVisible(false);
+        statusLabel.setManaged(false);
     }
 }
\ No newline at end of file
@@ -1,62 +1,104 @@
 package org.stefanapetri.licenta.model;
 
+import org.stefanapetri.licenta.service.LatencyHistogram;
+import org.stefanapetri.licenta.service.Log;
+import org.stefanapetri.licenta.service.Logger;
+import org.stefanapetri.licenta.service.Metrics;
+import org.stefanapetri.licenta.service.TrackerEvents;
+
 import java.io.InputStream;
 import java.sql.*;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 
 public class DatabaseManager {
 
+    private static final Logger log = Log.get(DatabaseManager.class);
+    // There is no pool, so every statement pays for a new connection; measured apart from the statements.
+    private static final LatencyHistogram connectLatency = Metrics.latency("db.connect");
+    private static final LatencyHistogram saveMemoLatency = Metrics.latency("db.saveMemo");
+    private static final LatencyHistogram updateMemoTextLatency = Metrics.latency("db.updateMemoText");
+    private static final LatencyHistogram latestMemoLatency = Metrics.latency("db.getLatestMemoForApp");
+    private static final LatencyHistogram previewsLatency = Metrics.latency("db.getMemoPreviewsForApp");
+    private static final LatencyHistogram getMemoLatency = Metrics.latency("db.getMemo");
+    private static final LatencyHistogram searchLatency = Metrics.latency("db.searchMemos");
+    private static final Metrics.Counter errorCount = Metrics.counter("db.errors");
+
     private final String dbUrl;
     private final String dbUser;
     private final String dbPassword;
     private final String dbName;
+    private volatile MemoHtmlRenderer htmlRenderer;
+
+    // Preview rows: the text is cut and flattened to one line by the database, so the full body never leaves it.
+    // Takes the preview length twice as its first two parameters.
+    private static final String PREVIEW_COLUMNS = "m.memo_id, m.app_id, ta.app_name, m.created_at, " +
+            "TRANSLATE(LEFT(m.transcription_text, ?), E'\\r\\n', '  ') AS preview, " +
+            "LENGTH(m.transcription_text) > ? AS truncated";
 
     public DatabaseManager() {
+        this(loadProperties());
+    }
+
+    private DatabaseManager(Properties props) {
+        this(props.getProperty("db.url"), props.getProperty("db.user"), props.getProperty("db.password"));
+    }
+
+    /** Connects with the given settings instead of database.properties, e.g. for a test double that never connects. */
+    protected DatabaseManager(String dbUrl, String dbUser, String dbPassword) {
+        this.dbUrl = dbUrl;
+        this.dbUser = dbUser;
+        this.dbPassword = dbPassword;
+        // Extract database name from URL for creation logic
+        this.dbName = dbUrl.substring(dbUrl.lastIndexOf("/") + 1);
+    }
+
+    private static Properties loadProperties() {
         // Load database properties from the file
         try (InputStream input = DatabaseManager.class.getResourceAsStream("/org/stefanapetri/licenta/database.properties")) {
             if (input == null) {
-                System.err.println("FATAL: Could not find database.properties file.");
+                log.error("FATAL: Could not find database.properties file.");
                 throw new RuntimeException("database.properties not found on the classpath");
             }
             Properties props = new Properties();
             props.load(input);
-
-            this.dbUrl = props.getProperty("db.url");
-            this.dbUser = props.getProperty("db.user");
-            this.dbPassword = props.getProperty("db.password");
-
-            // Extract database name from URL for creation logic
-            this.dbName = this.dbUrl.substring(this.dbUrl.lastIndexOf("/") + 1);
-
-            System.out.println("Database properties loaded successfully.");
-
-            // NEW: Ensure the database and tables exist
-            initializeDatabase();
+            if (props.getProperty("db.url") == null) {
+                throw new IllegalStateException("db.url is missing from database.properties");
+            }
+            log.info("Database properties loaded successfully.");
+            return props;
 
         } catch (Exception e) {
-            System.err.println("FATAL: Error during DatabaseManager initialization: " + e.getMessage());
+            log.error("FATAL: Error during DatabaseManager initialization: " + e.getMessage(), e);
             throw new RuntimeException("Could not initialize DatabaseManager.", e);
         }
     }
 
-    private void initializeDatabase() throws SQLException {
+    /**
+     * Ensures the database and tables exist. This is the slow part of startup (several round trips, DDL), so it is
+     * separate from the constructor and runs in the background while the window is already showing.
+     * No other method may be used before it completed.
+     */
+    public void initializeDatabase() throws SQLException {
         // Step 1: Check if the database exists and create it if it doesn't.
         try (Connection conn = connect()) {
-            System.out.println("Successfully connected to existing database '" + dbName + "'.");
+            log.info("Successfully connected to existing database '" + dbName + "'.");
         } catch (SQLException e) {
             // SQL state "3D000" means the database does not exist in PostgreSQL.
             if (e.getSQLState().equals("3D000")) {
-                System.out.println("Database '" + dbName + "' not found. Attempting to create it.");
+                log.info("Database '" + dbName + "' not found. Attempting to create it.");
 
                 // Connect to the default 'postgres' database to create our new one.
                 String maintenanceUrl = dbUrl.substring(0, dbUrl.lastIndexOf("/") + 1) + "postgres";
                 try (Connection maintenanceConn = DriverManager.getConnection(maintenanceUrl, dbUser, dbPassword);
                      Statement stmt = maintenanceConn.createStatement()) {
                     stmt.executeUpdate("CREATE DATABASE " + dbName);
-                    System.out.println("Database '" + dbName + "' created successfully.");
+                    log.info("Database '" + dbName + "' created successfully.");
                 }
             } else {
                 // Another SQL error occurred (e.g., authentication failed), so we re-throw it.
@@ -90,17 +132,58 @@ public class DatabaseManager {
                 "REFERENCES tracked_applications(app_id) ON DELETE CASCADE" +
                 ");";
 
+        // Pre-rendered HTML, added after the first release
+        String addHtmlColumnsSql = "ALTER TABLE memos " +
+                "ADD COLUMN IF NOT EXISTS transcription_html TEXT, " +
+                "ADD COLUMN IF NOT EXISTS html_renderer_version INTEGER;";
+
+        // Per-app reminder policies; apps without a row use the interval from the settings
+        String createPoliciesTableSql = "CREATE TABLE IF NOT EXISTS reminder_policies (" +
+                "app_id INTEGER PRIMARY KEY, " +
+                "interval_hours INTEGER NOT NULL, " +
+                "quiet_start TIME, " +
+                "quiet_end TIME, " +
+                "snooze_minutes INTEGER NOT NULL, " +
+                "CONSTRAINT fk_policy_app FOREIGN KEY(app_id) " +
+                "REFERENCES tracked_applications(app_id) ON DELETE CASCADE" +
+                ");";
+
+        // Reminder timers of the scheduler, reloaded after a restart
+        String createPendingRemindersTableSql = "CREATE TABLE IF NOT EXISTS pending_reminders (" +
+                "app_id INTEGER NOT NULL, " +
+                "kind VARCHAR(16) NOT NULL, " +
+                "due_at TIMESTAMP WITH TIME ZONE NOT NULL, " +
+                "PRIMARY KEY (app_id, kind), " +
+                "CONSTRAINT fk_pending_app FOREIGN KEY(app_id) " +
+                "REFERENCES tracked_applications(app_id) ON DELETE CASCADE" +
+                ");";
+
         try (Statement stmt = conn.createStatement()) {
-            System.out.println("Ensuring 'tracked_applications' table exists...");
+            log.info("Ensuring 'tracked_applications' table exists...");
             stmt.execute(createAppTableSql);
-            System.out.println("Ensuring 'memos' table exists...");
+            log.info("Ensuring 'memos' table exists...");
             stmt.execute(createMemosTableSql);
-            System.out.println("Database tables are ready.");
+            stmt.execute(addHtmlColumnsSql);
+            log.info("Ensuring reminder tables exist...");
+            stmt.execute(createPoliciesTableSql);
+            stmt.execute(createPendingRemindersTableSql);
+            log.info("Database tables are ready.");
         }
     }
 
     private Connection connect() throws SQLException {
-        return DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+        long start = System.nanoTime();
+        Connection conn = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+        connectLatency.recordSince(start);
+        return conn;
+    }
+
+    /**
+     * Sets the renderer used to store HTML with each memo when it is saved or edited.
+     * Without one, memos are stored as text only and rendered by the views.
+     */
+    public void setHtmlRenderer(MemoHtmlRenderer htmlRenderer) {
+        this.htmlRenderer = htmlRenderer;
     }
 
     public List<TrackedApplication> getAllTrackedApplications() {
@@ -119,7 +202,7 @@ public class DatabaseManager {
                 ));
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching tracked applications: " + e.getMessage());
+            log.error("Error fetching tracked applications: " + e.getMessage());
         }
         return apps;
     }
@@ -133,11 +216,11 @@ public class DatabaseManager {
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
                 int newId = rs.getInt(1);
-                System.out.println("Successfully added application: " + appName);
+                log.info("Successfully added application: " + appName);
                 return Optional.of(new TrackedApplication(newId, appName, executablePath));
             }
         } catch (SQLException e) {
-            System.err.println("Error adding application: " + e.getMessage());
+            log.error("Error adding application: " + e.getMessage());
         }
         return Optional.empty();
     }
@@ -149,108 +232,234 @@ public class DatabaseManager {
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(deleteAppSql)) {
 
-            System.out.println("Deleting application ID: " + appId + ". Associated memos will be deleted by cascade.");
+            log.info("Deleting application ID: " + appId + ". Associated memos will be deleted by cascade.");
             pstmt.setInt(1, appId);
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected > 0) {
-                System.out.println("Application deleted successfully.");
+                log.info("Application deleted successfully.");
             } else {
-                System.out.println("No application found with ID: " + appId);
+                log.info("No application found with ID: " + appId);
             }
 
         } catch (SQLException e) {
-            System.err.println("Error removing application: " + e.getMessage());
+            log.error("Error removing application: " + e.getMessage());
         }
     }
 
 
-    public void saveMemo(int appId, String transcription, String audioFilePath) {
-        String sql = "INSERT INTO memos(app_id, transcription_text, audio_file_path) VALUES(?, ?, ?)";
+    /**
+     * Saves a memo.
+     * @return The new memo's ID, so later pipeline stages (e.g. LLM post-processing) can update it; empty on failure.
+     */
+    public Optional<Integer> saveMemo(int appId, String transcription, String audioFilePath) {
+        String sql = "INSERT INTO memos(app_id, transcription_text, audio_file_path, transcription_html, html_renderer_version) " +
+                "VALUES(?, ?, ?, ?, ?) RETURNING memo_id";
+        long start = System.nanoTime();
+        TrackerEvents.DatabaseStatement event = TrackerEvents.DatabaseStatement.start("saveMemo", sql);
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, appId);
             pstmt.setString(2, transcription);
             pstmt.setString(3, audioFilePath);
-            pstmt.executeUpdate();
-            System.out.println("Memo saved for app ID: " + appId);
+            setRenderedHtml(pstmt, 4, transcription);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    int memoId = rs.getInt("memo_id");
+                    log.info("Memo " + memoId + " saved for app ID: " + appId);
+                    return Optional.of(memoId);
+                }
+            }
+        } catch (SQLException e) {
+            errorCount.increment();
+            event.failed = true;
+            log.error("Error saving memo: " + e.getMessage());
+        } finally {
+            saveMemoLatency.recordSince(start);
+            event.commit();
+        }
+        return Optional.empty();
+    }
+
+    /** Every distinct audio file referenced by a memo, e.g. for converting recordings to another format. */
+    public List<String> getDistinctAudioFilePaths() {
+        String sql = "SELECT DISTINCT audio_file_path FROM memos WHERE audio_file_path IS NOT NULL";
+        List<String> paths = new ArrayList<>();
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                paths.add(rs.getString("audio_file_path"));
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching audio file paths: " + e.getMessage());
+        }
+        return paths;
+    }
+
+    /**
+     * Re-points every memo that uses {@code oldPath} at {@code newPath}.
+     * @return The number of memos updated.
+     */
+    public int updateAudioFilePath(String oldPath, String newPath) {
+        String sql = "UPDATE memos SET audio_file_path = ? WHERE audio_file_path = ?";
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, newPath);
+            pstmt.setString(2, oldPath);
+            return pstmt.executeUpdate();
         } catch (SQLException e) {
-            System.err.println("Error saving memo: " + e.getMessage());
+            log.error("Error updating audio file path: " + e.getMessage());
+            return 0;
         }
     }
 
     public void updateMemoText(int memoId, String newText) {
-        String sql = "UPDATE memos SET transcription_text = ? WHERE memo_id = ?";
+        String sql = "UPDATE memos SET transcription_text = ?, transcription_html = ?, html_renderer_version = ? WHERE memo_id = ?";
+        long start = System.nanoTime();
+        TrackerEvents.DatabaseStatement event = TrackerEvents.DatabaseStatement.start("updateMemoText", sql);
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, newText);
-            pstmt.setInt(2, memoId);
+            setRenderedHtml(pstmt, 2, newText);
+            pstmt.setInt(4, memoId);
             pstmt.executeUpdate();
-            System.out.println("Updated text for memo ID: " + memoId);
+            log.info("Updated text for memo ID: " + memoId);
 
         } catch (SQLException e) {
-            System.err.println("Error updating memo text: " + e.getMessage());
+            errorCount.increment();
+            event.failed = true;
+            log.error("Error updating memo text: " + e.getMessage());
+        } finally {
+            updateMemoTextLatency.recordSince(start);
+            event.commit();
         }
     }
+
+    /**
+     * Replaces the memo's text only if it still is {@code expectedText}, e.g. to put an LLM summary in place of the
+     * raw transcript without overwriting an edit the user saved while the summary was being made.
+     * @return True if the text was replaced; false if the memo was changed or deleted meanwhile, or on error.
+     */
+    public boolean replaceMemoText(int memoId, String expectedText, String newText) {
+        String sql = "UPDATE memos SET transcription_text = ?, transcription_html = ?, html_renderer_version = ? " +
+                "WHERE memo_id = ? AND transcription_text = ?";
+        long start = System.nanoTime();
+        TrackerEvents.DatabaseStatement event = TrackerEvents.DatabaseStatement.start("replaceMemoText", sql);
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, newText);
+            setRenderedHtml(pstmt, 2, newText);
+            pstmt.setInt(4, memoId);
+            pstmt.setString(5, expectedText);
+            boolean replaced = pstmt.executeUpdate() > 0;
+            if (replaced) log.info("Replaced text for memo ID: " + memoId);
+            return replaced;
+
+        } catch (SQLException e) {
+            errorCount.increment();
+            event.failed = true;
+            log.error("Error replacing memo text: " + e.getMessage());
+            return false;
+        } finally {
+            updateMemoTextLatency.recordSince(start);
+            event.commit();
+        }
+    }
+
     public Optional<MemoViewItem> getLatestMemoForApp(int appId) {
         String sql = "SELECT m.*, ta.app_name FROM memos m " +
                 "JOIN tracked_applications ta ON m.app_id = ta.app_id " +
                 "WHERE m.app_id = ? ORDER BY m.created_at DESC LIMIT 1";
+        long start = System.nanoTime();
+        TrackerEvents.DatabaseStatement event = TrackerEvents.DatabaseStatement.start("getLatestMemoForApp", sql);
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, appId);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                MemoViewItem memo = new MemoViewItem(
-                        rs.getInt("memo_id"),
-                        rs.getInt("app_id"),
-                        rs.getString("app_name"),
-                        rs.getString("transcription_text"),
-                        rs.getString("audio_file_path"),
-                        rs.getTimestamp("created_at")
-                );
+                List<MemoViewItem> rerendered = new ArrayList<>();
+                MemoViewItem memo = readMemo(rs, rerendered);
+                storeRerenderedHtml(conn, rerendered);
                 return Optional.of(memo);
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching latest memo: " + e.getMessage());
+            errorCount.increment();
+            event.failed = true;
+            log.error("Error fetching latest memo: " + e.getMessage());
+        } finally {
+            latestMemoLatency.recordSince(start);
+            event.commit();
         }
         return Optional.empty();
     }
 
-    public List<MemoViewItem> getAllMemosForApp(int appId) {
-        List<MemoViewItem> memos = new ArrayList<>();
-        String sql = "SELECT m.*, ta.app_name FROM memos m " +
+    /** The history of an app, newest first, as previews of {@code previewLength} characters. */
+    public List<MemoPreview> getMemoPreviewsForApp(int appId, int previewLength) {
+        List<MemoPreview> memos = new ArrayList<>();
+        String sql = "SELECT " + PREVIEW_COLUMNS + " FROM memos m " +
                 "JOIN tracked_applications ta ON m.app_id = ta.app_id " +
                 "WHERE m.app_id = ? ORDER BY m.created_at DESC";
+        long start = System.nanoTime();
+        TrackerEvents.DatabaseStatement event = TrackerEvents.DatabaseStatement.start("getMemoPreviewsForApp", sql);
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, appId);
+            pstmt.setInt(1, previewLength);
+            pstmt.setInt(2, previewLength);
+            pstmt.setInt(3, appId);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                memos.add(new MemoViewItem(
-                        rs.getInt("memo_id"),
-                        rs.getInt("app_id"),
-                        rs.getString("app_name"),
-                        rs.getString("transcription_text"),
-                        rs.getString("audio_file_path"),
-                        rs.getTimestamp("created_at")
-                ));
+                memos.add(readPreview(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching all memos for app: " + e.getMessage());
+            errorCount.increment();
+            event.failed = true;
+            log.error("Error fetching all memos for app: " + e.getMessage());
+        } finally {
+            previewsLatency.recordSince(start);
+            event.commit();
         }
         return memos;
     }
 
+    /** A single memo with its full text, e.g. when a preview row is opened. */
+    public Optional<MemoViewItem> getMemo(int memoId) {
+        String sql = "SELECT m.*, ta.app_name FROM memos m " +
+                "JOIN tracked_applications ta ON m.app_id = ta.app_id " +
+                "WHERE m.memo_id = ?";
+        long start = System.nanoTime();
+        TrackerEvents.DatabaseStatement event = TrackerEvents.DatabaseStatement.start("getMemo", sql);
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, memoId);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                List<MemoViewItem> rerendered = new ArrayList<>();
+                MemoViewItem memo = readMemo(rs, rerendered);
+                storeRerenderedHtml(conn, rerendered);
+                return Optional.of(memo);
+            }
+        } catch (SQLException e) {
+            errorCount.increment();
+            event.failed = true;
+            log.error("Error fetching memo " + memoId + ": " + e.getMessage());
+        } finally {
+            getMemoLatency.recordSince(start);
+            event.commit();
+        }
+        return Optional.empty();
+    }
+
     public void deleteMemo(int memoId) {
         String sql = "DELETE FROM memos WHERE memo_id = ?";
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, memoId);
             pstmt.executeUpdate();
-            System.out.println("Memo with ID " + memoId + " deleted successfully.");
+            log.info("Memo with ID " + memoId + " deleted successfully.");
         } catch (SQLException e) {
-            System.err.println("Error deleting memo: " + e.getMessage());
+            log.error("Error deleting memo: " + e.getMessage());
         }
     }
 
@@ -262,10 +471,10 @@ public class DatabaseManager {
             pstmt.setString(1, newPath);
             pstmt.setInt(2, appId);
             pstmt.executeUpdate();
-            System.out.println("Updated path for app ID: " + appId);
+            log.info("Updated path for app ID: " + appId);
 
         } catch (SQLException e) {
-            System.err.println("Error updating application path: " + e.getMessage());
+            log.error("Error updating application path: " + e.getMessage());
         }
     }
 
@@ -276,7 +485,7 @@ public class DatabaseManager {
             pstmt.setInt(1, appId);
             pstmt.executeUpdate();
         } catch (SQLException e) {
-            System.err.println("Error updating last closed timestamp: " + e.getMessage());
+            log.error("Error updating last closed timestamp: " + e.getMessage());
         }
     }
 
@@ -290,36 +499,240 @@ public class DatabaseManager {
                 return Optional.ofNullable(rs.getTimestamp("last_closed_at"));
             }
         } catch (SQLException e) {
-            System.err.println("Error fetching last closed timestamp: " + e.getMessage());
+            log.error("Error fetching last closed timestamp: " + e.getMessage());
         }
         return Optional.empty();
     }
 
-    public List<MemoViewItem> searchMemos(String query) {
-        List<MemoViewItem> results = new ArrayList<>();
+    /** When each app was last closed; apps that were never closed are missing. */
+    public Map<Integer, Instant> getLastClosedTimestamps() {
+        Map<Integer, Instant> lastClosed = new HashMap<>();
+        String sql = "SELECT app_id, last_closed_at FROM tracked_applications WHERE last_closed_at IS NOT NULL";
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                lastClosed.put(rs.getInt("app_id"), rs.getTimestamp("last_closed_at").toInstant());
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching last closed timestamps: " + e.getMessage());
+        }
+        return lastClosed;
+    }
+
+    // --- Reminder policies and pending reminders ---
+
+    public Map<Integer, ReminderPolicy> getReminderPolicies() {
+        Map<Integer, ReminderPolicy> policies = new HashMap<>();
+        String sql = "SELECT app_id, interval_hours, quiet_start, quiet_end, snooze_minutes FROM reminder_policies";
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                Time quietStart = rs.getTime("quiet_start");
+                Time quietEnd = rs.getTime("quiet_end");
+                policies.put(rs.getInt("app_id"), new ReminderPolicy(
+                        rs.getInt("interval_hours"),
+                        quietStart == null ? null : quietStart.toLocalTime(),
+                        quietEnd == null ? null : quietEnd.toLocalTime(),
+                        rs.getInt("snooze_minutes")
+                ));
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching reminder policies: " + e.getMessage());
+        }
+        return policies;
+    }
+
+    public void saveReminderPolicy(int appId, ReminderPolicy policy) {
+        String sql = "INSERT INTO reminder_policies(app_id, interval_hours, quiet_start, quiet_end, snooze_minutes) " +
+                "VALUES(?, ?, ?, ?, ?) ON CONFLICT (app_id) DO UPDATE SET interval_hours = EXCLUDED.interval_hours, " +
+                "quiet_start = EXCLUDED.quiet_start, quiet_end = EXCLUDED.quiet_end, snooze_minutes = EXCLUDED.snooze_minutes";
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, appId);
+            pstmt.setInt(2, policy.intervalHours());
+            pstmt.setTime(3, policy.quietStart() == null ? null : Time.valueOf(policy.quietStart()));
+            pstmt.setTime(4, policy.quietEnd() == null ? null : Time.valueOf(policy.quietEnd()));
+            pstmt.setInt(5, policy.snoozeMinutes());
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            log.error("Error saving reminder policy: " + e.getMessage());
+        }
+    }
+
+    public void deleteReminderPolicy(int appId) {
+        String sql = "DELETE FROM reminder_policies WHERE app_id = ?";
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, appId);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            log.error("Error deleting reminder policy: " + e.getMessage());
+        }
+    }
+
+    public List<PendingReminder> getPendingReminders() {
+        List<PendingReminder> pending = new ArrayList<>();
+        String sql = "SELECT app_id, kind, due_at FROM pending_reminders";
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                try {
+                    pending.add(new PendingReminder(rs.getInt("app_id"),
+                            PendingReminder.Kind.valueOf(rs.getString("kind")),
+                            rs.getTimestamp("due_at").toInstant()));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring pending reminder of unknown kind: " + rs.getString("kind"));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching pending reminders: " + e.getMessage());
+        }
+        return pending;
+    }
+
+    public void savePendingReminder(PendingReminder reminder) {
+        String sql = "INSERT INTO pending_reminders(app_id, kind, due_at) VALUES(?, ?, ?) " +
+                "ON CONFLICT (app_id, kind) DO UPDATE SET due_at = EXCLUDED.due_at";
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, reminder.appId());
+            pstmt.setString(2, reminder.kind().name());
+            pstmt.setTimestamp(3, Timestamp.from(reminder.dueAt()));
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            log.error("Error saving pending reminder: " + e.getMessage());
+        }
+    }
+
+    public void deletePendingReminder(int appId, PendingReminder.Kind kind) {
+        String sql = "DELETE FROM pending_reminders WHERE app_id = ? AND kind = ?";
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, appId);
+            pstmt.setString(2, kind.name());
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            log.error("Error deleting pending reminder: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One page of search results, newest first, as previews of {@code previewLength} characters. Pages are
+     * keyset-paged on (created_at, memo_id), so a memo saved while paging is neither repeated nor skipped.
+     * The substring match on LOWER(...) cannot use an index, so every page still scans the memos table.
+     * @param after the last memo of the previous page, or null for the first page
+     * @throws SQLException If the database cannot be queried; callers must not mistake that for "no results".
+     */
+    public List<MemoPreview> searchMemos(String query, MemoPreview after, int limit, int previewLength) throws SQLException {
+        List<MemoPreview> results = new ArrayList<>();
         String searchQuery = "%" + query.toLowerCase() + "%";
-        String sql = "SELECT m.*, ta.app_name FROM memos m " +
+        String sql = "SELECT " + PREVIEW_COLUMNS + " FROM memos m " +
                 "JOIN tracked_applications ta ON m.app_id = ta.app_id " +
-                "WHERE LOWER(m.transcription_text) LIKE ? OR LOWER(ta.app_name) LIKE ? " +
-                "ORDER BY m.created_at DESC";
+                "WHERE (LOWER(m.transcription_text) LIKE ? OR LOWER(ta.app_name) LIKE ?) " +
+                (after != null ? "AND (m.created_at, m.memo_id) < (?, ?) " : "") +
+                "ORDER BY m.created_at DESC, m.memo_id DESC LIMIT ?";
+        long start = System.nanoTime();
+        TrackerEvents.DatabaseStatement event = TrackerEvents.DatabaseStatement.start("searchMemos", sql);
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, searchQuery);
-            pstmt.setString(2, searchQuery);
+            int idx = 1;
+            pstmt.setInt(idx++, previewLength);
+            pstmt.setInt(idx++, previewLength);
+            pstmt.setString(idx++, searchQuery);
+            pstmt.setString(idx++, searchQuery);
+            if (after != null) {
+                pstmt.setTimestamp(idx++, after.createdAt());
+                pstmt.setInt(idx++, after.memoId());
+            }
+            pstmt.setInt(idx, limit);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                results.add(new MemoViewItem(
-                        rs.getInt("memo_id"),
-                        rs.getInt("app_id"),
-                        rs.getString("app_name"),
-                        rs.getString("transcription_text"),
-                        rs.getString("audio_file_path"),
-                        rs.getTimestamp("created_at")
-                ));
+                results.add(readPreview(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Error searching memos: " + e.getMessage());
+            errorCount.increment();
+            event.failed = true;
+            log.error("Error searching memos: " + e.getMessage());
+            throw e;
+        } finally {
+            searchLatency.recordSince(start);
+            event.commit();
         }
         return results;
     }
-}
\ No newline at end of file
+
+    private MemoPreview readPreview(ResultSet rs) throws SQLException {
+        String preview = rs.getString("preview");
+        return new MemoPreview(
+                rs.getInt("memo_id"),
+                rs.getInt("app_id"),
+                rs.getString("app_name"),
+                rs.getBoolean("truncated") ? preview + "..." : preview,
+                rs.getTimestamp("created_at")
+        );
+    }
+
+    /**
+     * Maps a memo row. HTML stored by another renderer version (or not at all) is rendered again here and the
+     * memo is added to {@code rerendered}, so the caller can write it back once for the whole result.
+     */
+    private MemoViewItem readMemo(ResultSet rs, List<MemoViewItem> rerendered) throws SQLException {
+        String text = rs.getString("transcription_text");
+        String html = rs.getString("transcription_html");
+        int storedVersion = rs.getInt("html_renderer_version");
+        boolean hasVersion = !rs.wasNull();
+        MemoHtmlRenderer renderer = htmlRenderer;
+        boolean rerender = renderer != null && (html == null || !hasVersion || storedVersion != renderer.version());
+        if (rerender) {
+            html = renderer.render(text);
+        } else if (renderer == null) {
+            html = null; // the version cannot be checked, let the views render the text
+        }
+        MemoViewItem memo = new MemoViewItem(
+                rs.getInt("memo_id"),
+                rs.getInt("app_id"),
+                rs.getString("app_name"),
+                text,
+                html,
+                rs.getString("audio_file_path"),
+                rs.getTimestamp("created_at")
+        );
+        if (rerender) {
+            rerendered.add(memo);
+        }
+        return memo;
+    }
+
+    private void storeRerenderedHtml(Connection conn, List<MemoViewItem> rerendered) {
+        MemoHtmlRenderer renderer = htmlRenderer;
+        if (rerendered.isEmpty() || renderer == null) return;
+        String sql = "UPDATE memos SET transcription_html = ?, html_renderer_version = ? WHERE memo_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (MemoViewItem memo : rerendered) {
+                pstmt.setString(1, memo.transcriptionHtml());
+                pstmt.setInt(2, renderer.version());
+                pstmt.setInt(3, memo.memoId());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            log.info("Re-rendered HTML for " + rerendered.size() + " memo(s) (renderer version " + renderer.version() + ").");
+        } catch (SQLException e) {
+            log.error("Error storing re-rendered memo HTML: " + e.getMessage());
+        }
+    }
+
+    /** Binds the rendered HTML and renderer version to parameters {@code index} and {@code index + 1}. */
+    private void setRenderedHtml(PreparedStatement pstmt, int index, String text) throws SQLException {
+        MemoHtmlRenderer renderer = htmlRenderer;
+        if (renderer != null) {
+            pstmt.setString(index, renderer.render(text));
+            pstmt.setInt(index + 1, renderer.version());
+        } else {
+            pstmt.setNull(index, Types.VARCHAR);
+            pstmt.setNull(index + 1, Types.INTEGER);
+        }
+    }
+}
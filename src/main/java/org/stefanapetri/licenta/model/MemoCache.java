@@ -0,0 +1,46 @@
+package org.stefanapetri.licenta.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Loads full memos (text, HTML, audio path) on demand for rows of the preview tables and keeps the most recently
+ * opened few, so reopening a memo does not query the database again.
+ */
+public class MemoCache {
+
+    private static final int CAPACITY = 32;
+
+    private final DatabaseManager dbManager;
+    // Access-ordered, so the eldest entry is the least recently opened memo.
+    private final Map<Integer, MemoViewItem> memos = new LinkedHashMap<>(CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, MemoViewItem> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    public MemoCache(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    public synchronized Optional<MemoViewItem> get(int memoId) {
+        MemoViewItem memo = memos.get(memoId);
+        if (memo == null) {
+            memo = dbManager.getMemo(memoId).orElse(null);
+            if (memo != null) memos.put(memoId, memo);
+        }
+        return Optional.ofNullable(memo);
+    }
+
+    /** Drops a memo after it was edited or deleted. */
+    public synchronized void invalidate(int memoId) {
+        memos.remove(memoId);
+    }
+
+    /** Drops every memo, e.g. after recordings were converted and their audio paths changed. */
+    public synchronized void clear() {
+        memos.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package org.stefanapetri.licenta.model;
+
+/**
+ * Renders memo text to the HTML stored next to it. The version is stored with the HTML; rows rendered by
+ * another version are rendered again the next time they are read.
+ */
+public interface MemoHtmlRenderer {
+
+    int version();
+
+    String render(String markdown);
+}
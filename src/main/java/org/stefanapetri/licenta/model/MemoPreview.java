@@ -0,0 +1,15 @@
+package org.stefanapetri.licenta.model;
+
+import java.sql.Timestamp;
+
+/**
+ * A memo row as the history and search tables show it: no body, only a short single-line preview cut by the database.
+ * The full memo is loaded when the row is opened (see {@link MemoCache}).
+ */
+public record MemoPreview(
+        int memoId,
+        int appId,
+        String appName,
+        String preview,
+        Timestamp createdAt
+) {}
@@ -5,12 +5,14 @@ import java.sql.Timestamp;
 /**
  * A data class used for displaying memo information in UI tables,
  * including the associated application's name.
+ * {@code transcriptionHtml} is the HTML body pre-rendered at save time, or null if none is available.
  */
 public record MemoViewItem(
         int memoId,
         int appId,
         String appName, // The name of the application associated with this memo
         String transcriptionText,
+        String transcriptionHtml,
         String audioFilePath,
         Timestamp createdAt
 ) {}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package org.stefanapetri.licenta.model;
+
+import java.time.Instant;
+
+/**
+ * A reminder timer that survives a restart.
+ * {@code DUE}: the app's next open shows its reminder from {@code dueAt} on (the policy interval after it was closed).
+ * {@code SNOOZE}: the user postponed the reminder until {@code dueAt}.
+ */
+public record PendingReminder(
+        int appId,
+        Kind kind,
+        Instant dueAt
+) {
+    public enum Kind { DUE, SNOOZE }
+}
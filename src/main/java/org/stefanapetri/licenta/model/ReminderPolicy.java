@@ -0,0 +1,51 @@
+package org.stefanapetri.licenta.model;
+
+import java.time.LocalTime;
+
+/**
+ * When reminders for one application are shown.
+ *
+ * @param intervalHours  remind at the next open once the app has been closed this long; -1 means at every open
+ * @param quietStart     start of the daily quiet hours, or null for none; reminders due then wait until they end
+ * @param quietEnd       end of the quiet hours (exclusive); may be earlier than the start for a span over midnight
+ * @param snoozeMinutes  how long "Snooze" postpones a reminder
+ */
+public record ReminderPolicy(
+        int intervalHours,
+        LocalTime quietStart,
+        LocalTime quietEnd,
+        int snoozeMinutes
+) {
+    public static final int DEFAULT_SNOOZE_MINUTES = 60;
+
+    public ReminderPolicy {
+        if ((quietStart == null) != (quietEnd == null)) {
+            throw new IllegalArgumentException("Quiet hours need both a start and an end");
+        }
+        if (snoozeMinutes <= 0) {
+            throw new IllegalArgumentException("Snooze must be at least one minute");
+        }
+    }
+
+    /** The policy of apps without their own: the interval from the settings, no quiet hours. */
+    public static ReminderPolicy global(int intervalHours) {
+        return new ReminderPolicy(intervalHours, null, null, DEFAULT_SNOOZE_MINUTES);
+    }
+
+    public boolean remindsAtEveryOpen() {
+        return intervalHours < 0;
+    }
+
+    public boolean hasQuietHours() {
+        return quietStart != null && !quietStart.equals(quietEnd);
+    }
+
+    public boolean isQuiet(LocalTime time) {
+        if (!hasQuietHours()) return false;
+        if (quietStart.isBefore(quietEnd)) {
+            return !time.isBefore(quietStart) && time.isBefore(quietEnd);
+        }
+        // Spans midnight, e.g. 22:00-07:00.
+        return !time.isBefore(quietStart) || time.isBefore(quietEnd);
+    }
+}
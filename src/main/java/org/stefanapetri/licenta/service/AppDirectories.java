@@ -0,0 +1,36 @@
+package org.stefanapetri.licenta.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Resolves the per-user folders the tracker keeps its own files in (caches, recordings, logs).
+ * On Windows this is %APPDATA%\AppActivityTracker, elsewhere ~/.app-activity-tracker.
+ */
+public final class AppDirectories {
+
+    private static final String APP_FOLDER_WINDOWS = "AppActivityTracker";
+    private static final String APP_FOLDER_OTHER = ".app-activity-tracker";
+
+    private AppDirectories() {}
+
+    public static Path getDataDirectory() {
+        String appData = System.getenv("APPDATA");
+        if (appData != null && !appData.isBlank()) {
+            return Paths.get(appData, APP_FOLDER_WINDOWS);
+        }
+        return Paths.get(System.getProperty("user.home"), APP_FOLDER_OTHER);
+    }
+
+    /**
+     * Returns a sub-folder of the data directory, creating it if it does not exist yet.
+     * @param name The sub-folder name, e.g. "transcription-cache".
+     */
+    public static Path resolve(String name) throws IOException {
+        Path dir = getDataDirectory().resolve(name);
+        Files.createDirectories(dir);
+        return dir;
+    }
+}
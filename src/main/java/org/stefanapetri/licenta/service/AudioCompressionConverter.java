@@ -0,0 +1,164 @@
+package org.stefanapetri.licenta.service;
+
+import org.stefanapetri.licenta.model.DatabaseManager;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Converts existing WAV recordings to the lossless ".lac" format in the background.
+ * Each file is encoded, decoded again and compared sample-for-sample before the memos are re-pointed
+ * at the new file and the WAV is deleted, so a failed or interrupted conversion never loses audio.
+ */
+public class AudioCompressionConverter {
+
+    private static final Logger log = Log.get(AudioCompressionConverter.class);
+
+    public record Result(int converted, int skipped, int failed, long bytesBefore, long bytesAfter, long encodeNanos) {
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.ROOT, "%d converted, %d skipped, %d failed. %d KB -> %d KB, encode time %.1f s.",
+                    converted, skipped, failed, bytesBefore / 1024, bytesAfter / 1024, encodeNanos / 1e9);
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AudioCompressionConverter");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY); // never compete with recording or transcription
+        return thread;
+    });
+
+    public AudioCompressionConverter(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /** Converts every WAV recording referenced by a memo. Runs on a low-priority background thread. */
+    public CompletableFuture<Result> convertAllAsync() {
+        return CompletableFuture.supplyAsync(this::convertAll, executor);
+    }
+
+    private Result convertAll() {
+        int converted = 0, skipped = 0, failed = 0;
+        long bytesBefore = 0, bytesAfter = 0, encodeNanos = 0;
+
+        for (String audioFilePath : dbManager.getDistinctAudioFilePaths()) {
+            if (LosslessAudioDecoder.isCompressed(audioFilePath) || !Files.isRegularFile(Path.of(audioFilePath))) {
+                continue;
+            }
+            try {
+                Path source = Path.of(audioFilePath);
+                Path target = targetFor(source);
+                long sourceSize = Files.size(source);
+                LosslessAudioEncoder.Stats stats = convert(source, target);
+                if (stats == null) {
+                    skipped++;
+                    continue;
+                }
+                int memos = dbManager.updateAudioFilePath(audioFilePath, target.toString());
+                Files.delete(source);
+                converted++;
+                bytesBefore += sourceSize;
+                bytesAfter += stats.compressedBytes();
+                encodeNanos += stats.encodeNanos();
+                log.info("Compressed " + source.getFileName() + " (" + memos + " memo(s)): " + stats);
+            } catch (IOException | UnsupportedAudioFileException e) {
+                failed++;
+                log.warn("Could not compress " + audioFilePath + ": " + e.getMessage(), e);
+            }
+        }
+
+        Result result = new Result(converted, skipped, failed, bytesBefore, bytesAfter, encodeNanos);
+        log.info("Recording conversion finished: " + result);
+        return result;
+    }
+
+    /**
+     * Encodes one WAV and verifies the result.
+     * @return The encoding stats, or null if the WAV is not 16-bit mono PCM (left untouched).
+     */
+    private LosslessAudioEncoder.Stats convert(Path source, Path target) throws IOException, UnsupportedAudioFileException {
+        try {
+            return encodeAndVerify(source, target);
+        } catch (IOException | UnsupportedAudioFileException | RuntimeException e) {
+            Files.deleteIfExists(target); // never leave a half-written file behind
+            throw e;
+        }
+    }
+
+    private LosslessAudioEncoder.Stats encodeAndVerify(Path source, Path target) throws IOException, UnsupportedAudioFileException {
+        MessageDigest sourceDigest = newSha256();
+        LosslessAudioEncoder encoder;
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(source.toFile())) {
+            AudioFormat format = in.getFormat();
+            if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED || format.getSampleSizeInBits() != 16
+                    || format.getChannels() != 1) {
+                log.info("Skipping " + source.getFileName() + ": not 16-bit mono PCM (" + format + ").");
+                return null;
+            }
+            encoder = new LosslessAudioEncoder(target, format);
+            try (encoder) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    encoder.write(buffer, 0, read);
+                    sourceDigest.update(buffer, 0, read);
+                }
+            }
+        }
+
+        Path check = Files.createTempFile("verify-", ".wav");
+        try {
+            LosslessAudioDecoder.decodeToWav(target, check);
+            MessageDigest decodedDigest = newSha256();
+            try (InputStream in = AudioSystem.getAudioInputStream(check.toFile())) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    decodedDigest.update(buffer, 0, read);
+                }
+            }
+            // WAV data is little-endian on both sides, so the PCM bytes must match exactly.
+            if (!Arrays.equals(sourceDigest.digest(), decodedDigest.digest())) {
+                throw new IOException("verification failed, decoded audio differs from the original");
+            }
+        } finally {
+            Files.deleteIfExists(check);
+        }
+        return encoder.getStats();
+    }
+
+    /** Recordings go to the audio folder; older ones lived in the temp folder under a shared name. */
+    private static Path targetFor(Path source) throws IOException {
+        Path audioDir = AppDirectories.resolve("audio");
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        Path target = audioDir.resolve(base + LosslessAudioEncoder.FILE_EXTENSION);
+        for (int n = 1; Files.exists(target); n++) {
+            target = audioDir.resolve(base + "-" + n + LosslessAudioEncoder.FILE_EXTENSION);
+        }
+        return target;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
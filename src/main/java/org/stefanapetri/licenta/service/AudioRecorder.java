@@ -1,103 +1,189 @@
 package org.stefanapetri.licenta.service;
 
 import javax.sound.sampled.*;
-import java.io.File;
 import java.io.IOException;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
-import java.util.function.Consumer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
 
 public class AudioRecorder {
 
+    private static final Logger log = Log.get(AudioRecorder.class);
+    private static final LatencyHistogram openLatency = Metrics.latency("recorder.open");
+    private static final LatencyHistogram writeLatency = Metrics.latency("recorder.write");
+    // From the stop request until the file is complete: draining the ring, the last segment and the join.
+    private static final LatencyHistogram stopLatency = Metrics.latency("recorder.stop");
+    private static final Metrics.Counter sessionCount = Metrics.counter("recorder.sessions");
+    private static final Metrics.Counter overrunCount = Metrics.counter("recorder.overruns");
+
     private static final AudioFormat FORMAT = new AudioFormat(16000, 16, 1, true, true);
+    // ~4 seconds of audio: enough to ride out a slow disk without ever blocking the capture thread.
+    private static final int RING_CAPACITY_BYTES = 128 * 1024;
+    private static final int WRITER_CHUNK_BYTES = 16 * 1024;
+    private static final long WRITER_IDLE_NANOS = 20_000_000L;
+
     private TargetDataLine microphone;
     private volatile boolean isRecording = false;
-    private PipedOutputStream pipedOutputStream; // Declared at class level
+    private volatile boolean captureFinished = false;
+    private AudioRingBuffer ringBuffer;
+    private volatile LosslessAudioEncoder.Stats lastCompressionStats;
+    private Thread captureThread;
+    private Thread writerThread;
+    private TrackerEvents.RecordingSession sessionEvent;
 
     /**
      * Starts recording audio from the microphone.
-     * @param filePath The path to save the final .wav file.
-     * @param dataListener A consumer that will receive live chunks of audio data (byte arrays) for visualization.
+     * Capture and file writing run on separate threads connected by a lock-free ring buffer,
+     * so a stalled disk write can never block the audio line.
+     * The audio is written in fsynced segments (see {@link SegmentedRecordingSink}) and joined on stop,
+     * so a crash or power loss costs at most the segment in progress.
+     * @param filePath The path to save the recording; a ".lac" extension selects lossless compression, anything else WAV.
+     * @param levelMeter Receives every captured block on the capture thread to build the waveform envelope; may be null.
+     * @param appId The application the memo is for, recorded so an interrupted recording can be recovered for it.
      * @throws LineUnavailableException if the microphone cannot be accessed.
      */
-    public void startRecording(String filePath, Consumer<byte[]> dataListener) throws LineUnavailableException, IOException {
-        File audioFile = new File(filePath);
+    public void startRecording(String filePath, LevelMeter levelMeter, int appId) throws LineUnavailableException, IOException {
         DataLine.Info info = new DataLine.Info(TargetDataLine.class, FORMAT);
 
         if (!AudioSystem.isLineSupported(info)) {
             throw new LineUnavailableException("Audio line not supported");
         }
 
-        microphone = (TargetDataLine) AudioSystem.getLine(info);
-        microphone.open(FORMAT);
+        // Compression runs on the writer thread, so its cost never delays the capture thread.
+        SegmentedRecordingSink sink = new SegmentedRecordingSink(Path.of(filePath), FORMAT, appId);
+        TrackerEvents.RecordingSession event = new TrackerEvents.RecordingSession();
+        event.begin();
+        long openStart = System.nanoTime();
+        try {
+            microphone = (TargetDataLine) AudioSystem.getLine(info);
+            microphone.open(FORMAT);
+            openLatency.recordSince(openStart);
+        } catch (LineUnavailableException | RuntimeException e) {
+            sink.close();
+            Files.deleteIfExists(Path.of(filePath)); // nothing was captured
+            throw e;
+        }
+        lastCompressionStats = null;
         microphone.start();
+        ringBuffer = new AudioRingBuffer(RING_CAPACITY_BYTES);
+        captureFinished = false;
         isRecording = true;
 
-        // Initialize piped streams: pipedOutputStream is now a class field
-        pipedOutputStream = new PipedOutputStream();
-        PipedInputStream pipedInputStream = new PipedInputStream(pipedOutputStream);
-        AudioInputStream audioInputStream = new AudioInputStream(pipedInputStream, FORMAT, AudioSystem.NOT_SPECIFIED);
+        AudioRingBuffer ring = ringBuffer;
+        TargetDataLine line = microphone;
 
-        // Thread 1: Captures from mic and writes to pipedOutputStream
-        Thread captureThread = new Thread(() -> {
+        // Producer: captures from the mic into the ring buffer. Never blocks on I/O.
+        captureThread = new Thread(() -> {
             byte[] buffer = new byte[1024]; // Read in 1KB chunks
             try {
                 while (isRecording) {
-                    int bytesRead = microphone.read(buffer, 0, buffer.length);
+                    int bytesRead = line.read(buffer, 0, buffer.length);
                     if (bytesRead > 0) {
-                        // Send a copy of the data to the UI for visualization
-                        if (dataListener != null) {
-                            dataListener.accept(buffer.clone());
+                        // The meter reduces the block in place; nothing is copied or queued for the UI.
+                        if (levelMeter != null) {
+                            levelMeter.process(buffer, 0, bytesRead);
                         }
-                        // Write the data to the file-writing stream
-                        pipedOutputStream.write(buffer, 0, bytesRead);
+                        ring.offer(buffer, 0, bytesRead);
                     }
                 }
-            } catch (IOException e) {
-                // This catches if the pipe is closed by the reader thread prematurely
-                System.err.println("AudioRecorder captureThread IOException: " + e.getMessage());
             } finally {
-                // Crucial: Close the output stream only after the capture loop finishes
-                // This signals the AudioSystem.write (in writerThread) to finish.
-                try {
-                    if (pipedOutputStream != null) {
-                        pipedOutputStream.close();
-                    }
-                } catch (IOException e) {
-                    System.err.println("Error closing pipedOutputStream: " + e.getMessage());
-                }
+                captureFinished = true;
             }
-        });
+        }, "AudioCapture");
 
-        // Thread 2: Reads from the pipedInputStream and writes to the final WAV file
-        Thread writerThread = new Thread(() -> {
-            try {
-                // AudioSystem.write will block until the AudioInputStream is exhausted (i.e., pipedOutputStream closes)
-                AudioSystem.write(audioInputStream, AudioFileFormat.Type.WAVE, audioFile);
-            } catch (IOException e) {
-                System.err.println("AudioRecorder writerThread IOException: " + e.getMessage());
-            } finally {
-                // Ensure input stream is closed, which also closes the pipedInputStream
-                try {
-                    audioInputStream.close();
-                } catch (IOException e) {
-                    System.err.println("Error closing audioInputStream: " + e.getMessage());
+        // Consumer: drains the ring buffer into the file in large blocks.
+        writerThread = new Thread(() -> {
+            byte[] chunk = new byte[WRITER_CHUNK_BYTES];
+            try (AudioSink writer = sink) {
+                while (true) {
+                    boolean finished = captureFinished; // read before polling, so no trailing data is missed
+                    int n = ring.poll(chunk, 0, chunk.length);
+                    if (n > 0) {
+                        long writeStart = System.nanoTime();
+                        writer.write(chunk, 0, n);
+                        writeLatency.recordSince(writeStart);
+                    } else if (finished) {
+                        break;
+                    } else {
+                        LockSupport.parkNanos(WRITER_IDLE_NANOS);
+                    }
                 }
+            } catch (IOException e) {
+                log.error("AudioRecorder writerThread IOException: " + e.getMessage(), e);
             }
-        });
+            lastCompressionStats = sink.getCompressionStats();
+        }, "AudioFileWriter");
 
         captureThread.setDaemon(true); // Allow JVM to exit if only daemon threads remain
         writerThread.setDaemon(true); // Allow JVM to exit if only daemon threads remain
         captureThread.start();
         writerThread.start();
+        sessionCount.increment();
+        event.appId = appId;
+        event.file = filePath;
+        sessionEvent = event;
     }
 
+    /**
+     * Stops recording and waits until the file is complete (header patched, file closed),
+     * so the caller can hand it straight to the transcriber.
+     */
     public void stopRecording() {
+        long stopStart = System.nanoTime();
         if (microphone != null) {
             isRecording = false; // Signal the capture thread to stop its loop
             microphone.stop();
             microphone.close();
         }
-        // The pipedOutputStream will be closed by the captureThread's finally block now.
+        try {
+            if (captureThread != null) captureThread.join();
+            if (writerThread != null) writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopLatency.recordSince(stopStart);
+        if (sessionEvent != null) {
+            sessionEvent.stopNanos = System.nanoTime() - stopStart;
+            if (ringBuffer != null) {
+                sessionEvent.overruns = ringBuffer.getOverrunCount();
+                sessionEvent.overrunBytes = ringBuffer.getOverrunBytes();
+            }
+            sessionEvent.commit();
+            sessionEvent = null;
+        }
+        if (ringBuffer != null) {
+            overrunCount.add(ringBuffer.getOverrunCount());
+            log.info("Recording stopped. Overruns: " + ringBuffer.getOverrunCount()
+                    + " (" + ringBuffer.getOverrunBytes() + " bytes dropped), writer underruns: " + ringBuffer.getUnderrunCount());
+        }
+        if (lastCompressionStats != null) {
+            log.info("Recording compressed: " + lastCompressionStats);
+        }
+        captureThread = null;
+        writerThread = null;
+    }
+
+    /** Compression ratio and encode cost of the last recording, or null if it was saved as WAV. */
+    public LosslessAudioEncoder.Stats getLastCompressionStats() {
+        return lastCompressionStats;
+    }
+
+    /** The capture format, e.g. for building a matching {@link LevelMeter}. */
+    public static AudioFormat getFormat() {
+        return FORMAT;
+    }
+
+    /** Capture blocks dropped because the file writer fell behind, for the current/last recording. */
+    public long getOverrunCount() {
+        return ringBuffer != null ? ringBuffer.getOverrunCount() : 0;
+    }
+
+    public long getOverrunBytes() {
+        return ringBuffer != null ? ringBuffer.getOverrunBytes() : 0;
+    }
+
+    /** Times the file writer woke up and found no audio waiting, for the current/last recording. */
+    public long getUnderrunCount() {
+        return ringBuffer != null ? ringBuffer.getUnderrunCount() : 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package org.stefanapetri.licenta.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer byte ring buffer between the microphone capture thread
+ * and the file writer thread. The producer never blocks: if the writer falls behind and the ring is
+ * full, the incoming block is dropped and counted as an overrun instead of stalling the audio line.
+ * <p>
+ * Exactly one thread may call {@link #offer}, and exactly one (other) thread may call {@link #poll}.
+ */
+public class AudioRingBuffer {
+
+    private final byte[] buffer;
+    private final int mask;
+    // Monotonic byte sequences; the difference is the fill level. Written with release semantics by their
+    // owning thread and read with acquire semantics by the other, which is all the ordering SPSC needs.
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final AtomicLong readSequence = new AtomicLong();
+
+    private final AtomicLong overrunBytes = new AtomicLong();
+    private final AtomicLong overrunCount = new AtomicLong();
+    private final AtomicLong underrunCount = new AtomicLong();
+
+    /**
+     * @param minCapacity Minimum capacity in bytes; rounded up to a power of two.
+     */
+    public AudioRingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        this.buffer = new byte[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Producer side: copies a block into the ring, all or nothing.
+     * @return true if the block was stored, false if it was dropped because the ring is full.
+     */
+    public boolean offer(byte[] src, int offset, int length) {
+        long write = writeSequence.get();
+        long read = readSequence.getAcquire();
+        if (buffer.length - (write - read) < length) {
+            overrunCount.incrementAndGet();
+            overrunBytes.addAndGet(length);
+            return false;
+        }
+        int start = (int) (write & mask);
+        int firstPart = Math.min(length, buffer.length - start);
+        System.arraycopy(src, offset, buffer, start, firstPart);
+        System.arraycopy(src, offset + firstPart, buffer, 0, length - firstPart);
+        writeSequence.setRelease(write + length);
+        return true;
+    }
+
+    /**
+     * Consumer side: copies up to {@code maxLength} available bytes out of the ring.
+     * A poll that finds the ring empty is counted as an underrun (the writer was starved).
+     * @return The number of bytes copied, possibly 0.
+     */
+    public int poll(byte[] dst, int offset, int maxLength) {
+        long read = readSequence.get();
+        long available = writeSequence.getAcquire() - read;
+        if (available == 0) {
+            underrunCount.incrementAndGet();
+            return 0;
+        }
+        int length = (int) Math.min(available, maxLength);
+        int start = (int) (read & mask);
+        int firstPart = Math.min(length, buffer.length - start);
+        System.arraycopy(buffer, start, dst, offset, firstPart);
+        System.arraycopy(buffer, 0, dst, offset + firstPart, length - firstPart);
+        readSequence.setRelease(read + length);
+        return length;
+    }
+
+    public int available() {
+        return (int) (writeSequence.getAcquire() - readSequence.getAcquire());
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /** Blocks dropped because the ring was full. */
+    public long getOverrunCount() {
+        return overrunCount.get();
+    }
+
+    /** Audio bytes lost to overruns. */
+    public long getOverrunBytes() {
+        return overrunBytes.get();
+    }
+
+    /** Consumer polls that found no data. */
+    public long getUnderrunCount() {
+        return underrunCount.get();
+    }
+}
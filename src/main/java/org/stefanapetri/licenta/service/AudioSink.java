@@ -0,0 +1,20 @@
+package org.stefanapetri.licenta.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination for captured 16-bit PCM, fed by the recorder's file writer thread.
+ * Implementations finalize the file (headers, sizes) in {@link #close()}.
+ */
+public interface AudioSink extends Closeable {
+
+    /**
+     * Appends PCM bytes in the byte order of the format the sink was created with.
+     * Blocks may end in the middle of a sample.
+     */
+    void write(byte[] data, int offset, int length) throws IOException;
+
+    /** Forces everything written so far to the storage device. */
+    void sync() throws IOException;
+}
@@ -0,0 +1,211 @@
+package org.stefanapetri.licenta.service;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Transcribes long recordings by splitting them at pauses into overlapping chunks,
+ * running one Whisper process per chunk on a pool sized to the CPU count,
+ * and stitching the texts back together in order with the overlapping words removed.
+ * Only produces the raw Whisper text; post-processing runs once on the stitched result.
+ */
+class ChunkedTranscriber {
+
+    private static final Logger log = Log.get(ChunkedTranscriber.class);
+    static final double TARGET_CHUNK_SECONDS = 60.0;
+    private static final double OVERLAP_SECONDS = 1.0;
+    private static final int MAX_OVERLAP_WORDS = 30;
+
+    /** Runs the Whisper-only script on one chunk and returns its raw text, or null on failure. */
+    interface ChunkRunner {
+        String transcribeChunk(String chunkPath, int cpuThreads, TranscriptionListener chunkEvents) throws IOException, InterruptedException;
+    }
+
+    private final VoiceActivityDetector splitter = new VoiceActivityDetector();
+    private final double targetChunkSeconds;
+
+    ChunkedTranscriber() {
+        this(TARGET_CHUNK_SECONDS);
+    }
+
+    /** @param targetChunkSeconds The chunk length the splitter aims for; the benchmark lowers it for short files. */
+    ChunkedTranscriber(double targetChunkSeconds) {
+        this.targetChunkSeconds = targetChunkSeconds;
+    }
+
+    public static double durationSeconds(String audioFilePath) {
+        try {
+            AudioFileFormat fileFormat = AudioSystem.getAudioFileFormat(new File(audioFilePath));
+            return fileFormat.getFrameLength() / (double) fileFormat.getFormat().getFrameRate();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return The stitched raw transcription, or null if any chunk failed.
+     */
+    public String transcribe(String audioFilePath, ChunkRunner runner, TranscriptionListener listener) throws Exception {
+        long started = System.nanoTime();
+        VoiceActivityDetector.SplitPoints split = splitter.findSplitPoints(audioFilePath, targetChunkSeconds);
+        long overlapSamples = Math.round(OVERLAP_SECONDS * split.sampleRate());
+
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        for (long point : split.samples()) {
+            chunks.add(new long[]{Math.max(0, start - overlapSamples), Math.min(split.totalSamples(), point + overlapSamples)});
+            start = point;
+        }
+        chunks.add(new long[]{Math.max(0, start - overlapSamples), split.totalSamples()});
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int workers = Math.max(1, Math.min(chunks.size(), cpus / 2));
+        int threadsPerWorker = Math.max(1, cpus / workers);
+
+        Path chunkDir = Files.createTempDirectory("memo-chunks-");
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "TranscriptionChunkWorker");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<File> chunkFiles = writeChunks(audioFilePath, chunks, chunkDir);
+            long[] workerNanos = new long[chunkFiles.size()];
+            // Overall progress is the average of the chunks' progress; segments are not forwarded because
+            // chunks finish out of order (the stitched text is shown once all of them are done).
+            double[] chunkProgress = new double[chunkFiles.size()];
+
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < chunkFiles.size(); i++) {
+                final int index = i;
+                results.add(pool.submit(() -> {
+                    long chunkStart = System.nanoTime();
+                    TranscriptionListener chunkEvents = new TranscriptionListener() {
+                        @Override
+                        public void onProgress(double percent) {
+                            double overall;
+                            synchronized (chunkProgress) {
+                                chunkProgress[index] = percent;
+                                overall = Arrays.stream(chunkProgress).average().orElse(0);
+                            }
+                            listener.onProgress(overall);
+                        }
+                    };
+                    String text = runner.transcribeChunk(chunkFiles.get(index).getAbsolutePath(), threadsPerWorker, chunkEvents);
+                    workerNanos[index] = System.nanoTime() - chunkStart;
+                    return text;
+                }));
+            }
+
+            List<String> texts = new ArrayList<>();
+            for (Future<String> result : results) {
+                String text = result.get();
+                if (text == null) {
+                    return null;
+                }
+                texts.add(text);
+            }
+
+            String stitched = stitch(texts);
+            double wallSeconds = (System.nanoTime() - started) / 1e9;
+            double workerSeconds = Arrays.stream(workerNanos).sum() / 1e9;
+            // Worker time over wall time is how many workers were busy on average, not a speedup: each chunk's process
+            // loads the model again, so only a comparison with an unchunked run of the same file shows the real gain.
+            log.info(String.format(Locale.ROOT,
+                    "Chunked transcription: %.1f s of audio in %d chunks on %d workers x %d threads. "
+                            + "Wall %.1f s, cumulative worker time %.1f s, parallelism %.2f.",
+                    split.totalSamples() / split.sampleRate(), chunks.size(), workers, threadsPerWorker,
+                    wallSeconds, workerSeconds, workerSeconds / Math.max(wallSeconds, 1e-9)));
+            return stitched;
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof Exception cause) ? cause : e;
+        } finally {
+            pool.shutdownNow();
+            deleteDirectory(chunkDir);
+        }
+    }
+
+    private static List<File> writeChunks(String audioFilePath, List<long[]> chunks, Path chunkDir) throws Exception {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            long[] chunk = chunks.get(i);
+            File chunkFile = chunkDir.resolve(String.format("chunk-%03d.wav", i)).toFile();
+            try (AudioInputStream source = AudioSystem.getAudioInputStream(new File(audioFilePath))) {
+                AudioFormat format = source.getFormat();
+                long toSkip = chunk[0] * format.getFrameSize();
+                while (toSkip > 0) {
+                    long skipped = source.skip(toSkip);
+                    if (skipped <= 0) break;
+                    toSkip -= skipped;
+                }
+                try (AudioInputStream slice = new AudioInputStream(source, format, chunk[1] - chunk[0])) {
+                    AudioSystem.write(slice, AudioFileFormat.Type.WAVE, chunkFile);
+                }
+            }
+            files.add(chunkFile);
+        }
+        return files;
+    }
+
+    /**
+     * Joins chunk texts, dropping the words at the start of each chunk that repeat the end of the previous one
+     * (the overlap region is transcribed twice). Words are compared case- and punctuation-insensitively.
+     */
+    static String stitch(List<String> texts) {
+        StringBuilder result = new StringBuilder();
+        List<String> previousWords = List.of();
+        for (String text : texts) {
+            List<String> words = Arrays.asList(text.strip().split("\\s+"));
+            if (words.size() == 1 && words.get(0).isEmpty()) continue;
+
+            int dropped = overlapLength(previousWords, words);
+            List<String> kept = words.subList(dropped, words.size());
+            if (!kept.isEmpty()) {
+                if (!result.isEmpty()) result.append(' ');
+                result.append(String.join(" ", kept));
+            }
+            previousWords = words;
+        }
+        return result.toString();
+    }
+
+    private static int overlapLength(List<String> previous, List<String> next) {
+        int max = Math.min(MAX_OVERLAP_WORDS, Math.min(previous.size(), next.size()));
+        for (int k = max; k >= 1; k--) {
+            boolean matches = true;
+            for (int i = 0; i < k && matches; i++) {
+                matches = normalize(previous.get(previous.size() - k + i)).equals(normalize(next.get(i)));
+            }
+            // A single matching word only counts if it is not a short filler like "a" or "the".
+            if (matches && (k > 1 || normalize(next.get(0)).length() >= 4)) return k;
+        }
+        return 0;
+    }
+
+    private static String normalize(String word) {
+        return word.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]", "");
+    }
+
+    private static void deleteDirectory(Path dir) {
+        try (var files = Files.list(dir)) {
+            files.forEach(f -> f.toFile().delete());
+        } catch (IOException ignored) {
+            // Temp folder; the OS cleans it up eventually.
+        }
+        dir.toFile().delete();
+    }
+}
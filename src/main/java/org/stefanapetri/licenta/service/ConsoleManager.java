@@ -1,70 +1,198 @@
 package org.stefanapetri.licenta.service;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
-import javafx.scene.control.TextArea;
+import javafx.collections.ObservableList;
+import javafx.scene.control.ListView;
 
-import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-public class ConsoleManager {
+/**
+ * Shows the application log in the console tab. It is one {@link LogSubscriber} among others; System.out and
+ * System.err are redirected into the log (components "stdout"/"stderr"), so they reach the log file as well.
+ * Log batches are published into a lock-free ring; while it holds lines, the FX thread drains it once per pulse and
+ * appends the whole batch in one list change. The list is virtualized and capped at {@value #MAX_LINES} lines, so a
+ * burst of output costs one UI update per frame, not one per byte, and an idle console costs nothing.
+ */
+public class ConsoleManager implements LogSubscriber {
 
-    private final TextArea output;
-    private final StringBuilder lineBuilder = new StringBuilder();
-    private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final int MAX_LINES = 100_000;
+    private static final int MAX_LINE_LENGTH = 2_000;
+    // Lines that can be published between two pulses before the oldest ones are dropped.
+    private static final int RING_CAPACITY = 8_192;
+    private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final Logger log = Log.get(ConsoleManager.class);
 
-    private ConsoleManager(TextArea ta) {
-        this.output = ta;
+    private record Line(long sequence, String text) {}
+
+    private final ListView<String> output;
+    private final AtomicReferenceArray<Line> ring = new AtomicReferenceArray<>(RING_CAPACITY);
+    private final AtomicLong published = new AtomicLong();
+    // Set from the first line published into an empty ring until the drain timer has caught up and stopped.
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private final AnimationTimer drainTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drain();
+            if (consumed == published.get()) {
+                stop();
+                drainRequested.set(false);
+                // A line published before the flag was cleared saw it still set and did not ask again.
+                if (consumed != published.get() && drainRequested.compareAndSet(false, true)) start();
+            }
+        }
+    };
+    private final List<String> batch = new ArrayList<>();
+    private long consumed = 0; // FX thread only
+    private long droppedLines = 0; // FX thread only
+
+    private ConsoleManager(ListView<String> output) {
+        this.output = output;
     }
 
-    private void appendText(String str) {
-        // This custom stream ensures each new line from System.out gets a timestamp.
-        for (char c : str.toCharArray()) {
-            if (c == '\n') {
-                if (!lineBuilder.isEmpty()) {
-                    String timestamp = dtf.format(LocalDateTime.now());
-                    output.appendText("[" + timestamp + "] " + lineBuilder + "\n");
-                    lineBuilder.setLength(0); // Clear the builder for the next line
-                }
-            } else {
-                lineBuilder.append(c);
+    @Override
+    public void onEntries(List<LogEntry> entries) {
+        for (LogEntry entry : entries) {
+            String time = dtf.format(Instant.ofEpochMilli(entry.timestampMillis()));
+            String prefix = entry.level() == LogLevel.INFO ? "[" + time + "] " : "[" + time + "] " + entry.level() + ": ";
+            publish(prefix + entry.message());
+            if (entry.stackTrace() != null) {
+                entry.stackTrace().lines().forEach(this::publish);
             }
         }
+        if (drainRequested.compareAndSet(false, true)) {
+            Platform.runLater(drainTimer::start);
+        }
+    }
+
+    /** Called from any thread. Claims the next slot; a writer that laps the reader overwrites the oldest line. */
+    private void publish(String text) {
+        if (text.length() > MAX_LINE_LENGTH) {
+            text = text.substring(0, MAX_LINE_LENGTH) + " [...]";
+        }
+        long sequence = published.getAndIncrement();
+        Line line = new Line(sequence, text);
+        int slot = (int) (sequence % RING_CAPACITY);
+        while (true) {
+            Line previous = ring.get(slot);
+            if (previous != null && previous.sequence() > sequence) {
+                return; // a writer one lap ahead already reused the slot
+            }
+            if (ring.compareAndSet(slot, previous, line)) {
+                return;
+            }
+        }
+    }
+
+    /** Runs once per pulse on the FX thread while the drain timer is running. */
+    private void drain() {
+        long end = published.get();
+        if (end == consumed) return;
+        if (end - consumed > RING_CAPACITY) {
+            droppedLines += end - RING_CAPACITY - consumed;
+            consumed = end - RING_CAPACITY;
+        }
+        while (consumed < end) {
+            Line line = ring.get((int) (consumed % RING_CAPACITY));
+            if (line == null || line.sequence() < consumed) {
+                break; // slot claimed but not written yet; picked up on the next pulse
+            }
+            if (line.sequence() > consumed) {
+                droppedLines += line.sequence() - consumed; // overwritten by a newer line meanwhile
+                consumed = line.sequence();
+            }
+            batch.add(line.text());
+            consumed++;
+        }
+        if (batch.isEmpty()) return;
+
+        ObservableList<String> items = output.getItems();
+        boolean followTail = output.getSelectionModel().isEmpty(); // selecting a line pins the view
+        items.addAll(batch);
+        batch.clear();
+        if (items.size() > MAX_LINES) {
+            items.remove(0, items.size() - MAX_LINES);
+        }
+        if (followTail) {
+            output.scrollTo(items.size() - 1);
+        }
+    }
+
+    /** Dropped because more than {@value #RING_CAPACITY} lines arrived within a single pulse (the log file still has them). */
+    public long getDroppedLines() {
+        return droppedLines;
     }
 
     /**
-     * Creates a custom OutputStream that redirects its content to a JavaFX TextArea.
+     * Assembles bytes into lines and logs each line. Each stream has its own, so out and err never interleave
+     * mid-line. Bytes are decoded per line, which keeps multi-byte UTF-8 characters intact.
      */
     private static class ConsoleOutputStream extends OutputStream {
-        private final ConsoleManager consoleManager;
+        private final Logger logger;
+        private final LogLevel level;
+        private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream(256);
+
+        public ConsoleOutputStream(Logger logger, LogLevel level) {
+            this.logger = logger;
+            this.level = level;
+        }
 
-        public ConsoleOutputStream(ConsoleManager consoleManager) {
-            this.consoleManager = consoleManager;
+        @Override
+        public synchronized void write(int b) {
+            if (b == '\n') {
+                endLine();
+            } else if (b != '\r') {
+                lineBuffer.write(b);
+            }
         }
 
         @Override
-        public void write(int b) throws IOException {
-            // This is inefficient but necessary to redirect byte-by-byte streams.
-            // We buffer it in the ConsoleManager.
-            Platform.runLater(() -> consoleManager.appendText(String.valueOf((char) b)));
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            int start = offset;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                if (bytes[i] == '\n' || bytes[i] == '\r') {
+                    lineBuffer.write(bytes, start, i - start);
+                    if (bytes[i] == '\n') endLine();
+                    start = i + 1;
+                }
+            }
+            lineBuffer.write(bytes, start, end - start);
+        }
+
+        private void endLine() {
+            if (lineBuffer.size() > 0) {
+                String line = lineBuffer.toString(StandardCharsets.UTF_8);
+                if (level == LogLevel.WARN) logger.warn(line); else logger.info(line);
+                lineBuffer.reset();
+            }
         }
     }
 
 
     /**
-     * Redirects System.out and System.err to the provided TextArea.
-     * @param consoleTextArea The TextArea to which the output streams will be redirected.
+     * Subscribes the provided list view to the log and redirects System.out and System.err into the log.
+     * @param consoleListView The list that shows one console line per row.
      */
-    public static void redirectSystemStreams(TextArea consoleTextArea) {
-        ConsoleManager manager = new ConsoleManager(consoleTextArea);
-        OutputStream out = new ConsoleOutputStream(manager);
+    public static void redirectSystemStreams(ListView<String> consoleListView) {
+        ConsoleManager manager = new ConsoleManager(consoleListView);
+        Log.addSubscriber(manager);
 
         // Redirect standard out and standard error
-        System.setOut(new PrintStream(out, true));
-        System.setErr(new PrintStream(out, true));
+        System.setOut(new PrintStream(new ConsoleOutputStream(Log.get("stdout"), LogLevel.INFO), true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(new ConsoleOutputStream(Log.get("stderr"), LogLevel.WARN), true, StandardCharsets.UTF_8));
 
-        System.out.println("ConsoleManager initialized. System streams redirected.");
+        log.info("ConsoleManager initialized. System streams redirected.");
     }
-}
\ No newline at end of file
+}
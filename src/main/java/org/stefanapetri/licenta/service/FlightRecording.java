@@ -0,0 +1,80 @@
+package org.stefanapetri.licenta.service;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Starts and stops a Java Flight Recorder recording of the running tracker, e.g. from the tray while reproducing a
+ * field issue. It uses the JDK's "profile" settings plus all {@link TrackerEvents}, and is written to the
+ * "flight-recordings" data folder when stopped, for JDK Mission Control or {@code jfr print}.
+ * A recording still running at exit is written too.
+ */
+public final class FlightRecording {
+
+    private static final Logger log = Log.get(FlightRecording.class);
+    private static final List<Class<? extends jdk.jfr.Event>> TRACKER_EVENTS = List.of(
+            TrackerEvents.MonitorScan.class, TrackerEvents.DatabaseStatement.class, TrackerEvents.RecordingSession.class,
+            TrackerEvents.PythonProcess.class, TrackerEvents.MarkdownRender.class, TrackerEvents.DialogOpen.class);
+
+    private static Recording recording;
+    private static Path destination;
+
+    private FlightRecording() {}
+
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /** @return The file the recording will be written to once stopped. Already recording: the current file. */
+    public static synchronized Path start() throws IOException {
+        if (recording != null) return destination;
+        Configuration profile;
+        try {
+            profile = Configuration.getConfiguration("profile");
+        } catch (ParseException e) {
+            throw new IOException("JFR profile settings could not be read: " + e.getMessage(), e);
+        }
+        Path file = AppDirectories.resolve("flight-recordings").resolve(
+                "tracker-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now()) + ".jfr");
+        Recording newRecording = new Recording(profile);
+        newRecording.setName("Application Activity Tracker");
+        newRecording.setToDisk(true);
+        newRecording.setDestination(file);
+        // JFR's own shutdown hook writes it to the destination if the tracker exits while recording.
+        newRecording.setDumpOnExit(true);
+        for (Class<? extends jdk.jfr.Event> eventType : TRACKER_EVENTS) {
+            newRecording.enable(eventType).withoutThreshold();
+        }
+        newRecording.start();
+        recording = newRecording;
+        destination = file;
+        log.info("Flight recording started, writing to " + file + " when stopped.");
+        return file;
+    }
+
+    /** Stops the recording and writes it. @return The written file; empty if nothing was recording. */
+    public static synchronized Optional<Path> stop() {
+        if (recording == null) return Optional.empty();
+        Path file = destination;
+        try {
+            recording.stop(); // writes to the destination
+            log.info("Flight recording saved to " + file);
+            return Optional.of(file);
+        } catch (IllegalStateException e) {
+            log.error("Flight recording could not be stopped: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            recording.close();
+            recording = null;
+            destination = null;
+        }
+    }
+}
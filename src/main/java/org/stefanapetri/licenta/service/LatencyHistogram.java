@@ -0,0 +1,94 @@
+package org.stefanapetri.licenta.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with log-linear buckets: eight buckets per power of two of microseconds, so a
+ * percentile is reported at most 12.5% above the true value, from 1 µs up to weeks. Recording is a few arithmetic
+ * operations and atomic increments, cheap enough for every stage of the pipeline.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40; // 2^41 µs, about 25 days
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS;
+
+    /** Count, mean and percentiles at one point in time; all times in milliseconds. */
+    public record Snapshot(long count, double meanMillis, double p50Millis, double p90Millis, double p99Millis,
+                           double maxMillis) {}
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        buckets.incrementAndGet(indexOf(micros));
+        count.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    /** Records the time since {@code startNanos}, a value of {@link System#nanoTime()}. */
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long max = maxMicros.get();
+        if (total == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0);
+        }
+        double mean = sumMicros.sum() / (double) count.sum() / 1000.0;
+        return new Snapshot(total, mean,
+                percentile(counts, total, 0.50, max), percentile(counts, total, 0.90, max),
+                percentile(counts, total, 0.99, max), max / 1000.0);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sumMicros.reset();
+        maxMicros.reset();
+    }
+
+    /** The upper bound of the bucket holding the requested rank, capped at the largest value seen. */
+    private static double percentile(long[] counts, long total, double quantile, long maxMicros) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxMicros) / 1000.0;
+            }
+        }
+        return maxMicros / 1000.0;
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        long sub = (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        if (63 - Long.numberOfLeadingZeros(micros) > MAX_EXPONENT) sub = SUB_BUCKETS - 1;
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + (int) sub;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        long sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+}
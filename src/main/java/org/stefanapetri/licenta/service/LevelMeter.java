@@ -0,0 +1,139 @@
+package org.stefanapetri.licenta.service;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reduces captured 16-bit PCM to a min/max/RMS envelope (one entry per 20 ms window) for the recording waveform.
+ * {@link #process} runs on the capture thread and never allocates: entries go into preallocated arrays,
+ * published through a sequence number. The UI reads them at display rate through a {@link Reader}.
+ * <p>
+ * The entry arrays are a ring; a reader that falls more than {@link #capacity()} entries behind
+ * just skips the oldest ones, which is fine for a display.
+ */
+public class LevelMeter {
+
+    private static final int WINDOWS_PER_SECOND = 50;
+
+    private final boolean bigEndian;
+    private final int windowSamples;
+    private final float[] minimums;
+    private final float[] maximums;
+    private final float[] rmsValues;
+    private final int mask;
+    private final AtomicLong published = new AtomicLong();
+
+    // Capture-thread state for the window being accumulated.
+    private int samplesInWindow = 0;
+    private float windowMin = 0;
+    private float windowMax = 0;
+    private double windowSumSquares = 0;
+    private int pendingByte = -1;
+
+    /**
+     * @param format The capture format; must be 16-bit signed PCM. Its byte order decides how samples are decoded.
+     * @param capacity Number of envelope entries kept; rounded up to a power of two.
+     */
+    public LevelMeter(AudioFormat format, int capacity) {
+        if (format.getSampleSizeInBits() != 16 || format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED) {
+            throw new IllegalArgumentException("Only 16-bit signed PCM is supported, got " + format);
+        }
+        this.bigEndian = format.isBigEndian();
+        // Interleaved channels are folded into the same window, which is what a mono-looking meter wants.
+        this.windowSamples = Math.max(1, Math.round(format.getSampleRate() * format.getChannels() / WINDOWS_PER_SECOND));
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.minimums = new float[size];
+        this.maximums = new float[size];
+        this.rmsValues = new float[size];
+        this.mask = size - 1;
+    }
+
+    /** Called on the capture thread with every block read from the line. */
+    public void process(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        if (pendingByte >= 0 && i < end) {
+            addSample(decode((byte) pendingByte, data[i++]));
+            pendingByte = -1;
+        }
+        for (; i + 1 < end; i += 2) {
+            addSample(decode(data[i], data[i + 1]));
+        }
+        if (i < end) {
+            pendingByte = data[i] & 0xFF;
+        }
+    }
+
+    private float decode(byte first, byte second) {
+        int sample = bigEndian ? (first << 8) | (second & 0xFF) : (second << 8) | (first & 0xFF);
+        return sample / 32768f;
+    }
+
+    private void addSample(float value) {
+        if (samplesInWindow == 0) {
+            windowMin = value;
+            windowMax = value;
+        } else {
+            if (value < windowMin) windowMin = value;
+            if (value > windowMax) windowMax = value;
+        }
+        windowSumSquares += value * value;
+        if (++samplesInWindow == windowSamples) {
+            long sequence = published.get();
+            int slot = (int) (sequence & mask);
+            minimums[slot] = windowMin;
+            maximums[slot] = windowMax;
+            rmsValues[slot] = (float) Math.sqrt(windowSumSquares / windowSamples);
+            published.setRelease(sequence + 1);
+            samplesInWindow = 0;
+            windowSumSquares = 0;
+        }
+    }
+
+    /** Sequence number of the next entry to be published; entries [0, published) exist. */
+    public long publishedCount() {
+        return published.getAcquire();
+    }
+
+    public int capacity() {
+        return minimums.length;
+    }
+
+    /** Creates a cursor that starts at the next entry to be published. */
+    public Reader newReader() {
+        return new Reader(published.getAcquire());
+    }
+
+    /** A consumer's position in the envelope stream. Use one per consuming thread. */
+    public final class Reader {
+        private long position;
+
+        private Reader(long position) {
+            this.position = position;
+        }
+
+        /**
+         * Copies entries published since the last call into the given arrays, oldest first,
+         * skipping entries that were already overwritten.
+         * @return The number of entries copied, at most the arrays' length.
+         */
+        public int read(float[] minOut, float[] maxOut, float[] rmsOut) {
+            long end = published.getAcquire();
+            long start = Math.max(position, end - capacity());
+            int count = (int) Math.min(end - start, minOut.length);
+            for (int n = 0; n < count; n++) {
+                int slot = (int) ((start + n) & mask);
+                minOut[n] = minimums[slot];
+                maxOut[n] = maximums[slot];
+                rmsOut[n] = rmsValues[slot];
+            }
+            position = start + count;
+            return count;
+        }
+    }
+
+    /** Envelope entries produced per second of audio. */
+    public static int windowsPerSecond() {
+        return WINDOWS_PER_SECOND;
+    }
+}
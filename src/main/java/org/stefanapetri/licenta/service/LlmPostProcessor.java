@@ -0,0 +1,274 @@
+package org.stefanapetri.licenta.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Turns a raw Whisper transcript into a structured summary with the Gemini generateContent API.
+ * This runs as its own stage after the raw memo has been saved, so a slow or rate-limited API never
+ * holds up transcription. Requests are rate limited, retried with exponential backoff and jitter,
+ * and answers are cached by raw text, endpoint, model and prompt version.
+ * <p>
+ * The base endpoint is configurable, so a local stand-in server speaking the same protocol can replace Google's.
+ */
+public class LlmPostProcessor {
+
+    public static final String DEFAULT_ENDPOINT = "https://generativelanguage.googleapis.com/v1beta";
+    public static final String MODEL = "gemini-2.5-flash";
+    // Bump whenever prompts/summary_prompt.txt changes, so summaries made with the old prompt are not reused.
+    public static final int PROMPT_VERSION = 2;
+
+    private static final Logger log = Log.get(LlmPostProcessor.class);
+    private static final int MAX_ATTEMPTS = 4;
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(90);
+    private static final LatencyHistogram requestLatency = Metrics.latency("gemini.request");
+    // Requests that got no response at all (connection failure, timeout), kept apart so they don't skew the above.
+    private static final LatencyHistogram failedRequestLatency = Metrics.latency("gemini.requestFailed");
+    private static final Metrics.Counter retryCount = Metrics.counter("gemini.retries");
+
+    private final HttpClient httpClient;
+    private final TranscriptionCache cache;
+    private final String promptTemplate;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LlmPostProcessor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile String endpoint = DEFAULT_ENDPOINT;
+
+    /**
+     * @param cache Shared transcription cache for LLM answers; may be null to disable caching.
+     */
+    public LlmPostProcessor(TranscriptionCache cache) {
+        // Free-tier Gemini Flash allows ~10 requests per minute; allow a small burst on top.
+        this(cache, new RateLimiter(10 / 60.0, 3));
+    }
+
+    LlmPostProcessor(TranscriptionCache cache, RateLimiter rateLimiter) {
+        this.cache = cache;
+        this.rateLimiter = rateLimiter;
+        this.promptTemplate = loadPromptTemplate();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * Sets the base URL requests are sent to, e.g. "http://localhost:8089/v1beta" for a local stand-in.
+     * @param baseUrl The base URL, or null/blank for the public Gemini endpoint.
+     */
+    public void setEndpoint(String baseUrl) {
+        String trimmed = baseUrl == null ? "" : baseUrl.trim();
+        while (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        this.endpoint = trimmed.isEmpty() ? DEFAULT_ENDPOINT : trimmed;
+    }
+
+    /**
+     * Summarizes a raw transcript in the background.
+     * @return A future with the summary; it completes exceptionally if every attempt failed,
+     *         in which case callers should keep the raw text.
+     */
+    public CompletableFuture<String> process(String rawText, String apiKey) {
+        return CompletableFuture.supplyAsync(() -> {
+            // Read once, so the cache key and the request agree even if the setting changes meanwhile. A local
+            // stand-in answers differently from Gemini, so its summaries must not be served for the real endpoint.
+            String currentEndpoint = endpoint;
+            String cacheKey = cacheKey(rawText, currentEndpoint, PROMPT_VERSION);
+            if (cache != null) {
+                Optional<String> cached = cache.getPostProcessed(cacheKey);
+                if (cached.isPresent()) {
+                    log.info("LLM response cache hit, Gemini not called.");
+                    return cached.get();
+                }
+            }
+            try {
+                String summary = requestWithRetry(currentEndpoint, rawText, apiKey);
+                if (cache != null) cache.putPostProcessed(cacheKey, summary);
+                return summary;
+            } catch (IOException | InterruptedException e) {
+                if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    static String cacheKey(String rawText, String endpoint, int promptVersion) {
+        return TranscriptionCache.postProcessedKey(rawText, endpoint, MODEL, String.valueOf(promptVersion));
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private String requestWithRetry(String currentEndpoint, String rawText, String apiKey) throws IOException, InterruptedException {
+        if ((apiKey == null || apiKey.isBlank()) && currentEndpoint.equals(DEFAULT_ENDPOINT)) {
+            throw new IOException("Gemini API processing is enabled but no API key is set.");
+        }
+
+        String prompt = promptTemplate.replace("{transcription}", rawText);
+        String body = "{\"contents\":[{\"parts\":[{\"text\":" + jsonQuote(prompt) + "}]}]}";
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(currentEndpoint + "/models/" + MODEL + ":generateContent"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        if (apiKey != null && !apiKey.isBlank()) {
+            builder.header("x-goog-api-key", apiKey);
+        }
+        HttpRequest request = builder.build();
+        Duration lastDelay = Duration.ZERO;
+
+        IOException lastError = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (attempt > 1) {
+                Thread.sleep(lastDelay.toMillis());
+            }
+            rateLimiter.acquire();
+
+            if (attempt > 1) retryCount.increment();
+            HttpResponse<String> response;
+            long requestStart = System.nanoTime();
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+                requestLatency.recordSince(requestStart);
+            } catch (IOException e) { // connection failures and timeouts are worth another try
+                failedRequestLatency.recordSince(requestStart);
+                lastError = e;
+                lastDelay = logRetry(attempt, e, null);
+                continue;
+            }
+
+            int status = response.statusCode();
+            if (status == 200) {
+                String text = extractText(response.body());
+                if (text == null || text.isBlank()) {
+                    throw new IOException("Gemini response had no candidates.");
+                }
+                return text.strip();
+            }
+            lastError = new IOException("Gemini API returned HTTP " + status + ": " + abbreviate(response.body()));
+            if (!isRetryable(status)) {
+                throw lastError;
+            }
+            Duration retryAfter = response.headers().firstValue("Retry-After").map(LlmPostProcessor::parseRetryAfter).orElse(null);
+            lastDelay = logRetry(attempt, lastError, retryAfter);
+        }
+        throw lastError;
+    }
+
+    private static Duration logRetry(int attempt, IOException error, Duration retryAfter) {
+        Duration delay = retryAfter != null ? retryAfter : backoff(attempt);
+        if (attempt < MAX_ATTEMPTS) {
+            log.warn("Gemini request failed (attempt " + attempt + "/" + MAX_ATTEMPTS + "): "
+                    + error.getMessage() + ". Retrying in " + delay.toMillis() + " ms.", error);
+        }
+        return delay;
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 408 || status == 429 || status >= 500;
+    }
+
+    /** Exponential backoff with "equal jitter": half the delay is fixed, half is random. */
+    static Duration backoff(int attempt) {
+        long exponential = Math.min(MAX_BACKOFF.toMillis(), BASE_BACKOFF.toMillis() << (attempt - 1));
+        long half = exponential / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private static Duration parseRetryAfter(String value) {
+        try {
+            long seconds = Long.parseLong(value.trim());
+            return Duration.ofSeconds(Math.min(Math.max(seconds, 0), MAX_BACKOFF.toSeconds()));
+        } catch (NumberFormatException e) {
+            return null; // HTTP-date form is not used by Gemini; fall back to our own backoff.
+        }
+    }
+
+    private static String loadPromptTemplate() {
+        String resourcePath = "/org/stefanapetri/licenta/prompts/summary_prompt.txt";
+        try (InputStream in = LlmPostProcessor.class.getResourceAsStream(resourcePath)) {
+            if (in == null) {
+                throw new IllegalStateException("Prompt not found in resources: " + resourcePath);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read prompt " + resourcePath, e);
+        }
+    }
+
+    /**
+     * Returns the first "text" string in a generateContent response, i.e. candidates[0].content.parts[0].text.
+     * A full JSON parser is not needed for this one field.
+     */
+    static String extractText(String json) {
+        int key = json.indexOf("\"text\"");
+        if (key < 0) return null;
+        int i = key + "\"text\"".length();
+        while (i < json.length() && (Character.isWhitespace(json.charAt(i)) || json.charAt(i) == ':')) i++;
+        if (i >= json.length() || json.charAt(i) != '"') return null;
+
+        StringBuilder sb = new StringBuilder();
+        for (i++; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escaped = json.charAt(++i);
+            switch (escaped) {
+                case 'n' -> sb.append('\n');
+                case 't' -> sb.append('\t');
+                case 'r' -> sb.append('\r');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    sb.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                    i += 4;
+                }
+                default -> sb.append(escaped); // \" \\ \/
+            }
+        }
+        return null;
+    }
+
+    private static String jsonQuote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 16).append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String abbreviate(String body) {
+        String oneLine = body == null ? "" : body.replaceAll("\\s+", " ");
+        return oneLine.length() > 200 ? oneLine.substring(0, 200) + "..." : oneLine;
+    }
+}
@@ -0,0 +1,160 @@
+package org.stefanapetri.licenta.service;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The application log. Callers hand entries to a bounded queue and return immediately; a single dispatcher
+ * thread delivers them in batches to the subscribers (log file, console tab). When the queue is full the
+ * entry is dropped and counted, and the dispatcher reports the number of dropped entries once it catches up,
+ * so a flood of output can slow nothing but the log itself.
+ * <p>
+ * The level defaults to INFO and can be changed with {@code -Dtracker.log.level=DEBUG} or {@link #setLevel}.
+ */
+public final class Log {
+
+    private static final int QUEUE_CAPACITY = 8_192;
+    private static final int MAX_BATCH = 512;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 2_000;
+    private static final LogEntry SHUTDOWN = LogEntry.of(LogLevel.INFO, "Log", "shutdown", null);
+
+    // Captured before ConsoleManager redirects System.err, so problems inside the log never loop back into it.
+    static final PrintStream FALLBACK_ERR = System.err;
+
+    private static final BlockingQueue<LogEntry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final List<LogSubscriber> subscribers = new CopyOnWriteArrayList<>();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static volatile LogLevel level = parseLevel(System.getProperty("tracker.log.level"));
+    private static volatile boolean shutDown = false;
+    private static final Thread dispatcher = startDispatcher();
+
+    private Log() {}
+
+    public static Logger get(Class<?> component) {
+        return new Logger(component.getSimpleName());
+    }
+
+    public static Logger get(String component) {
+        return new Logger(component);
+    }
+
+    public static void addSubscriber(LogSubscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public static void removeSubscriber(LogSubscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public static void setLevel(LogLevel newLevel) {
+        level = newLevel;
+    }
+
+    public static LogLevel getLevel() {
+        return level;
+    }
+
+    static boolean isEnabled(LogLevel entryLevel) {
+        return entryLevel.isAtLeast(level);
+    }
+
+    /** Entries dropped because the queue was full, since startup. */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    static void submit(LogLevel entryLevel, String component, String message, Throwable error) {
+        if (!isEnabled(entryLevel) || shutDown) return;
+        if (!queue.offer(LogEntry.of(entryLevel, component, message, error))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Delivers everything still queued and closes the subscribers. Called from a shutdown hook,
+     * so entries logged right before {@code System.exit} still reach the file.
+     */
+    public static void shutdown() {
+        if (shutDown) return;
+        shutDown = true;
+        try {
+            if (queue.offer(SHUTDOWN, SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                dispatcher.join(SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Thread startDispatcher() {
+        Thread thread = new Thread(Log::dispatchLoop, "LogDispatcher");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::shutdown, "LogShutdown"));
+        return thread;
+    }
+
+    private static void dispatchLoop() {
+        List<LogEntry> batch = new ArrayList<>(MAX_BATCH + 1);
+        long reportedDropped = 0;
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            int shutdownIndex = batch.indexOf(SHUTDOWN);
+            if (shutdownIndex >= 0) {
+                batch.subList(shutdownIndex, batch.size()).clear();
+                running = false;
+            }
+            long droppedNow = dropped.get();
+            if (droppedNow != reportedDropped) {
+                batch.add(LogEntry.of(LogLevel.WARN, "Log",
+                        (droppedNow - reportedDropped) + " log entries were dropped because the log queue was full.", null));
+                reportedDropped = droppedNow;
+            }
+            deliver(batch);
+            batch.clear();
+        }
+        for (LogSubscriber subscriber : subscribers) {
+            try {
+                subscriber.close();
+            } catch (RuntimeException e) {
+                FALLBACK_ERR.println("Log subscriber failed to close: " + e);
+            }
+        }
+    }
+
+    private static void deliver(List<LogEntry> batch) {
+        if (batch.isEmpty()) return;
+        List<LogEntry> view = Collections.unmodifiableList(batch);
+        for (LogSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onEntries(view);
+            } catch (RuntimeException e) {
+                FALLBACK_ERR.println("Log subscriber " + subscriber.getClass().getSimpleName() + " failed: " + e);
+            }
+        }
+    }
+
+    private static LogLevel parseLevel(String value) {
+        if (value == null || value.isBlank()) return LogLevel.INFO;
+        try {
+            return LogLevel.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return LogLevel.INFO;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.stefanapetri.licenta.service;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One immutable log event. The message (and stack trace, if any) is captured as text on the calling
+ * thread, so subscribers never touch mutable application state.
+ */
+public record LogEntry(long timestampMillis, LogLevel level, String component, String threadName,
+                       String message, String stackTrace) {
+
+    private static final DateTimeFormatter FILE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    static LogEntry of(LogLevel level, String component, String message, Throwable error) {
+        String stackTrace = null;
+        if (error != null) {
+            StringWriter writer = new StringWriter();
+            error.printStackTrace(new PrintWriter(writer));
+            stackTrace = writer.toString();
+        }
+        return new LogEntry(System.currentTimeMillis(), level, component, Thread.currentThread().getName(), message, stackTrace);
+    }
+
+    /** Full single-entry form used by the log file, e.g. "2025-01-01 12:00:00.000 INFO  [main] DatabaseManager - ...". */
+    public String format() {
+        StringBuilder line = new StringBuilder(64 + message.length())
+                .append(FILE_FORMAT.format(Instant.ofEpochMilli(timestampMillis))).append(' ')
+                .append(String.format("%-5s", level)).append(" [").append(threadName).append("] ")
+                .append(component).append(" - ").append(message);
+        if (stackTrace != null) {
+            line.append(System.lineSeparator()).append(stackTrace.stripTrailing());
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,13 @@
+package org.stefanapetri.licenta.service;
+
+/** Severity of a log entry, in increasing order. */
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR;
+
+    public boolean isAtLeast(LogLevel other) {
+        return ordinal() >= other.ordinal();
+    }
+}
@@ -0,0 +1,15 @@
+package org.stefanapetri.licenta.service;
+
+import java.util.List;
+
+/**
+ * Receives log entries on the log dispatcher thread, in batches.
+ * Implementations may do I/O here, but a slow subscriber delays every other one.
+ */
+public interface LogSubscriber {
+
+    void onEntries(List<LogEntry> entries);
+
+    /** Called once when the log shuts down, after the last batch. */
+    default void close() {}
+}
@@ -0,0 +1,42 @@
+package org.stefanapetri.licenta.service;
+
+/**
+ * Per-component handle on the application log, obtained with {@link Log#get(Class)}.
+ * Calls never block: entries below the current level are discarded immediately, the rest are queued.
+ */
+public final class Logger {
+
+    private final String component;
+
+    Logger(String component) {
+        this.component = component;
+    }
+
+    public void debug(String message) {
+        Log.submit(LogLevel.DEBUG, component, message, null);
+    }
+
+    public void info(String message) {
+        Log.submit(LogLevel.INFO, component, message, null);
+    }
+
+    public void warn(String message) {
+        Log.submit(LogLevel.WARN, component, message, null);
+    }
+
+    public void warn(String message, Throwable error) {
+        Log.submit(LogLevel.WARN, component, message, error);
+    }
+
+    public void error(String message) {
+        Log.submit(LogLevel.ERROR, component, message, null);
+    }
+
+    public void error(String message, Throwable error) {
+        Log.submit(LogLevel.ERROR, component, message, error);
+    }
+
+    public boolean isDebugEnabled() {
+        return Log.isEnabled(LogLevel.DEBUG);
+    }
+}
@@ -0,0 +1,205 @@
+package org.stefanapetri.licenta.service;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Decodes ".lac" files written by {@link LosslessAudioEncoder}.
+ * Playback (JavaFX Media) and the transcriber both need a plain WAV file, so compressed recordings are
+ * decoded into a temporary WAV on demand with {@link #toWavPath(String)}.
+ */
+public final class LosslessAudioDecoder {
+
+    /** Decoded copies kept in the temp folder; a few minutes of audio each, so this stays in the tens of MB. */
+    static final int MAX_CACHED_FILES = 8;
+
+    private static final Logger log = Log.get(LosslessAudioDecoder.class);
+
+    private LosslessAudioDecoder() {}
+
+    public static boolean isCompressed(String audioFilePath) {
+        return audioFilePath != null && audioFilePath.toLowerCase().endsWith(LosslessAudioEncoder.FILE_EXTENSION);
+    }
+
+    /**
+     * Returns a WAV file with the recording's audio: the path itself for WAV recordings, otherwise a decoded copy
+     * in the temp folder. The copy is reused while it is newer than the compressed file; only the
+     * {@value #MAX_CACHED_FILES} most recently used copies are kept.
+     */
+    public static String toWavPath(String audioFilePath) throws IOException {
+        if (!isCompressed(audioFilePath)) {
+            return audioFilePath;
+        }
+        Path source = Path.of(audioFilePath);
+        Path cacheDir = Path.of(System.getProperty("java.io.tmpdir"), "app-activity-tracker-decoded");
+        Files.createDirectories(cacheDir);
+        String name = source.getFileName().toString();
+        Path target = cacheDir.resolve(name.substring(0, name.length() - LosslessAudioEncoder.FILE_EXTENSION.length()) + ".wav");
+
+        if (Files.exists(target) && Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(source)) >= 0) {
+            // Marks it as recently used for pruneCache; still newer than the source, so it stays valid.
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return target.toString();
+        }
+        Path temp = Files.createTempFile(cacheDir, "decode-", ".wav");
+        try {
+            decodeToWav(source, temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        pruneCache(cacheDir, target);
+        return target.toString();
+    }
+
+    /** Deletes all but the most recently used decoded copies. Copies still open elsewhere are left for next time. */
+    private static void pruneCache(Path cacheDir, Path keep) throws IOException {
+        List<Path> copies;
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            // "decode-" files are another decode still in progress.
+            copies = files.filter(file -> !file.equals(keep) && file.getFileName().toString().endsWith(".wav")
+                            && !file.getFileName().toString().startsWith("decode-"))
+                    .sorted(Comparator.comparing(LosslessAudioDecoder::lastModified).reversed())
+                    .toList();
+        }
+        for (Path stale : copies.subList(Math.min(copies.size(), MAX_CACHED_FILES - 1), copies.size())) {
+            try {
+                Files.deleteIfExists(stale);
+            } catch (IOException e) {
+                log.debug("Decoded copy " + stale + " not deleted: " + e.getMessage());
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0); // deleted meanwhile; oldest, so it is "pruned" first
+        }
+    }
+
+    /**
+     * Decodes a compressed recording into a 16-bit little-endian WAV file.
+     * Frames are read until the end of the file, so a recording that was never closed (header sample
+     * count still 0) is recovered up to its last complete frame.
+     * @return The number of samples decoded.
+     */
+    public static long decodeToWav(Path source, Path target) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source), 64 * 1024))) {
+            byte[] magic = new byte[4];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, LosslessAudioEncoder.MAGIC)) {
+                throw new IOException("Not a compressed recording: " + source);
+            }
+            int sampleRate = in.readInt();
+            int channels = in.readShort();
+            int bitsPerSample = in.readShort();
+            in.readLong(); // total samples; not needed, frames are self-delimiting
+            int blockSize = in.readInt();
+            if (channels != 1 || bitsPerSample != 16 || blockSize <= 0) {
+                throw new IOException("Unsupported compressed recording layout in " + source);
+            }
+
+            AudioFormat format = new AudioFormat(sampleRate, 16, 1, true, false);
+            int[] samples = new int[blockSize];
+            byte[] pcm = new byte[blockSize * 2];
+            long decoded = 0;
+            try (WavFileWriter writer = new WavFileWriter(target, format)) {
+                while (true) {
+                    int count;
+                    int order;
+                    byte[] payload;
+                    try {
+                        count = in.readUnsignedShort();
+                        order = in.readByte();
+                        payload = new byte[in.readInt()];
+                        in.readFully(payload);
+                    } catch (EOFException e) {
+                        break; // end of stream, or a frame cut off by a crash
+                    }
+                    if (count > blockSize || order < 0 || order > LosslessAudioEncoder.MAX_ORDER || order > count) {
+                        throw new IOException("Corrupt frame in " + source + " after " + decoded + " samples");
+                    }
+                    decodeFrame(payload, count, order, samples);
+                    for (int i = 0; i < count; i++) {
+                        pcm[2 * i] = (byte) samples[i];
+                        pcm[2 * i + 1] = (byte) (samples[i] >> 8);
+                    }
+                    writer.write(pcm, 0, count * 2);
+                    decoded += count;
+                }
+            }
+            return decoded;
+        }
+    }
+
+    private static void decodeFrame(byte[] payload, int count, int order, int[] x) throws IOException {
+        BitReader bits = new BitReader(payload);
+        for (int i = 0; i < order; i++) {
+            x[i] = (short) bits.read(16);
+        }
+        int residualCount = count - order;
+        int partitionSize = LosslessAudioEncoder.partitionSize(residualCount);
+        for (int from = 0; from < residualCount; from += partitionSize) {
+            int to = Math.min(residualCount, from + partitionSize);
+            int k = bits.read(LosslessAudioEncoder.RICE_PARAMETER_BITS);
+            for (int j = from; j < to; j++) {
+                int q = bits.readUnary();
+                int u = q >= LosslessAudioEncoder.ESCAPE_QUOTIENT ? bits.read(32) : (q << k) | bits.read(k);
+                int r = (u >>> 1) ^ -(u & 1);
+                int i = j + order;
+                x[i] = switch (order) {
+                    case 0 -> r;
+                    case 1 -> r + x[i - 1];
+                    case 2 -> r + 2 * x[i - 1] - x[i - 2];
+                    case 3 -> r + 3 * x[i - 1] - 3 * x[i - 2] + x[i - 3];
+                    default -> r + 4 * x[i - 1] - 6 * x[i - 2] + 4 * x[i - 3] - x[i - 4];
+                };
+            }
+        }
+    }
+
+    /** MSB-first bit reader over one frame payload. */
+    private static final class BitReader {
+        private final byte[] data;
+        private int position = 0;
+        private long accumulator = 0;
+        private int available = 0;
+
+        BitReader(byte[] data) {
+            this.data = data;
+        }
+
+        int read(int count) throws IOException {
+            if (count == 0) return 0;
+            while (available < count) {
+                if (position >= data.length) throw new IOException("Truncated frame payload");
+                accumulator = (accumulator << 8) | (data[position++] & 0xFF);
+                available += 8;
+            }
+            available -= count;
+            return (int) ((accumulator >>> available) & ((1L << count) - 1));
+        }
+
+        int readUnary() throws IOException {
+            int zeros = 0;
+            while (read(1) == 0) {
+                zeros++;
+            }
+            return zeros;
+        }
+    }
+}
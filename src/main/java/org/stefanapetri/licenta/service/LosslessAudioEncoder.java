@@ -0,0 +1,329 @@
+package org.stefanapetri.licenta.service;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming lossless encoder for 16-bit mono PCM, in the spirit of FLAC's fixed-predictor subframes.
+ * Audio is cut into blocks of {@value #BLOCK_SAMPLES} samples; each block picks the fixed polynomial
+ * predictor (order 0-4) with the smallest residual, and the residual is Rice-coded in
+ * {@value #PARTITIONS} partitions, each with its own Rice parameter. Pauses and quiet speech compress the most.
+ * <p>
+ * File layout (".lac", big-endian): magic "LAC1", sample rate (int), channels (short), bits per sample (short),
+ * total samples (long, patched on close), block size (int); then frames of
+ * [sample count (unsigned short), predictor order (byte), payload length (int), payload].
+ * The payload holds the warm-up samples (16 bits each), then per partition a 5-bit Rice parameter and the
+ * zigzag-encoded residuals. See {@link LosslessAudioDecoder} for the reverse.
+ */
+public class LosslessAudioEncoder implements AudioSink {
+
+    public static final String FILE_EXTENSION = ".lac";
+
+    static final byte[] MAGIC = {'L', 'A', 'C', '1'};
+    static final int HEADER_SIZE = 24;
+    static final int FRAME_HEADER_SIZE = 7;
+    static final int BLOCK_SAMPLES = 4096;
+    static final int PARTITIONS = 16;
+    static final int MAX_ORDER = 4;
+    static final int RICE_PARAMETER_BITS = 5;
+    static final int MAX_RICE_PARAMETER = 30;
+    // Quotients this large are escaped: ESCAPE zeros, the stop bit, then the raw 32-bit value.
+    static final int ESCAPE_QUOTIENT = 31;
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    /** Size and cost of an encoding run. */
+    public record Stats(long samples, float sampleRate, long compressedBytes, long encodeNanos) {
+        public long pcmBytes() {
+            return samples * 2;
+        }
+
+        /** Compressed size relative to 16-bit PCM, e.g. 0.45. */
+        public double ratio() {
+            return pcmBytes() == 0 ? 1.0 : compressedBytes / (double) pcmBytes();
+        }
+
+        /** Encoding time as a fraction of the audio duration, e.g. 0.01 = 1% of one core in real time. */
+        public double cpuLoad() {
+            double audioNanos = samples / (double) sampleRate * 1e9;
+            return audioNanos == 0 ? 0 : encodeNanos / audioNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.ROOT, "%.1f s of audio, %d KB -> %d KB (%.0f%%), encode time %.1f ms (%.2f%% of real time)",
+                    samples / (double) sampleRate, pcmBytes() / 1024, compressedBytes / 1024, ratio() * 100,
+                    encodeNanos / 1e6, cpuLoad() * 100);
+        }
+    }
+
+    private final FileChannel channel;
+    private final boolean bigEndian;
+    private final float sampleRate;
+    private final ByteBuffer output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+    private final int[] block = new int[BLOCK_SAMPLES];
+    private final int[][] residuals = new int[MAX_ORDER + 1][BLOCK_SAMPLES];
+    private final BitWriter bits = new BitWriter(BLOCK_SAMPLES * 4);
+    private int blockFill = 0;
+    private int pendingByte = -1;
+    private long totalSamples = 0;
+    private long compressedBytes = HEADER_SIZE;
+    private long encodeNanos = 0;
+    private boolean closed = false;
+
+    public LosslessAudioEncoder(Path file, AudioFormat format) throws IOException {
+        if (format.getSampleSizeInBits() != 16 || format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED
+                || format.getChannels() != 1) {
+            throw new IllegalArgumentException("Only 16-bit signed mono PCM is supported, got " + format);
+        }
+        this.bigEndian = format.isBigEndian();
+        this.sampleRate = format.getSampleRate();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.write(header(sampleRate, 0), 0);
+        channel.position(HEADER_SIZE);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        int end = offset + length;
+        int i = offset;
+        if (pendingByte >= 0 && i < end) {
+            addSample((byte) pendingByte, data[i++]);
+            pendingByte = -1;
+        }
+        for (; i + 1 < end; i += 2) {
+            addSample(data[i], data[i + 1]);
+        }
+        if (i < end) {
+            pendingByte = data[i] & 0xFF;
+        }
+    }
+
+    private void addSample(byte first, byte second) throws IOException {
+        block[blockFill++] = bigEndian ? (short) ((first << 8) | (second & 0xFF)) : (short) ((second << 8) | (first & 0xFF));
+        if (blockFill == BLOCK_SAMPLES) {
+            encodeBlock();
+        }
+    }
+
+    private void encodeBlock() throws IOException {
+        if (blockFill == 0) return;
+        long start = System.nanoTime();
+        int n = blockFill;
+
+        // Pick the fixed predictor with the smallest absolute residual sum.
+        int bestOrder = 0;
+        long bestCost = Long.MAX_VALUE;
+        for (int order = 0; order <= Math.min(MAX_ORDER, n - 1); order++) {
+            long cost = computeResiduals(order, n, residuals[order]);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestOrder = order;
+            }
+        }
+
+        bits.reset();
+        for (int i = 0; i < bestOrder; i++) {
+            bits.write(block[i] & 0xFFFF, 16);
+        }
+        int[] residual = residuals[bestOrder];
+        int count = n - bestOrder;
+        int partitionSize = partitionSize(count);
+        for (int from = 0; from < count; from += partitionSize) {
+            int to = Math.min(count, from + partitionSize);
+            int k = bestRiceParameter(residual, from, to);
+            bits.write(k, RICE_PARAMETER_BITS);
+            for (int i = from; i < to; i++) {
+                int u = zigzag(residual[i]);
+                int q = u >>> k;
+                if (q >= ESCAPE_QUOTIENT) {
+                    bits.writeUnary(ESCAPE_QUOTIENT);
+                    bits.write(u, 32);
+                } else {
+                    bits.writeUnary(q);
+                    bits.write(u & ((1 << k) - 1), k);
+                }
+            }
+        }
+        bits.flushToByte();
+
+        ensureOutput(FRAME_HEADER_SIZE);
+        output.putShort((short) n).put((byte) bestOrder).putInt(bits.length());
+        int written = 0;
+        while (written < bits.length()) {
+            if (!output.hasRemaining()) flushOutput();
+            int chunk = Math.min(output.remaining(), bits.length() - written);
+            output.put(bits.buffer(), written, chunk);
+            written += chunk;
+        }
+
+        compressedBytes += FRAME_HEADER_SIZE + bits.length();
+        totalSamples += n;
+        blockFill = 0;
+        encodeNanos += System.nanoTime() - start;
+    }
+
+    /** Residuals of the fixed predictor of the given order for samples [order, n); returns the sum of |residual|. */
+    private long computeResiduals(int order, int n, int[] out) {
+        int[] x = block;
+        long sum = 0;
+        for (int i = order; i < n; i++) {
+            int r = switch (order) {
+                case 0 -> x[i];
+                case 1 -> x[i] - x[i - 1];
+                case 2 -> x[i] - 2 * x[i - 1] + x[i - 2];
+                case 3 -> x[i] - 3 * x[i - 1] + 3 * x[i - 2] - x[i - 3];
+                default -> x[i] - 4 * x[i - 1] + 6 * x[i - 2] - 4 * x[i - 3] + x[i - 4];
+            };
+            out[i - order] = r;
+            sum += Math.abs(r);
+        }
+        return sum;
+    }
+
+    static int partitionSize(int residualCount) {
+        return Math.max(1, (residualCount + PARTITIONS - 1) / PARTITIONS);
+    }
+
+    /** Estimates k from the mean, then checks its neighbours with the exact bit cost. */
+    private static int bestRiceParameter(int[] residual, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += zigzag(residual[i]) & 0xFFFFFFFFL;
+        }
+        long mean = sum / Math.max(1, to - from);
+        int estimate = mean > 0 ? 63 - Long.numberOfLeadingZeros(mean) : 0;
+
+        int best = 0;
+        long bestBits = Long.MAX_VALUE;
+        for (int k = Math.max(0, estimate - 1); k <= Math.min(MAX_RICE_PARAMETER, estimate + 1); k++) {
+            long total = 0;
+            for (int i = from; i < to; i++) {
+                int q = zigzag(residual[i]) >>> k;
+                total += q >= ESCAPE_QUOTIENT ? ESCAPE_QUOTIENT + 1 + 32 : q + 1 + k;
+            }
+            if (total < bestBits) {
+                bestBits = total;
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private void ensureOutput(int bytes) throws IOException {
+        if (output.remaining() < bytes) flushOutput();
+    }
+
+    private void flushOutput() throws IOException {
+        output.flip();
+        while (output.hasRemaining()) {
+            channel.write(output);
+        }
+        output.clear();
+    }
+
+    /** Encodes and writes out everything except the partially filled block, then forces it to disk. */
+    @Override
+    public void sync() throws IOException {
+        flushOutput();
+        channel.force(false);
+    }
+
+    public Stats getStats() {
+        return new Stats(totalSamples, sampleRate, compressedBytes, encodeNanos);
+    }
+
+    /** Encodes the last partial block and patches the total sample count into the header. */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            encodeBlock();
+            flushOutput();
+            channel.write(header(sampleRate, totalSamples), 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** The file header for a mono 16-bit stream with the given total sample count. */
+    static ByteBuffer header(float sampleRate, long samples) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        header.put(MAGIC)
+                .putInt(Math.round(sampleRate))
+                .putShort((short) 1)
+                .putShort((short) 16)
+                .putLong(samples)
+                .putInt(BLOCK_SAMPLES);
+        return header.flip();
+    }
+
+    /** MSB-first bit packer for one frame payload. */
+    private static final class BitWriter {
+        private byte[] buffer;
+        private int length = 0;
+        private long accumulator = 0;
+        private int accumulated = 0;
+
+        BitWriter(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void reset() {
+            length = 0;
+            accumulator = 0;
+            accumulated = 0;
+        }
+
+        void write(int value, int count) {
+            if (count == 0) return;
+            accumulator = (accumulator << count) | (value & ((1L << count) - 1));
+            accumulated += count;
+            drain();
+        }
+
+        void writeUnary(int zeros) {
+            while (zeros >= 32) {
+                write(0, 32);
+                zeros -= 32;
+            }
+            write(1, zeros + 1);
+        }
+
+        void flushToByte() {
+            if (accumulated > 0) {
+                write(0, 8 - accumulated);
+            }
+        }
+
+        private void drain() {
+            while (accumulated >= 8) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                accumulated -= 8;
+                buffer[length++] = (byte) (accumulator >>> accumulated);
+            }
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+
+        int length() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.stefanapetri.licenta.service;
+
+import org.stefanapetri.licenta.model.DatabaseManager;
+import org.stefanapetri.licenta.model.MemoPreview;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs memo searches in the background and delivers the results page by page.
+ * Every call to {@link #search} starts a new generation; an older search stops at its next page boundary and
+ * none of its pages are delivered any more, so results of a stale query never reach the listener.
+ */
+public class MemoSearch {
+
+    public static final int PAGE_SIZE = 50;
+    public static final int PREVIEW_LENGTH = 100;
+
+    /** Callbacks, invoked on the executor given to the constructor. */
+    public interface Listener {
+        /** A page of results; {@code firstPage} means earlier results should be replaced. */
+        void onPage(List<MemoPreview> page, boolean firstPage);
+
+        /** The search is complete; called after the last page. */
+        void onFinished(int totalResults);
+
+        /** The database could not be queried; pages delivered before stay valid, but the search ends here. */
+        void onFailed(SQLException error);
+    }
+
+    private final DatabaseManager dbManager;
+    private final Executor callbackExecutor;
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MemoSearch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** @param callbackExecutor where listener callbacks run, e.g. {@code Platform::runLater} */
+    public MemoSearch(DatabaseManager dbManager, Executor callbackExecutor) {
+        this.dbManager = dbManager;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /** Starts a search for {@code query}, superseding any search still running. */
+    public void search(String query, Listener listener) {
+        long current = generation.incrementAndGet();
+        executor.execute(() -> run(current, query, listener));
+    }
+
+    /** Stops the running search, if any, without starting a new one. */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    private void run(long current, String query, Listener listener) {
+        MemoPreview last = null;
+        int total = 0;
+        boolean firstPage = true;
+        while (isCurrent(current)) {
+            List<MemoPreview> page;
+            try {
+                page = dbManager.searchMemos(query, last, PAGE_SIZE, PREVIEW_LENGTH);
+            } catch (SQLException e) {
+                deliver(current, () -> listener.onFailed(e));
+                return;
+            }
+            total += page.size();
+            if (!page.isEmpty() || firstPage) {
+                boolean replace = firstPage;
+                deliver(current, () -> listener.onPage(page, replace));
+            }
+            firstPage = false;
+            if (page.size() < PAGE_SIZE) {
+                int results = total;
+                deliver(current, () -> listener.onFinished(results));
+                return;
+            }
+            last = page.get(page.size() - 1);
+        }
+    }
+
+    private void deliver(long current, Runnable callback) {
+        // Checked again on the callback thread: a newer search may have started while this one was queued.
+        callbackExecutor.execute(() -> {
+            if (isCurrent(current)) callback.run();
+        });
+    }
+
+    private boolean isCurrent(long current) {
+        return generation.get() == current;
+    }
+}
@@ -0,0 +1,150 @@
+package org.stefanapetri.licenta.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process metrics for the tracker's pipeline: latency histograms, counters and gauges, registered by name.
+ * Instrumented classes look their metrics up once and keep them in static fields, so recording costs no map lookup.
+ * Names are dotted by stage ({@code monitor.scan}, {@code python.transcribe}, {@code db.saveMemo}) and the
+ * diagnostics tab lists them in that order.
+ */
+public final class Metrics {
+
+    public enum Type { LATENCY, COUNTER, GAUGE }
+
+    /** A monotonically increasing count. */
+    public static final class Counter {
+        private final LongAdder adder = new LongAdder();
+
+        public void increment() {
+            adder.increment();
+        }
+
+        public void add(long amount) {
+            adder.add(amount);
+        }
+
+        public long get() {
+            return adder.sum();
+        }
+    }
+
+    /** One metric at the time of {@link #snapshot()}. Latencies are in milliseconds; counters and gauges use {@code value}. */
+    public record Sample(String name, Type type, long count, double meanMillis, double p50Millis, double p90Millis,
+                         double p99Millis, double maxMillis, long value) {}
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    public static LatencyHistogram latency(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /** Registers a value read at snapshot time, e.g. a cache size owned by another class. Replaces an earlier gauge. */
+    public static void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /** All metrics, sorted by name. */
+    public static List<Sample> snapshot() {
+        Map<String, Sample> sorted = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            LatencyHistogram.Snapshot s = histogram.snapshot();
+            sorted.put(name, new Sample(name, Type.LATENCY, s.count(), s.meanMillis(), s.p50Millis(), s.p90Millis(),
+                    s.p99Millis(), s.maxMillis(), s.count()));
+        });
+        counters.forEach((name, counter) ->
+                sorted.put(name, new Sample(name, Type.COUNTER, counter.get(), 0, 0, 0, 0, 0, counter.get())));
+        gauges.forEach((name, supplier) -> {
+            long value;
+            try {
+                value = supplier.getAsLong();
+            } catch (RuntimeException e) {
+                value = -1;
+            }
+            sorted.put(name, new Sample(name, Type.GAUGE, 0, 0, 0, 0, 0, 0, value));
+        });
+        return new ArrayList<>(sorted.values());
+    }
+
+    /** Clears histograms and counters; gauges report their owner's state and are left alone. */
+    public static void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(counter -> counter.adder.reset());
+    }
+
+    /** Writes the current snapshot as JSON, with the startup phases if {@code startup} is not null. */
+    public static void exportTo(Path file, StartupTimings startup) throws IOException {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"timestamp\": ").append(quote(Instant.now().toString())).append(",\n");
+        json.append("  \"java\": ").append(quote(System.getProperty("java.version"))).append(",\n");
+        json.append("  \"metrics\": [\n");
+        List<Sample> samples = snapshot();
+        for (int i = 0; i < samples.size(); i++) {
+            Sample s = samples.get(i);
+            json.append("    {\"name\": ").append(quote(s.name()))
+                    .append(", \"type\": ").append(quote(s.type().name().toLowerCase(Locale.ROOT)));
+            if (s.type() == Type.LATENCY) {
+                json.append(", \"count\": ").append(s.count())
+                        .append(", \"meanMillis\": ").append(number(s.meanMillis()))
+                        .append(", \"p50Millis\": ").append(number(s.p50Millis()))
+                        .append(", \"p90Millis\": ").append(number(s.p90Millis()))
+                        .append(", \"p99Millis\": ").append(number(s.p99Millis()))
+                        .append(", \"maxMillis\": ").append(number(s.maxMillis()));
+            } else {
+                json.append(", \"value\": ").append(s.value());
+            }
+            json.append(i < samples.size() - 1 ? "},\n" : "}\n");
+        }
+        json.append(startup != null ? "  ],\n" : "  ]\n");
+        if (startup != null) {
+            json.append("  \"startup\": ").append(quote(startup.report())).append("\n");
+        }
+        json.append("}\n");
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.writeString(file, json.toString(), StandardCharsets.UTF_8);
+    }
+
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.3f", value) : "null";
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "null";
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
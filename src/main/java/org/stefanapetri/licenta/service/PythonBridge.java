@@ -6,66 +6,308 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public class PythonBridge {
 
+    private static final Logger log = Log.get(PythonBridge.class);
+    // The script's stderr (model loading, warnings) gets its own component so it can be told apart in the log.
+    private static final Logger pythonLog = Log.get("python");
+    private static final LatencyHistogram spawnLatency = Metrics.latency("python.spawn");
+    // Interpreter start and imports, until the script reports it is loading the model.
+    private static final LatencyHistogram startupLatency = Metrics.latency("python.startup");
+    private static final LatencyHistogram modelLoadLatency = Metrics.latency("python.model_load");
+    private static final LatencyHistogram transcribeLatency = Metrics.latency("python.transcribe");
+    private static final LatencyHistogram runLatency = Metrics.latency("python.run");
+    private static final Metrics.Counter cacheHits = Metrics.counter("python.cache_hits");
+
+    // Whisper engine settings; part of the transcription cache key.
+    public static final String WHISPER_MODEL = "small";
+    public static final String COMPUTE_TYPE = "int8";
+
     private final String pythonExecutable = "python";
     private final String scriptName = "transcribe.py";
+    private final TranscriptionCache cache;
+    private volatile int chunkingThresholdSeconds = 0;
 
-    // --- MODIFIED: Added enableGemini and geminiApiKey parameters ---
-    public CompletableFuture<String> transcribeAudio(String audioFilePath, boolean enableGemini, String geminiApiKey) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                File tempScript = extractScriptFromResources(scriptName);
-                String scriptPath = tempScript.getAbsolutePath();
+    public PythonBridge() {
+        this(TranscriptionCache.openDefault());
+    }
 
-                List<String> command = new ArrayList<>();
-                command.add(pythonExecutable);
-                command.add(scriptPath);
-                command.add(audioFilePath);
-                command.add("--enable-gemini=" + enableGemini); // Pass boolean as string
-                command.add("--gemini-api-key=" + geminiApiKey); // Pass API key
+    /**
+     * @param cache Cache for raw Whisper text; may be null, in which case every run spawns Python.
+     */
+    public PythonBridge(TranscriptionCache cache) {
+        this.cache = cache;
+    }
 
-                ProcessBuilder processBuilder = new ProcessBuilder(command);
+    public CompletableFuture<String> transcribeAudio(String audioFilePath) {
+        return transcribeAudio(audioFilePath, null);
+    }
 
-                Process process = processBuilder.start();
+    /**
+     * Transcribes a recording with Whisper, reporting stages, progress and decoded segments to the listener as they happen.
+     * LLM post-processing is a separate stage, see {@link LlmPostProcessor}.
+     * @param listener Receives pipeline events on background threads; may be null.
+     * @return The raw transcript, or a message starting with "Error:".
+     */
+    public CompletableFuture<String> transcribeAudio(String audioFilePath, TranscriptionListener listener) {
+        TranscriptionListener events = listener != null ? listener : new TranscriptionListener() {};
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                // --- Cache lookup: skip Python entirely ---
+                TranscriptionCache.Key key = cacheKeyFor(audioFilePath);
+                if (key != null) {
+                    Optional<String> cachedRaw = cache.getRaw(key);
+                    if (cachedRaw.isPresent()) {
+                        log.info("Transcription cache hit, Python not started.");
+                        cacheHits.increment();
+                        events.onStageChanged("cached");
+                        events.onProgress(100);
+                        return cachedRaw.get();
+                    }
+                }
 
-                // Read the standard output (this is our clean transcription)
-                String output;
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                    output = reader.lines().collect(Collectors.joining(System.lineSeparator()));
+                // --- Long memos: Whisper runs chunk-parallel ---
+                String rawText;
+                if (shouldChunk(audioFilePath)) {
+                    events.onStageChanged("transcribing_chunks");
+                    rawText = new ChunkedTranscriber().transcribe(audioFilePath, (chunkPath, cpuThreads, chunkEvents) ->
+                            transcribeChunk(chunkPath, WHISPER_MODEL, COMPUTE_TYPE, cpuThreads, null, chunkEvents), events);
+                    if (rawText == null) {
+                        return "Error: Transcription failed in one of the audio chunks.";
+                    }
+                } else {
+                    ScriptResult result = runScript(List.of(
+                            audioFilePath,
+                            "--model=" + WHISPER_MODEL,
+                            "--compute-type=" + COMPUTE_TYPE), null, events);
+                    if (result.exitCode() != 0) {
+                        return "Error: Transcription failed. Script exited with code " + result.exitCode() + ".";
+                    }
+                    rawText = result.output();
+                    if (rawText.startsWith("Error:")) {
+                        return rawText;
+                    }
                 }
 
-                // Read the standard error (for logging and debugging)
-                String errorOutput;
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-                    errorOutput = reader.lines().collect(Collectors.joining(System.lineSeparator()));
+                if (key != null && !rawText.isBlank()) {
+                    cache.putRaw(key, rawText);
                 }
+                return rawText;
+
+            } catch (Exception e) {
+                log.error("Could not execute the transcription script", e);
+                return "Error: Could not execute Python script.";
+            }
+        });
+    }
+
+    /**
+     * Sets the audio length above which memos are transcribed in parallel chunks.
+     * @param seconds The threshold in seconds, or 0 to always use a single Whisper pass.
+     */
+    public void setChunkingThresholdSeconds(int seconds) {
+        this.chunkingThresholdSeconds = seconds;
+    }
+
+    private boolean shouldChunk(String audioFilePath) {
+        int threshold = chunkingThresholdSeconds;
+        return threshold > 0 && ChunkedTranscriber.durationSeconds(audioFilePath) > threshold;
+    }
+
+    private String transcribeChunk(String chunkPath, String model, String computeType, int cpuThreads,
+                                   Consumer<Process> onStart, TranscriptionListener chunkEvents)
+            throws IOException, InterruptedException {
+        ScriptResult result = runScript(List.of(
+                chunkPath,
+                "--model=" + model,
+                "--compute-type=" + computeType,
+                "--cpu-threads=" + cpuThreads), onStart, chunkEvents);
+        if (result.exitCode() != 0 || result.output().startsWith("Error:")) {
+            log.error("Chunk transcription failed for " + chunkPath + " (exit code " + result.exitCode() + ").");
+            return null;
+        }
+        return result.output().strip();
+    }
+
+    /**
+     * Runs a single Whisper pass with explicit engine settings, bypassing the cache.
+     * Used by the benchmark harness to compare model sizes and compute types.
+     * @param onStart Receives the child process as soon as it is started (e.g. to sample its memory).
+     * @return The raw transcription, or null if the script failed.
+     */
+    public String transcribeRawUncached(String audioFilePath, String model, String computeType, Consumer<Process> onStart)
+            throws IOException, InterruptedException {
+        ScriptResult result = runScript(List.of(
+                audioFilePath,
+                "--model=" + model,
+                "--compute-type=" + computeType), onStart, null);
+        if (result.exitCode() != 0 || result.output().startsWith("Error:")) {
+            return null;
+        }
+        return result.output().strip();
+    }
+
+    /**
+     * Runs the chunk-parallel pipeline with explicit engine settings, bypassing the cache.
+     * Used by the benchmark harness to compare chunking with a single pass over the same file.
+     * @param targetChunkSeconds The chunk length the splitter aims for.
+     * @param onStart Receives every chunk's child process as soon as it is started; called from several threads.
+     * @return The stitched raw transcription, or null if any chunk failed.
+     */
+    public String transcribeChunkedUncached(String audioFilePath, String model, String computeType,
+                                            double targetChunkSeconds, Consumer<Process> onStart) throws Exception {
+        return new ChunkedTranscriber(targetChunkSeconds).transcribe(audioFilePath, (chunkPath, cpuThreads, chunkEvents) ->
+                transcribeChunk(chunkPath, model, computeType, cpuThreads, onStart, chunkEvents), new TranscriptionListener() {});
+    }
 
-                int exitCode = process.waitFor();
-                tempScript.delete(); // Clean up the temporary file
+    private record ScriptResult(int exitCode, String output) {}
 
-                // If there was anything in the error stream, print it to the Java console for debugging.
-                if (errorOutput != null && !errorOutput.isEmpty()) {
-                    System.err.println("Python Script stderr:\n" + errorOutput);
+    /**
+     * Runs transcribe.py. stdout and stderr are drained concurrently on their own threads, so a chatty
+     * script can never block on a full pipe; stdout carries the line protocol described in transcribe.py.
+     */
+    private ScriptResult runScript(List<String> arguments, Consumer<Process> onStart, TranscriptionListener listener)
+            throws IOException, InterruptedException {
+        File tempScript = extractScriptFromResources(scriptName);
+        try {
+            List<String> command = new ArrayList<>();
+            command.add(pythonExecutable);
+            command.add(tempScript.getAbsolutePath());
+            command.addAll(arguments);
+
+            ProcessBuilder processBuilder = new ProcessBuilder(command);
+
+            TrackerEvents.PythonProcess processEvent = new TrackerEvents.PythonProcess();
+            processEvent.begin();
+            long spawnStart = System.nanoTime();
+            Process process = processBuilder.start();
+            spawnLatency.recordSince(spawnStart);
+            processEvent.spawnNanos = System.nanoTime() - spawnStart;
+            if (onStart != null) {
+                onStart.accept(process);
+            }
+
+            AtomicReference<String> result = new AtomicReference<>();
+            StringBuilder plainOutput = new StringBuilder();
+            // When each stage began; written by the stdout drainer only and read after it is joined.
+            Map<String, Long> stageStarts = new HashMap<>();
+            Thread stdoutDrainer = startDrainer("PythonStdoutDrainer", process.getInputStream(), line -> {
+                if (line.startsWith("@STAGE\t")) stageStarts.putIfAbsent(line.substring(7), System.nanoTime());
+                handleProtocolLine(line, listener, result, plainOutput);
+            });
+            Thread stderrDrainer = startDrainer("PythonStderrDrainer", process.getErrorStream(),
+                    line -> pythonLog.info(line));
+
+            int exitCode = process.waitFor();
+            stdoutDrainer.join();
+            stderrDrainer.join();
+            recordStages(spawnStart, stageStarts, System.nanoTime());
+            if (processEvent.shouldCommit()) {
+                Long loading = stageStarts.get("loading_model");
+                Long transcribing = stageStarts.get("transcribing");
+                processEvent.pid = process.pid();
+                processEvent.arguments = String.join(" ", arguments);
+                processEvent.exitCode = exitCode;
+                if (loading != null && transcribing != null) processEvent.modelLoadNanos = transcribing - loading;
+                if (transcribing != null) processEvent.transcribeNanos = System.nanoTime() - transcribing;
+                processEvent.commit();
+            }
+
+            String output = result.get() != null ? result.get() : plainOutput.toString();
+            return new ScriptResult(exitCode, output);
+        } finally {
+            tempScript.delete(); // Clean up the temporary file
+        }
+    }
+
+    private static void recordStages(long spawnStart, Map<String, Long> stageStarts, long end) {
+        runLatency.recordNanos(end - spawnStart);
+        Long loading = stageStarts.get("loading_model");
+        Long transcribing = stageStarts.get("transcribing");
+        if (loading != null) startupLatency.recordNanos(loading - spawnStart);
+        if (loading != null && transcribing != null) modelLoadLatency.recordNanos(transcribing - loading);
+        if (transcribing != null) transcribeLatency.recordNanos(end - transcribing);
+    }
+
+    private TranscriptionCache.Key cacheKeyFor(String audioFilePath) {
+        if (cache == null) return null;
+        try {
+            return cache.keyFor(audioFilePath, WHISPER_MODEL, COMPUTE_TYPE);
+        } catch (IOException e) {
+            log.error("Could not hash audio for the transcription cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Thread startDrainer(String name, InputStream stream, Consumer<String> lineHandler) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineHandler.accept(line);
                 }
+            } catch (IOException e) {
+                log.error(name + " stopped: " + e.getMessage());
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
 
-                if (exitCode == 0) {
-                    return output;
-                } else {
-                    return "Error: Transcription failed. Script exited with code " + exitCode + ".";
+    /** Dispatches one stdout line. Lines outside the protocol are kept as plain output for robustness. */
+    private static void handleProtocolLine(String line, TranscriptionListener listener,
+                                           AtomicReference<String> result, StringBuilder plainOutput) {
+        if (!line.startsWith("@")) {
+            if (!plainOutput.isEmpty()) plainOutput.append(System.lineSeparator());
+            plainOutput.append(line);
+            return;
+        }
+        String[] fields = line.split("\t", -1);
+        try {
+            switch (fields[0]) {
+                case "@RESULT" -> result.set(unescape(fields[1]));
+                case "@STAGE" -> {
+                    if (listener != null) listener.onStageChanged(fields[1]);
+                }
+                case "@PROGRESS" -> {
+                    if (listener != null) listener.onProgress(Double.parseDouble(fields[1]));
+                }
+                case "@SEGMENT" -> {
+                    if (listener != null) {
+                        listener.onSegment(Double.parseDouble(fields[1]), Double.parseDouble(fields[2]), unescape(fields[3]));
+                    }
                 }
+                default -> log.warn("Unknown transcription event: " + line);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Malformed transcription event '" + line + "': " + e.getMessage());
+        }
+    }
 
-            } catch (Exception e) {
-                e.printStackTrace();
-                return "Error: Could not execute Python script.";
+    private static String unescape(String field) {
+        StringBuilder sb = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+                char next = field.charAt(++i);
+                sb.append(next == 'n' ? '\n' : next == 't' ? '\t' : next);
+            } else {
+                sb.append(c);
             }
-        });
+        }
+        return sb.toString();
     }
 
     private File extractScriptFromResources(String scriptName) throws IOException {
@@ -81,4 +323,4 @@ public class PythonBridge {
             return tempFile;
         }
     }
-}
\ No newline at end of file
+}
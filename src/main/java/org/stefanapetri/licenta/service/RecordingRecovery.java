@@ -0,0 +1,75 @@
+package org.stefanapetri.licenta.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Startup pass over the working folders left behind by {@link SegmentedRecordingSink}.
+ * A folder only survives if the app stopped before the recording was stitched (crash, power loss, kill),
+ * so each one is stitched into its target file here and reported back so the user can transcribe it.
+ */
+public class RecordingRecovery {
+
+    private static final Logger log = Log.get(RecordingRecovery.class);
+
+    /** A recording that was interrupted and has been restored to {@code audioFilePath}. */
+    public record RecoveredRecording(String audioFilePath, int appId, long startedAtMillis, double seconds) {}
+
+    /** Stitches every orphaned recording. Folders that cannot be read are left in place for the next start. */
+    public List<RecoveredRecording> recoverAll() {
+        List<RecoveredRecording> recovered = new ArrayList<>();
+        Path root;
+        try {
+            root = AppDirectories.resolve("recording-segments");
+        } catch (IOException e) {
+            log.warn("Recording recovery skipped: " + e.getMessage());
+            return recovered;
+        }
+
+        try (DirectoryStream<Path> folders = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path folder : folders) {
+                try {
+                    RecoveredRecording recording = recover(folder);
+                    if (recording != null) {
+                        recovered.add(recording);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.error("Could not recover the recording in " + folder + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Recording recovery failed: " + e.getMessage());
+        }
+        return recovered;
+    }
+
+    private RecoveredRecording recover(Path folder) throws IOException {
+        if (!Files.exists(folder.resolve(SegmentedRecordingSink.MANIFEST_NAME))) {
+            // Crashed before the first manifest reached the disk: nothing useful was recorded.
+            SegmentedRecordingSink.deleteWorkDirectory(folder);
+            return null;
+        }
+        Properties manifest = SegmentedRecordingSink.readManifest(folder);
+        Path target = Path.of(manifest.getProperty("target"));
+        float sampleRate = Float.parseFloat(manifest.getProperty("sampleRate"));
+        boolean compressed = Boolean.parseBoolean(manifest.getProperty("compressed"));
+        int appId = Integer.parseInt(manifest.getProperty("appId"));
+        long startedAt = Long.parseLong(manifest.getProperty("startedAt", "0"));
+
+        Files.createDirectories(target.getParent());
+        long samples = SegmentedRecordingSink.stitch(folder, target, sampleRate, compressed);
+        SegmentedRecordingSink.deleteWorkDirectory(folder);
+        if (samples == 0) {
+            Files.deleteIfExists(target);
+            return null;
+        }
+        double seconds = samples / (double) sampleRate;
+        log.info(String.format(java.util.Locale.ROOT, "Recovered an interrupted recording (%.1f s) to %s", seconds, target));
+        return new RecoveredRecording(target.toString(), appId, startedAt, seconds);
+    }
+}
@@ -0,0 +1,335 @@
+package org.stefanapetri.licenta.service;
+
+import org.stefanapetri.licenta.model.DatabaseManager;
+import org.stefanapetri.licenta.model.PendingReminder;
+import org.stefanapetri.licenta.model.ReminderPolicy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Decides when reminders are shown, per application and according to its {@link ReminderPolicy}.
+ * <ul>
+ *   <li>Closing an app arms a timer for the policy interval; once it expires, the next open shows the reminder.
+ *   Opening the app before then disarms it.</li>
+ *   <li>During quiet hours a due reminder waits; if the app is still open when they end, it is shown then.</li>
+ *   <li>A snoozed reminder comes back after the snooze time, right away if the app is open, else at the next open.</li>
+ * </ul>
+ * Timers live in a {@link TimingWheel} and are stored in the database, so they survive a restart. All state is owned
+ * by one scheduler thread; the public methods hand their work to it. Time comes from the {@link Clock} given to the
+ * constructor, and {@link #advance()} processes everything due up to its current time, so the scheduler can be
+ * stepped through virtual time.
+ */
+public class ReminderScheduler {
+
+    private static final Logger log = Log.get(ReminderScheduler.class);
+    private static final long TICK_MILLIS = 1000;
+
+    /** Called on the scheduler thread when a delayed reminder becomes due while its app is open. */
+    public interface Listener {
+        void onReminderDue(int appId);
+    }
+
+    private enum TimerType { DUE, SNOOZE, QUIET_END }
+
+    private record Timer(int appId, TimerType type) {}
+
+    private static final class AppState {
+        // An app that was never closed reminds at its first open, as before per-app scheduling existed.
+        boolean due = true;
+        boolean open;
+        Instant closedAt;
+        TimingWheel.Timeout armed;
+        TimingWheel.Timeout snooze;
+        TimingWheel.Timeout quietEnd;
+    }
+
+    private final DatabaseManager dbManager;
+    private final Clock clock;
+    private final TimingWheel<Timer> wheel;
+    private final Map<Integer, AppState> apps = new HashMap<>();
+    private final Map<Integer, ReminderPolicy> policies = new HashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ReminderScheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Listener listener;
+    private ReminderPolicy defaultPolicy = ReminderPolicy.global(-1);
+    private boolean enabled = true;
+
+    public ReminderScheduler(DatabaseManager dbManager, Clock clock) {
+        this.dbManager = dbManager;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, clock.millis());
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Loads policies and pending timers from the database and starts ticking. Call once the database is ready. */
+    public void start() {
+        executor.execute(this::load);
+        executor.scheduleAtFixedRate(this::runAdvance, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Processes all timers due at the clock's current time; also called once per tick by the scheduler thread. */
+    public CompletableFuture<Void> advance() {
+        return submit(() -> {
+            runAdvance();
+            return null;
+        });
+    }
+
+    /** The global switch and the interval of apps without their own policy, from the settings. */
+    public void setDefaults(boolean enabled, int intervalHours) {
+        submit(() -> {
+            this.enabled = enabled;
+            ReminderPolicy policy = ReminderPolicy.global(intervalHours);
+            if (!policy.equals(defaultPolicy)) {
+                defaultPolicy = policy;
+                apps.keySet().stream().filter(appId -> !policies.containsKey(appId)).toList().forEach(this::rearm);
+            }
+            return null;
+        });
+    }
+
+    /** @return The app's own policy; empty if it follows the global settings. */
+    public CompletableFuture<Optional<ReminderPolicy>> getPolicy(int appId) {
+        return submit(() -> Optional.ofNullable(policies.get(appId)));
+    }
+
+    /** Gives the app its own policy, or with {@code null} returns it to the global settings. */
+    public void setPolicy(int appId, ReminderPolicy policy) {
+        submit(() -> {
+            if (policy == null) {
+                policies.remove(appId);
+                dbManager.deleteReminderPolicy(appId);
+            } else {
+                policies.put(appId, policy);
+                dbManager.saveReminderPolicy(appId, policy);
+            }
+            rearm(appId);
+            return null;
+        });
+    }
+
+    /**
+     * The app was opened.
+     * @return Completes with true if its reminder should be shown now; it then counts as shown.
+     */
+    public CompletableFuture<Boolean> onAppOpened(int appId) {
+        return submit(() -> {
+            AppState state = state(appId);
+            state.open = true;
+            if (!state.due && state.armed != null) {
+                // Time spent open does not count as closed: the interval starts over at the next close.
+                wheel.cancel(state.armed);
+                state.armed = null;
+                dbManager.deletePendingReminder(appId, PendingReminder.Kind.DUE);
+            }
+            if (!enabled || isSnoozed(state)) return false;
+            ReminderPolicy policy = policyFor(appId);
+            if (!state.due && !policy.remindsAtEveryOpen()) return false;
+            if (policy.isQuiet(LocalTime.now(clock))) {
+                state.due = true;
+                scheduleQuietEnd(appId, state, policy);
+                return false;
+            }
+            markShown(appId, state);
+            return true;
+        });
+    }
+
+    /** The app was closed: the interval until its next reminder starts now. */
+    public void onAppClosed(int appId) {
+        submit(() -> {
+            AppState state = state(appId);
+            state.open = false;
+            state.closedAt = clock.instant();
+            wheel.cancel(state.quietEnd);
+            state.quietEnd = null;
+            // A reminder that is due but was not shown yet (quiet hours, snooze) stays due.
+            if (!state.due) arm(appId, state);
+            return null;
+        });
+    }
+
+    /** Postpones the app's reminder by its policy's snooze time. */
+    public void snooze(int appId) {
+        submit(() -> {
+            AppState state = state(appId);
+            Instant until = clock.instant().plus(Duration.ofMinutes(policyFor(appId).snoozeMinutes()));
+            wheel.cancel(state.snooze);
+            state.snooze = wheel.schedule(new Timer(appId, TimerType.SNOOZE), until.toEpochMilli());
+            state.due = true;
+            // Stored as due now, so after a restart the reminder still comes back once the snooze is over.
+            dbManager.savePendingReminder(new PendingReminder(appId, PendingReminder.Kind.DUE, clock.instant()));
+            dbManager.savePendingReminder(new PendingReminder(appId, PendingReminder.Kind.SNOOZE, until));
+            return null;
+        });
+    }
+
+    /** The app was removed; its database rows go with it by cascade. */
+    public void forget(int appId) {
+        submit(() -> {
+            AppState state = apps.remove(appId);
+            if (state != null) {
+                wheel.cancel(state.armed);
+                wheel.cancel(state.snooze);
+                wheel.cancel(state.quietEnd);
+            }
+            policies.remove(appId);
+            return null;
+        });
+    }
+
+    /** Number of timers waiting in the wheel. */
+    public CompletableFuture<Integer> pendingTimers() {
+        return submit(wheel::size);
+    }
+
+    private void load() {
+        Instant now = clock.instant();
+        policies.putAll(dbManager.getReminderPolicies());
+        Map<Integer, Instant> storedDue = new HashMap<>();
+        for (PendingReminder pending : dbManager.getPendingReminders()) {
+            if (pending.kind() == PendingReminder.Kind.DUE) {
+                storedDue.put(pending.appId(), pending.dueAt());
+            } else if (pending.dueAt().isAfter(now)) {
+                state(pending.appId()).snooze = wheel.schedule(new Timer(pending.appId(), TimerType.SNOOZE), pending.dueAt().toEpochMilli());
+            } else {
+                // The snooze ran out while the tracker was not running; its DUE row makes the next open remind.
+                dbManager.deletePendingReminder(pending.appId(), PendingReminder.Kind.SNOOZE);
+            }
+        }
+        Map<Integer, Instant> lastClosed = dbManager.getLastClosedTimestamps();
+        lastClosed.forEach((appId, closedAt) -> state(appId).closedAt = closedAt);
+        for (Map.Entry<Integer, Instant> entry : lastClosed.entrySet()) {
+            if (storedDue.containsKey(entry.getKey())) continue;
+            // Apps without a stored timer are measured from their last close, the way reminders were decided before.
+            ReminderPolicy policy = policyFor(entry.getKey());
+            if (!policy.remindsAtEveryOpen()) {
+                storedDue.put(entry.getKey(), entry.getValue().plus(Duration.ofHours(policy.intervalHours())));
+            }
+        }
+        storedDue.forEach((appId, dueAt) -> {
+            AppState state = state(appId);
+            state.due = !dueAt.isAfter(now);
+            if (!state.due) state.armed = wheel.schedule(new Timer(appId, TimerType.DUE), dueAt.toEpochMilli());
+        });
+        log.info("Reminder scheduler loaded " + apps.size() + " apps, " + wheel.size() + " pending timers.");
+    }
+
+    private void runAdvance() {
+        try {
+            wheel.advanceTo(clock.millis(), this::fire);
+        } catch (RuntimeException e) {
+            log.error("Reminder scheduler tick failed", e);
+        }
+    }
+
+    private void fire(Timer timer) {
+        AppState state = apps.get(timer.appId());
+        if (state == null) return;
+        switch (timer.type()) {
+            case DUE -> {
+                // The interval is over: the next open shows the reminder. The stored row now reads as "due".
+                state.armed = null;
+                state.due = true;
+            }
+            case SNOOZE -> {
+                state.snooze = null;
+                dbManager.deletePendingReminder(timer.appId(), PendingReminder.Kind.SNOOZE);
+                remindIfOpen(timer.appId(), state);
+            }
+            case QUIET_END -> {
+                state.quietEnd = null;
+                remindIfOpen(timer.appId(), state);
+            }
+        }
+    }
+
+    private void remindIfOpen(int appId, AppState state) {
+        if (!enabled || !state.open || !state.due || isSnoozed(state)) return;
+        ReminderPolicy policy = policyFor(appId);
+        if (policy.isQuiet(LocalTime.now(clock))) {
+            scheduleQuietEnd(appId, state, policy);
+            return;
+        }
+        markShown(appId, state);
+        Listener current = listener;
+        if (current != null) current.onReminderDue(appId);
+    }
+
+    private void markShown(int appId, AppState state) {
+        state.due = false;
+        wheel.cancel(state.quietEnd);
+        state.quietEnd = null;
+        dbManager.deletePendingReminder(appId, PendingReminder.Kind.DUE);
+    }
+
+    private void arm(int appId, AppState state) {
+        wheel.cancel(state.armed);
+        state.armed = null;
+        ReminderPolicy policy = policyFor(appId);
+        if (policy.remindsAtEveryOpen() || state.closedAt == null) {
+            dbManager.deletePendingReminder(appId, PendingReminder.Kind.DUE);
+            return;
+        }
+        Instant dueAt = state.closedAt.plus(Duration.ofHours(policy.intervalHours()));
+        state.armed = wheel.schedule(new Timer(appId, TimerType.DUE), dueAt.toEpochMilli());
+        dbManager.savePendingReminder(new PendingReminder(appId, PendingReminder.Kind.DUE, dueAt));
+    }
+
+    /** After a policy change, a running interval is measured again from the last close with the new length. */
+    private void rearm(int appId) {
+        AppState state = apps.get(appId);
+        if (state != null && state.armed != null && state.armed.isPending()) {
+            arm(appId, state);
+        }
+    }
+
+    private void scheduleQuietEnd(int appId, AppState state, ReminderPolicy policy) {
+        if (state.quietEnd != null && state.quietEnd.isPending()) return;
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime end = now.with(policy.quietEnd());
+        if (!end.isAfter(now)) end = end.plusDays(1);
+        state.quietEnd = wheel.schedule(new Timer(appId, TimerType.QUIET_END), end.toInstant().toEpochMilli());
+    }
+
+    private boolean isSnoozed(AppState state) {
+        return state.snooze != null && state.snooze.isPending();
+    }
+
+    private ReminderPolicy policyFor(int appId) {
+        return policies.getOrDefault(appId, defaultPolicy);
+    }
+
+    private AppState state(int appId) {
+        return apps.computeIfAbsent(appId, id -> new AppState());
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.get();
+            } catch (RuntimeException e) {
+                log.error("Reminder scheduler task failed", e);
+                throw e;
+            }
+        }, executor);
+    }
+}
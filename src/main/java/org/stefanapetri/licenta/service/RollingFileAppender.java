@@ -0,0 +1,165 @@
+package org.stefanapetri.licenta.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the log to {@code <name>.log} and rolls it over when it passes a size limit or the day changes.
+ * A rolled file is renamed to {@code <name>-yyyyMMdd-HHmmss.log} and gzipped on a background thread; only the
+ * newest archives are kept. Runs on the log dispatcher thread, and flushes once per batch rather than per entry.
+ */
+public class RollingFileAppender implements LogSubscriber {
+
+    private static final long DEFAULT_MAX_BYTES = 5L * 1024 * 1024;
+    private static final int DEFAULT_MAX_ARCHIVES = 20;
+    private static final DateTimeFormatter ARCHIVE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final String baseName;
+    private final Path activeFile;
+    private final long maxBytes;
+    private final int maxArchives;
+    private final ExecutorService archiver = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LogArchiver");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private BufferedWriter writer;
+    private long size;
+    private LocalDate openedOn;
+
+    public RollingFileAppender(Path directory, String baseName, long maxBytes, int maxArchives) throws IOException {
+        this.directory = directory;
+        this.baseName = baseName;
+        this.activeFile = directory.resolve(baseName + ".log");
+        this.maxBytes = maxBytes;
+        this.maxArchives = maxArchives;
+        Files.createDirectories(directory);
+
+        // Rolled files a crash left uncompressed are finished; a log left over from an earlier day is archived right away.
+        for (Path leftover : listFiles(baseName + "-*.log")) {
+            archiver.execute(() -> compress(leftover));
+        }
+        if (Files.exists(activeFile)) {
+            LocalDate lastWritten = LocalDate.ofInstant(Files.getLastModifiedTime(activeFile).toInstant(), ZoneId.systemDefault());
+            if (lastWritten.isBefore(LocalDate.now())) {
+                rollOver();
+            }
+        }
+        if (writer == null) {
+            open();
+        }
+    }
+
+    /** The log at {@code <data dir>/logs/tracker.log}, or null if it cannot be opened (logging then stays in memory). */
+    public static RollingFileAppender openDefault() {
+        try {
+            return new RollingFileAppender(AppDirectories.resolve("logs"), "tracker", DEFAULT_MAX_BYTES, DEFAULT_MAX_ARCHIVES);
+        } catch (IOException e) {
+            Log.FALLBACK_ERR.println("Log file unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void onEntries(List<LogEntry> entries) {
+        try {
+            for (LogEntry entry : entries) {
+                LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(entry.timestampMillis()), ZoneId.systemDefault());
+                if (size >= maxBytes || day.isAfter(openedOn)) {
+                    rollOver();
+                }
+                String line = entry.format() + System.lineSeparator();
+                writer.write(line);
+                size += line.length(); // chars, close enough to bytes for a rollover threshold
+            }
+            writer.flush();
+        } catch (IOException e) {
+            Log.FALLBACK_ERR.println("Could not write the log file: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (writer != null) writer.close();
+        } catch (IOException e) {
+            Log.FALLBACK_ERR.println("Could not close the log file: " + e.getMessage());
+        }
+        archiver.shutdown();
+    }
+
+    private void open() throws IOException {
+        writer = Files.newBufferedWriter(activeFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = Files.size(activeFile);
+        openedOn = LocalDate.now();
+    }
+
+    private void rollOver() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        Path rolled = directory.resolve(baseName + "-" + ARCHIVE_STAMP.format(LocalDateTime.now()) + ".log");
+        for (int n = 1; Files.exists(rolled) || Files.exists(gzipped(rolled)); n++) {
+            rolled = directory.resolve(baseName + "-" + ARCHIVE_STAMP.format(LocalDateTime.now()) + "-" + n + ".log");
+        }
+        Files.move(activeFile, rolled);
+        Path toCompress = rolled;
+        archiver.execute(() -> compress(toCompress));
+        open();
+    }
+
+    /** Runs on the archiver thread. */
+    private void compress(Path rolled) {
+        Path archive = gzipped(rolled);
+        try {
+            try (InputStream in = Files.newInputStream(rolled);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive), 64 * 1024)) {
+                in.transferTo(out);
+            }
+            Files.delete(rolled);
+            pruneArchives();
+        } catch (IOException e) {
+            Log.FALLBACK_ERR.println("Could not compress " + rolled.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private void pruneArchives() throws IOException {
+        List<Path> archives = listFiles(baseName + "-*.log.gz");
+        archives.sort(null); // timestamped names sort oldest first
+        for (int i = 0; i < archives.size() - maxArchives; i++) {
+            Files.deleteIfExists(archives.get(i));
+        }
+    }
+
+    private List<Path> listFiles(String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+
+    private static Path gzipped(Path file) {
+        return file.resolveSibling(file.getFileName() + ".gz");
+    }
+}
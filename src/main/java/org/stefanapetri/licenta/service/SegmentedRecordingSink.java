@@ -0,0 +1,251 @@
+package org.stefanapetri.licenta.service;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Crash-safe recording: audio is written as a sequence of fixed-length segment files in a working folder,
+ * each closed (header patched) and fsynced when the next one starts, next to a small manifest.
+ * On a normal stop the segments are stitched into the final recording and the folder is removed; after a
+ * crash, {@link RecordingRecovery} finds the folder and stitches whatever made it to disk.
+ * <p>
+ * Memory use does not depend on the recording length: only the current segment's writer is open, and
+ * stitching copies file-to-file with {@link FileChannel#transferTo}.
+ */
+public class SegmentedRecordingSink implements AudioSink {
+
+    static final String MANIFEST_NAME = "manifest.properties";
+    static final String STATE_RECORDING = "recording";
+    static final String STATE_STOPPED = "stopped";
+    private static final int SEGMENT_SECONDS = 30;
+
+    private final Path workDirectory;
+    private final Path target;
+    private final AudioFormat format;
+    private final boolean compressed;
+    private final int appId;
+    private final long startedAt = System.currentTimeMillis();
+    private final long segmentBytes;
+
+    private AudioSink currentSegment;
+    private long bytesInSegment = 0;
+    private int segmentCount = 0;
+    private long compressedSamples = 0;
+    private long compressedBytes = 0;
+    private long encodeNanos = 0;
+    private boolean closed = false;
+
+    /**
+     * @param target The final recording; ".lac" selects lossless compression for the segments as well.
+     * @param appId The application the memo belongs to, kept in the manifest for recovery.
+     */
+    public SegmentedRecordingSink(Path target, AudioFormat format, int appId) throws IOException {
+        this.target = target;
+        this.format = format;
+        this.appId = appId;
+        this.compressed = LosslessAudioDecoder.isCompressed(target.toString());
+        this.segmentBytes = (long) (format.getSampleRate() * format.getFrameSize() * SEGMENT_SECONDS);
+        this.workDirectory = AppDirectories.resolve("recording-segments").resolve(baseName(target));
+        Files.createDirectories(workDirectory);
+        writeManifest(STATE_RECORDING);
+        openNextSegment();
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        while (length > 0) {
+            // Keep segment boundaries on whole frames so every segment file is valid on its own.
+            int chunk = (int) Math.min(length, segmentBytes - bytesInSegment);
+            currentSegment.write(data, offset, chunk);
+            bytesInSegment += chunk;
+            offset += chunk;
+            length -= chunk;
+            if (bytesInSegment == segmentBytes) {
+                finishSegment();
+                openNextSegment();
+            }
+        }
+    }
+
+    @Override
+    public void sync() throws IOException {
+        currentSegment.sync();
+    }
+
+    /** Finishes the last segment, stitches all segments into the target file and removes the working folder. */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        finishSegment();
+        writeManifest(STATE_STOPPED);
+        stitch(workDirectory, target, format.getSampleRate(), compressed);
+        deleteWorkDirectory(workDirectory);
+    }
+
+    /** Compression totals over all segments, or null if the recording is stored as WAV. */
+    public LosslessAudioEncoder.Stats getCompressionStats() {
+        return compressed ? new LosslessAudioEncoder.Stats(compressedSamples, format.getSampleRate(), compressedBytes, encodeNanos) : null;
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentCount++;
+        Path file = workDirectory.resolve(segmentName(segmentCount, compressed));
+        currentSegment = compressed ? new LosslessAudioEncoder(file, format) : new WavFileWriter(file, format);
+        bytesInSegment = 0;
+    }
+
+    private void finishSegment() throws IOException {
+        currentSegment.close();
+        if (currentSegment instanceof LosslessAudioEncoder encoder) {
+            LosslessAudioEncoder.Stats stats = encoder.getStats();
+            compressedSamples += stats.samples();
+            compressedBytes += stats.compressedBytes();
+            encodeNanos += stats.encodeNanos();
+        }
+        // The header is patched in close(), so the fsync comes after it.
+        fsync(workDirectory.resolve(segmentName(segmentCount, compressed)));
+        writeManifest(STATE_RECORDING);
+    }
+
+    private void writeManifest(String state) throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty("target", target.toAbsolutePath().toString());
+        manifest.setProperty("appId", Integer.toString(appId));
+        manifest.setProperty("sampleRate", Float.toString(format.getSampleRate()));
+        manifest.setProperty("compressed", Boolean.toString(compressed));
+        manifest.setProperty("startedAt", Long.toString(startedAt));
+        manifest.setProperty("segments", Integer.toString(segmentCount));
+        manifest.setProperty("state", state);
+
+        Path temp = workDirectory.resolve(MANIFEST_NAME + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            manifest.store(out, "Recording in progress; stitched into the target on stop or by startup recovery");
+        }
+        fsync(temp);
+        Files.move(temp, workDirectory.resolve(MANIFEST_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Properties readManifest(Path workDirectory) throws IOException {
+        Properties manifest = new Properties();
+        try (InputStream in = Files.newInputStream(workDirectory.resolve(MANIFEST_NAME))) {
+            manifest.load(in);
+        }
+        return manifest;
+    }
+
+    /**
+     * Concatenates the segments of a working folder into one file, file-to-file.
+     * Trailing data of a segment that was cut off by a crash is handled: WAV lengths come from the
+     * file size rather than the (possibly unpatched) header, and ".lac" segments end at their last complete frame.
+     * @return The number of samples in the stitched file.
+     */
+    static long stitch(Path workDirectory, Path target, float sampleRate, boolean compressed) throws IOException {
+        List<Path> segments = listSegments(workDirectory, compressed);
+        Path temp = target.resolveSibling(target.getFileName() + ".stitching");
+        long samples = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            int headerSize = compressed ? LosslessAudioEncoder.HEADER_SIZE : WavFileWriter.HEADER_SIZE;
+            out.position(headerSize);
+            for (Path segment : segments) {
+                try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    long start = headerSize;
+                    long end;
+                    if (compressed) {
+                        long[] extent = completeFrames(in);
+                        end = extent[0];
+                        samples += extent[1];
+                    } else {
+                        end = Math.max(start, in.size() - (in.size() - start) % 2);
+                        samples += (end - start) / 2;
+                    }
+                    transferFully(in, start, end - start, out);
+                }
+            }
+            AudioFormat wavFormat = new AudioFormat(sampleRate, 16, 1, true, false);
+            ByteBuffer header = compressed ? LosslessAudioEncoder.header(sampleRate, samples) : WavFileWriter.header(wavFormat, samples * 2);
+            out.write(header, 0);
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return samples;
+    }
+
+    /** Walks the frame headers of a ".lac" segment; returns {end offset of the last complete frame, sample count}. */
+    private static long[] completeFrames(FileChannel in) throws IOException {
+        ByteBuffer frameHeader = ByteBuffer.allocate(LosslessAudioEncoder.FRAME_HEADER_SIZE);
+        long position = LosslessAudioEncoder.HEADER_SIZE;
+        long samples = 0;
+        long size = in.size();
+        while (position + LosslessAudioEncoder.FRAME_HEADER_SIZE <= size) {
+            frameHeader.clear();
+            in.read(frameHeader, position);
+            frameHeader.flip();
+            int count = Short.toUnsignedInt(frameHeader.getShort());
+            frameHeader.get(); // predictor order
+            int payload = frameHeader.getInt();
+            long next = position + LosslessAudioEncoder.FRAME_HEADER_SIZE + payload;
+            if (payload < 0 || next > size) break;
+            position = next;
+            samples += count;
+        }
+        return new long[]{position, samples};
+    }
+
+    private static void transferFully(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        long done = 0;
+        while (done < count) {
+            long n = in.transferTo(position + done, count - done, out);
+            if (n <= 0) break;
+            done += n;
+        }
+    }
+
+    static List<Path> listSegments(Path workDirectory, boolean compressed) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        String extension = compressed ? LosslessAudioEncoder.FILE_EXTENSION : ".wav";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(workDirectory, "segment-*" + extension)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null); // zero-padded names sort chronologically
+        return segments;
+    }
+
+    static void deleteWorkDirectory(Path workDirectory) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(workDirectory)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(workDirectory);
+    }
+
+    private static String segmentName(int index, boolean compressed) {
+        return String.format("segment-%05d%s", index, compressed ? LosslessAudioEncoder.FILE_EXTENSION : ".wav");
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static void fsync(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.stefanapetri.licenta.service;
+
+/**
+ * An immutable snapshot of all user settings. {@link SettingsManager} swaps in a new snapshot on every change,
+ * so a reader that holds one sees a consistent set of values without touching the preferences store.
+ */
+public record Settings(boolean launchOnStartup,
+                       boolean remindersDisabled,
+                       int reminderIntervalHours,
+                       boolean geminiProcessingEnabled,
+                       String geminiApiKey,
+                       String geminiEndpoint,
+                       boolean trimSilence,
+                       int chunkingThresholdSeconds,
+                       boolean compressRecordings,
+                       boolean webViewRenderer) {
+
+    public Settings {
+        geminiApiKey = geminiApiKey == null ? "" : geminiApiKey;
+        geminiEndpoint = geminiEndpoint == null ? "" : geminiEndpoint;
+    }
+
+    /** The values used when nothing was saved yet. */
+    public static Settings defaults() {
+        // Reminder interval -1 means "Always"; chunking threshold 0 would mean "Never".
+        return new Settings(false, false, -1, false, "", "", true, 120, false, false);
+    }
+
+    public Settings withLaunchOnStartup(boolean value) {
+        return new Settings(value, remindersDisabled, reminderIntervalHours, geminiProcessingEnabled, geminiApiKey,
+                geminiEndpoint, trimSilence, chunkingThresholdSeconds, compressRecordings, webViewRenderer);
+    }
+
+    public Settings withRemindersDisabled(boolean value) {
+        return new Settings(launchOnStartup, value, reminderIntervalHours, geminiProcessingEnabled, geminiApiKey,
+                geminiEndpoint, trimSilence, chunkingThresholdSeconds, compressRecordings, webViewRenderer);
+    }
+
+    public Settings withReminderIntervalHours(int value) {
+        return new Settings(launchOnStartup, remindersDisabled, value, geminiProcessingEnabled, geminiApiKey,
+                geminiEndpoint, trimSilence, chunkingThresholdSeconds, compressRecordings, webViewRenderer);
+    }
+
+    public Settings withGeminiProcessingEnabled(boolean value) {
+        return new Settings(launchOnStartup, remindersDisabled, reminderIntervalHours, value, geminiApiKey,
+                geminiEndpoint, trimSilence, chunkingThresholdSeconds, compressRecordings, webViewRenderer);
+    }
+
+    public Settings withGeminiApiKey(String value) {
+        return new Settings(launchOnStartup, remindersDisabled, reminderIntervalHours, geminiProcessingEnabled, value,
+                geminiEndpoint, trimSilence, chunkingThresholdSeconds, compressRecordings, webViewRenderer);
+    }
+
+    public Settings withGeminiEndpoint(String value) {
+        return new Settings(launchOnStartup, remindersDisabled, reminderIntervalHours, geminiProcessingEnabled, geminiApiKey,
+                value, trimSilence, chunkingThresholdSeconds, compressRecordings, webViewRenderer);
+    }
+
+    public Settings withTrimSilence(boolean value) {
+        return new Settings(launchOnStartup, remindersDisabled, reminderIntervalHours, geminiProcessingEnabled, geminiApiKey,
+                geminiEndpoint, value, chunkingThresholdSeconds, compressRecordings, webViewRenderer);
+    }
+
+    public Settings withChunkingThresholdSeconds(int value) {
+        return new Settings(launchOnStartup, remindersDisabled, reminderIntervalHours, geminiProcessingEnabled, geminiApiKey,
+                geminiEndpoint, trimSilence, value, compressRecordings, webViewRenderer);
+    }
+
+    public Settings withCompressRecordings(boolean value) {
+        return new Settings(launchOnStartup, remindersDisabled, reminderIntervalHours, geminiProcessingEnabled, geminiApiKey,
+                geminiEndpoint, trimSilence, chunkingThresholdSeconds, value, webViewRenderer);
+    }
+
+    public Settings withWebViewRenderer(boolean value) {
+        return new Settings(launchOnStartup, remindersDisabled, reminderIntervalHours, geminiProcessingEnabled, geminiApiKey,
+                geminiEndpoint, trimSilence, chunkingThresholdSeconds, compressRecordings, value);
+    }
+
+    @Override
+    public String toString() {
+        // The API key never ends up in logs.
+        return "Settings[launchOnStartup=" + launchOnStartup + ", remindersDisabled=" + remindersDisabled
+                + ", reminderIntervalHours=" + reminderIntervalHours + ", geminiProcessingEnabled=" + geminiProcessingEnabled
+                + ", geminiApiKey=" + (geminiApiKey.isEmpty() ? "" : "***") + ", geminiEndpoint=" + geminiEndpoint
+                + ", trimSilence=" + trimSilence + ", chunkingThresholdSeconds=" + chunkingThresholdSeconds
+                + ", compressRecordings=" + compressRecordings + ", webViewRenderer=" + webViewRenderer + "]";
+    }
+}
@@ -1,11 +1,42 @@
 package org.stefanapetri.licenta.service;
 
 import org.stefanapetri.licenta.MainApplication;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
-import java.util.Arrays; // NEW IMPORT
 
+/**
+ * Holds the current {@link Settings} snapshot in memory. Reads never touch the preferences store; every change
+ * swaps in a new snapshot, notifies the listeners and schedules a write. Writes are batched: the store is
+ * updated once changes have settled for {@link #FLUSH_DELAY_MILLIS}, and at the latest when the JVM exits.
+ */
 public class SettingsManager {
 
+    private static final Logger log = Log.get(SettingsManager.class);
+
+    /** Called on the thread that made the change, after the new snapshot is in place. */
+    public interface Listener {
+        void settingsChanged(Settings previous, Settings current);
+    }
+
+    private static final long FLUSH_DELAY_MILLIS = 500;
+    private static final int PROFILE_VERSION = 1;
+
     private final Preferences prefs;
     // Define keys to avoid typos
     private static final String LAUNCH_ON_STARTUP = "launchOnStartup";
@@ -14,47 +45,291 @@ public class SettingsManager {
     // --- Gemini API Settings Keys ---
     private static final String ENABLE_GEMINI_PROCESSING = "enableGeminiProcessing";
     private static final String GEMINI_API_KEY = "geminiApiKey";
+    private static final String GEMINI_ENDPOINT = "geminiEndpoint";
+    // --- Transcription pipeline Settings Keys ---
+    private static final String TRIM_SILENCE = "trimSilence";
+    private static final String CHUNKING_THRESHOLD_SECONDS = "chunkingThresholdSeconds";
+    private static final String COMPRESS_RECORDINGS = "compressRecordings";
+    // --- Display Settings Keys ---
+    private static final String USE_WEBVIEW_RENDERER = "useWebViewRenderer";
+    // --- Profile file only ---
+    private static final String PROFILE_VERSION_KEY = "profileVersion";
+
+    private final AtomicReference<Settings> snapshot;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SettingsWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> pendingFlush;
+    private Settings persisted;
 
     public SettingsManager() {
         // Creates a unique preference node for this application
         this.prefs = Preferences.userNodeForPackage(MainApplication.class);
+        this.persisted = load(prefs);
+        this.snapshot = new AtomicReference<>(persisted);
+        // Changes still waiting for the debounce are written on exit.
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "SettingsFlush"));
+    }
+
+    /** The current snapshot; cheap enough to call on every event. */
+    public Settings current() {
+        return snapshot.get();
+    }
+
+    /**
+     * Applies {@code change} atomically. If the result differs from the current snapshot, it becomes the new
+     * snapshot, listeners are notified and a write is scheduled.
+     */
+    public Settings update(UnaryOperator<Settings> change) {
+        Settings previous;
+        Settings next;
+        do {
+            previous = snapshot.get();
+            next = change.apply(previous);
+            if (next.equals(previous)) return previous;
+        } while (!snapshot.compareAndSet(previous, next));
+
+        scheduleFlush();
+        for (Listener listener : listeners) {
+            try {
+                listener.settingsChanged(previous, next);
+            } catch (RuntimeException e) {
+                log.error("Settings listener failed", e);
+            }
+        }
+        return next;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Writes the current snapshot to the preferences store now, if it changed since the last write. */
+    public synchronized void flush() {
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        Settings current = snapshot.get();
+        if (current.equals(persisted)) return;
+        store(current, prefs);
+        try {
+            prefs.flush();
+            persisted = current;
+        } catch (BackingStoreException e) {
+            log.error("Error saving preferences: " + e.getMessage());
+        }
+    }
+
+    private synchronized void scheduleFlush() {
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+        }
+        pendingFlush = writer.schedule(this::flush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // --- Profile export / import ---
+
+    /**
+     * Writes all settings except the Gemini API key and endpoint to a properties file. The key stays in this
+     * user's preferences, so a profile can be shared or copied to another machine without leaking it; the endpoint
+     * stays with it, since an imported endpoint would receive the local key (and every transcript).
+     */
+    public void exportProfile(Path file) throws IOException {
+        Properties profile = new Properties();
+        Settings current = snapshot.get();
+        profile.setProperty(PROFILE_VERSION_KEY, Integer.toString(PROFILE_VERSION));
+        profile.setProperty(LAUNCH_ON_STARTUP, Boolean.toString(current.launchOnStartup()));
+        profile.setProperty(DISABLE_REMINDERS, Boolean.toString(current.remindersDisabled()));
+        profile.setProperty(REMINDER_INTERVAL_HOURS, Integer.toString(current.reminderIntervalHours()));
+        profile.setProperty(ENABLE_GEMINI_PROCESSING, Boolean.toString(current.geminiProcessingEnabled()));
+        profile.setProperty(TRIM_SILENCE, Boolean.toString(current.trimSilence()));
+        profile.setProperty(CHUNKING_THRESHOLD_SECONDS, Integer.toString(current.chunkingThresholdSeconds()));
+        profile.setProperty(COMPRESS_RECORDINGS, Boolean.toString(current.compressRecordings()));
+        profile.setProperty(USE_WEBVIEW_RENDERER, Boolean.toString(current.webViewRenderer()));
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            profile.store(out, "Application Activity Tracker settings");
+        }
+    }
+
+    /**
+     * Reads a file written by {@link #exportProfile} and applies it as one change. Settings missing from the
+     * file keep their current value, so profiles from older versions can still be imported.
+     *
+     * @return The settings now in effect.
+     * @throws IOException If the file cannot be read or a value in it is malformed; nothing is changed then.
+     */
+    public Settings importProfile(Path file) throws IOException {
+        Properties profile = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            profile.load(in);
+        }
+        String version = profile.getProperty(PROFILE_VERSION_KEY);
+        if (version == null) {
+            throw new IOException("Not a settings profile: " + file.getFileName());
+        }
+        try {
+            if (Integer.parseInt(version.trim()) > PROFILE_VERSION) {
+                throw new IOException("The settings profile was written by a newer version of the application.");
+            }
+            Settings base = snapshot.get();
+            Settings imported = new Settings(
+                    bool(profile, LAUNCH_ON_STARTUP, base.launchOnStartup()),
+                    bool(profile, DISABLE_REMINDERS, base.remindersDisabled()),
+                    integer(profile, REMINDER_INTERVAL_HOURS, base.reminderIntervalHours()),
+                    bool(profile, ENABLE_GEMINI_PROCESSING, base.geminiProcessingEnabled()),
+                    base.geminiApiKey(),
+                    base.geminiEndpoint(), // never imported; see exportProfile
+                    bool(profile, TRIM_SILENCE, base.trimSilence()),
+                    integer(profile, CHUNKING_THRESHOLD_SECONDS, base.chunkingThresholdSeconds()),
+                    bool(profile, COMPRESS_RECORDINGS, base.compressRecordings()),
+                    bool(profile, USE_WEBVIEW_RENDERER, base.webViewRenderer()));
+            // Everything else in the snapshot is replaced, but the API key and endpoint are kept even if they
+            // changed meanwhile.
+            return update(current -> imported.withGeminiApiKey(current.geminiApiKey())
+                    .withGeminiEndpoint(current.geminiEndpoint()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed value in settings profile: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean bool(Properties profile, String key, boolean fallback) {
+        String value = profile.getProperty(key);
+        if (value == null) return fallback;
+        value = value.trim();
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new NumberFormatException(key + "=" + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static int integer(Properties profile, String key, int fallback) {
+        String value = profile.getProperty(key);
+        if (value == null) return fallback;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(key + "=" + value);
+        }
+    }
+
+    private static Settings load(Preferences prefs) {
+        Settings defaults = Settings.defaults();
+        return new Settings(
+                prefs.getBoolean(LAUNCH_ON_STARTUP, defaults.launchOnStartup()),
+                prefs.getBoolean(DISABLE_REMINDERS, defaults.remindersDisabled()),
+                prefs.getInt(REMINDER_INTERVAL_HOURS, defaults.reminderIntervalHours()),
+                prefs.getBoolean(ENABLE_GEMINI_PROCESSING, defaults.geminiProcessingEnabled()),
+                prefs.get(GEMINI_API_KEY, defaults.geminiApiKey()),
+                prefs.get(GEMINI_ENDPOINT, defaults.geminiEndpoint()),
+                prefs.getBoolean(TRIM_SILENCE, defaults.trimSilence()),
+                prefs.getInt(CHUNKING_THRESHOLD_SECONDS, defaults.chunkingThresholdSeconds()),
+                prefs.getBoolean(COMPRESS_RECORDINGS, defaults.compressRecordings()),
+                prefs.getBoolean(USE_WEBVIEW_RENDERER, defaults.webViewRenderer()));
+    }
+
+    private static void store(Settings settings, Preferences prefs) {
+        prefs.putBoolean(LAUNCH_ON_STARTUP, settings.launchOnStartup());
+        prefs.putBoolean(DISABLE_REMINDERS, settings.remindersDisabled());
+        prefs.putInt(REMINDER_INTERVAL_HOURS, settings.reminderIntervalHours());
+        prefs.putBoolean(ENABLE_GEMINI_PROCESSING, settings.geminiProcessingEnabled());
+        prefs.put(GEMINI_API_KEY, settings.geminiApiKey());
+        prefs.put(GEMINI_ENDPOINT, settings.geminiEndpoint());
+        prefs.putBoolean(TRIM_SILENCE, settings.trimSilence());
+        prefs.putInt(CHUNKING_THRESHOLD_SECONDS, settings.chunkingThresholdSeconds());
+        prefs.putBoolean(COMPRESS_RECORDINGS, settings.compressRecordings());
+        prefs.putBoolean(USE_WEBVIEW_RENDERER, settings.webViewRenderer());
     }
 
     // --- Launch on Startup ---
     public boolean isLaunchOnStartup() {
-        return prefs.getBoolean(LAUNCH_ON_STARTUP, false); // Default to false
+        return current().launchOnStartup();
     }
 
     public void setLaunchOnStartup(boolean value) {
-        prefs.putBoolean(LAUNCH_ON_STARTUP, value);
+        update(s -> s.withLaunchOnStartup(value));
     }
 
     // --- Disable Reminders ---
     public boolean areRemindersDisabled() {
-        return prefs.getBoolean(DISABLE_REMINDERS, false); // Default to false
+        return current().remindersDisabled();
     }
 
     public void setDisableReminders(boolean value) {
-        prefs.putBoolean(DISABLE_REMINDERS, value);
+        update(s -> s.withRemindersDisabled(value));
     }
 
     // --- Reminder Interval ---
     // We store the interval in hours. -1 can represent "Always".
     public int getReminderIntervalHours() {
-        return prefs.getInt(REMINDER_INTERVAL_HOURS, -1); // Default to -1 ("Always")
+        return current().reminderIntervalHours();
     }
 
     public void setReminderIntervalHours(int hours) {
-        prefs.putInt(REMINDER_INTERVAL_HOURS, hours);
+        update(s -> s.withReminderIntervalHours(hours));
     }
 
     // --- MODIFIED: Gemini API Settings to handle sensitive data ---
     public boolean isGeminiProcessingEnabled() {
-        return prefs.getBoolean(ENABLE_GEMINI_PROCESSING, false); // Default to false
+        return current().geminiProcessingEnabled();
     }
 
     public void setEnableGeminiProcessing(boolean value) {
-        prefs.putBoolean(ENABLE_GEMINI_PROCESSING, value);
+        update(s -> s.withGeminiProcessingEnabled(value));
+    }
+
+    // Base URL of the generateContent API. Empty means Google's public endpoint;
+    // a local stand-in server can be configured here for testing.
+    public String getGeminiEndpoint() {
+        return current().geminiEndpoint();
+    }
+
+    public void setGeminiEndpoint(String baseUrl) {
+        update(s -> s.withGeminiEndpoint(baseUrl));
+    }
+
+    // --- Silence trimming (VAD) before transcription ---
+    public boolean isTrimSilenceEnabled() {
+        return current().trimSilence();
+    }
+
+    public void setTrimSilence(boolean value) {
+        update(s -> s.withTrimSilence(value));
+    }
+
+    // --- Chunked parallel transcription ---
+    // Memos longer than this many seconds are split and transcribed in parallel. 0 means "Never".
+    public int getChunkingThresholdSeconds() {
+        return current().chunkingThresholdSeconds();
+    }
+
+    public void setChunkingThresholdSeconds(int seconds) {
+        update(s -> s.withChunkingThresholdSeconds(seconds));
+    }
+
+    // --- Lossless compression of new recordings (.lac instead of .wav) ---
+    public boolean isCompressRecordingsEnabled() {
+        return current().compressRecordings();
+    }
+
+    public void setCompressRecordings(boolean value) {
+        update(s -> s.withCompressRecordings(value));
+    }
+
+    // --- Markdown display: native JavaFX nodes by default, WebView as a fallback ---
+    public boolean isWebViewRendererEnabled() {
+        return current().webViewRenderer();
+    }
+
+    public void setUseWebViewRenderer(boolean value) {
+        update(s -> s.withWebViewRenderer(value));
     }
 
     /**
@@ -62,22 +337,17 @@ public class SettingsManager {
      * @return The API key as a String, or an empty string if not set.
      */
     public String getGeminiApiKey() {
-        // While Preferences stores as String, this method is called to retrieve for use.
         // For truly high-security apps, one would encrypt/decrypt here.
-        return prefs.get(GEMINI_API_KEY, "");
+        return current().geminiApiKey();
     }
 
     /**
-     * Sets the Gemini API key.
+     * Sets the Gemini API key. Unlike the other settings it is written to the store right away,
+     * since it is saved explicitly with a button rather than toggled.
      * @param key The API key as a String.
      */
     public void setGeminiApiKey(String key) {
-        prefs.put(GEMINI_API_KEY, key);
-        // It's good practice to flush preferences to ensure they're written to persistent storage
-        try {
-            prefs.flush();
-        } catch (java.util.prefs.BackingStoreException e) {
-            System.err.println("Error saving preferences: " + e.getMessage());
-        }
+        update(s -> s.withGeminiApiKey(key));
+        flush();
     }
-}
\ No newline at end of file
+}
@@ -13,9 +13,7 @@ public class StartupManager {
     // This method is specific to Windows
     public void enableLaunchOnStartup() {
         try {
-            String jarPath = new File(StartupManager.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
-            // We need to launch the JAR using 'javaw.exe -jar ...' for it to run correctly
-            String command = String.format("javaw.exe -jar \"%s\"", jarPath);
+            String command = launchCommand();
             Advapi32Util.registrySetStringValue(WinReg.HKEY_CURRENT_USER, REGISTRY_KEY_PATH, APP_NAME, command);
             System.out.println("Enabled launch on startup.");
         } catch (Exception e) {
@@ -23,6 +21,21 @@ public class StartupManager {
         }
     }
 
+    private static String launchCommand() throws Exception {
+        File javaHome = new File(System.getProperty("java.home"));
+        File archive = new File(javaHome, "lib/app.jsa");
+        if (archive.isFile()) {
+            // Running from the jlink image: start its own javaw with the AppCDS archive, like the image launcher does.
+            File javaw = new File(javaHome, "bin/javaw.exe");
+            return String.format("\"%s\" --enable-native-access=ALL-UNNAMED -XX:SharedArchiveFile=\"%s\" -Xshare:auto -m %s/%s",
+                    javaw.getAbsolutePath(), archive.getAbsolutePath(),
+                    StartupManager.class.getModule().getName(), "org.stefanapetri.licenta.MainApplication");
+        }
+        String jarPath = new File(StartupManager.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+        // We need to launch the JAR using 'javaw.exe -jar ...' for it to run correctly
+        return String.format("javaw.exe -jar \"%s\"", jarPath);
+    }
+
     // This method is specific to Windows
     public void disableLaunchOnStartup() {
         try {
@@ -0,0 +1,138 @@
+package org.stefanapetri.licenta.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Records how long each startup phase took and when it ran, relative to the start of {@code Application.start}.
+ * Phases may run on any thread; the report lists them by start time, so overlapping (parallel) phases are visible.
+ */
+public class StartupTimings {
+
+    private static final Logger log = Log.get(StartupTimings.class);
+
+    public record Phase(String name, long startNanos, long endNanos, String thread, boolean failed) {
+        public long durationMillis() {
+            return (endNanos - startNanos) / 1_000_000;
+        }
+    }
+
+    private final long originNanos = System.nanoTime();
+    private final List<Phase> phases = new ArrayList<>();
+
+    /** Runs a phase on the calling thread. */
+    public void measure(String name, Runnable phase) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            phase.run();
+            failed = false;
+        } finally {
+            record(name, start, failed);
+        }
+    }
+
+    /** Runs a phase on {@code executor}; the returned future completes with its result or failure. */
+    public <T> CompletableFuture<T> supplyAsync(String name, Supplier<T> phase, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                T result = phase.get();
+                failed = false;
+                return result;
+            } finally {
+                record(name, start, failed);
+            }
+        }, executor);
+    }
+
+    public CompletableFuture<Void> runAsync(String name, Runnable phase, Executor executor) {
+        return supplyAsync(name, () -> {
+            phase.run();
+            return null;
+        }, executor);
+    }
+
+    /** Records a phase whose start time was taken elsewhere, e.g. one that ends on another thread. */
+    public void recordSince(String name, long startNanos, boolean failed) {
+        record(name, startNanos, failed);
+    }
+
+    /** Records a point in time, such as the first paint, as a zero-length phase. */
+    public void mark(String name) {
+        long now = System.nanoTime();
+        synchronized (phases) {
+            phases.add(new Phase(name, now, now, Thread.currentThread().getName(), false));
+        }
+    }
+
+    public long startNanos() {
+        return originNanos;
+    }
+
+    public List<Phase> getPhases() {
+        synchronized (phases) {
+            List<Phase> copy = new ArrayList<>(phases);
+            copy.sort(Comparator.comparingLong(Phase::startNanos));
+            return copy;
+        }
+    }
+
+    /** A table of all phases: start offset, duration and thread. */
+    public String report() {
+        StringBuilder out = new StringBuilder("Startup timings (ms from Application.start):\n");
+        long launchMillis = launchMillis();
+        if (launchMillis >= 0) {
+            out.append(String.format(Locale.ROOT, "  %-24s %6s %6d ms%n", "JVM + JavaFX launch", "", launchMillis));
+        }
+        for (Phase phase : getPhases()) {
+            long offset = (phase.startNanos() - originNanos) / 1_000_000;
+            out.append(String.format(Locale.ROOT, "  %-24s @%5d %6d ms  [%s]%s%n", phase.name(), offset,
+                    phase.durationMillis(), phase.thread(), phase.failed() ? " FAILED" : ""));
+        }
+        return out.toString().stripTrailing();
+    }
+
+    /**
+     * The same phases in a form the startup benchmark parses: one {@code startup-phase} line per phase with
+     * name, start and end offset in ms, and a {@code startup-launch} line with the time before start().
+     */
+    public String machineReport() {
+        StringBuilder out = new StringBuilder();
+        out.append("startup-launch\t").append(launchMillis()).append('\n');
+        for (Phase phase : getPhases()) {
+            out.append("startup-phase\t").append(phase.name())
+                    .append('\t').append((phase.startNanos() - originNanos) / 1_000_000)
+                    .append('\t').append((phase.endNanos() - originNanos) / 1_000_000)
+                    .append('\t').append(phase.failed()).append('\n');
+        }
+        return out.toString();
+    }
+
+    /** Time spent before start(): JVM boot, class loading, JavaFX toolkit launch; -1 if unknown. */
+    public long launchMillis() {
+        return ProcessHandle.current().info().startInstant()
+                .map(processStart -> Duration.between(processStart, Instant.now()).toMillis()
+                        - (System.nanoTime() - originNanos) / 1_000_000)
+                .orElse(-1L);
+    }
+
+    public void logReport() {
+        log.info(report());
+    }
+
+    private void record(String name, long startNanos, boolean failed) {
+        Phase phase = new Phase(name, startNanos, System.nanoTime(), Thread.currentThread().getName(), failed);
+        synchronized (phases) {
+            phases.add(phase);
+        }
+    }
+}
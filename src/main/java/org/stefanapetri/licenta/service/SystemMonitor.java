@@ -13,27 +13,39 @@ import org.stefanapetri.licenta.model.TrackedApplication;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SystemMonitor implements Runnable {
 
+    private static final Logger log = Log.get(SystemMonitor.class);
+    private static final LatencyHistogram scanLatency = Metrics.latency("monitor.scan");
+    // From detecting an open/close to the listener running on the FX thread.
+    private static final LatencyHistogram dispatchLatency = Metrics.latency("monitor.dispatch");
+    private static final Metrics.Counter openedCount = Metrics.counter("monitor.opened");
+    private static final Metrics.Counter closedCount = Metrics.counter("monitor.closed");
+
     private final Map<String, TrackedApplication> trackedAppMap = new ConcurrentHashMap<>();
     private final Map<Integer, TrackedApplication> runningTrackedProcesses = new ConcurrentHashMap<>();
     private String lastOpenedAppPath = ""; // Path of the app for which we last showed an "open" dialog
 
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
     private SystemMonitorListener listener;
+    // Completes after the first scan, i.e. once the native (JNA) libraries are loaded and working.
+    private final CompletableFuture<Void> firstScan = new CompletableFuture<>();
 
     public void setListener(SystemMonitorListener listener) {
         this.listener = listener;
     }
 
-    public void start() {
+    /** Starts monitoring on a background thread. @return completes when the first scan has run */
+    public CompletableFuture<Void> start() {
         isRunning.set(true);
         Thread monitorThread = new Thread(this, "SystemMonitorThread");
         monitorThread.setDaemon(true);
         monitorThread.start();
+        return firstScan;
     }
 
     public void stop() {
@@ -52,13 +64,19 @@ public class SystemMonitor implements Runnable {
     public void run() {
         while (isRunning.get()) {
             try {
+                TrackerEvents.MonitorScan scanEvent = new TrackerEvents.MonitorScan();
+                scanEvent.begin();
+                long scanStart = System.nanoTime();
                 // --- Part 1: Check the currently focused window ---
                 HWND foregroundWindow = User32.INSTANCE.GetForegroundWindow();
+                long nativeNanos = System.nanoTime() - scanStart;
                 if (foregroundWindow != null) {
+                    long nativeStart = System.nanoTime();
                     IntByReference processIdRef = new IntByReference();
                     User32.INSTANCE.GetWindowThreadProcessId(foregroundWindow, processIdRef);
                     int currentPid = processIdRef.getValue();
                     String currentPath = getProcessPath(currentPid);
+                    nativeNanos += System.nanoTime() - nativeStart;
 
                     if (currentPath != null && !currentPath.isEmpty()) {
                         currentPath = currentPath.toLowerCase();
@@ -71,8 +89,14 @@ public class SystemMonitor implements Runnable {
                             // Only fire the event if the focused app is different from the one we last remembered.
                             // This prevents our own pop-ups from causing the event to fire repeatedly.
                             if (!currentPath.equals(lastOpenedAppPath)) {
+                                openedCount.increment();
+                                scanEvent.opened++;
                                 if (listener != null) {
-                                    Platform.runLater(() -> listener.onMonitoredAppOpened(currentApp));
+                                    long detected = System.nanoTime();
+                                    Platform.runLater(() -> {
+                                        dispatchLatency.recordSince(detected);
+                                        listener.onMonitoredAppOpened(currentApp);
+                                    });
                                 }
                                 lastOpenedAppPath = currentPath; // Remember this path
                             }
@@ -83,7 +107,10 @@ public class SystemMonitor implements Runnable {
 
                 // --- Part 2: Reliably check for closed applications ---
                 for (Integer pid : new HashSet<>(runningTrackedProcesses.keySet())) {
-                    if (!isProcessRunning(pid)) {
+                    long nativeStart = System.nanoTime();
+                    boolean running = isProcessRunning(pid);
+                    nativeNanos += System.nanoTime() - nativeStart;
+                    if (!running) {
                         TrackedApplication closedApp = runningTrackedProcesses.remove(pid);
                         if (closedApp != null) {
                             // --- NEW "CLOSE" LOGIC ---
@@ -93,19 +120,38 @@ public class SystemMonitor implements Runnable {
                                 lastOpenedAppPath = "";
                             }
 
+                            closedCount.increment();
+                            scanEvent.closed++;
                             if (listener != null) {
-                                Platform.runLater(() -> listener.onMonitoredAppClosed(closedApp));
+                                long detected = System.nanoTime();
+                                Platform.runLater(() -> {
+                                    dispatchLatency.recordSince(detected);
+                                    listener.onMonitoredAppClosed(closedApp);
+                                });
                             }
                         }
                     }
                 }
 
+                scanLatency.recordSince(scanStart);
+                if (scanEvent.shouldCommit()) {
+                    scanEvent.nativeNanos = nativeNanos;
+                    scanEvent.runningTracked = runningTrackedProcesses.size();
+                    scanEvent.commit();
+                }
+                firstScan.complete(null);
                 Thread.sleep(1500);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 isRunning.set(false);
+            } catch (LinkageError e) {
+                // The native libraries are missing (e.g. not on Windows); scanning cannot work at all.
+                log.error("System monitor unavailable, native libraries could not be loaded", e);
+                firstScan.completeExceptionally(e);
+                return;
             } catch (Exception e) {
-                e.printStackTrace();
+                log.error("Process scan failed", e);
+                firstScan.completeExceptionally(e);
             }
         }
     }
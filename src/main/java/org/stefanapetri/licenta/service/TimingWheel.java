@@ -0,0 +1,167 @@
+package org.stefanapetri.licenta.service;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel: four levels of 64 slots, each level 64 times coarser than the one below.
+ * Scheduling and cancelling are O(1); advancing by one tick is O(1) plus the timers that expire or move down a level
+ * in that tick, no matter how many timers are pending. With one-second ticks the wheels cover about 194 days; later
+ * deadlines wait in an overflow list that is re-sorted once per full turn of the top wheel.
+ * <p>
+ * The wheel has no clock of its own: the owner passes the current time to {@link #advanceTo}, so it can be driven by
+ * the system clock or stepped through virtual time. Not thread-safe.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Timeout[][] wheels = new Timeout[LEVELS][SLOTS];
+    private final Timeout overflow = Timeout.sentinel();
+    private long currentTick;
+    private int size;
+
+    /** A scheduled timer. */
+    public static final class Timeout {
+        private final Object payload;
+        private final long deadlineTick;
+        private final long deadlineMillis;
+        private Timeout prev = this;
+        private Timeout next = this;
+        private boolean linked;
+
+        private Timeout(Object payload, long deadlineTick, long deadlineMillis) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        private static Timeout sentinel() {
+            return new Timeout(null, 0, 0);
+        }
+
+        public long deadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public boolean isPending() {
+            return linked;
+        }
+    }
+
+    /**
+     * @param tickMillis resolution of the wheel; a timer fires on the first tick at or after its deadline
+     * @param nowMillis  the current time, in the same time base later passed to {@link #advanceTo}
+     */
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (Timeout[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = Timeout.sentinel();
+            }
+        }
+    }
+
+    /** Schedules {@code payload} to expire at {@code deadlineMillis}. A deadline in the past expires on the next tick. */
+    public Timeout schedule(T payload, long deadlineMillis) {
+        // Rounded up: a deadline part way through a tick must not fire at that tick's start.
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timeout timeout = new Timeout(payload, Math.max(deadlineTick, currentTick + 1), deadlineMillis);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /** @return True if the timer was still pending and will now never expire. */
+    public boolean cancel(Timeout timeout) {
+        if (timeout == null || !timeout.linked) return false;
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /** Moves the wheel forward to {@code nowMillis}, handing every expired payload to {@code onExpired} in deadline order. */
+    @SuppressWarnings("unchecked")
+    public void advanceTo(long nowMillis, Consumer<? super T> onExpired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                // Nothing to expire or cascade: skip the idle stretch (e.g. after the machine was asleep) in one step.
+                currentTick = targetTick;
+                return;
+            }
+            currentTick++;
+            cascade();
+            Timeout head = wheels[0][(int) (currentTick & SLOT_MASK)];
+            while (head.next != head) {
+                Timeout expired = head.next;
+                unlink(expired);
+                size--;
+                onExpired.accept((T) expired.payload);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long tickMillis() {
+        return tickMillis;
+    }
+
+    /** When the lowest wheel wraps around, the next slot of each coarser wheel is redistributed downwards. */
+    private void cascade() {
+        long tick = currentTick;
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & SLOT_MASK) != 0) return;
+            tick >>>= SLOT_BITS;
+            redistribute(wheels[level][(int) (tick & SLOT_MASK)]);
+        }
+        if ((tick & SLOT_MASK) == 0) {
+            // The top wheel completed a full turn: overflow timers may fit in the wheels now.
+            redistribute(overflow);
+        }
+    }
+
+    private void redistribute(Timeout head) {
+        Timeout timeout = head.next;
+        head.next = head;
+        head.prev = head;
+        while (timeout != head) {
+            Timeout next = timeout.next;
+            timeout.linked = false;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        Timeout head = overflow;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                head = wheels[level][(int) ((timeout.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+                break;
+            }
+        }
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+        timeout.linked = true;
+    }
+
+    private static void unlink(Timeout timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = timeout;
+        timeout.next = timeout;
+        timeout.linked = false;
+    }
+}
@@ -0,0 +1,151 @@
+package org.stefanapetri.licenta.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for the tracker's hot paths. In JDK Mission Control they are listed under
+ * "Application Activity Tracker", on the same timeline as GC, thread and I/O events. Outside a recording that
+ * enables them, {@code begin()}/{@code commit()} do next to nothing, so the events stay in place in production;
+ * see {@link FlightRecording} for starting a recording from the tray.
+ */
+public final class TrackerEvents {
+
+    private static final String CATEGORY = "Application Activity Tracker";
+
+    private TrackerEvents() {}
+
+    @Name("org.stefanapetri.licenta.MonitorScan")
+    @Label("Monitor Scan")
+    @Category({CATEGORY, "System Monitor"})
+    @Description("One pass of the system monitor over the foreground window and the running tracked processes.")
+    @StackTrace(false)
+    public static final class MonitorScan extends Event {
+        @Label("Native Call Time")
+        @Description("Time spent in the Win32 calls made through JNA.")
+        @Timespan(Timespan.NANOSECONDS)
+        public long nativeNanos;
+
+        @Label("Running Tracked Processes")
+        public int runningTracked;
+
+        @Label("Apps Opened")
+        public int opened;
+
+        @Label("Apps Closed")
+        public int closed;
+    }
+
+    @Name("org.stefanapetri.licenta.DatabaseStatement")
+    @Label("Database Statement")
+    @Category({CATEGORY, "Database"})
+    @Description("A database operation, including opening its connection.")
+    public static final class DatabaseStatement extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("SQL")
+        public String sql;
+
+        @Label("Failed")
+        public boolean failed;
+
+        public static DatabaseStatement start(String operation, String sql) {
+            DatabaseStatement event = new DatabaseStatement();
+            event.begin();
+            event.operation = operation;
+            event.sql = sql;
+            return event;
+        }
+    }
+
+    @Name("org.stefanapetri.licenta.RecordingSession")
+    @Label("Recording Session")
+    @Category({CATEGORY, "Audio"})
+    @Description("A voice memo recording, from opening the microphone until the file is complete.")
+    @StackTrace(false)
+    public static final class RecordingSession extends Event {
+        @Label("App ID")
+        public int appId;
+
+        @Label("File")
+        public String file;
+
+        @Label("Stop Time")
+        @Description("From the stop request until the last segment was written and joined.")
+        @Timespan(Timespan.NANOSECONDS)
+        public long stopNanos;
+
+        @Label("Overruns")
+        public long overruns;
+
+        @Label("Dropped")
+        @DataAmount
+        public long overrunBytes;
+    }
+
+    @Name("org.stefanapetri.licenta.PythonProcess")
+    @Label("Python Process")
+    @Category({CATEGORY, "Transcription"})
+    @Description("The lifetime of one transcribe.py subprocess, until its output was fully read.")
+    @StackTrace(false)
+    public static final class PythonProcess extends Event {
+        @Label("PID")
+        public long pid;
+
+        @Label("Arguments")
+        public String arguments;
+
+        @Label("Exit Code")
+        public int exitCode;
+
+        @Label("Spawn Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long spawnNanos;
+
+        @Label("Model Load Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long modelLoadNanos;
+
+        @Label("Transcription Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long transcribeNanos;
+    }
+
+    @Name("org.stefanapetri.licenta.MarkdownRender")
+    @Label("Markdown Render")
+    @Category({CATEGORY, "Rendering"})
+    @Description("Parsing and rendering a memo's Markdown, to HTML or to JavaFX nodes.")
+    @StackTrace(false)
+    public static final class MarkdownRender extends Event {
+        @Label("Target")
+        public String target;
+
+        @Label("Length")
+        @Description("Length of the Markdown text in characters.")
+        public int length;
+    }
+
+    @Name("org.stefanapetri.licenta.DialogOpen")
+    @Label("Dialog Open")
+    @Category({CATEGORY, "User Interface"})
+    @Description("Opening a dialog on the FX thread, from the request until it is on screen.")
+    @StackTrace(false)
+    public static final class DialogOpen extends Event {
+        @Label("Dialog")
+        public String dialog;
+
+        public static DialogOpen start(String dialog) {
+            DialogOpen event = new DialogOpen();
+            event.begin();
+            event.dialog = dialog;
+            return event;
+        }
+    }
+}
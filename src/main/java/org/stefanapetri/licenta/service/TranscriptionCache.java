@@ -0,0 +1,223 @@
+package org.stefanapetri.licenta.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persistent, size-bounded cache of transcription results.
+ * Raw Whisper text and post-processed output are stored as separate entries:
+ * the raw entry depends only on the audio and the Whisper settings, and the post-processed entry is keyed
+ * by the raw text plus the LLM settings, so toggling Gemini (or changing the prompt) re-uses the raw text
+ * instead of running Whisper again.
+ * Entries are evicted least-recently-used first once the folder grows past its size limit;
+ * recency survives restarts through the files' modification times.
+ */
+public class TranscriptionCache {
+
+    private static final Logger log = Log.get(TranscriptionCache.class);
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final String RAW_SUFFIX = ".raw.txt";
+    private static final String FINAL_SUFFIX = ".final.txt";
+
+    /** Everything a raw Whisper transcription depends on. */
+    public record Key(String audioHash, String model, String computeType) {
+        String rawKey() {
+            return sha256Hex(audioHash + "|" + model + "|" + computeType);
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    // File name -> size, in access order (least recently used first).
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes = 0;
+    private boolean indexLoaded = false;
+
+    public TranscriptionCache() throws IOException {
+        this(AppDirectories.resolve("transcription-cache"), DEFAULT_MAX_BYTES);
+    }
+
+    public TranscriptionCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Opens the cache in the application data folder.
+     * @return The cache, or null if the folder is not usable (callers then simply run uncached).
+     */
+    public static TranscriptionCache openDefault() {
+        try {
+            return new TranscriptionCache();
+        } catch (IOException e) {
+            log.warn("Transcription cache unavailable, results will not be reused: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Scans the cache folder, unless that already happened. Called during startup in the background; reads and
+     * writes also call it, so the cache works even if they come first.
+     */
+    public synchronized void loadIndex() {
+        if (indexLoaded) return;
+        indexLoaded = true;
+        try {
+            scanDirectory();
+        } catch (IOException e) {
+            log.warn("Transcription cache index could not be read, starting empty: " + e.getMessage(), e);
+        }
+    }
+
+    private void scanDirectory() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.txt")) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparing(TranscriptionCache::lastModified));
+        for (Path file : files) {
+            long size = Files.size(file);
+            index.put(file.getFileName().toString(), size);
+            totalBytes += size;
+        }
+        log.info("Transcription cache: " + index.size() + " entries, " + totalBytes / 1024 + " KB.");
+    }
+
+    /**
+     * Builds the cache key for an audio file with the given engine settings.
+     * The audio is hashed by content, so a re-imported copy of the same recording still hits.
+     */
+    public Key keyFor(String audioFilePath, String model, String computeType) throws IOException {
+        return new Key(hashFile(Path.of(audioFilePath)), model, computeType);
+    }
+
+    /**
+     * Builds the key of a post-processed result from everything it depends on
+     * (e.g. the raw text, the LLM model and the prompt version).
+     */
+    public static String postProcessedKey(String... parts) {
+        return sha256Hex(String.join("\u0000", parts));
+    }
+
+    public Optional<String> getRaw(Key key) {
+        return read(key.rawKey() + RAW_SUFFIX);
+    }
+
+    public Optional<String> getPostProcessed(String postProcessedKey) {
+        return read(postProcessedKey + FINAL_SUFFIX);
+    }
+
+    public void putRaw(Key key, String text) {
+        write(key.rawKey() + RAW_SUFFIX, text);
+    }
+
+    public void putPostProcessed(String postProcessedKey, String text) {
+        write(postProcessedKey + FINAL_SUFFIX, text);
+    }
+
+    private synchronized Optional<String> read(String fileName) {
+        loadIndex();
+        if (!index.containsKey(fileName)) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(fileName);
+        try {
+            String text = Files.readString(file, StandardCharsets.UTF_8);
+            index.get(fileName); // refresh access order
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(text);
+        } catch (IOException e) {
+            log.warn("Transcription cache read failed for " + fileName + ": " + e.getMessage(), e);
+            forget(fileName);
+            return Optional.empty();
+        }
+    }
+
+    private synchronized void write(String fileName, String text) {
+        loadIndex();
+        Path file = directory.resolve(fileName);
+        try {
+            Path temp = Files.createTempFile(directory, "entry-", ".tmp");
+            Files.writeString(temp, text, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            forget(fileName);
+            long size = Files.size(file);
+            index.put(fileName, size);
+            totalBytes += size;
+            evictIfNeeded();
+        } catch (IOException e) {
+            log.warn("Transcription cache write failed for " + fileName + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            try {
+                Files.deleteIfExists(directory.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                log.warn("Transcription cache could not evict " + eldest.getKey() + ": " + e.getMessage(), e);
+            }
+            totalBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private void forget(String fileName) {
+        Long previous = index.remove(fileName);
+        if (previous != null) {
+            totalBytes -= previous;
+        }
+    }
+
+    static String hashFile(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static String sha256Hex(String value) {
+        return HexFormat.of().formatHex(newSha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.stefanapetri.licenta.service;
+
+/**
+ * Receives live events from the transcription pipeline.
+ * Calls arrive on background (stream drainer) threads; UI implementations must hop to the FX thread themselves.
+ */
+public interface TranscriptionListener {
+    /**
+     * Called when the pipeline enters a new stage, e.g. "loading_model", "transcribing" or "cached".
+     * @param stage The stage identifier.
+     */
+    default void onStageChanged(String stage) {}
+
+    /**
+     * Called as transcription advances through the audio.
+     * @param percent Progress from 0 to 100.
+     */
+    default void onProgress(double percent) {}
+
+    /**
+     * Called for every segment Whisper decodes, in order.
+     * @param startSeconds Segment start within the transcribed audio.
+     * @param endSeconds Segment end within the transcribed audio.
+     * @param text The segment text.
+     */
+    default void onSegment(double startSeconds, double endSeconds, String text) {}
+}
@@ -0,0 +1,392 @@
+package org.stefanapetri.licenta.service;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Energy / zero-crossing voice activity detector that runs between the recorder and the transcriber.
+ * It trims leading and trailing silence and shortens long pauses, so Whisper only spends CPU on speech.
+ * The file is processed in two streaming passes (features, then copy), so memory does not grow with memo length.
+ */
+public class VoiceActivityDetector {
+
+    private static final Logger log = Log.get(VoiceActivityDetector.class);
+    private static final int FRAME_MILLIS = 20;
+    private static final int HANGOVER_FRAMES = 15;      // keep 300 ms after the last speech frame
+    private static final int PRE_ROLL_FRAMES = 5;       // keep 100 ms before a speech onset
+    private static final int MAX_PAUSE_FRAMES = 35;     // pauses longer than 700 ms get compressed...
+    private static final int KEPT_PAUSE_FRAMES = 15;    // ...down to 300 ms
+    private static final double ENERGY_MARGIN_DB = 10.0;
+    private static final double WEAK_ENERGY_MARGIN_DB = 4.0;
+    private static final double MIN_THRESHOLD_DB = -55.0;
+    private static final double FRICATIVE_ZCR = 0.25;
+
+    /**
+     * Maps sample positions in the trimmed audio back to positions in the original recording.
+     * Each kept range is stored as (trimmed start, original start, length), sorted by trimmed start.
+     */
+    public static final class SampleOffsetMap {
+        private final long[] trimmedStarts;
+        private final long[] originalStarts;
+        private final long[] lengths;
+
+        private SampleOffsetMap(List<long[]> ranges) {
+            trimmedStarts = new long[ranges.size()];
+            originalStarts = new long[ranges.size()];
+            lengths = new long[ranges.size()];
+            long position = 0;
+            for (int i = 0; i < ranges.size(); i++) {
+                trimmedStarts[i] = position;
+                originalStarts[i] = ranges.get(i)[0];
+                lengths[i] = ranges.get(i)[1];
+                position += lengths[i];
+            }
+        }
+
+        static SampleOffsetMap identity(long totalSamples) {
+            List<long[]> ranges = new ArrayList<>();
+            ranges.add(new long[]{0, totalSamples});
+            return new SampleOffsetMap(ranges);
+        }
+
+        public long toOriginalSample(long trimmedSample) {
+            if (trimmedStarts.length == 0) return trimmedSample;
+            int index = Arrays.binarySearch(trimmedStarts, trimmedSample);
+            if (index < 0) index = Math.max(0, -index - 2);
+            return originalStarts[index] + Math.min(trimmedSample - trimmedStarts[index], lengths[index]);
+        }
+
+        public double toOriginalSeconds(double trimmedSeconds, float sampleRate) {
+            return toOriginalSample(Math.round(trimmedSeconds * sampleRate)) / (double) sampleRate;
+        }
+
+        public int rangeCount() {
+            return lengths.length;
+        }
+    }
+
+    /**
+     * The outcome of a VAD pass. When nothing was trimmed (or detection failed) the original file is passed through.
+     */
+    public record Result(String audioFilePath, double originalSeconds, double trimmedSeconds,
+                         float sampleRate, SampleOffsetMap offsetMap, boolean trimmed) {
+        public double secondsCut() {
+            return originalSeconds - trimmedSeconds;
+        }
+
+        public double toOriginalSeconds(double trimmedSeconds) {
+            return offsetMap.toOriginalSeconds(trimmedSeconds, sampleRate);
+        }
+
+        /** A result for a file that was not run through the detector; its durations are unknown (0). */
+        public static Result untrimmed(String audioFilePath) {
+            return new Result(audioFilePath, 0, 0, 1, SampleOffsetMap.identity(0), false);
+        }
+
+        /** Deletes the trimmed copy once it has been transcribed; the original recording is never touched. */
+        public void deleteTrimmedFile() {
+            if (!trimmed) return;
+            try {
+                Files.deleteIfExists(Path.of(audioFilePath));
+            } catch (IOException e) {
+                log.warn("Could not delete trimmed audio " + audioFilePath + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Runs the detector over a recorded WAV file and writes the trimmed audio next to it.
+     * @param audioFilePath The path of the original recording.
+     * @return The trimmed file with its offset map, or a pass-through result if trimming is not possible or not useful.
+     */
+    public Result process(String audioFilePath) {
+        File source = new File(audioFilePath);
+        try {
+            AudioFormat pcmFormat;
+            long totalSamples;
+            float[] energiesDb;
+            float[] zeroCrossingRates;
+            int frameSamples;
+
+            // --- Pass 1: per-frame energy and zero-crossing rate ---
+            try (AudioInputStream pcm = openMonoPcm(source)) {
+                pcmFormat = pcm.getFormat();
+                frameSamples = Math.max(1, (int) (pcmFormat.getSampleRate() * FRAME_MILLIS / 1000));
+                FrameFeatures features = computeFeatures(pcm, frameSamples);
+                totalSamples = features.totalSamples;
+                energiesDb = features.energiesDb;
+                zeroCrossingRates = features.zeroCrossingRates;
+            }
+
+            float sampleRate = pcmFormat.getSampleRate();
+            double originalSeconds = totalSamples / (double) sampleRate;
+
+            boolean[] speech = classifyFrames(energiesDb, zeroCrossingRates);
+            List<long[]> keptRanges = buildKeptRanges(speech, frameSamples, totalSamples);
+
+            long keptSamples = keptRanges.stream().mapToLong(r -> r[1]).sum();
+            if (keptRanges.isEmpty() || keptSamples >= totalSamples) {
+                // No speech detected at all, or nothing to cut: let Whisper see the untouched file.
+                return passThrough(audioFilePath, originalSeconds, sampleRate, totalSamples);
+            }
+
+            // --- Pass 2: copy the kept ranges into the trimmed file ---
+            File trimmedFile = trimmedFileFor(source);
+            try (AudioInputStream pcm = openMonoPcm(source);
+                 AudioInputStream kept = new AudioInputStream(
+                         new KeptRangesInputStream(pcm, keptRanges, pcmFormat.getFrameSize()),
+                         pcmFormat, keptSamples)) {
+                AudioSystem.write(kept, AudioFileFormat.Type.WAVE, trimmedFile);
+            }
+
+            Result result = new Result(trimmedFile.getAbsolutePath(), originalSeconds, keptSamples / (double) sampleRate,
+                    sampleRate, new SampleOffsetMap(keptRanges), true);
+            log.info(String.format("VAD: cut %.2f s of silence (%.2f s -> %.2f s, %d speech ranges).",
+                    result.secondsCut(), result.originalSeconds(), result.trimmedSeconds(), result.offsetMap().rangeCount()));
+            return result;
+
+        } catch (UnsupportedAudioFileException | IOException | IllegalArgumentException e) {
+            log.warn("VAD skipped, using the original recording: " + e.getMessage(), e);
+            return Result.untrimmed(audioFilePath);
+        }
+    }
+
+    /**
+     * Picks sample positions to split a long recording at: for each multiple of the target chunk length,
+     * the quietest frame within a window around it, so chunk boundaries fall into pauses rather than words.
+     * @param audioFilePath The recording to analyse.
+     * @param targetChunkSeconds The desired chunk length.
+     * @return Sorted split positions in samples (excluding 0 and the end), plus the sample rate and total length.
+     */
+    public SplitPoints findSplitPoints(String audioFilePath, double targetChunkSeconds) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream pcm = openMonoPcm(new File(audioFilePath))) {
+            float sampleRate = pcm.getFormat().getSampleRate();
+            int frameSamples = Math.max(1, (int) (sampleRate * FRAME_MILLIS / 1000));
+            FrameFeatures features = computeFeatures(pcm, frameSamples);
+            float[] energies = features.energiesDb;
+
+            int targetFrames = Math.max(1, (int) (targetChunkSeconds * 1000 / FRAME_MILLIS));
+            int searchRadius = targetFrames / 5;
+            List<Long> points = new ArrayList<>();
+            int previousSplit = 0;
+            for (int target = targetFrames; target < energies.length - targetFrames / 2; target = previousSplit + targetFrames) {
+                int from = Math.max(previousSplit + 1, target - searchRadius);
+                int to = Math.min(energies.length - 1, target + searchRadius);
+                int quietest = target;
+                for (int i = from; i <= to; i++) {
+                    if (energies[i] < energies[quietest]) quietest = i;
+                }
+                points.add((long) quietest * frameSamples + frameSamples / 2);
+                previousSplit = quietest;
+            }
+            return new SplitPoints(points.stream().mapToLong(Long::longValue).toArray(), sampleRate, features.totalSamples);
+        }
+    }
+
+    public record SplitPoints(long[] samples, float sampleRate, long totalSamples) {}
+
+    private Result passThrough(String audioFilePath, double seconds, float sampleRate, long totalSamples) {
+        log.info(String.format("VAD: nothing to cut (%.2f s).", seconds));
+        return new Result(audioFilePath, seconds, seconds, sampleRate, SampleOffsetMap.identity(totalSamples), false);
+    }
+
+    private static File trimmedFileFor(File source) {
+        String name = source.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        // Temp folder, not next to the source: recordings live in the app's audio folder and are kept.
+        return new File(System.getProperty("java.io.tmpdir"), base + ".trimmed.wav");
+    }
+
+    /** Opens the file as signed 16-bit little-endian mono PCM, converting if necessary. */
+    private static AudioInputStream openMonoPcm(File file) throws UnsupportedAudioFileException, IOException {
+        AudioInputStream in = AudioSystem.getAudioInputStream(file);
+        AudioFormat format = in.getFormat();
+        if (format.getChannels() != 1) {
+            in.close();
+            throw new IllegalArgumentException("Only mono recordings are supported, got " + format.getChannels() + " channels.");
+        }
+        AudioFormat target = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16, 1, 2,
+                format.getSampleRate(), false);
+        if (format.matches(target)) {
+            return in;
+        }
+        return AudioSystem.getAudioInputStream(target, in);
+    }
+
+    private record FrameFeatures(long totalSamples, float[] energiesDb, float[] zeroCrossingRates) {}
+
+    private static FrameFeatures computeFeatures(AudioInputStream pcm, int frameSamples) throws IOException {
+        byte[] frame = new byte[frameSamples * 2];
+        float[] energies = new float[1024];
+        float[] zcrs = new float[1024];
+        int frameCount = 0;
+        long totalSamples = 0;
+
+        int filled;
+        while ((filled = pcm.readNBytes(frame, 0, frame.length)) > 0) {
+            int samples = filled / 2;
+            if (samples == 0) break;
+            double sumSquares = 0;
+            int crossings = 0;
+            int previous = 0;
+            for (int i = 0; i < samples; i++) {
+                int sample = (short) ((frame[2 * i] & 0xFF) | (frame[2 * i + 1] << 8));
+                sumSquares += (double) sample * sample;
+                if (i > 0 && ((sample >= 0) != (previous >= 0))) crossings++;
+                previous = sample;
+            }
+            double meanSquare = sumSquares / samples / (32768.0 * 32768.0);
+            if (frameCount == energies.length) {
+                energies = Arrays.copyOf(energies, frameCount * 2);
+                zcrs = Arrays.copyOf(zcrs, frameCount * 2);
+            }
+            energies[frameCount] = (float) (10 * Math.log10(meanSquare + 1e-12));
+            zcrs[frameCount] = samples > 1 ? crossings / (float) (samples - 1) : 0;
+            frameCount++;
+            totalSamples += samples;
+            if (filled < frame.length) break;
+        }
+        return new FrameFeatures(totalSamples, Arrays.copyOf(energies, frameCount), Arrays.copyOf(zcrs, frameCount));
+    }
+
+    /**
+     * Marks speech frames. The noise floor is the 10th percentile of frame energy; loud frames are speech,
+     * and quieter frames with a high zero-crossing rate (fricatives like "s" or "f") also count.
+     * A hangover keeps the detector in the speech state for a while after the last speech frame.
+     */
+    private static boolean[] classifyFrames(float[] energiesDb, float[] zeroCrossingRates) {
+        int n = energiesDb.length;
+        boolean[] speech = new boolean[n];
+        if (n == 0) return speech;
+
+        float[] sorted = energiesDb.clone();
+        Arrays.sort(sorted);
+        double noiseFloor = sorted[(int) (n * 0.1)];
+        double threshold = Math.max(noiseFloor + ENERGY_MARGIN_DB, MIN_THRESHOLD_DB);
+        double weakThreshold = Math.max(noiseFloor + WEAK_ENERGY_MARGIN_DB, MIN_THRESHOLD_DB);
+
+        int hangover = 0;
+        for (int i = 0; i < n; i++) {
+            boolean active = energiesDb[i] > threshold
+                    || (energiesDb[i] > weakThreshold && zeroCrossingRates[i] > FRICATIVE_ZCR);
+            if (active) {
+                hangover = HANGOVER_FRAMES;
+                speech[i] = true;
+                for (int j = Math.max(0, i - PRE_ROLL_FRAMES); j < i; j++) speech[j] = true;
+            } else if (hangover > 0) {
+                hangover--;
+                speech[i] = true;
+            }
+        }
+        return speech;
+    }
+
+    /**
+     * Turns the per-frame decision into sample ranges to keep: silence before the first and after the last
+     * speech frame is dropped, and internal pauses longer than the limit keep only their two edges.
+     */
+    private static List<long[]> buildKeptRanges(boolean[] speech, int frameSamples, long totalSamples) {
+        List<long[]> ranges = new ArrayList<>();
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < speech.length; i++) {
+            if (speech[i]) {
+                if (first < 0) first = i;
+                last = i;
+            }
+        }
+        if (first < 0) return ranges;
+
+        int rangeStart = first;
+        int i = first;
+        while (i <= last) {
+            if (speech[i]) {
+                i++;
+                continue;
+            }
+            int pauseStart = i;
+            while (i <= last && !speech[i]) i++;
+            int pauseLength = i - pauseStart;
+            if (pauseLength > MAX_PAUSE_FRAMES) {
+                int head = KEPT_PAUSE_FRAMES / 2;
+                addRange(ranges, rangeStart, pauseStart + head, frameSamples, totalSamples);
+                rangeStart = i - (KEPT_PAUSE_FRAMES - head);
+            }
+        }
+        addRange(ranges, rangeStart, last + 1, frameSamples, totalSamples);
+        return ranges;
+    }
+
+    private static void addRange(List<long[]> ranges, int startFrame, int endFrame, int frameSamples, long totalSamples) {
+        long start = (long) startFrame * frameSamples;
+        long end = Math.min((long) endFrame * frameSamples, totalSamples);
+        if (end > start) {
+            ranges.add(new long[]{start, end - start});
+        }
+    }
+
+    /** Streams only the kept sample ranges from the underlying PCM stream, skipping everything else. */
+    private static final class KeptRangesInputStream extends InputStream {
+        private final InputStream source;
+        private final List<long[]> ranges;
+        private final int frameSize;
+        private long sourcePosition = 0; // in bytes
+        private int rangeIndex = 0;
+        private long remainingInRange = -1;
+
+        KeptRangesInputStream(InputStream source, List<long[]> ranges, int frameSize) {
+            this.source = source;
+            this.ranges = ranges;
+            this.frameSize = frameSize;
+        }
+
+        private boolean advanceToRange() throws IOException {
+            while (remainingInRange <= 0) {
+                if (remainingInRange == 0) rangeIndex++;
+                if (rangeIndex >= ranges.size()) return false;
+                long rangeStart = ranges.get(rangeIndex)[0] * frameSize;
+                long toSkip = rangeStart - sourcePosition;
+                while (toSkip > 0) {
+                    long skipped = source.skip(toSkip);
+                    if (skipped <= 0) {
+                        if (source.read() < 0) return false;
+                        skipped = 1;
+                    }
+                    toSkip -= skipped;
+                    sourcePosition += skipped;
+                }
+                remainingInRange = ranges.get(rangeIndex)[1] * frameSize;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (!advanceToRange()) return -1;
+            int toRead = (int) Math.min(len, remainingInRange);
+            int read = source.read(b, off, toRead);
+            if (read < 0) return -1;
+            sourcePosition += read;
+            remainingInRange -= read;
+            return read;
+        }
+    }
+}
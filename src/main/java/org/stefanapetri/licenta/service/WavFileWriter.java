@@ -0,0 +1,133 @@
+package org.stefanapetri.licenta.service;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams 16-bit PCM into a WAV file through a {@link FileChannel}.
+ * Samples are staged in a direct buffer and written in large blocks; the first block is shortened by the
+ * header size so that every later write starts at a multiple of the block size. The RIFF and data chunk
+ * sizes are unknown while recording, so a placeholder header is written first and patched on {@link #close()}.
+ * Big-endian input (as delivered by the capture line) is swapped to WAV's little-endian order on the way.
+ */
+public class WavFileWriter implements AudioSink {
+
+    static final int HEADER_SIZE = 44;
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_SIZE);
+    private final boolean swapBytes;
+    private final AudioFormat format;
+    private long dataBytes = 0;
+    // A sample split across two write() calls keeps its first byte here until the second one arrives.
+    private int pendingByte = -1;
+    private boolean closed = false;
+
+    public WavFileWriter(Path file, AudioFormat format) throws IOException {
+        if (format.getSampleSizeInBits() != 16 || format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED) {
+            throw new IllegalArgumentException("Only 16-bit signed PCM is supported, got " + format);
+        }
+        this.format = format;
+        this.swapBytes = format.isBigEndian();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.write(header(format, 0), 0);
+        channel.position(HEADER_SIZE);
+        block.limit(BLOCK_SIZE - HEADER_SIZE);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        int end = offset + length;
+        int i = offset;
+        if (pendingByte >= 0 && i < end) {
+            putSample((byte) pendingByte, data[i++]);
+            pendingByte = -1;
+        }
+        for (; i + 1 < end; i += 2) {
+            putSample(data[i], data[i + 1]);
+        }
+        if (i < end) {
+            pendingByte = data[i] & 0xFF;
+        }
+    }
+
+    private void putSample(byte first, byte second) throws IOException {
+        if (block.remaining() < 2) {
+            flushBlock();
+        }
+        if (swapBytes) {
+            block.put(second).put(first);
+        } else {
+            block.put(first).put(second);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        block.flip();
+        dataBytes += block.remaining();
+        while (block.hasRemaining()) {
+            channel.write(block);
+        }
+        block.clear();
+    }
+
+    /** Bytes of audio data accepted so far (excluding anything still staged in memory). */
+    public long getDataBytesWritten() {
+        return dataBytes;
+    }
+
+    /**
+     * Forces the samples accepted so far to the storage device. Staged samples are written to their place in the
+     * file but stay staged, so the block still goes out whole, and aligned, once it is full; that rewrites them.
+     */
+    @Override
+    public void sync() throws IOException {
+        ByteBuffer staged = block.duplicate().flip();
+        long position = channel.position();
+        while (staged.hasRemaining()) {
+            position += channel.write(staged, position);
+        }
+        channel.force(false);
+    }
+
+    /** Writes the remaining samples and patches the header with the final sizes. */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            flushBlock();
+            channel.write(header(format, dataBytes), 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** A 44-byte PCM WAV header for the given format and data length. */
+    static ByteBuffer header(AudioFormat format, long dataLength) {
+        int channels = format.getChannels();
+        int sampleRate = (int) format.getSampleRate();
+        int blockAlign = channels * 2;
+        int dataSize = (int) Math.min(dataLength, 0xFFFFFFFFL - 36);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'}).putInt(36 + dataSize);
+        header.put(new byte[]{'W', 'A', 'V', 'E'});
+        header.put(new byte[]{'f', 'm', 't', ' '}).putInt(16)
+                .putShort((short) 1) // PCM
+                .putShort((short) channels)
+                .putInt(sampleRate)
+                .putInt(sampleRate * blockAlign)
+                .putShort((short) blockAlign)
+                .putShort((short) 16);
+        header.put(new byte[]{'d', 'a', 't', 'a'}).putInt(dataSize);
+        return header.flip();
+    }
+}
@@ -12,17 +12,33 @@ import javafx.stage.StageStyle;
 import org.stefanapetri.licenta.MainApplication;
 import org.stefanapetri.licenta.controller.RecordingController;
 import org.stefanapetri.licenta.controller.ReminderViewController;
+import org.stefanapetri.licenta.controller.TranscribingController;
 import org.stefanapetri.licenta.controller.TranscriptionResultController;
 import org.stefanapetri.licenta.model.MemoViewItem;
 import org.stefanapetri.licenta.model.TrackedApplication;
 import org.stefanapetri.licenta.service.AudioRecorder;
+import org.stefanapetri.licenta.service.LatencyHistogram;
+import org.stefanapetri.licenta.service.Log;
+import org.stefanapetri.licenta.service.Logger;
+import org.stefanapetri.licenta.service.Metrics;
+import org.stefanapetri.licenta.service.TrackerEvents;
 
 import javax.sound.sampled.LineUnavailableException;
 import java.io.IOException;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class DialogHelper {
 
+    private static final Logger log = Log.get(DialogHelper.class);
+    // Time on the FX thread from the request until the dialog is on screen.
+    private static final LatencyHistogram showLatency = Metrics.latency("dialog.show");
+    private static final LatencyHistogram prepareReminderLatency = Metrics.latency("dialog.reminder.prepare");
+    // Includes opening the microphone, which happens before the dialog appears.
+    private static final LatencyHistogram openRecordingLatency = Metrics.latency("dialog.recording.open");
+    private static final LatencyHistogram openTranscribingLatency = Metrics.latency("dialog.transcribing.open");
+    private static final LatencyHistogram openResultLatency = Metrics.latency("dialog.result.open");
+
     private static void applyThemeToScene(Scene scene) {
         String css = MainApplication.class.getResource("style.css").toExternalForm();
         scene.getStylesheets().add(css);
@@ -45,76 +61,122 @@ public class DialogHelper {
     }
 
     private static void showStage(Stage stage) {
+        long start = System.nanoTime();
         stage.show();
         stage.toFront();
         stage.requestFocus();
+        showLatency.recordSince(start);
     }
 
-    public static void showReminderDialog(MemoViewItem memo) {
-        try {
-            FXMLLoader loader = new FXMLLoader(MainApplication.class.getResource("Reminder.fxml"));
-            Parent root = loader.load();
+    // --- Pooled dialogs: built ahead of time and reused, so they appear without loading FXML ---
+    private static final int POOL_CAPACITY = 2;
 
-            ReminderViewController controller = loader.getController();
-            controller.setMemo(memo);
+    private static final DialogPool<ReminderViewController> reminderPool = new DialogPool<>("Reminder.fxml", stage -> {
+        stage.initModality(Modality.APPLICATION_MODAL);
+        stage.setTitle("Last Session Reminder");
+        applyDefaultStageSettings(stage, stage.getScene());
+    }, POOL_CAPACITY);
 
-            Stage stage = new Stage();
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setTitle("Last Session Reminder");
+    private static final DialogPool<RecordingController> recordingPool = new DialogPool<>("RecordingView.fxml", stage -> {
+        stage.initModality(Modality.APPLICATION_MODAL);
+        stage.initStyle(StageStyle.UTILITY);
+        stage.setTitle("Recording...");
+        applyDefaultStageSettings(stage, stage.getScene());
+    }, POOL_CAPACITY);
 
-            Scene scene = new Scene(root);
-            applyDefaultStageSettings(stage, scene);
-            showStage(stage);
+    private static final DialogPool<TranscriptionResultController> resultPool = new DialogPool<>("TranscriptionResultView.fxml", stage -> {
+        stage.initModality(Modality.APPLICATION_MODAL);
+        stage.setTitle("Transcription Result");
+        applyDefaultStageSettings(stage, stage.getScene());
+    }, POOL_CAPACITY);
+
+    /** Builds the pooled dialogs in the background of the FX thread; call once the main window is up. */
+    public static void prewarmDialogs() {
+        reminderPool.prewarm();
+        recordingPool.prewarm();
+        resultPool.prewarm();
+    }
+
+    public static void showReminderDialog(MemoViewItem memo) {
+        StageAndController<ReminderViewController> dialog = prepareReminderDialog(memo);
+        if (dialog != null) {
+            showPreparedReminderDialog(dialog);
+        }
+    }
 
+    /**
+     * Renders a memo into a hidden reminder dialog, e.g. while the user is still being asked whether to view it.
+     * Follow up with {@link #showPreparedReminderDialog} or {@link #discardPreparedReminderDialog}.
+     */
+    public static StageAndController<ReminderViewController> prepareReminderDialog(MemoViewItem memo) {
+        long start = System.nanoTime();
+        TrackerEvents.DialogOpen event = TrackerEvents.DialogOpen.start("reminder.prepare");
+        try {
+            StageAndController<ReminderViewController> dialog = reminderPool.acquire();
+            dialog.controller.setMemo(memo);
+            prepareReminderLatency.recordSince(start);
+            event.commit();
+            return dialog;
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Could not prepare the reminder dialog", e);
             createTopMostAlert(
                     Alert.AlertType.ERROR,
                     "UI Error",
                     "Could not load the Reminder window.",
                     "Please check the FXML file and controller for errors. Details: " + e.getMessage()
             );
+            return null;
         }
     }
 
-    public static StageAndController<RecordingController> showRecordingDialog(TrackedApplication app, AudioRecorder recorder, String audioFilePath) {
-        try {
-            FXMLLoader loader = new FXMLLoader(MainApplication.class.getResource("RecordingView.fxml"));
-            Parent root = loader.load();
-
-            RecordingController controller = loader.getController();
-            controller.setAppName(app.getAppName());
-
-            try {
-                recorder.startRecording(audioFilePath, controller.getAudioDataConsumer());
-            } catch (LineUnavailableException e) {
-                createTopMostAlert(
-                        Alert.AlertType.ERROR, "Recording Error",
-                        "Microphone not available or not supported.", e.getMessage()
-                );
-                return null;
-            }
-
-            Stage stage = new Stage();
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.initStyle(StageStyle.UTILITY);
-            stage.setTitle("Recording...");
+    public static void showPreparedReminderDialog(StageAndController<ReminderViewController> dialog) {
+        TrackerEvents.DialogOpen event = TrackerEvents.DialogOpen.start("reminder");
+        showStage(dialog.stage);
+        event.commit();
+    }
 
-            Scene scene = new Scene(root);
-            applyDefaultStageSettings(stage, scene);
-            showStage(stage);
+    public static void discardPreparedReminderDialog(StageAndController<ReminderViewController> dialog) {
+        reminderPool.release(dialog);
+    }
 
-            return new StageAndController<>(stage, controller);
+    public static StageAndController<RecordingController> showRecordingDialog(TrackedApplication app, AudioRecorder recorder, String audioFilePath) {
+        long start = System.nanoTime();
+        TrackerEvents.DialogOpen event = TrackerEvents.DialogOpen.start("recording");
+        StageAndController<RecordingController> dialog;
+        try {
+            dialog = recordingPool.acquire();
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Could not open the recording dialog", e);
+            return null;
+        }
+        RecordingController controller = dialog.controller;
+        controller.setAppName(app.getAppName());
+        controller.startMeter();
+
+        try {
+            recorder.startRecording(audioFilePath, controller.getLevelMeter(), app.getAppId());
+        } catch (LineUnavailableException e) {
+            recordingPool.release(dialog);
+            createTopMostAlert(
+                    Alert.AlertType.ERROR, "Recording Error",
+                    "Microphone not available or not supported.", e.getMessage()
+            );
             return null;
         }
+
+        showStage(dialog.stage);
+        openRecordingLatency.recordSince(start);
+        event.commit();
+        return dialog;
     }
 
-    public static Stage showTranscribingDialog() {
+    public static StageAndController<TranscribingController> showTranscribingDialog() {
+        long start = System.nanoTime();
+        TrackerEvents.DialogOpen event = TrackerEvents.DialogOpen.start("transcribing");
         try {
             FXMLLoader loader = new FXMLLoader(MainApplication.class.getResource("TranscribingView.fxml"));
             Parent root = loader.load();
+            TranscribingController controller = loader.getController();
 
             Stage stage = new Stage();
             stage.initModality(Modality.APPLICATION_MODAL);
@@ -124,10 +186,12 @@ public class DialogHelper {
             Scene scene = new Scene(root);
             applyDefaultStageSettings(stage, scene);
             showStage(stage);
+            openTranscribingLatency.recordSince(start);
+            event.commit();
 
-            return stage;
+            return new StageAndController<>(stage, controller);
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Could not open the transcribing dialog", e);
             createTopMostAlert(
                     Alert.AlertType.ERROR,
                     "UI Error",
@@ -138,35 +202,50 @@ public class DialogHelper {
         }
     }
 
-    public static void showTranscriptionResultDialog(String transcription, String audioFilePath, boolean enablePlayback) {
-        try {
-            FXMLLoader loader = new FXMLLoader(MainApplication.class.getResource("TranscriptionResultView.fxml"));
-            Parent root = loader.load();
-
-            TranscriptionResultController controller = loader.getController();
-            controller.setContent(transcription, audioFilePath, enablePlayback);
+    public static StageAndController<TranscriptionResultController> showTranscriptionResultDialog(String transcription, String audioFilePath, boolean enablePlayback) {
+        return showTranscriptionResultDialog(controller -> controller.setContent(transcription, audioFilePath, enablePlayback));
+    }
 
-            Stage stage = new Stage();
-            stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setTitle("Transcription Result");
+    /** Shows a stored memo; with the WebView renderer its pre-rendered HTML is used. */
+    public static StageAndController<TranscriptionResultController> showTranscriptionResultDialog(MemoViewItem memo, boolean enablePlayback) {
+        return showTranscriptionResultDialog(controller -> controller.setContent(memo, enablePlayback));
+    }
 
-            Scene scene = new Scene(root);
-            applyDefaultStageSettings(stage, scene);
-            stage.showAndWait();
+    private static StageAndController<TranscriptionResultController> showTranscriptionResultDialog(Consumer<TranscriptionResultController> contentSetter) {
+        long start = System.nanoTime();
+        TrackerEvents.DialogOpen event = TrackerEvents.DialogOpen.start("result");
+        try {
+            StageAndController<TranscriptionResultController> dialog = resultPool.acquire();
+            contentSetter.accept(dialog.controller);
+            // Not showAndWait: the caller may still update the content, e.g. when the LLM summary arrives.
+            showStage(dialog.stage);
+            openResultLatency.recordSince(start);
+            event.commit();
+            return dialog;
 
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Could not open the transcription result dialog", e);
             createTopMostAlert(
                     Alert.AlertType.ERROR,
                     "UI Error",
                     "Could not load the Transcription Result window.",
                     "Details: " + e.getMessage()
             );
+            return null;
         }
     }
 
     public static Optional<ButtonType> createTopMostAlert(Alert.AlertType type, String title, String header, String content) {
+        return createTopMostAlert(type, title, header, content, new ButtonType[0]);
+    }
+
+    /** Same as above, with custom buttons instead of the alert type's defaults (if any are given). */
+    public static Optional<ButtonType> createTopMostAlert(Alert.AlertType type, String title, String header, String content,
+                                                          ButtonType... buttons) {
         Alert alert = new Alert(type);
+        if (buttons.length > 0) {
+            alert.getButtonTypes().setAll(buttons);
+        }
         alert.setTitle(title);
         alert.setHeaderText(header);
         alert.setContentText(content);
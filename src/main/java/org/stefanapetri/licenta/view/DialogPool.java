@@ -0,0 +1,136 @@
+package org.stefanapetri.licenta.view;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+import org.stefanapetri.licenta.MainApplication;
+import org.stefanapetri.licenta.service.LatencyHistogram;
+import org.stefanapetri.licenta.service.Log;
+import org.stefanapetri.licenta.service.Logger;
+import org.stefanapetri.licenta.service.Metrics;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a few hidden, fully built stages of one dialog type, so showing the dialog skips the FXML load,
+ * scene construction and first CSS pass. A stage goes back to the pool once it is hidden, after its
+ * controller was reset. FX thread only.
+ */
+public class DialogPool<C extends ReusableDialogController> {
+
+    private static final Logger log = Log.get(DialogPool.class);
+    private static final LatencyHistogram buildLatency = Metrics.latency("dialog.pool.build");
+    private static final Metrics.Counter hitCount = Metrics.counter("dialog.pool.hits");
+    private static final Metrics.Counter missCount = Metrics.counter("dialog.pool.misses");
+
+    private final String fxml;
+    private final Consumer<Stage> stageSetup;
+    private final int capacity;
+
+    private final Deque<Entry<C>> idle = new ArrayDeque<>();
+    private final Map<Stage, Entry<C>> entries = new IdentityHashMap<>();
+
+    private static final class Entry<C> {
+        final Stage stage;
+        final C controller;
+        long lease = 0;
+        boolean leased = false;
+
+        Entry(Stage stage, C controller) {
+            this.stage = stage;
+            this.controller = controller;
+        }
+    }
+
+    /**
+     * @param fxml       the dialog's FXML resource
+     * @param stageSetup one-time stage configuration (modality, style, title, theme); the scene is already attached
+     * @param capacity   how many idle stages to keep
+     */
+    public DialogPool(String fxml, Consumer<Stage> stageSetup, int capacity) {
+        this.fxml = fxml;
+        this.stageSetup = stageSetup;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes an idle stage, or builds one if the pool is empty. The stage is not shown yet; hiding it later
+     * returns it to the pool. A stage that ends up never being shown must be given back with {@link #release}.
+     */
+    public StageAndController<C> acquire() throws IOException {
+        Entry<C> entry = idle.poll();
+        if (entry == null) {
+            missCount.increment();
+            entry = build();
+        } else {
+            hitCount.increment();
+        }
+        entry.leased = true;
+        long lease = ++entry.lease;
+        Entry<C> leased = entry;
+        return new StageAndController<>(entry.stage, entry.controller,
+                () -> leased.leased && leased.lease == lease);
+    }
+
+    /** Returns a stage that was acquired but never shown, e.g. because the user declined to open it. */
+    public void release(StageAndController<C> dialog) {
+        Entry<C> entry = entries.get(dialog.stage);
+        if (entry != null && entry.leased && !entry.stage.isShowing()) {
+            recycle(entry);
+        }
+    }
+
+    /** Fills the pool in the background of the FX thread, one dialog per pulse, so the UI stays responsive. */
+    public void prewarm() {
+        Platform.runLater(() -> {
+            if (entries.size() >= capacity) return;
+            try {
+                idle.add(build());
+                prewarm();
+            } catch (IOException e) {
+                log.error("Could not pre-build " + fxml, e);
+            }
+        });
+    }
+
+    private Entry<C> build() throws IOException {
+        long start = System.nanoTime();
+        FXMLLoader loader = new FXMLLoader(MainApplication.class.getResource(fxml));
+        Parent root = loader.load();
+        C controller = loader.getController();
+
+        Stage stage = new Stage();
+        stage.setScene(new Scene(root));
+        stageSetup.accept(stage);
+        // Resolve the stylesheets now rather than on the first show.
+        root.applyCss();
+        buildLatency.recordSince(start);
+
+        Entry<C> entry = new Entry<>(stage, controller);
+        entries.put(stage, entry);
+        // Deferred, so the owner's own onHidden handler still runs before the stage is reset and reused.
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> Platform.runLater(() -> recycle(entry)));
+        return entry;
+    }
+
+    private void recycle(Entry<C> entry) {
+        if (!entry.leased) return;
+        entry.leased = false;
+        entry.stage.setOnHidden(null);
+        entry.stage.setOnShown(null);
+        entry.controller.resetForReuse();
+        if (idle.size() < capacity) {
+            idle.add(entry);
+        } else {
+            entries.remove(entry.stage);
+        }
+    }
+}
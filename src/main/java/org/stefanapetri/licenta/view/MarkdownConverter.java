@@ -1,58 +1,179 @@
 // src\main\java\org\stefanapetri\licenta\view\MarkdownConverter.java
 package org.stefanapetri.licenta.view;
 
+import javafx.scene.web.WebView;
 import org.commonmark.node.Node;
 import org.commonmark.parser.Parser;
 import org.commonmark.renderer.html.HtmlRenderer;
+import org.stefanapetri.licenta.MainApplication;
+import org.stefanapetri.licenta.model.MemoHtmlRenderer;
+import org.stefanapetri.licenta.model.MemoViewItem;
+import org.stefanapetri.licenta.service.TrackerEvents;
+
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 
 public class MarkdownConverter {
 
     private static final Parser parser = Parser.builder().build();
     private static final HtmlRenderer renderer = HtmlRenderer.builder().build();
 
+    /** Bump when the rendered HTML changes (renderer settings, extensions), so stored memo HTML is re-rendered. */
+    public static final int RENDERER_VERSION = 1;
+
+    private static final String EMPTY_REMINDER = "### Empty Reminder\n\nThis reminder has no content.";
+    private static final URL STYLESHEET = MainApplication.class.getResource("markdown.css");
+    // Used for text that is not a stored memo (placeholders, fresh transcripts); those are keyed by content only.
+    private static final int NO_MEMO = -1;
+    private static final int CACHE_CAPACITY = 256;
+
+    private record CacheKey(int memoId, long contentHash, int length) {}
+
+    /** Render cache counters since startup. */
+    public record CacheStats(long hits, long misses, int size) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : hits / (double) lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d hits, %d misses (%.0f%% hit rate), %d cached", hits, misses, hitRate() * 100, size);
+        }
+    }
+
+    // Access-ordered, so the eldest entry is the least recently shown one.
+    private static final Map<CacheKey, String> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+    private static long hits = 0;
+    private static long misses = 0;
+
     /**
-     * Converts a Markdown string into an HTML string, suitable for display in a WebView.
-     * Includes basic CSS for readability in dark mode.
+     * Makes a WebView use the shared Markdown stylesheet. Call once per WebView; the HTML from
+     * {@link #toHtml} no longer carries the CSS itself.
+     */
+    public static void applyStylesheet(WebView webView) {
+        if (STYLESHEET != null) {
+            webView.getEngine().setUserStyleSheetLocation(STYLESHEET.toExternalForm());
+        }
+    }
+
+    /**
+     * Converts a Markdown string into an HTML string, suitable for display in a WebView
+     * set up with {@link #applyStylesheet(WebView)}.
      * @param markdown The input Markdown text.
      * @return An HTML string.
      */
     public static String toHtml(String markdown) {
+        return toHtml(NO_MEMO, markdown);
+    }
+
+    /**
+     * Like {@link #toHtml(String)}, but cached per memo: showing the same memo again skips parsing and rendering.
+     * The key includes a hash of the text, so an edited memo is never served stale; {@link #invalidate(int)}
+     * additionally frees the old entry.
+     */
+    public static String toHtml(int memoId, String markdown) {
+        if (markdown == null || markdown.trim().isEmpty()) {
+            markdown = EMPTY_REMINDER;
+        }
+        CacheKey key = new CacheKey(memoId, hash(markdown), markdown.length());
+        synchronized (cache) {
+            String html = cache.get(key);
+            if (html != null) {
+                hits++;
+                return html;
+            }
+            misses++;
+        }
+
+        String html = buildHtmlWrapper(renderBody(markdown));
+        synchronized (cache) {
+            cache.put(key, html);
+        }
+        return html;
+    }
+
+    /**
+     * The page for a memo from the database. Uses the HTML pre-rendered at save time when present, so showing
+     * a memo involves no Markdown parsing; falls back to rendering the text.
+     */
+    public static String toHtml(MemoViewItem memo) {
+        if (memo.transcriptionHtml() != null) {
+            return buildHtmlWrapper(memo.transcriptionHtml());
+        }
+        return toHtml(memo.memoId(), memo.transcriptionText());
+    }
+
+    /** Renders the HTML body for a Markdown text, without the page wrapper; this is what gets stored with a memo. */
+    public static String renderBody(String markdown) {
+        TrackerEvents.MarkdownRender event = new TrackerEvents.MarkdownRender();
+        event.begin();
+        String html = renderer.render(parse(markdown));
+        if (event.shouldCommit()) {
+            event.target = "html";
+            event.length = markdown == null ? 0 : markdown.length();
+            event.commit();
+        }
+        return html;
+    }
+
+    /** Parses Markdown into the commonmark AST; also used by {@link MarkdownNodeRenderer}. */
+    static Node parse(String markdown) {
         if (markdown == null || markdown.trim().isEmpty()) {
             // This case now specifically handles an empty reminder, which is different
             // from the "no selection" placeholder.
-            String emptyContent = "### Empty Reminder\n\nThis reminder has no content.";
-            Node document = parser.parse(emptyContent);
-            String htmlContent = renderer.render(document);
-            return buildHtmlWrapper(htmlContent);
+            markdown = EMPTY_REMINDER;
         }
+        return parser.parse(markdown);
+    }
+
+    /** The renderer the database uses to store HTML with each memo. */
+    public static MemoHtmlRenderer memoRenderer() {
+        return new MemoHtmlRenderer() {
+            @Override
+            public int version() {
+                return RENDERER_VERSION;
+            }
 
-        Node document = parser.parse(markdown);
-        String htmlContent = renderer.render(document);
+            @Override
+            public String render(String markdown) {
+                return renderBody(markdown);
+            }
+        };
+    }
 
-        return buildHtmlWrapper(htmlContent);
+    /** Drops the cached rendering of a memo, e.g. after it was edited or deleted. */
+    public static void invalidate(int memoId) {
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.memoId() == memoId);
+        }
+    }
+
+    public static CacheStats getCacheStats() {
+        synchronized (cache) {
+            return new CacheStats(hits, misses, cache.size());
+        }
+    }
+
+    /** 64-bit FNV-1a over the UTF-16 chars; collisions are additionally guarded by the length in the key. */
+    private static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
     }
 
     private static String buildHtmlWrapper(String htmlContent) {
-        // Wrap the HTML content with dark theme CSS
-        return "<html>" +
-                "<head>" +
-                "<style>" +
-                "body { font-family: 'Segoe UI', Arial, sans-serif; font-size: 14px; line-height: 1.5; margin: 10px; background-color: #45494A; color: #DDDDDD; }" +
-                "h1, h2, h3, h4, h5, h6 { margin-top: 1em; margin-bottom: 0.5em; font-weight: bold; color: #EEEEEE; }" +
-                "ul, ol { margin-left: 1.5em; padding-left: 0; }" +
-                "li { margin-bottom: 0.25em; }" +
-                "p { margin-bottom: 0.75em; }" +
-                "a { color: #58a6ff; }" + // A pleasant blue for links in dark mode
-                "strong { font-weight: bold; }" +
-                "em { font-style: italic; }" +
-                "blockquote { border-left: 4px solid #666; padding-left: 10px; color: #AAAAAA; margin-left: 0; }" +
-                "pre, code { font-family: 'Consolas', 'Courier New', monospace; background-color: #3C3F41; color: #DDDDDD; padding: 2px 4px; border-radius: 4px; border: 1px solid #555; }" +
-                "pre { display: block; padding: 10px; overflow-x: auto; }" +
-                "</style>" +
-                "</head>" +
-                "<body>" +
-                htmlContent +
-                "</body>" +
-                "</html>";
-    }
-}
\ No newline at end of file
+        // The dark theme CSS comes from the WebView's user style sheet (markdown.css).
+        return "<html><head><meta charset=\"UTF-8\"></head><body>" + htmlContent + "</body></html>";
+    }
+}
@@ -0,0 +1,203 @@
+package org.stefanapetri.licenta.view;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.concurrent.Worker;
+import javafx.scene.web.WebEngine;
+import javafx.scene.web.WebView;
+import javafx.util.Duration;
+import org.commonmark.node.Node;
+import org.commonmark.node.SourceSpan;
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Live preview of Markdown that is being edited.
+ * Keystrokes are debounced on the FX thread; parsing and rendering run on a background thread. The document
+ * is split into its top-level blocks (using commonmark source spans), only blocks whose source changed are
+ * rendered again, and the WebView is updated with a DOM patch for the changed range instead of a full reload.
+ */
+public class MarkdownLivePreview {
+
+    private static final Duration DEBOUNCE = Duration.millis(150);
+
+    private static final String PAGE = "<html><head><meta charset=\"UTF-8\"><script>"
+            + "function patch(start, removeCount, blocks) {"
+            + "  var root = document.getElementById('root');"
+            + "  for (var i = 0; i < removeCount; i++) root.removeChild(root.children[start]);"
+            + "  var before = root.children[start] || null;"
+            + "  for (var j = 0; j < blocks.length; j++) {"
+            + "    var block = document.createElement('div');"
+            + "    block.className = 'md-block';"
+            + "    block.innerHTML = blocks[j];"
+            + "    root.insertBefore(block, before);"
+            + "  }"
+            + "}"
+            + "</script></head><body><div id=\"root\"></div></body></html>";
+
+    /** Replace {@code removeCount} blocks at {@code start} with {@code blocks}; computed for page {@code epoch}. */
+    private record Patch(int epoch, int start, int removeCount, List<String> blocks) {}
+
+    private record Block(String source, String html) {}
+
+    private final WebEngine engine;
+    private final PauseTransition debounce = new PauseTransition(DEBOUNCE);
+    private final AtomicReference<String> latestText = new AtomicReference<>("");
+    private final ExecutorService renderer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MarkdownPreview");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Render thread only
+    private final Parser parser = Parser.builder().includeSourceSpans(IncludeSourceSpans.BLOCKS).build();
+    private final HtmlRenderer htmlRenderer = HtmlRenderer.builder().build();
+    private List<Block> published = new ArrayList<>();
+    private String lastRendered = null;
+    private int renderEpoch = 0;
+
+    // FX thread only
+    private int pageEpoch = 0;
+    private boolean pageReady = false;
+    private final Queue<Patch> pendingPatches = new ArrayDeque<>();
+
+    public MarkdownLivePreview(WebView preview) {
+        this.engine = preview.getEngine();
+        MarkdownConverter.applyStylesheet(preview);
+        debounce.setOnFinished(e -> renderer.execute(this::render));
+        engine.getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
+            if (newState == Worker.State.SUCCEEDED) {
+                pageReady = true;
+                while (!pendingPatches.isEmpty()) {
+                    apply(pendingPatches.poll());
+                }
+            }
+        });
+    }
+
+    /** Starts a fresh preview of the given text, e.g. when edit mode is entered. FX thread. */
+    public void reset(String markdown) {
+        debounce.stop();
+        int epoch = ++pageEpoch;
+        pageReady = false;
+        pendingPatches.clear();
+        latestText.set(markdown == null ? "" : markdown);
+        renderer.execute(() -> {
+            renderEpoch = epoch;
+            published = new ArrayList<>();
+            lastRendered = null;
+            render();
+        });
+        engine.loadContent(PAGE);
+    }
+
+    /** Schedules a preview update; bursts of calls within the debounce delay cause a single render. FX thread. */
+    public void update(String markdown) {
+        latestText.set(markdown == null ? "" : markdown);
+        debounce.playFromStart();
+    }
+
+    /** Stops pending updates, e.g. when edit mode is left. FX thread. */
+    public void stop() {
+        debounce.stop();
+    }
+
+    /** Render thread. Renders the latest text, reusing the HTML of unchanged blocks, and publishes the diff. */
+    private void render() {
+        String text = latestText.get();
+        if (text.equals(lastRendered)) return; // coalesced with an earlier run
+        lastRendered = text;
+
+        String[] lines = text.split("\n", -1);
+        Map<String, String> previousHtml = new HashMap<>();
+        for (Block block : published) {
+            previousHtml.put(block.source(), block.html());
+        }
+        List<Block> blocks = new ArrayList<>();
+        for (Node node = parser.parse(text).getFirstChild(); node != null; node = node.getNext()) {
+            String source = sourceOf(node, lines);
+            String html = previousHtml.get(source);
+            blocks.add(new Block(source, html != null ? html : htmlRenderer.render(node)));
+        }
+
+        int prefix = 0;
+        int maxPrefix = Math.min(published.size(), blocks.size());
+        while (prefix < maxPrefix && published.get(prefix).source().equals(blocks.get(prefix).source())) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < maxPrefix - prefix && published.get(published.size() - 1 - suffix).source()
+                .equals(blocks.get(blocks.size() - 1 - suffix).source())) {
+            suffix++;
+        }
+        List<String> inserted = new ArrayList<>();
+        for (Block block : blocks.subList(prefix, blocks.size() - suffix)) {
+            inserted.add(block.html());
+        }
+        Patch patch = new Patch(renderEpoch, prefix, published.size() - prefix - suffix, inserted);
+        published = blocks;
+        if (patch.removeCount() > 0 || !inserted.isEmpty()) {
+            Platform.runLater(() -> submit(patch));
+        }
+    }
+
+    /** FX thread. Patches for an older page are dropped; patches for a page still loading wait for it. */
+    private void submit(Patch patch) {
+        if (patch.epoch() != pageEpoch) return;
+        if (pageReady) {
+            apply(patch);
+        } else {
+            pendingPatches.add(patch);
+        }
+    }
+
+    private void apply(Patch patch) {
+        StringBuilder script = new StringBuilder("patch(").append(patch.start()).append(',')
+                .append(patch.removeCount()).append(",[");
+        for (int i = 0; i < patch.blocks().size(); i++) {
+            if (i > 0) script.append(',');
+            appendJsString(script, patch.blocks().get(i));
+        }
+        engine.executeScript(script.append("])").toString());
+    }
+
+    /** The source lines a top-level block spans; used as its identity when diffing. */
+    private static String sourceOf(Node node, String[] lines) {
+        StringBuilder source = new StringBuilder();
+        for (SourceSpan span : node.getSourceSpans()) {
+            String line = lines[span.getLineIndex()];
+            int end = Math.min(line.length(), span.getColumnIndex() + span.getLength());
+            source.append(line, Math.min(span.getColumnIndex(), end), end).append('\n');
+        }
+        // Blocks without spans cannot be told apart safely; make them unique so they are always re-rendered.
+        return source.isEmpty() ? "\u0000" + System.identityHashCode(node) : source.toString();
+    }
+
+    private static void appendJsString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\u2028' -> out.append("\\u2028");
+                case '\u2029' -> out.append("\\u2029");
+                default -> out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
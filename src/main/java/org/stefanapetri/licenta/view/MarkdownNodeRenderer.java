@@ -0,0 +1,242 @@
+package org.stefanapetri.licenta.view;
+
+import javafx.geometry.Pos;
+import javafx.scene.control.Hyperlink;
+import javafx.scene.control.Label;
+import javafx.scene.control.Separator;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+import org.commonmark.node.BlockQuote;
+import org.commonmark.node.BulletList;
+import org.commonmark.node.Code;
+import org.commonmark.node.Emphasis;
+import org.commonmark.node.FencedCodeBlock;
+import org.commonmark.node.HardLineBreak;
+import org.commonmark.node.Heading;
+import org.commonmark.node.HtmlBlock;
+import org.commonmark.node.HtmlInline;
+import org.commonmark.node.Image;
+import org.commonmark.node.IndentedCodeBlock;
+import org.commonmark.node.Link;
+import org.commonmark.node.ListItem;
+import org.commonmark.node.Node;
+import org.commonmark.node.OrderedList;
+import org.commonmark.node.Paragraph;
+import org.commonmark.node.SoftLineBreak;
+import org.commonmark.node.StrongEmphasis;
+import org.commonmark.node.ThematicBreak;
+import org.stefanapetri.licenta.service.Log;
+import org.stefanapetri.licenta.service.Logger;
+import org.stefanapetri.licenta.service.TrackerEvents;
+
+import java.awt.Desktop;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns the commonmark AST into plain JavaFX nodes: a VBox of blocks, with paragraphs and headings as
+ * {@link TextFlow}s of styled {@link Text}. Memos are short notes, so this covers the elements they use
+ * (headings, emphasis, lists, quotes, code, links) without the cost of a WebKit engine per dialog.
+ * Styling comes from the "md-*" classes in style.css.
+ */
+public final class MarkdownNodeRenderer {
+
+    private static final Logger log = Log.get(MarkdownNodeRenderer.class);
+    private static final int BOLD = 1;
+    private static final int ITALIC = 2;
+
+    private MarkdownNodeRenderer() {}
+
+    public static VBox render(String markdown) {
+        TrackerEvents.MarkdownRender event = new TrackerEvents.MarkdownRender();
+        event.begin();
+        VBox document = new VBox();
+        document.getStyleClass().add("md-document");
+        renderBlocks(MarkdownConverter.parse(markdown), document);
+        if (event.shouldCommit()) {
+            event.target = "nodes";
+            event.length = markdown == null ? 0 : markdown.length();
+            event.commit();
+        }
+        return document;
+    }
+
+    private static void renderBlocks(Node parent, Pane target) {
+        for (Node block = parent.getFirstChild(); block != null; block = block.getNext()) {
+            target.getChildren().add(renderBlock(block));
+        }
+    }
+
+    private static javafx.scene.Node renderBlock(Node block) {
+        if (block instanceof Heading heading) {
+            TextFlow flow = inlineFlow(heading, "md-heading");
+            flow.getStyleClass().add("md-h" + Math.min(heading.getLevel(), 3));
+            return flow;
+        }
+        if (block instanceof Paragraph paragraph) {
+            return inlineFlow(paragraph, "md-paragraph");
+        }
+        if (block instanceof BulletList || block instanceof OrderedList) {
+            return renderList(block);
+        }
+        if (block instanceof BlockQuote) {
+            VBox quote = new VBox();
+            quote.getStyleClass().add("md-blockquote");
+            renderBlocks(block, quote);
+            return quote;
+        }
+        if (block instanceof FencedCodeBlock code) {
+            return codeBlock(code.getLiteral());
+        }
+        if (block instanceof IndentedCodeBlock code) {
+            return codeBlock(code.getLiteral());
+        }
+        if (block instanceof HtmlBlock html) {
+            return codeBlock(html.getLiteral());
+        }
+        if (block instanceof ThematicBreak) {
+            return new Separator();
+        }
+        VBox container = new VBox();
+        renderBlocks(block, container);
+        return container;
+    }
+
+    private static VBox renderList(Node list) {
+        VBox items = new VBox();
+        items.getStyleClass().add("md-list");
+        int number = list instanceof OrderedList ordered ? ordered.getStartNumber() : 0;
+        for (Node item = list.getFirstChild(); item != null; item = item.getNext()) {
+            if (!(item instanceof ListItem)) continue;
+            Label marker = new Label(list instanceof OrderedList ? (number++) + "." : "•");
+            marker.getStyleClass().add("md-list-marker");
+            marker.setMinWidth(Label.USE_PREF_SIZE);
+
+            VBox content = new VBox();
+            content.setMinWidth(0);
+            renderBlocks(item, content);
+
+            HBox row = new HBox(marker, content);
+            row.setAlignment(Pos.TOP_LEFT);
+            row.getStyleClass().add("md-list-item");
+            HBox.setHgrow(content, Priority.ALWAYS);
+            items.getChildren().add(row);
+        }
+        return items;
+    }
+
+    private static VBox codeBlock(String literal) {
+        Text text = new Text(literal.stripTrailing());
+        text.getStyleClass().addAll("md-text", "md-code");
+        VBox box = new VBox(new TextFlow(text));
+        box.getStyleClass().add("md-code-block");
+        return box;
+    }
+
+    private static TextFlow inlineFlow(Node block, String styleClass) {
+        List<javafx.scene.Node> runs = new ArrayList<>();
+        renderInline(block, 0, runs);
+        TextFlow flow = new TextFlow(runs.toArray(new javafx.scene.Node[0]));
+        flow.getStyleClass().add(styleClass);
+        return flow;
+    }
+
+    private static void renderInline(Node parent, int style, List<javafx.scene.Node> out) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNext()) {
+            if (node instanceof org.commonmark.node.Text text) {
+                out.add(styledText(text.getLiteral(), style));
+            } else if (node instanceof Code code) {
+                Text text = new Text(code.getLiteral());
+                text.getStyleClass().addAll("md-text", "md-code");
+                out.add(text);
+            } else if (node instanceof Emphasis) {
+                renderInline(node, style | ITALIC, out);
+            } else if (node instanceof StrongEmphasis) {
+                renderInline(node, style | BOLD, out);
+            } else if (node instanceof Link link) {
+                String label = plainText(link);
+                URI target = linkTarget(link.getDestination());
+                if (target != null) {
+                    out.add(hyperlink(label.isEmpty() ? link.getDestination() : label, target));
+                } else {
+                    out.add(styledText(label.isEmpty() ? link.getDestination() : label, style));
+                }
+            } else if (node instanceof Image image) {
+                out.add(styledText("[" + plainText(image) + "]", style | ITALIC));
+            } else if (node instanceof SoftLineBreak) {
+                out.add(styledText(" ", style));
+            } else if (node instanceof HardLineBreak) {
+                out.add(styledText("\n", style));
+            } else if (node instanceof HtmlInline html) {
+                out.add(styledText(html.getLiteral(), style));
+            } else {
+                renderInline(node, style, out);
+            }
+        }
+    }
+
+    private static Text styledText(String literal, int style) {
+        Text text = new Text(literal);
+        text.getStyleClass().add("md-text");
+        if ((style & BOLD) != 0) text.getStyleClass().add("md-strong");
+        if ((style & ITALIC) != 0) text.getStyleClass().add("md-emphasis");
+        return text;
+    }
+
+    /**
+     * Memo text comes from transcripts and the LLM, so only web and mail links are opened; anything else
+     * (file:, custom protocol handlers, malformed URIs) is shown as plain text. @return null if not openable
+     */
+    private static URI linkTarget(String destination) {
+        try {
+            URI uri = new URI(destination);
+            String scheme = uri.getScheme();
+            if (scheme == null) return null;
+            return switch (scheme.toLowerCase(Locale.ROOT)) {
+                case "http", "https", "mailto" -> uri;
+                default -> null;
+            };
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static Hyperlink hyperlink(String label, URI target) {
+        Hyperlink link = new Hyperlink(label);
+        link.getStyleClass().add("md-link");
+        link.setOnAction(e -> {
+            // Desktop.browse can block; keep it off the FX thread.
+            Thread opener = new Thread(() -> {
+                try {
+                    if (Desktop.isDesktopSupported()) Desktop.getDesktop().browse(target);
+                } catch (Exception ex) {
+                    log.warn("Could not open link " + target + ": " + ex.getMessage(), ex);
+                }
+            }, "LinkOpener");
+            opener.setDaemon(true);
+            opener.start();
+        });
+        return link;
+    }
+
+    private static String plainText(Node parent) {
+        StringBuilder text = new StringBuilder();
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNext()) {
+            if (node instanceof org.commonmark.node.Text literal) {
+                text.append(literal.getLiteral());
+            } else if (node instanceof Code code) {
+                text.append(code.getLiteral());
+            } else {
+                text.append(plainText(node));
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package org.stefanapetri.licenta.view;
+
+import javafx.scene.Node;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.web.WebView;
+import org.stefanapetri.licenta.model.MemoViewItem;
+
+/**
+ * Read-only Markdown display used by the main tab and the dialogs.
+ * By default it renders native JavaFX nodes ({@link MarkdownNodeRenderer}); with the WebView fallback enabled in
+ * the settings it uses a WebView and the HTML from {@link MarkdownConverter} instead. The choice is made when the
+ * pane is created, so no WebKit engine is started unless the fallback is on.
+ */
+public final class MarkdownPane {
+
+    private static volatile boolean useWebView = false;
+
+    private final WebView webView;
+    private final ScrollPane scrollPane;
+
+    private MarkdownPane(boolean webViewRenderer) {
+        if (webViewRenderer) {
+            webView = new WebView();
+            MarkdownConverter.applyStylesheet(webView);
+            scrollPane = null;
+        } else {
+            webView = null;
+            scrollPane = new ScrollPane();
+            scrollPane.setFitToWidth(true);
+            scrollPane.getStyleClass().add("md-scroll-pane");
+        }
+    }
+
+    /** Creates a pane with the renderer currently selected in the settings. */
+    public static MarkdownPane create() {
+        return new MarkdownPane(useWebView);
+    }
+
+    /** Selects the renderer for panes created from now on. */
+    public static void setUseWebView(boolean value) {
+        useWebView = value;
+    }
+
+    public static boolean isUseWebView() {
+        return useWebView;
+    }
+
+    public boolean isWebView() {
+        return webView != null;
+    }
+
+    public Node getNode() {
+        return webView != null ? webView : scrollPane;
+    }
+
+    public void showMarkdown(String markdown) {
+        if (webView != null) {
+            webView.getEngine().loadContent(MarkdownConverter.toHtml(markdown));
+        } else {
+            scrollPane.setContent(MarkdownNodeRenderer.render(markdown));
+            scrollPane.setVvalue(0);
+        }
+    }
+
+    /** Shows a stored memo; the WebView uses the memo's pre-rendered HTML. */
+    public void showMemo(MemoViewItem memo) {
+        if (webView != null) {
+            webView.getEngine().loadContent(MarkdownConverter.toHtml(memo));
+        } else {
+            showMarkdown(memo.transcriptionText());
+        }
+    }
+}
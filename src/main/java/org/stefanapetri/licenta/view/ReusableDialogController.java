@@ -0,0 +1,10 @@
+package org.stefanapetri.licenta.view;
+
+/**
+ * A dialog controller whose stage is kept by a {@link DialogPool} and shown again later.
+ */
+public interface ReusableDialogController {
+
+    /** Called after the dialog was hidden: stop anything still running and drop per-use state. */
+    void resetForReuse();
+}
@@ -2,14 +2,30 @@ package org.stefanapetri.licenta.view;
 
 import javafx.stage.Stage;
 
+import java.util.function.BooleanSupplier;
+
 // --- NEW: StageAndController helper class definition ---
 // This class bundles a Stage and its associated Controller
 public class StageAndController<T> {
     public final Stage stage;
     public final T controller;
+    private final BooleanSupplier active;
 
     public StageAndController(Stage stage, T controller) {
+        this(stage, controller, stage::isShowing);
+    }
+
+    StageAndController(Stage stage, T controller, BooleanSupplier active) {
         this.stage = stage;
         this.controller = controller;
+        this.active = active;
+    }
+
+    /**
+     * False once this dialog was closed. Pooled dialogs are reused after closing, so late updates
+     * (e.g. a summary arriving after the user dismissed the window) must check this first.
+     */
+    public boolean isActive() {
+        return active.getAsBoolean();
     }
 }
@@ -1,105 +1,80 @@
 import sys
 import os
 from faster_whisper import WhisperModel
-import google.generativeai as genai
 
-# Ensure UTF-8 output on all streams
-sys.stdout.reconfigure(encoding='utf-8')
+# Ensure UTF-8 output on all streams. stdout is line-buffered so progress events reach Java as they happen.
+sys.stdout.reconfigure(encoding='utf-8', line_buffering=True)
 sys.stderr.reconfigure(encoding='utf-8')
 
-def transcribe_audio(file_path, enable_gemini, gemini_api_key):
-    compute_type = "int8"
+# This script only runs Whisper. LLM post-processing (Gemini) is a separate stage on the Java side
+# (LlmPostProcessor), so the raw transcript can be saved before the remote API has answered.
+
+# --- Line protocol on stdout, parsed by PythonBridge ---
+# Every stdout line is one event: "@KIND" followed by tab-separated fields.
+# Text fields escape backslash, newline and tab as \\, \n and \t. Diagnostics go to stderr only.
+#   @STAGE    <name>                    pipeline stage changed
+#   @PROGRESS <percent>                 0-100, based on audio position
+#   @SEGMENT  <start> <end> <text>      a transcribed segment, times in seconds
+#   @RESULT   <text>                    the final output (may start with "Error:")
+def _escape(text):
+    return str(text).replace("\\", "\\\\").replace("\n", "\\n").replace("\t", "\\t")
+
+def emit(kind, *fields):
+    print("@" + kind + "".join("\t" + _escape(f) for f in fields))
+
+def run_whisper(file_path, model_size, compute_type, cpu_threads=0):
     device = "cpu"
 
     # Load Whisper model (still necessary for transcription)
     # This will download the model on the first run.
-    whisper_model = WhisperModel("small", device=device, compute_type=compute_type)
+    # cpu_threads=0 lets CTranslate2 decide; chunk workers pass an explicit share of the cores.
+    emit("STAGE", "loading_model")
+    whisper_model = WhisperModel(model_size, device=device, compute_type=compute_type, cpu_threads=cpu_threads)
 
-    # Transcribe the audio
+    # Transcribe the audio. Segments are produced lazily, so each one is reported as soon as it is decoded.
+    emit("STAGE", "transcribing")
+    emit("PROGRESS", "0")
     segments, info = whisper_model.transcribe(file_path, beam_size=5)
-    transcription_text = "".join(segment.text for segment in segments)
-
     print(f"Detected language '{info.language}' with probability {info.language_probability}", file=sys.stderr)
-    print(f"Raw Transcription: {transcription_text}", file=sys.stderr) # For debugging in stderr
-
-    # --- MODIFIED: Conditional Gemini API Call ---
-    if enable_gemini:
-        if not gemini_api_key:
-            print("Warning: Gemini API processing enabled but no API key provided. Falling back to raw transcription.", file=sys.stderr)
-            print(transcription_text.strip()) # Fallback to raw transcription
-            return
-
-        try:
-            genai.configure(api_key=gemini_api_key) # Use the provided API key
-            model = genai.GenerativeModel('gemini-2.5-flash')
-
-            prompt = f"""
-            You are an AI assistant designed to help users recall their work sessions.
-            Given a voice memo transcription about what the user was last doing in an application,
-            please process it and provide a concise, structured summary. The summary can be in any language,
-            do not translate it. If there are parts of the transcription in another language than the majority of the text, use them as-is and provide a translation in (parantheses).
 
-            Your task involves the following:
-            1.  **Resume/Identify Activities:** Extract the core activities, tasks, decisions, problems encountered, or progress made. Focus on "what was done" and "what needs to be done next".
-            2.  **Summarize:** Condense the key information into a brief, easy-to-read summary.
-            3.  **Spellcheck & Clarity:** Ensure the language is grammatically correct, professional, and clear, fixing any obvious transcription errors.
-            4.  **Analysis (Implicit Actions):** Identify any explicit or implied action items or next steps.
-            5.  **Formatting:** Present your findings clearly using bullet points. Start with a main summary point if applicable, then detail specific activities/tasks.
-
-            Example Output Format:
-            - Brief summary of the session.
-            - Completed:
-                - [Task 1 completed]
-                - [Task 2 completed]
-            - In Progress:
-                - [Task 1 in progress]
-            - Next Steps/Action Items:
-                - [Action item 1]
-                - [Action item 2]
-            - Notes/Decisions:
-                - [Important note or decision]
-
-            ---
-            Here is the transcription from the user's voice memo:
-            "{transcription_text}"
-            """
-
-            gemini_response = model.generate_content(prompt)
-
-            if gemini_response.candidates:
-                print(gemini_response.candidates[0].content.parts[0].text.strip())
-            else:
-                print("Error: Gemini response had no candidates. Falling back to raw transcription.", file=sys.stderr)
-                print(transcription_text.strip()) # Fallback if Gemini fails to provide candidates
-
-        except Exception as e:
-            print(f"Error communicating with Gemini API: {str(e)}. Falling back to raw transcription.", file=sys.stderr)
-            print(transcription_text.strip()) # Fallback to raw transcription
-    else:
-        # If Gemini processing is disabled, just print the raw transcription
-        print(transcription_text.strip())
+    texts = []
+    for segment in segments:
+        texts.append(segment.text)
+        emit("SEGMENT", f"{segment.start:.2f}", f"{segment.end:.2f}", segment.text)
+        if info.duration:
+            emit("PROGRESS", f"{min(100.0, 100.0 * segment.end / info.duration):.1f}")
+    emit("PROGRESS", "100")
+    return "".join(texts)
+
+def transcribe_audio(file_path, model_size="small", compute_type="int8", cpu_threads=0):
+    transcription_text = run_whisper(file_path, model_size, compute_type, cpu_threads)
+    print(f"Raw Transcription: {transcription_text}", file=sys.stderr) # For debugging in stderr
+    emit("RESULT", transcription_text.strip())
 
 # --- Main execution block ---
 if __name__ == "__main__":
     audio_file_path = None
-    enable_gemini = False
-    gemini_api_key = ""
+    model_size = "small"
+    compute_type = "int8"
+    cpu_threads = 0
 
     # Parse command-line arguments
     for i, arg in enumerate(sys.argv):
         if i == 1: # First argument is always audio file path
             audio_file_path = arg
-        elif arg.startswith("--enable-gemini="):
-            enable_gemini = arg.split("=")[1].lower() == "true"
-        elif arg.startswith("--gemini-api-key="):
-            gemini_api_key = arg.split("=")[1]
+        elif arg.startswith("--model="):
+            model_size = arg.split("=", 1)[1]
+        elif arg.startswith("--compute-type="):
+            compute_type = arg.split("=", 1)[1]
+        elif arg.startswith("--cpu-threads="):
+            cpu_threads = int(arg.split("=", 1)[1])
 
     if audio_file_path and os.path.exists(audio_file_path):
         try:
-            transcribe_audio(audio_file_path, enable_gemini, gemini_api_key)
+            transcribe_audio(audio_file_path, model_size, compute_type, cpu_threads)
         except Exception as e:
             print(f"Critical error in transcribe_audio: {str(e)}", file=sys.stderr)
-            print("Error: Transcription or processing failed.", file=sys.stdout)
+            emit("RESULT", "Error: Transcription or processing failed.")
     else:
         print(f"Error: Audio file not found or path not provided: {audio_file_path}", file=sys.stderr)
-        print("Error: No audio input or file not found.", file=sys.stdout)
\ No newline at end of file
+        emit("RESULT", "Error: No audio input or file not found.")
@@ -0,0 +1,211 @@
+package org.stefanapetri.licenta.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Runs the post-processor against a local stand-in for the generateContent endpoint. */
+class LlmPostProcessorTest {
+
+    @TempDir
+    Path dir;
+
+    private StandInServer server;
+    private LlmPostProcessor processor;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new StandInServer();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        if (processor != null) processor.shutdown();
+        server.close();
+    }
+
+    @Test
+    void retriesRetryableStatusesThenSucceeds() {
+        processor = newProcessor(null, new RateLimiter(1000, 10));
+        server.respond(503, "Retry-After: 0", "{\"error\":\"overloaded\"}");
+        server.respond(429, "Retry-After: 0", "{\"error\":\"rate limited\"}");
+        server.respondSummary("A summary.");
+        long retriesBefore = Metrics.counter("gemini.retries").get();
+
+        assertEquals("A summary.", processor.process("raw text", "test-key").join());
+        assertEquals(3, server.requests.size());
+        assertEquals(2, Metrics.counter("gemini.retries").get() - retriesBefore);
+        assertTrue(server.requests.get(0).headers.contains("x-goog-api-key: test-key"));
+        assertTrue(server.requests.get(0).path.endsWith("/models/" + LlmPostProcessor.MODEL + ":generateContent"));
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        processor = newProcessor(null, new RateLimiter(1000, 10));
+        server.respond(400, null, "{\"error\":\"bad request\"}");
+
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> processor.process("raw text", "test-key").join());
+        assertTrue(failure.getCause().getMessage().contains("HTTP 400"), failure.getCause().getMessage());
+        assertEquals(1, server.requests.size());
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() {
+        processor = newProcessor(null, new RateLimiter(1000, 10));
+        for (int i = 0; i < 5; i++) {
+            server.respond(503, "Retry-After: 0", "{}");
+        }
+        assertThrows(CompletionException.class, () -> processor.process("raw text", "test-key").join());
+        assertEquals(4, server.requests.size());
+    }
+
+    @Test
+    void backoffDoublesWithEqualJitterUpToTheCap() {
+        for (int attempt = 1; attempt <= 8; attempt++) {
+            long exponential = Math.min(30_000, 1000L << (attempt - 1));
+            for (int sample = 0; sample < 50; sample++) {
+                long delay = LlmPostProcessor.backoff(attempt).toMillis();
+                assertTrue(delay >= exponential / 2 && delay <= exponential,
+                        "attempt " + attempt + ": " + delay + " ms outside [" + exponential / 2 + ", " + exponential + "]");
+            }
+        }
+    }
+
+    @Test
+    void rateLimiterSpacesRequestsAndRetries() {
+        // One token, refilled every 100 ms: the first request goes at once, each of the other three waits for a token.
+        processor = newProcessor(null, new RateLimiter(10, 1));
+        server.respond(503, "Retry-After: 0", "{}");
+        server.respondSummary("one");
+        server.respondSummary("two");
+        server.respondSummary("three");
+
+        long start = System.nanoTime();
+        assertEquals("one", processor.process("first", "k").join());
+        assertEquals("two", processor.process("second", "k").join());
+        assertEquals("three", processor.process("third", "k").join());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(4, server.requests.size());
+        assertTrue(elapsedMillis >= 290, "4 requests at 10/s took only " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void cachesSummariesPerEndpointAndPromptVersion() throws IOException {
+        processor = newProcessor(new TranscriptionCache(dir, 1 << 20), new RateLimiter(1000, 10));
+        server.respondSummary("from the first endpoint");
+        server.respondSummary("from the second endpoint");
+
+        assertEquals("from the first endpoint", processor.process("same raw text", "k").join());
+        assertEquals("from the first endpoint", processor.process("same raw text", "k").join());
+        assertEquals(1, server.requests.size(), "the second call is a cache hit");
+
+        processor.setEndpoint(server.baseUrl() + "/other/v1beta/");
+        assertEquals("from the second endpoint", processor.process("same raw text", "k").join());
+        assertEquals(2, server.requests.size(), "another endpoint does not reuse the first one's summary");
+        assertTrue(server.requests.get(1).path.startsWith("/other/v1beta/models/"), server.requests.get(1).path);
+
+        String endpoint = server.baseUrl() + "/v1beta";
+        assertNotEquals(LlmPostProcessor.cacheKey("text", endpoint, LlmPostProcessor.PROMPT_VERSION),
+                LlmPostProcessor.cacheKey("text", endpoint, LlmPostProcessor.PROMPT_VERSION + 1));
+    }
+
+    private LlmPostProcessor newProcessor(TranscriptionCache cache, RateLimiter rateLimiter) {
+        LlmPostProcessor llm = new LlmPostProcessor(cache, rateLimiter);
+        llm.setEndpoint(server.baseUrl() + "/v1beta");
+        return llm;
+    }
+
+    private record Request(String path, String headers) {}
+
+    /** Answers each request with the next scripted response, one connection per request. */
+    private static final class StandInServer implements AutoCloseable {
+        private final ServerSocket socket = new ServerSocket(0, 16, InetAddress.getLoopbackAddress());
+        private final Deque<String> responses = new ArrayDeque<>();
+        final List<Request> requests = new CopyOnWriteArrayList<>();
+        private final Thread acceptor;
+
+        StandInServer() throws IOException {
+            acceptor = new Thread(this::serve, "StandInGemini");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        String baseUrl() {
+            return "http://127.0.0.1:" + socket.getLocalPort();
+        }
+
+        synchronized void respond(int status, String extraHeader, String body) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            responses.add("HTTP/1.1 " + status + " Scripted\r\n"
+                    + "Content-Type: application/json\r\n"
+                    + (extraHeader != null ? extraHeader + "\r\n" : "")
+                    + "Content-Length: " + bytes.length + "\r\nConnection: close\r\n\r\n" + body);
+        }
+
+        void respondSummary(String text) {
+            respond(200, null, "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + text + "\"}]}}]}");
+        }
+
+        private synchronized String nextResponse() {
+            String next = responses.poll();
+            if (next != null) return next;
+            return "HTTP/1.1 500 Unscripted\r\nContent-Length: 0\r\nConnection: close\r\n\r\n";
+        }
+
+        private void serve() {
+            while (!socket.isClosed()) {
+                try (Socket client = socket.accept()) {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                    String requestLine = in.readLine();
+                    if (requestLine == null) continue;
+                    StringBuilder headers = new StringBuilder();
+                    int contentLength = 0;
+                    for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+                        headers.append(line.toLowerCase(Locale.ROOT)).append('\n');
+                        if (line.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                            contentLength = Integer.parseInt(line.substring(line.indexOf(':') + 1).trim());
+                        }
+                    }
+                    // The body is JSON built from ASCII-escaped test text, so characters and bytes agree.
+                    in.skip(contentLength);
+                    requests.add(new Request(requestLine.split(" ")[1], headers.toString()));
+                    OutputStream out = client.getOutputStream();
+                    out.write(nextResponse().getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                } catch (IOException e) {
+                    // closed by the test, or a client that hung up; keep serving until the socket is closed
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
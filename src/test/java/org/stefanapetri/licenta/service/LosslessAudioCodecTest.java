@@ -0,0 +1,99 @@
+package org.stefanapetri.licenta.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LosslessAudioCodecTest {
+
+    private static final AudioFormat FORMAT = new AudioFormat(16000, 16, 1, true, false);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsSpeechLikeSignal() throws Exception {
+        short[] samples = new short[3 * LosslessAudioEncoder.BLOCK_SAMPLES + 123]; // last block is partial
+        Random random = new Random(42);
+        for (int i = 0; i < samples.length; i++) {
+            double tone = 6000 * Math.sin(i * 2 * Math.PI * 220 / 16000) + 2000 * Math.sin(i * 2 * Math.PI * 1330 / 16000);
+            samples[i] = (short) (tone + random.nextGaussian() * 300);
+        }
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    void roundTripsWhiteNoiseAndFullScaleExtremes() throws Exception {
+        short[] samples = new short[2 * LosslessAudioEncoder.BLOCK_SAMPLES];
+        Random random = new Random(7);
+        for (int i = 0; i < LosslessAudioEncoder.BLOCK_SAMPLES; i++) {
+            samples[i] = (short) random.nextInt();
+        }
+        // Alternating full-scale samples give the largest residuals, which take the escape code.
+        for (int i = LosslessAudioEncoder.BLOCK_SAMPLES; i < samples.length; i++) {
+            samples[i] = (i & 1) == 0 ? Short.MAX_VALUE : Short.MIN_VALUE;
+        }
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    void roundTripsSilenceAndTinyInputs() throws Exception {
+        assertRoundTrip(new short[LosslessAudioEncoder.BLOCK_SAMPLES + 1]);
+        assertRoundTrip(new short[] {1});
+        assertRoundTrip(new short[] {-5, 3, 0});
+        assertRoundTrip(new short[0]);
+    }
+
+    @Test
+    void roundTripsOddLengthWrites() throws Exception {
+        short[] samples = new short[10_001];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (i * 37);
+        }
+        byte[] pcm = toPcm(samples);
+        Path compressed = dir.resolve("odd" + LosslessAudioEncoder.FILE_EXTENSION);
+        try (LosslessAudioEncoder encoder = new LosslessAudioEncoder(compressed, FORMAT)) {
+            // Writes that split samples across calls, as the recorder's ring buffer can deliver them.
+            for (int offset = 0; offset < pcm.length; offset += 333) {
+                encoder.write(pcm, offset, Math.min(333, pcm.length - offset));
+            }
+        }
+        assertArrayEquals(pcm, decode(compressed, samples.length));
+    }
+
+    private void assertRoundTrip(short[] samples) throws Exception {
+        byte[] pcm = toPcm(samples);
+        Path compressed = dir.resolve("roundtrip-" + samples.length + LosslessAudioEncoder.FILE_EXTENSION);
+        try (LosslessAudioEncoder encoder = new LosslessAudioEncoder(compressed, FORMAT)) {
+            encoder.write(pcm, 0, pcm.length);
+        }
+        assertArrayEquals(pcm, decode(compressed, samples.length));
+    }
+
+    private byte[] decode(Path compressed, int expectedSamples) throws Exception {
+        Path wav = dir.resolve(compressed.getFileName() + ".wav");
+        assertEquals(expectedSamples, LosslessAudioDecoder.decodeToWav(compressed, wav));
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(wav.toFile())) {
+            assertEquals(FORMAT.getSampleRate(), in.getFormat().getSampleRate());
+            assertEquals(1, in.getFormat().getChannels());
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] toPcm(short[] samples) {
+        byte[] pcm = new byte[samples.length * 2];
+        for (int i = 0; i < samples.length; i++) {
+            pcm[2 * i] = (byte) samples[i];
+            pcm[2 * i + 1] = (byte) (samples[i] >> 8);
+        }
+        return pcm;
+    }
+}
@@ -0,0 +1,313 @@
+package org.stefanapetri.licenta.service;
+
+import org.junit.jupiter.api.Test;
+import org.stefanapetri.licenta.model.DatabaseManager;
+import org.stefanapetri.licenta.model.PendingReminder;
+import org.stefanapetri.licenta.model.ReminderPolicy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReminderSchedulerTest {
+
+    private static final int APP = 1;
+    private static final Instant NOON = Instant.parse("2026-03-02T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock(NOON);
+    private final FakeDatabase db = new FakeDatabase();
+    private final List<Integer> reminded = new CopyOnWriteArrayList<>();
+
+    @Test
+    void remindsAtTheNextOpenOnceTheIntervalExpired() {
+        ReminderScheduler scheduler = start(2);
+        assertTrue(opened(scheduler, APP), "an app that was never closed reminds at its first open");
+        closed(scheduler, APP);
+        assertEquals(NOON.plus(Duration.ofHours(2)), db.pending(APP, PendingReminder.Kind.DUE));
+
+        clock.advance(Duration.ofHours(1));
+        assertFalse(opened(scheduler, APP));
+        closed(scheduler, APP); // the interval starts again from this close
+
+        clock.advance(Duration.ofMinutes(119));
+        tick(scheduler);
+        assertFalse(opened(scheduler, APP));
+        closed(scheduler, APP);
+
+        clock.advance(Duration.ofHours(2));
+        tick(scheduler);
+        assertTrue(opened(scheduler, APP));
+        assertNull(db.pending(APP, PendingReminder.Kind.DUE), "a shown reminder is no longer stored as due");
+        assertEquals(List.of(), reminded, "interval reminders wait for the next open");
+    }
+
+    @Test
+    void timeSpentOpenDoesNotCountTowardsTheInterval() {
+        ReminderScheduler scheduler = start(1);
+        assertTrue(opened(scheduler, APP));
+        closed(scheduler, APP); // 12:00
+
+        clock.advance(Duration.ofMinutes(30));
+        assertFalse(opened(scheduler, APP));
+        assertEquals(0, scheduler.pendingTimers().join(), "reopening disarms the interval");
+        assertNull(db.pending(APP, PendingReminder.Kind.DUE));
+
+        clock.advance(Duration.ofMinutes(90)); // open across the whole hour, until 14:00
+        tick(scheduler);
+        closed(scheduler, APP);
+        clock.advance(Duration.ofMinutes(1));
+        tick(scheduler);
+        assertFalse(opened(scheduler, APP), "closed for one minute only");
+        closed(scheduler, APP);
+
+        clock.advance(Duration.ofHours(1));
+        tick(scheduler);
+        assertTrue(opened(scheduler, APP), "closed for a full hour");
+        assertEquals(List.of(), reminded);
+    }
+
+    @Test
+    void forgetCancelsAllTimers() {
+        ReminderScheduler scheduler = start(2);
+        opened(scheduler, APP);
+        closed(scheduler, APP);
+        assertEquals(1, scheduler.pendingTimers().join());
+        scheduler.forget(APP);
+        assertEquals(0, scheduler.pendingTimers().join());
+    }
+
+    @Test
+    void quietHoursOverMidnightHoldTheReminderUntilTheyEnd() {
+        ReminderScheduler scheduler = start(2);
+        scheduler.setPolicy(APP, new ReminderPolicy(2, LocalTime.of(22, 0), LocalTime.of(7, 0), 30));
+        clock.set(Instant.parse("2026-03-02T23:00:00Z"));
+
+        assertFalse(opened(scheduler, APP), "due, but quiet");
+        clock.set(Instant.parse("2026-03-03T01:00:00Z"));
+        tick(scheduler);
+        clock.set(Instant.parse("2026-03-03T06:59:59Z"));
+        tick(scheduler);
+        assertEquals(List.of(), reminded, "still quiet after midnight");
+
+        clock.set(Instant.parse("2026-03-03T07:00:00Z"));
+        tick(scheduler);
+        assertEquals(List.of(APP), reminded, "shown as soon as the quiet hours end, the app being open");
+        assertFalse(opened(scheduler, APP), "shown once");
+    }
+
+    @Test
+    void quietHoursOverMidnightAlsoHoldAReminderFromBeforeMidnightUntilTheAppIsClosed() {
+        ReminderScheduler scheduler = start(2);
+        scheduler.setPolicy(APP, new ReminderPolicy(2, LocalTime.of(22, 0), LocalTime.of(7, 0), 30));
+        clock.set(Instant.parse("2026-03-02T23:30:00Z"));
+        assertFalse(opened(scheduler, APP));
+        closed(scheduler, APP); // closed during quiet hours: the reminder stays due for the next open
+
+        clock.set(Instant.parse("2026-03-03T08:00:00Z"));
+        tick(scheduler);
+        assertEquals(List.of(), reminded, "not shown while the app is closed");
+        assertTrue(opened(scheduler, APP));
+    }
+
+    @Test
+    void snoozeWithTheAppOpenRemindsWhenItRunsOut() {
+        ReminderScheduler scheduler = start(2);
+        scheduler.setPolicy(APP, new ReminderPolicy(2, null, null, 15));
+        assertTrue(opened(scheduler, APP));
+        snoozed(scheduler, APP);
+        assertEquals(NOON.plus(Duration.ofMinutes(15)), db.pending(APP, PendingReminder.Kind.SNOOZE));
+
+        clock.advance(Duration.ofMinutes(14));
+        tick(scheduler);
+        assertEquals(List.of(), reminded);
+
+        clock.advance(Duration.ofMinutes(1));
+        tick(scheduler);
+        assertEquals(List.of(APP), reminded);
+        assertNull(db.pending(APP, PendingReminder.Kind.SNOOZE));
+        assertNull(db.pending(APP, PendingReminder.Kind.DUE));
+    }
+
+    @Test
+    void snoozeWithTheAppClosedRemindsAtTheNextOpen() {
+        ReminderScheduler scheduler = start(2);
+        scheduler.setPolicy(APP, new ReminderPolicy(2, null, null, 15));
+        assertTrue(opened(scheduler, APP));
+        snoozed(scheduler, APP);
+        closed(scheduler, APP);
+
+        clock.advance(Duration.ofMinutes(5));
+        assertFalse(opened(scheduler, APP), "still snoozed");
+        closed(scheduler, APP);
+
+        clock.advance(Duration.ofMinutes(11));
+        tick(scheduler);
+        assertEquals(List.of(), reminded, "the app is closed when the snooze runs out");
+        assertTrue(opened(scheduler, APP));
+    }
+
+    @Test
+    void reloadsPendingRemindersAfterARestart() {
+        db.lastClosed.put(1, NOON.minus(Duration.ofMinutes(90)));
+        db.savePendingReminder(new PendingReminder(1, PendingReminder.Kind.DUE, NOON.plus(Duration.ofMinutes(30))));
+        // Snoozed for ten more minutes; snooze() stores the reminder as due right away.
+        db.savePendingReminder(new PendingReminder(2, PendingReminder.Kind.DUE, NOON.minus(Duration.ofMinutes(50))));
+        db.savePendingReminder(new PendingReminder(2, PendingReminder.Kind.SNOOZE, NOON.plus(Duration.ofMinutes(10))));
+        // The snooze ran out while the tracker was not running.
+        db.savePendingReminder(new PendingReminder(3, PendingReminder.Kind.DUE, NOON.minus(Duration.ofHours(1))));
+        db.savePendingReminder(new PendingReminder(3, PendingReminder.Kind.SNOOZE, NOON.minus(Duration.ofMinutes(5))));
+        // No stored timer: measured from the last close with the two-hour default.
+        db.lastClosed.put(4, NOON.minus(Duration.ofHours(3)));
+        db.lastClosed.put(5, NOON.minus(Duration.ofHours(1)));
+
+        ReminderScheduler scheduler = start(2);
+        assertEquals(3, scheduler.pendingTimers().join(), "DUE of app 1, SNOOZE of app 2, DUE of app 5");
+        assertNull(db.pending(3, PendingReminder.Kind.SNOOZE), "an expired snooze row is removed");
+
+        // Apps 1 and 5 stay closed: opening them now would restart their intervals.
+        assertFalse(opened(scheduler, 2));
+        assertTrue(opened(scheduler, 3));
+        assertTrue(opened(scheduler, 4));
+
+        clock.advance(Duration.ofMinutes(10));
+        tick(scheduler);
+        assertEquals(List.of(2), reminded, "app 2 is open when its snooze runs out");
+
+        clock.advance(Duration.ofMinutes(19));
+        tick(scheduler);
+        assertFalse(opened(scheduler, 1), "app 1's stored interval is not over yet");
+        closed(scheduler, 1);
+        clock.advance(Duration.ofMinutes(31)); // 13:00, two hours after app 5's last close
+        tick(scheduler);
+        assertTrue(opened(scheduler, 5), "two hours after app 5's last close");
+    }
+
+    private ReminderScheduler start(int intervalHours) {
+        ReminderScheduler scheduler = new ReminderScheduler(db, clock);
+        scheduler.setListener(reminded::add);
+        scheduler.setDefaults(true, intervalHours);
+        scheduler.start();
+        scheduler.pendingTimers().join(); // the scheduler thread has loaded the database by now
+        return scheduler;
+    }
+
+    // Closing and snoozing read the clock on the scheduler thread, so they must be done before the test moves it.
+    private static void closed(ReminderScheduler scheduler, int appId) {
+        scheduler.onAppClosed(appId);
+        settle(scheduler);
+    }
+
+    private static void snoozed(ReminderScheduler scheduler, int appId) {
+        scheduler.snooze(appId);
+        settle(scheduler);
+    }
+
+    /** Waits until the scheduler thread has run everything handed to it so far; it runs tasks in order. */
+    private static void settle(ReminderScheduler scheduler) {
+        scheduler.pendingTimers().join();
+    }
+
+    private static boolean opened(ReminderScheduler scheduler, int appId) {
+        return scheduler.onAppOpened(appId).join();
+    }
+
+    private static void tick(ReminderScheduler scheduler) {
+        scheduler.advance().join();
+    }
+
+    /** A clock the test moves by hand; the scheduler's own one-second tick then just sees the same time. */
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant instant) {
+            now = instant;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    /** Keeps the reminder tables in memory; every other method of the real manager is left unused. */
+    private static final class FakeDatabase extends DatabaseManager {
+        final Map<Integer, Instant> lastClosed = new HashMap<>();
+        private final Map<Integer, ReminderPolicy> policies = new HashMap<>();
+        private final Map<String, PendingReminder> pending = new HashMap<>();
+
+        FakeDatabase() {
+            super("jdbc:postgresql://localhost/unused", "unused", "unused");
+        }
+
+        synchronized Instant pending(int appId, PendingReminder.Kind kind) {
+            PendingReminder reminder = pending.get(appId + ":" + kind);
+            return reminder == null ? null : reminder.dueAt();
+        }
+
+        @Override
+        public synchronized Map<Integer, Instant> getLastClosedTimestamps() {
+            return new HashMap<>(lastClosed);
+        }
+
+        @Override
+        public synchronized Map<Integer, ReminderPolicy> getReminderPolicies() {
+            return new HashMap<>(policies);
+        }
+
+        @Override
+        public synchronized void saveReminderPolicy(int appId, ReminderPolicy policy) {
+            policies.put(appId, policy);
+        }
+
+        @Override
+        public synchronized void deleteReminderPolicy(int appId) {
+            policies.remove(appId);
+        }
+
+        @Override
+        public synchronized List<PendingReminder> getPendingReminders() {
+            return new ArrayList<>(pending.values());
+        }
+
+        @Override
+        public synchronized void savePendingReminder(PendingReminder reminder) {
+            pending.put(reminder.appId() + ":" + reminder.kind(), reminder);
+        }
+
+        @Override
+        public synchronized void deletePendingReminder(int appId, PendingReminder.Kind kind) {
+            pending.remove(appId + ":" + kind);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.stefanapetri.licenta.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    // One level covers 64 ticks, two 4096, three 262144, four 16777216; anything later goes to the overflow list.
+    private static final long LEVEL_1 = 64;
+    private static final long LEVEL_2 = 64 * 64;
+    private static final long LEVEL_3 = 64 * 64 * 64;
+    private static final long ALL_LEVELS = 64L * 64 * 64 * 64;
+
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void expiresOnTheFirstTickAtOrAfterTheDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 0);
+        wheel.schedule("a", 2500);
+        wheel.advanceTo(2999, expired::add);
+        assertEquals(List.of(), expired);
+        wheel.advanceTo(3000, expired::add);
+        assertEquals(List.of("a"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void expiresInDeadlineOrderWithinOneAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("late", 5000);
+        wheel.schedule("early", 3);
+        wheel.schedule("middle", 70);
+        wheel.advanceTo(10_000, expired::add);
+        assertEquals(List.of("early", "middle", "late"), expired);
+    }
+
+    @Test
+    void pastDeadlineExpiresOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1000);
+        wheel.schedule("overdue", 10);
+        wheel.advanceTo(1009, expired::add);
+        assertEquals(List.of(), expired);
+        wheel.advanceTo(1010, expired::add);
+        assertEquals(List.of("overdue"), expired);
+    }
+
+    @Test
+    void cascadesFromEveryLevelToTheExactTick() {
+        long[] deadlines = {LEVEL_1 - 1, LEVEL_1, LEVEL_1 + 1, 100, LEVEL_2 - 1, LEVEL_2 + 5, LEVEL_3 + 77,
+                ALL_LEVELS - 1};
+        for (long deadline : deadlines) {
+            assertExpiresExactlyAt(deadline, 0);
+            // Not aligned to a wheel boundary, so cascades happen part way through the timer's wait.
+            assertExpiresExactlyAt(deadline, 12_345);
+        }
+    }
+
+    @Test
+    void overflowTimersExpireOnceTheyFitTheWheels() {
+        assertExpiresExactlyAt(ALL_LEVELS, 0);
+        assertExpiresExactlyAt(ALL_LEVELS + 3 * LEVEL_2 + 9, 7);
+    }
+
+    @Test
+    void cancelledTimerNeverExpires() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timeout near = wheel.schedule("near", 10);
+        TimingWheel.Timeout far = wheel.schedule("far", LEVEL_2 + 1);
+        wheel.schedule("kept", 20);
+        assertTrue(wheel.cancel(near));
+        assertTrue(wheel.cancel(far));
+        assertFalse(near.isPending());
+        assertFalse(wheel.cancel(near), "a second cancel is a no-op");
+        assertEquals(1, wheel.size());
+
+        wheel.advanceTo(2 * LEVEL_2, expired::add);
+        assertEquals(List.of("kept"), expired);
+    }
+
+    @Test
+    void cancelAfterCascadeStillRemovesTheTimer() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timeout timeout = wheel.schedule("moved", LEVEL_2 + 10);
+        wheel.advanceTo(LEVEL_2, expired::add); // now cascaded into the lowest wheel
+        assertTrue(timeout.isPending());
+        assertTrue(wheel.cancel(timeout));
+        wheel.advanceTo(LEVEL_2 + 100, expired::add);
+        assertEquals(List.of(), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void idleStretchIsSkippedAndLaterTimersAreRelativeToIt() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 0);
+        wheel.advanceTo(30L * 24 * 3600 * 1000, expired::add); // a month asleep with nothing pending
+        long now = 30L * 24 * 3600 * 1000;
+        wheel.schedule("after sleep", now + 5000);
+        wheel.advanceTo(now + 4999, expired::add);
+        assertEquals(List.of(), expired);
+        wheel.advanceTo(now + 5000, expired::add);
+        assertEquals(List.of("after sleep"), expired);
+    }
+
+    /** Schedules one timer {@code ticks} out and checks it expires on exactly that tick, not one earlier. */
+    private void assertExpiresExactlyAt(long ticks, long startTick) {
+        TimingWheel<String> wheel = new TimingWheel<>(1, startTick);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("t", startTick + ticks);
+        wheel.advanceTo(startTick + ticks - 1, fired::add);
+        assertEquals(List.of(), fired, "expired early, " + ticks + " ticks from " + startTick);
+        wheel.advanceTo(startTick + ticks, fired::add);
+        assertEquals(List.of("t"), fired, "not expired on time, " + ticks + " ticks from " + startTick);
+    }
+}